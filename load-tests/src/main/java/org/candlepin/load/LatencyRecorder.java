@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Thread-safe recorder of per-operation request latencies and failures. Every sample is retained
+ * so that exact percentiles can be computed once the test completes; at a few thousand requests
+ * per second this amounts to a few megabytes per minute of load.
+ */
+public class LatencyRecorder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<Operation, Samples> samples;
+
+    public LatencyRecorder() {
+        this.samples = new EnumMap<>(Operation.class);
+
+        for (Operation operation : Operation.values()) {
+            this.samples.put(operation, new Samples());
+        }
+    }
+
+    /**
+     * Records the outcome of a single request.
+     *
+     * @param operation
+     *  the operation performed
+     *
+     * @param nanos
+     *  the latency of the request, in nanoseconds
+     *
+     * @param success
+     *  whether or not the request completed successfully
+     */
+    public void record(Operation operation, long nanos, boolean success) {
+        this.samples.get(operation).add(nanos, success);
+    }
+
+    /**
+     * Computes the throughput and latency distribution of each operation which has recorded at
+     * least one request.
+     *
+     * @param elapsedNanos
+     *  the duration over which the requests were recorded, in nanoseconds
+     *
+     * @return
+     *  a list of statistics for each recorded operation
+     */
+    public List<OperationStats> snapshot(long elapsedNanos) {
+        List<OperationStats> output = new ArrayList<>();
+        double seconds = Math.max(elapsedNanos, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+
+        for (Map.Entry<Operation, Samples> entry : this.samples.entrySet()) {
+            Operation operation = entry.getKey();
+            Samples samples = entry.getValue();
+
+            long errors;
+            long[] latencies;
+
+            synchronized (samples) {
+                errors = samples.errors;
+                latencies = Arrays.copyOf(samples.latencies, samples.size);
+            }
+
+            if (latencies.length == 0) {
+                continue;
+            }
+
+            Arrays.sort(latencies);
+
+            output.add(new OperationStats(operation.key(), operation.endpoint(), latencies.length, errors,
+                latencies.length / seconds,
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 95),
+                percentile(latencies, 99), toMillis(latencies[latencies.length - 1])));
+        }
+
+        return output;
+    }
+
+    /**
+     * Fetches the nearest-rank percentile from a sorted array of latencies, in milliseconds.
+     */
+    private static double percentile(long[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return toMillis(sorted[Math.max(rank - 1, 0)]);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * The latency samples and error count of a single operation
+     */
+    private static class Samples {
+        private long[] latencies = new long[INITIAL_CAPACITY];
+        private int size;
+        private long errors;
+
+        public synchronized void add(long nanos, boolean success) {
+            if (this.size == this.latencies.length) {
+                this.latencies = Arrays.copyOf(this.latencies, this.size * 2);
+            }
+
+            this.latencies[this.size++] = nanos;
+
+            if (!success) {
+                ++this.errors;
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+import org.candlepin.dto.api.client.v1.AsyncJobStatusDTO;
+import org.candlepin.dto.api.client.v1.ConsumerDTO;
+import org.candlepin.dto.api.client.v1.OwnerDTO;
+import org.candlepin.dto.api.client.v1.PoolDTO;
+import org.candlepin.dto.api.client.v1.ProductDTO;
+import org.candlepin.resource.HostedTestApi;
+import org.candlepin.spec.bootstrap.client.ApiClient;
+import org.candlepin.spec.bootstrap.client.ApiClients;
+import org.candlepin.spec.bootstrap.data.builder.Consumers;
+import org.candlepin.spec.bootstrap.data.builder.Facts;
+import org.candlepin.spec.bootstrap.data.builder.Owners;
+import org.candlepin.spec.bootstrap.data.builder.Pools;
+import org.candlepin.spec.bootstrap.data.builder.ProductAttributes;
+import org.candlepin.spec.bootstrap.data.builder.Products;
+import org.candlepin.spec.bootstrap.data.builder.Subscriptions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+
+
+/**
+ * The data a load test runs against: a dedicated org with a set of subscriptions, and the
+ * consumers registered to it over the course of the test.
+ *
+ * In hosted mode, subscriptions are created through the hosted test adapters and pulled in with a
+ * pool refresh, as they would be from upstream. In standalone mode, products and pools are created
+ * directly in the org.
+ */
+public class LoadFixture {
+    private static final Logger log = LoggerFactory.getLogger(LoadFixture.class);
+
+    /** Large enough that binds over the course of a test never exhaust a pool */
+    private static final long POOL_QUANTITY = 1000000L;
+
+    /**
+     * A consumer registered during the load test, along with a client authenticated with its
+     * identity certificate.
+     *
+     * @param consumer
+     *  the registered consumer
+     *
+     * @param client
+     *  a client authenticating as the consumer
+     */
+    public record SimulatedConsumer(ConsumerDTO consumer, ApiClient client) {
+    }
+
+    private final ApiClient admin;
+    private final boolean hosted;
+    private final OwnerDTO owner;
+    private final List<ProductDTO> engProducts;
+    private final List<String> poolIds;
+    private final List<SimulatedConsumer> consumers;
+
+    private LoadFixture(ApiClient admin, boolean hosted, OwnerDTO owner, List<ProductDTO> engProducts,
+        List<String> poolIds) {
+
+        this.admin = admin;
+        this.hosted = hosted;
+        this.owner = owner;
+        this.engProducts = engProducts;
+        this.poolIds = poolIds;
+        this.consumers = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    /**
+     * Creates a new org with the configured number of subscriptions, and registers the configured
+     * number of consumers to it.
+     *
+     * @param admin
+     *  a client with admin privileges
+     *
+     * @param hosted
+     *  whether or not subscriptions should be created through the hosted test adapters
+     *
+     * @param config
+     *  the load test configuration
+     *
+     * @return
+     *  the newly created fixture
+     */
+    public static LoadFixture create(ApiClient admin, boolean hosted, LoadTestConfig config) {
+        OwnerDTO owner = admin.owners().createOwner(Owners.random());
+        log.info("Created load test org: {}", owner.getKey());
+
+        List<ProductDTO> engProducts = new ArrayList<>();
+        for (int i = 0; i < config.pools(); ++i) {
+            ProductDTO engProduct = Products.randomEng();
+            ProductDTO sku = Products.randomSKU()
+                .addAttributesItem(ProductAttributes.Sockets.withValue("2"))
+                .addAttributesItem(ProductAttributes.StackingId.withValue("stack-" + i))
+                .addAttributesItem(ProductAttributes.MultiEntitlement.withValue("yes"));
+
+            if (hosted) {
+                HostedTestApi upstream = admin.hosted();
+
+                engProduct = upstream.createProduct(engProduct);
+                sku = upstream.createProduct(sku.providedProducts(Set.of(engProduct)));
+
+                upstream.createSubscription(Subscriptions.random(owner, sku)
+                    .quantity(POOL_QUANTITY));
+            }
+            else {
+                engProduct = admin.ownerProducts().createProduct(owner.getKey(), engProduct);
+                sku = admin.ownerProducts().createProduct(owner.getKey(),
+                    sku.providedProducts(Set.of(engProduct)));
+
+                admin.owners().createPool(owner.getKey(), Pools.random(sku)
+                    .quantity(POOL_QUANTITY));
+            }
+
+            engProducts.add(engProduct);
+        }
+
+        if (hosted) {
+            AsyncJobStatusDTO job = admin.owners().refreshPools(owner.getKey(), false);
+            admin.jobs().waitForJob(job);
+        }
+
+        List<String> poolIds = admin.owners().listOwnerPools(owner.getKey()).stream()
+            .map(PoolDTO::getId)
+            .toList();
+        log.info("Created {} pools in org {}", poolIds.size(), owner.getKey());
+
+        LoadFixture fixture = new LoadFixture(admin, hosted, owner, engProducts, poolIds);
+
+        Random random = new Random();
+        for (int i = 0; i < config.consumers(); ++i) {
+            fixture.register(random);
+        }
+
+        log.info("Registered {} consumers in org {}", config.consumers(), owner.getKey());
+        return fixture;
+    }
+
+    /**
+     * Registers a new system consumer with a random subset of the fixture's engineering products
+     * installed, and tracks it for use by subsequent operations.
+     *
+     * @param random
+     *  the source of randomness to use for selecting installed products
+     *
+     * @return
+     *  the registered consumer
+     */
+    public SimulatedConsumer register(Random random) {
+        ConsumerDTO consumer = Consumers.random(this.owner)
+            .putFactsItem(Facts.CpuSockets.key(), String.valueOf(2 << random.nextInt(3)))
+            .putFactsItem(Facts.Arch.key(), "x86_64");
+
+        for (int i = 0; i < Math.min(3, this.engProducts.size()); ++i) {
+            ProductDTO product = this.engProducts.get(random.nextInt(this.engProducts.size()));
+            consumer.addInstalledProductsItem(Products.toInstalled(product));
+        }
+
+        consumer = this.admin.consumers().createConsumer(consumer);
+
+        SimulatedConsumer simulated = new SimulatedConsumer(consumer, ApiClients.ssl(consumer));
+        this.consumers.add(simulated);
+
+        return simulated;
+    }
+
+    /**
+     * Selects a random consumer from those registered so far.
+     *
+     * @param random
+     *  the source of randomness to use for selecting the consumer
+     *
+     * @throws IllegalStateException
+     *  if no consumers have been registered
+     *
+     * @return
+     *  a randomly selected registered consumer
+     */
+    public SimulatedConsumer randomConsumer(Random random) {
+        // Consumers are only ever appended, so the list cannot shrink below the size read here
+        int size = this.consumers.size();
+        if (size == 0) {
+            throw new IllegalStateException("No consumers have been registered in org: " +
+                this.owner.getKey());
+        }
+
+        return this.consumers.get(random.nextInt(size));
+    }
+
+    /**
+     * Selects a random pool from the fixture's org.
+     *
+     * @param random
+     *  the source of randomness to use for selecting the pool
+     *
+     * @throws IllegalStateException
+     *  if the fixture's org has no pools
+     *
+     * @return
+     *  the ID of a randomly selected pool
+     */
+    public String randomPoolId(Random random) {
+        if (this.poolIds.isEmpty()) {
+            throw new IllegalStateException("No pools are available in org: " + this.owner.getKey());
+        }
+
+        return this.poolIds.get(random.nextInt(this.poolIds.size()));
+    }
+
+    public ApiClient getAdminClient() {
+        return this.admin;
+    }
+
+    public boolean isHosted() {
+        return this.hosted;
+    }
+
+    public OwnerDTO getOwner() {
+        return this.owner;
+    }
+
+    /**
+     * Deletes the org created for this fixture, along with all of its consumers and pools.
+     */
+    public void cleanup() {
+        this.admin.owners().deleteOwner(this.owner.getKey(), true, true);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+import org.candlepin.spec.bootstrap.client.ApiClient;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+
+
+
+/**
+ * The results of a load test run.
+ *
+ * @param mode
+ *  the deployment mode of the Candlepin instance under test; either "hosted" or "standalone"
+ *
+ * @param threads
+ *  the number of concurrent workers which issued requests
+ *
+ * @param mix
+ *  the operation mix used for the run
+ *
+ * @param seconds
+ *  the measured duration of the run, in seconds
+ *
+ * @param operations
+ *  the statistics for each operation performed during the run
+ */
+public record LoadReport(String mode, int threads, String mix, double seconds,
+    List<OperationStats> operations) {
+
+    private static final String ROW_FORMAT = "%-12s %-46s %9s %7s %9s %9s %9s %9s %9s %9s%n";
+    private static final String STAT_FORMAT = "%-12s %-46s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n";
+
+    /**
+     * Prints this report as a table to the given stream.
+     *
+     * @param out
+     *  the stream to print to
+     */
+    public void print(PrintStream out) {
+        out.printf("Load test against %s Candlepin: %d threads for %.1fs, mix: %s%n%n", this.mode,
+            this.threads, this.seconds, this.mix);
+
+        out.printf(ROW_FORMAT, "operation", "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms",
+            "p95 ms", "p99 ms", "max ms");
+
+        for (OperationStats stats : this.operations) {
+            out.printf(STAT_FORMAT, stats.operation(), stats.endpoint(), stats.count(), stats.errors(),
+                stats.throughput(), stats.p50(), stats.p90(), stats.p95(), stats.p99(), stats.max());
+        }
+    }
+
+    /**
+     * Writes this report as JSON to the given file.
+     *
+     * @param file
+     *  the file to write to
+     *
+     * @throws IOException
+     *  if the report cannot be written to the file
+     */
+    public void write(Path file) throws IOException {
+        ApiClient.MAPPER.writerWithDefaultPrettyPrinter()
+            .writeValue(file.toFile(), this);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+import org.candlepin.dto.api.client.v1.ConsumerDTO;
+import org.candlepin.load.LoadFixture.SimulatedConsumer;
+import org.candlepin.spec.bootstrap.client.ApiClient;
+import org.candlepin.spec.bootstrap.data.builder.Facts;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Random;
+
+
+
+/**
+ * Performs individual load test operations against a fixture, in the same manner as the clients
+ * which drive them in production: subscription-manager for registration and binds, rhsmcertd for
+ * check-ins and certificate polling, virt-who for hypervisor reports, and an org admin for pool
+ * refreshes.
+ */
+public class LoadScenario {
+
+    private static final String REPORTER_ID = "candlepin-load-test";
+
+    private final LoadFixture fixture;
+    private final int hypervisors;
+    private final int guests;
+
+    /**
+     * Creates a new scenario operating on the given fixture.
+     *
+     * @param fixture
+     *  the fixture to operate on
+     *
+     * @param config
+     *  the load test configuration
+     */
+    public LoadScenario(LoadFixture fixture, LoadTestConfig config) {
+        this.fixture = fixture;
+        this.guests = config.guests();
+
+        // Reports are spread over a fixed set of hypervisors so that most reports update existing
+        // hypervisors rather than creating new ones, as with a stable virt-who deployment
+        this.hypervisors = Math.max(1, config.consumers() / 10);
+    }
+
+    /**
+     * Performs a single request for the given operation.
+     *
+     * @param operation
+     *  the operation to perform
+     *
+     * @param random
+     *  the source of randomness to use for selecting consumers, pools and hypervisors
+     */
+    public void perform(Operation operation, Random random) {
+        switch (operation) {
+            case REGISTER -> this.fixture.register(random);
+            case CHECKIN -> this.checkIn(random);
+            case CERT_POLL -> this.pollCertificates(random);
+            case HYPERVISOR_REPORT -> this.reportHypervisor(random);
+            case BIND -> this.bind(random);
+            case REFRESH -> this.refresh();
+            default -> throw new IllegalArgumentException("Unsupported operation: " + operation);
+        }
+    }
+
+    private void checkIn(Random random) {
+        SimulatedConsumer simulated = this.fixture.randomConsumer(random);
+        ConsumerDTO consumer = simulated.consumer();
+
+        simulated.client().consumers().updateConsumer(consumer.getUuid(),
+            new ConsumerDTO().facts(consumer.getFacts()));
+    }
+
+    private void pollCertificates(Random random) {
+        SimulatedConsumer simulated = this.fixture.randomConsumer(random);
+
+        simulated.client().consumers().getEntitlementCertificateSerials(simulated.consumer().getUuid());
+    }
+
+    private void reportHypervisor(Random random) {
+        String ownerKey = this.fixture.getOwner().getKey();
+        int hypervisor = random.nextInt(this.hypervisors);
+
+        ObjectNode report = ApiClient.MAPPER.createObjectNode();
+        ObjectNode host = report.putArray("hypervisors").addObject();
+        host.put("name", "load-host-" + hypervisor);
+        host.putObject("hypervisorId")
+            .put("hypervisorId", ownerKey + "-hypervisor-" + hypervisor);
+        host.putObject("facts")
+            .put(Facts.CpuSockets.key(), "4");
+
+        ArrayNode guestIds = host.putArray("guestIds");
+        for (int i = 0; i < this.guests; ++i) {
+            guestIds.addObject()
+                .put("guestId", ownerKey + "-guest-" + hypervisor + "-" + i);
+        }
+
+        this.fixture.getAdminClient().hypervisors()
+            .hypervisorUpdateAsync(ownerKey, true, REPORTER_ID, report.toString());
+    }
+
+    private void bind(Random random) {
+        SimulatedConsumer simulated = this.fixture.randomConsumer(random);
+
+        simulated.client().consumers()
+            .bindPool(simulated.consumer().getUuid(), this.fixture.randomPoolId(random), 1);
+    }
+
+    private void refresh() {
+        this.fixture.getAdminClient().owners()
+            .refreshPools(this.fixture.getOwner().getKey(), false);
+    }
+}
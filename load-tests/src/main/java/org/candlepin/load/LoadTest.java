@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+import org.candlepin.spec.bootstrap.assertions.CandlepinMode;
+import org.candlepin.spec.bootstrap.client.ApiClients;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Entry point for generating load against a running Candlepin instance.
+ *
+ * The load test creates a dedicated org, registers an initial set of consumers to it, and then
+ * issues a weighted mix of client operations from a number of concurrent workers for a fixed
+ * duration. Once complete, the throughput and latency percentiles of each operation are printed,
+ * and optionally written to a JSON report for comparison across runs.
+ */
+public class LoadTest {
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private final LoadTestConfig config;
+    private final LatencyRecorder recorder;
+
+    public LoadTest(LoadTestConfig config) {
+        this.config = config;
+        this.recorder = new LatencyRecorder();
+    }
+
+    /**
+     * Generates load against the given fixture for the configured duration.
+     *
+     * @param fixture
+     *  the fixture to generate load against
+     *
+     * @throws InterruptedException
+     *  if interrupted while waiting for the workers to finish
+     *
+     * @return
+     *  a report of the throughput and latencies observed during the run
+     */
+    public LoadReport run(LoadFixture fixture) throws InterruptedException {
+        LoadScenario scenario = new LoadScenario(fixture, this.config);
+        ExecutorService executor = Executors.newFixedThreadPool(this.config.threads());
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(this.config.duration());
+
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < this.config.threads(); ++i) {
+                workers.add(executor.submit(() -> this.work(scenario, deadline)));
+            }
+
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                }
+                catch (ExecutionException e) {
+                    log.error("Load test worker failed", e.getCause());
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        return new LoadReport(fixture.isHosted() ? "hosted" : "standalone", this.config.threads(),
+            this.config.mix().toString(), elapsed / (double) TimeUnit.SECONDS.toNanos(1),
+            this.recorder.snapshot(elapsed));
+    }
+
+    private void work(LoadScenario scenario, long deadline) {
+        Random random = ThreadLocalRandom.current();
+
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            Operation operation = this.config.mix().next(random);
+            boolean success = false;
+
+            long start = System.nanoTime();
+            try {
+                scenario.perform(operation, random);
+                success = true;
+            }
+            catch (RuntimeException e) {
+                log.debug("Load test operation failed: {}", operation.key(), e);
+            }
+            finally {
+                this.recorder.record(operation, System.nanoTime() - start, success);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.from(System.getProperties());
+
+        boolean hosted = CandlepinMode.isHosted();
+        if (hosted && !CandlepinMode.hasTestExtension("hostedtest")) {
+            throw new IllegalStateException(
+                "Load testing a hosted Candlepin requires the hostedtest extension to provide upstream data");
+        }
+
+        if (!hosted && config.mix().contains(Operation.REFRESH)) {
+            log.warn("Pool refreshes are not supported in standalone mode; removing them from the mix");
+            config = config.withMix(config.mix().without(Operation.REFRESH));
+        }
+
+        LoadFixture fixture = LoadFixture.create(ApiClients.admin(), hosted, config);
+
+        try {
+            log.info("Generating load for {} seconds with {} threads", config.duration(), config.threads());
+            LoadReport report = new LoadTest(config).run(fixture);
+
+            report.print(System.out);
+
+            if (config.report() != null) {
+                report.write(config.report());
+                log.info("Wrote load test report to {}", config.report());
+            }
+        }
+        finally {
+            fixture.cleanup();
+        }
+    }
+}
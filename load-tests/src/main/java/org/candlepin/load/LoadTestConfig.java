@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+import java.nio.file.Path;
+import java.util.Properties;
+
+
+
+/**
+ * The configuration of a load test run. Candlepin connection details are read by the spec test
+ * client from the usual "spec.test.client" properties; the load profile itself is read from
+ * "load" properties.
+ *
+ * @param duration
+ *  the number of seconds to generate load for
+ *
+ * @param threads
+ *  the number of concurrent workers issuing requests
+ *
+ * @param consumers
+ *  the number of consumers to register before the load test begins
+ *
+ * @param pools
+ *  the number of subscriptions/pools available to consumers in the test org
+ *
+ * @param guests
+ *  the number of guests to report per hypervisor
+ *
+ * @param mix
+ *  the weighted mix of operations to perform
+ *
+ * @param report
+ *  the file to which a JSON report should be written, or null to only print the report
+ */
+public record LoadTestConfig(int duration, int threads, int consumers, int pools, int guests,
+    OperationMix mix, Path report) {
+
+    public static final String DURATION = "load.duration";
+    public static final String THREADS = "load.threads";
+    public static final String CONSUMERS = "load.consumers";
+    public static final String POOLS = "load.pools";
+    public static final String GUESTS = "load.guests";
+    public static final String MIX = "load.mix";
+    public static final String REPORT = "load.report";
+
+    /** A mix approximating a fleet of registered systems, dominated by rhsmcertd polling */
+    public static final String DEFAULT_MIX =
+        "register:5,checkin:30,cert_poll:40,hypervisor:5,bind:15,refresh:5";
+
+    /**
+     * Validates the configuration. Every count must be positive, as the load test selects
+     * consumers and pools at random from those it creates.
+     *
+     * @throws IllegalArgumentException
+     *  if any of the counts are less than one, or the mix is null
+     */
+    public LoadTestConfig {
+        requirePositive(DURATION, duration);
+        requirePositive(THREADS, threads);
+        requirePositive(CONSUMERS, consumers);
+        requirePositive(POOLS, pools);
+        requirePositive(GUESTS, guests);
+
+        if (mix == null) {
+            throw new IllegalArgumentException("mix is null");
+        }
+    }
+
+    private static void requirePositive(String key, int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(key + " must be a positive integer: " + value);
+        }
+    }
+
+    /**
+     * Builds a load test configuration from the given properties, falling back to defaults for any
+     * properties which are not set.
+     *
+     * @param properties
+     *  the properties from which to read the configuration
+     *
+     * @throws IllegalArgumentException
+     *  if any of the properties are set to an invalid value
+     *
+     * @return
+     *  a new load test configuration
+     */
+    public static LoadTestConfig from(Properties properties) {
+        String report = properties.getProperty(REPORT);
+
+        return new LoadTestConfig(
+            readPositiveInt(properties, DURATION, 60),
+            readPositiveInt(properties, THREADS, 10),
+            readPositiveInt(properties, CONSUMERS, 50),
+            readPositiveInt(properties, POOLS, 10),
+            readPositiveInt(properties, GUESTS, 10),
+            OperationMix.parse(properties.getProperty(MIX, DEFAULT_MIX)),
+            report != null && !report.isBlank() ? Path.of(report) : null);
+    }
+
+    private static int readPositiveInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed < 1) {
+                throw new IllegalArgumentException(key + " must be a positive integer: " + value);
+            }
+
+            return parsed;
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be a positive integer: " + value, e);
+        }
+    }
+
+    /**
+     * Creates a copy of this configuration using the given operation mix.
+     *
+     * @param mix
+     *  the operation mix to use
+     *
+     * @return
+     *  a new load test configuration with the given operation mix
+     */
+    public LoadTestConfig withMix(OperationMix mix) {
+        return new LoadTestConfig(this.duration, this.threads, this.consumers, this.pools, this.guests,
+            mix, this.report);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+/**
+ * The client operations which may be included in a load test mix, along with the endpoint each
+ * operation exercises.
+ */
+public enum Operation {
+    REGISTER("register", "POST /consumers"),
+    CHECKIN("checkin", "PUT /consumers/{uuid}"),
+    CERT_POLL("cert_poll", "GET /consumers/{uuid}/certificates/serials"),
+    HYPERVISOR_REPORT("hypervisor", "POST /hypervisors/{owner}"),
+    BIND("bind", "POST /consumers/{uuid}/entitlements"),
+    REFRESH("refresh", "PUT /owners/{owner}/subscriptions");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Fetches the key used to reference this operation in the load test configuration.
+     *
+     * @return
+     *  the configuration key for this operation
+     */
+    public String key() {
+        return this.key;
+    }
+
+    /**
+     * Fetches a description of the endpoint exercised by this operation.
+     *
+     * @return
+     *  the method and path of the endpoint exercised by this operation
+     */
+    public String endpoint() {
+        return this.endpoint;
+    }
+
+    /**
+     * Fetches the operation with the given configuration key.
+     *
+     * @param key
+     *  the configuration key of the operation to fetch
+     *
+     * @throws IllegalArgumentException
+     *  if no operation has the given key
+     *
+     * @return
+     *  the operation with the given key
+     */
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown load test operation: " + key);
+    }
+}
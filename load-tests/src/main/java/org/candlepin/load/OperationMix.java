@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+
+
+/**
+ * A weighted mix of operations from which a load test worker selects the next operation to
+ * perform.
+ */
+public class OperationMix {
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] thresholds;
+    private final int total;
+
+    /**
+     * Creates a new mix from the given operation weights. Operations with a weight of zero are
+     * never selected.
+     *
+     * @param weights
+     *  a mapping of operations to their relative weights
+     *
+     * @throws IllegalArgumentException
+     *  if weights is null, contains a negative weight, or does not contain any positive weights
+     */
+    public OperationMix(Map<Operation, Integer> weights) {
+        if (weights == null) {
+            throw new IllegalArgumentException("weights is null");
+        }
+
+        this.weights = new EnumMap<>(Operation.class);
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            int weight = entry.getValue() != null ? entry.getValue() : 0;
+            if (weight < 0) {
+                throw new IllegalArgumentException("negative weight for operation: " + entry.getKey());
+            }
+
+            if (weight > 0) {
+                this.weights.put(entry.getKey(), weight);
+            }
+        }
+
+        if (this.weights.isEmpty()) {
+            throw new IllegalArgumentException("operation mix does not contain any weighted operations");
+        }
+
+        this.operations = new Operation[this.weights.size()];
+        this.thresholds = new int[this.weights.size()];
+
+        int index = 0;
+        int sum = 0;
+        for (Map.Entry<Operation, Integer> entry : this.weights.entrySet()) {
+            sum += entry.getValue();
+
+            this.operations[index] = entry.getKey();
+            this.thresholds[index] = sum;
+            ++index;
+        }
+
+        this.total = sum;
+    }
+
+    /**
+     * Parses an operation mix from a comma-separated list of operation keys and weights, such as
+     * "checkin:40,cert_poll:40,register:20".
+     *
+     * @param mix
+     *  the operation mix string to parse
+     *
+     * @throws IllegalArgumentException
+     *  if the mix string is null, empty or malformed, or references an unknown operation
+     *
+     * @return
+     *  the parsed operation mix
+     */
+    public static OperationMix parse(String mix) {
+        if (mix == null || mix.isBlank()) {
+            throw new IllegalArgumentException("mix is null or empty");
+        }
+
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String chunk : mix.split(",")) {
+            String[] pair = chunk.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Malformed operation weight: " + chunk);
+            }
+
+            try {
+                weights.merge(Operation.fromKey(pair[0].trim()), Integer.parseInt(pair[1].trim()),
+                    Integer::sum);
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed operation weight: " + chunk, e);
+            }
+        }
+
+        return new OperationMix(weights);
+    }
+
+    /**
+     * Creates a copy of this mix without the given operation.
+     *
+     * @param operation
+     *  the operation to remove from the mix
+     *
+     * @throws IllegalArgumentException
+     *  if the given operation is the only weighted operation in this mix
+     *
+     * @return
+     *  a new operation mix without the given operation
+     */
+    public OperationMix without(Operation operation) {
+        Map<Operation, Integer> copy = new EnumMap<>(this.weights);
+        copy.remove(operation);
+
+        return new OperationMix(copy);
+    }
+
+    /**
+     * Checks if the given operation may be selected from this mix.
+     *
+     * @param operation
+     *  the operation to check
+     *
+     * @return
+     *  true if the operation has a positive weight in this mix; false otherwise
+     */
+    public boolean contains(Operation operation) {
+        return this.weights.containsKey(operation);
+    }
+
+    /**
+     * Fetches the weights of the operations in this mix.
+     *
+     * @return
+     *  an unmodifiable mapping of operations to their weights
+     */
+    public Map<Operation, Integer> getWeights() {
+        return Collections.unmodifiableMap(this.weights);
+    }
+
+    /**
+     * Selects the next operation to perform using the given source of randomness.
+     *
+     * @param random
+     *  the random number generator to use for selecting the operation
+     *
+     * @return
+     *  the selected operation
+     */
+    public Operation next(Random random) {
+        int roll = random.nextInt(this.total);
+
+        for (int i = 0; i < this.thresholds.length; ++i) {
+            if (roll < this.thresholds[i]) {
+                return this.operations[i];
+            }
+        }
+
+        // Unreachable, as the final threshold is always equal to the total weight
+        return this.operations[this.operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (Map.Entry<Operation, Integer> entry : this.weights.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+
+            builder.append(entry.getKey().key())
+                .append(':')
+                .append(entry.getValue());
+        }
+
+        return builder.toString();
+    }
+}
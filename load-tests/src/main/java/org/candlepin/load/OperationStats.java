@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+/**
+ * The throughput and latency distribution observed for a single operation over the course of a
+ * load test. Latencies are reported in milliseconds.
+ *
+ * @param operation
+ *  the operation key
+ *
+ * @param endpoint
+ *  the endpoint exercised by the operation
+ *
+ * @param count
+ *  the number of completed requests, including failed requests
+ *
+ * @param errors
+ *  the number of failed requests
+ *
+ * @param throughput
+ *  the number of completed requests per second
+ *
+ * @param p50
+ *  the median latency
+ *
+ * @param p90
+ *  the 90th percentile latency
+ *
+ * @param p95
+ *  the 95th percentile latency
+ *
+ * @param p99
+ *  the 99th percentile latency
+ *
+ * @param max
+ *  the maximum latency
+ */
+public record OperationStats(String operation, String endpoint, long count, long errors, double throughput,
+    double p50, double p90, double p95, double p99, double max) {
+}
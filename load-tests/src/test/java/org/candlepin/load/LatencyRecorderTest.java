@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+class LatencyRecorderTest {
+
+    @Test
+    void shouldOnlyReportRecordedOperations() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(Operation.CHECKIN, TimeUnit.MILLISECONDS.toNanos(5), true);
+
+        assertThat(recorder.snapshot(TimeUnit.SECONDS.toNanos(1)))
+            .singleElement()
+            .returns("checkin", OperationStats::operation)
+            .returns(1L, OperationStats::count);
+    }
+
+    @Test
+    void shouldComputeThroughputAndPercentiles() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        // Record latencies of 1ms through 2000ms, more than the initial sample capacity
+        for (int i = 2000; i > 0; --i) {
+            recorder.record(Operation.CERT_POLL, TimeUnit.MILLISECONDS.toNanos(i), i % 100 != 0);
+        }
+
+        List<OperationStats> stats = recorder.snapshot(TimeUnit.SECONDS.toNanos(10));
+
+        assertThat(stats).singleElement()
+            .returns(2000L, OperationStats::count)
+            .returns(20L, OperationStats::errors)
+            .returns(200.0, OperationStats::throughput)
+            .returns(1000.0, OperationStats::p50)
+            .returns(1800.0, OperationStats::p90)
+            .returns(1900.0, OperationStats::p95)
+            .returns(1980.0, OperationStats::p99)
+            .returns(2000.0, OperationStats::max);
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Properties;
+
+
+class LoadTestConfigTest {
+
+    @Test
+    void shouldUseDefaults() {
+        LoadTestConfig config = LoadTestConfig.from(new Properties());
+
+        assertThat(config.consumers()).isEqualTo(50);
+        assertThat(config.pools()).isEqualTo(10);
+        assertThat(config.report()).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "0", "-1", "many" })
+    void shouldRejectInvalidConsumerCounts(String consumers) {
+        Properties properties = new Properties();
+        properties.setProperty(LoadTestConfig.CONSUMERS, consumers);
+
+        assertThatThrownBy(() -> LoadTestConfig.from(properties))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining(LoadTestConfig.CONSUMERS);
+    }
+
+    @Test
+    void shouldRejectConfigWithoutConsumers() {
+        OperationMix mix = OperationMix.parse(LoadTestConfig.DEFAULT_MIX);
+
+        assertThatThrownBy(() -> new LoadTestConfig(60, 10, 0, 10, 10, mix, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining(LoadTestConfig.CONSUMERS);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+
+class OperationMixTest {
+
+    @Test
+    void shouldParseMix() {
+        OperationMix mix = OperationMix.parse("checkin:40, cert_poll:50,register:10,bind:0");
+
+        assertThat(mix.getWeights())
+            .containsOnly(
+                Map.entry(Operation.CHECKIN, 40),
+                Map.entry(Operation.CERT_POLL, 50),
+                Map.entry(Operation.REGISTER, 10));
+        assertThat(mix.contains(Operation.BIND)).isFalse();
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = { "checkin", "checkin:abc", "unknown:10", "checkin:-1", "checkin:0" })
+    void shouldRejectInvalidMix(String mix) {
+        assertThatThrownBy(() -> OperationMix.parse(mix))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldSelectOperationsByWeight() {
+        OperationMix mix = OperationMix.parse("checkin:75,cert_poll:25");
+        Random random = new Random(1234);
+
+        Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+        for (int i = 0; i < 10000; ++i) {
+            counts.merge(mix.next(random), 1, Integer::sum);
+        }
+
+        assertThat(counts).containsOnlyKeys(Operation.CHECKIN, Operation.CERT_POLL);
+        assertThat(counts.get(Operation.CHECKIN)).isBetween(7000, 8000);
+        assertThat(counts.get(Operation.CERT_POLL)).isBetween(2000, 3000);
+    }
+
+    @Test
+    void shouldRemoveOperation() {
+        OperationMix mix = OperationMix.parse("checkin:40,refresh:10")
+            .without(Operation.REFRESH);
+
+        assertThat(mix.contains(Operation.REFRESH)).isFalse();
+        assertThat(mix.toString()).isEqualTo("checkin:40");
+    }
+
+    @Test
+    void shouldNotRemoveLastOperation() {
+        OperationMix mix = OperationMix.parse("refresh:10");
+
+        assertThatThrownBy(() -> mix.without(Operation.REFRESH))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
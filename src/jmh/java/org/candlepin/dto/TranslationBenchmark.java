@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.dto;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.candlepin.dto.api.server.v1.ConsumerDTO;
+import org.candlepin.dto.api.server.v1.PoolDTO;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerInstalledProduct;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.EnvironmentCurator;
+import org.candlepin.model.GuestId;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.resteasy.JsonProvider;
+import org.candlepin.test.TestUtil;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MediaType;
+
+
+
+/**
+ * Benchmarks the translation of consumers and pools to their API DTOs, and the serialization of
+ * those DTOs with the object mapper used for API responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TranslationBenchmark {
+
+    private static final int FACT_COUNT = 250;
+    private static final int INSTALLED_PRODUCT_COUNT = 10;
+    private static final int GUEST_COUNT = 20;
+    private static final int PROVIDED_PRODUCT_COUNT = 25;
+
+    private ModelTranslator translator;
+    private ObjectMapper mapper;
+
+    private Consumer consumer;
+    private Pool pool;
+    private ConsumerDTO consumerDTO;
+    private PoolDTO poolDTO;
+
+    @Setup
+    public void setup() {
+        Owner owner = TestUtil.createOwner();
+        owner.setId(TestUtil.randomString());
+
+        OwnerCurator ownerCurator = mock(OwnerCurator.class);
+        doReturn(owner).when(ownerCurator).findOwnerById(owner.getId());
+
+        ConsumerType ctype = TestUtil.createConsumerType();
+        ctype.setId("test-ctype");
+
+        ConsumerTypeCurator consumerTypeCurator = mock(ConsumerTypeCurator.class);
+        doReturn(ctype).when(consumerTypeCurator).getConsumerType(any(Consumer.class));
+        doReturn(ctype).when(consumerTypeCurator).get(ctype.getId());
+
+        this.translator = new StandardTranslator(consumerTypeCurator, mock(EnvironmentCurator.class),
+            ownerCurator);
+        this.mapper = new JsonProvider(false)
+            .locateMapper(ConsumerDTO.class, MediaType.APPLICATION_JSON_TYPE);
+
+        this.consumer = TestUtil.createConsumer(ctype, owner);
+        this.consumer.setId(TestUtil.randomString());
+
+        for (int i = 0; i < FACT_COUNT; ++i) {
+            this.consumer.setFact("benchmark.fact_" + i, "value " + i);
+        }
+
+        for (int i = 0; i < INSTALLED_PRODUCT_COUNT; ++i) {
+            this.consumer.addInstalledProduct(new ConsumerInstalledProduct()
+                .setProductId(String.valueOf(1000 + i))
+                .setProductName("Installed Product " + i));
+        }
+
+        for (int i = 0; i < GUEST_COUNT; ++i) {
+            this.consumer.addGuestId(new GuestId("guest-" + i));
+        }
+
+        Product sku = TestUtil.createProduct("SKU-1", "Benchmark SKU");
+        sku.setAttribute(Product.Attributes.SOCKETS, "2");
+        sku.setAttribute(Product.Attributes.SUPPORT_LEVEL, "Premium");
+
+        for (int i = 0; i < PROVIDED_PRODUCT_COUNT; ++i) {
+            sku.addProvidedProduct(TestUtil.createProduct(String.valueOf(1000 + i), "Eng Product " + i));
+        }
+
+        this.pool = TestUtil.createPool(owner, sku, 100)
+            .setId(TestUtil.randomString());
+
+        this.consumerDTO = this.translator.translate(this.consumer, ConsumerDTO.class);
+        this.poolDTO = this.translator.translate(this.pool, PoolDTO.class);
+    }
+
+    @Benchmark
+    public ConsumerDTO translateConsumer() {
+        return this.translator.translate(this.consumer, ConsumerDTO.class);
+    }
+
+    @Benchmark
+    public PoolDTO translatePool() {
+        return this.translator.translate(this.pool, PoolDTO.class);
+    }
+
+    @Benchmark
+    public byte[] serializeConsumer() throws JsonProcessingException {
+        return this.mapper.writeValueAsBytes(this.consumerDTO);
+    }
+
+    @Benchmark
+    public byte[] serializePool() throws JsonProcessingException {
+        return this.mapper.writeValueAsBytes(this.poolDTO);
+    }
+}
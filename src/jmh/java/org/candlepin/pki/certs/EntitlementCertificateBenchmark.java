@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.certs;
+
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.model.dto.Content;
+import org.candlepin.pki.DistinguishedName;
+import org.candlepin.pki.OID;
+import org.candlepin.pki.X509Extension;
+import org.candlepin.pki.huffman.Huffman;
+import org.candlepin.pki.huffman.HuffmanBenchmark;
+import org.candlepin.pki.impl.BouncyCastleSecurityProvider;
+import org.candlepin.pki.impl.BouncyCastleSubjectKeyIdentifierWriter;
+import org.candlepin.test.CertificateReaderForTesting;
+import org.candlepin.test.TestUtil;
+import org.candlepin.util.ObjectMapperFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Benchmarks the building and signing of entitlement certificates, and the generation of the v3
+ * entitlement payload, for an entitlement providing a configurable number of products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntitlementCertificateBenchmark {
+
+    private static final int CONTENT_PER_PRODUCT = 20;
+
+    @Param({ "1", "10", "50" })
+    public int productCount;
+
+    private CertificateReaderForTesting certificateReader;
+    private BouncyCastleSecurityProvider securityProvider;
+    private BouncyCastleSubjectKeyIdentifierWriter subjectKeyIdentifierWriter;
+    private EntitlementPayloadGenerator payloadGenerator;
+
+    private KeyPair keyPair;
+    private DistinguishedName dn;
+    private Set<X509Extension> extensions;
+    private List<org.candlepin.model.dto.Product> productModels;
+    private Pool pool;
+
+    @Setup
+    public void setup() throws Exception {
+        this.certificateReader = new CertificateReaderForTesting();
+        this.securityProvider = new BouncyCastleSecurityProvider();
+        this.subjectKeyIdentifierWriter = new BouncyCastleSubjectKeyIdentifierWriter();
+        this.payloadGenerator = new EntitlementPayloadGenerator(
+            ObjectMapperFactory.getX509V3ExtensionUtilObjectMapper());
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(4096);
+        this.keyPair = generator.generateKeyPair();
+
+        Owner owner = TestUtil.createOwner();
+        Product product = TestUtil.createProduct();
+        product.setAttribute(Product.Attributes.SOCKETS, "2");
+        product.setAttribute(Product.Attributes.SUPPORT_LEVEL, "Premium");
+        product.setAttribute(Product.Attributes.SUPPORT_TYPE, "L1-L3");
+
+        this.pool = TestUtil.createPool(owner, product);
+        this.dn = new DistinguishedName(TestUtil.randomString(), owner);
+
+        List<Content> content = HuffmanBenchmark.buildContent(this.productCount * CONTENT_PER_PRODUCT);
+        this.productModels = new ArrayList<>();
+
+        for (int i = 0; i < this.productCount; ++i) {
+            org.candlepin.model.dto.Product model = new org.candlepin.model.dto.Product();
+            model.setId(String.valueOf(100 + i));
+            model.setName("Engineering Product " + i);
+            model.setVersion("9.4");
+            model.setArchitectures(List.of("x86_64", "aarch64"));
+            model.setContent(content.subList(i * CONTENT_PER_PRODUCT, (i + 1) * CONTENT_PER_PRODUCT));
+
+            this.productModels.add(model);
+        }
+
+        byte[] contentValue = new Huffman().retrieveContentValue(content);
+        this.extensions = Set.of(
+            new X509StringExtension(OID.EntitlementVersion.namespace(), "3.4"),
+            new X509ByteExtension(OID.EntitlementData.namespace(), contentValue));
+    }
+
+    @Benchmark
+    public X509Certificate buildCertificate() {
+        Instant now = Instant.now();
+
+        // Builders accumulate extensions, so, as with the generators, a new one is used per cert
+        return new X509CertificateBuilder(this.certificateReader, this.securityProvider,
+            this.subjectKeyIdentifierWriter)
+            .withDN(this.dn)
+            .withValidity(now, now.plus(365, ChronoUnit.DAYS))
+            .withRandomSerial()
+            .withKeyPair(this.keyPair)
+            .withExtensions(this.extensions)
+            .build();
+    }
+
+    @Benchmark
+    public byte[] generatePayload() {
+        return this.payloadGenerator.generate(this.productModels, "consumer-uuid", this.pool, 1);
+    }
+}
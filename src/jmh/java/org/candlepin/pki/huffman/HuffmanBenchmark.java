@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki.huffman;
+
+import org.candlepin.model.dto.Content;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Benchmarks the Huffman encoding of content paths into the v3 entitlement certificate content
+ * extension.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HuffmanBenchmark {
+
+    private static final String[] VARIANTS = { "server", "workstation", "client", "computenode" };
+    private static final String[] REPOS = { "os", "optional", "supplementary", "extras", "debug" };
+
+    @Param({ "10", "100", "1000" })
+    public int contentCount;
+
+    private Huffman huffman;
+    private List<Content> content;
+
+    @Setup
+    public void setup() {
+        this.huffman = new Huffman();
+        this.content = buildContent(this.contentCount);
+    }
+
+    /**
+     * Builds a list of content with paths resembling those of a large RHEL SKU, which share long
+     * common prefixes and segments.
+     *
+     * @param count
+     *  the number of content to build
+     *
+     * @return
+     *  a list of content with distinct paths
+     */
+    public static List<Content> buildContent(int count) {
+        List<Content> output = new ArrayList<>(count);
+
+        for (int i = 0; i < count; ++i) {
+            String path = String.format("/content/dist/rhel%d/%s/$releasever/$basearch/%s/%d",
+                7 + (i % 3), VARIANTS[i % VARIANTS.length], REPOS[i % REPOS.length], i);
+
+            output.add(new Content()
+                .setId(String.valueOf(1000 + i))
+                .setPath(path));
+        }
+
+        return output;
+    }
+
+    @Benchmark
+    public byte[] retrieveContentValue() throws IOException {
+        return this.huffman.retrieveContentValue(this.content);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.autobind;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.candlepin.dto.StandardTranslator;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerInstalledProduct;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.EnvironmentCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.Pool;
+import org.candlepin.model.PoolQuantity;
+import org.candlepin.model.Product;
+import org.candlepin.model.Rules;
+import org.candlepin.model.RulesCurator;
+import org.candlepin.pki.certs.V3CapabilityCheck;
+import org.candlepin.policy.js.JsRunner;
+import org.candlepin.policy.js.JsRunnerProvider;
+import org.candlepin.policy.js.JsRunnerRequestCache;
+import org.candlepin.policy.js.compliance.ComplianceStatus;
+import org.candlepin.test.TestUtil;
+import org.candlepin.util.ObjectMapperFactory;
+import org.candlepin.util.Util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Benchmarks the invocation of the autobind rules through the JS runner, including the
+ * translation of the consumer and pools to their rules DTOs, for a consumer with several installed
+ * products and a configurable number of candidate pools.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AutobindRulesBenchmark {
+
+    private static final int INSTALLED_PRODUCT_COUNT = 5;
+
+    @Param({ "10", "100", "500" })
+    public int poolCount;
+
+    private AutobindRules autobindRules;
+    private Consumer consumer;
+    private Set<String> productIds;
+    private List<Pool> pools;
+
+    @Setup
+    public void setup() {
+        RulesCurator rulesCurator = mock(RulesCurator.class);
+        InputStream is = this.getClass().getResourceAsStream(RulesCurator.DEFAULT_RULES_FILE);
+        doReturn(new Rules(Util.readFile(is))).when(rulesCurator).getRules();
+        doReturn(TestUtil.createDate(2010, 1, 1)).when(rulesCurator).getUpdated();
+
+        JsRunnerRequestCache cache = mock(JsRunnerRequestCache.class);
+        JsRunner jsRules = new JsRunnerProvider(rulesCurator, () -> cache).get();
+
+        Owner owner = TestUtil.createOwner();
+        owner.setId(TestUtil.randomString());
+
+        OwnerCurator ownerCurator = mock(OwnerCurator.class);
+        doReturn(owner).when(ownerCurator).findOwnerById(owner.getId());
+
+        ConsumerType ctype = new ConsumerType(ConsumerTypeEnum.SYSTEM);
+        ctype.setId("test-ctype");
+
+        ConsumerTypeCurator consumerTypeCurator = mock(ConsumerTypeCurator.class);
+        doReturn(ctype).when(consumerTypeCurator).get(ctype.getId());
+        doReturn(ctype).when(consumerTypeCurator).getByLabel(ctype.getLabel());
+        doReturn(ctype).when(consumerTypeCurator).getConsumerType(any(Consumer.class));
+
+        V3CapabilityCheck v3CapabilityCheck = mock(V3CapabilityCheck.class);
+        doReturn(true).when(v3CapabilityCheck).isCertV3Capable(any(Consumer.class));
+
+        StandardTranslator translator = new StandardTranslator(consumerTypeCurator,
+            mock(EnvironmentCurator.class), ownerCurator);
+
+        this.autobindRules = new AutobindRules(jsRules, ownerCurator,
+            ObjectMapperFactory.getRulesObjectMapper(), translator, v3CapabilityCheck);
+
+        this.consumer = new Consumer()
+            .setName("benchmark consumer")
+            .setUsername("benchmark user")
+            .setOwner(owner)
+            .setType(ctype)
+            .setFact("cpu.cpu_socket(s)", "4")
+            .setFact("system.certificate_version", "3.4");
+
+        List<Product> engProducts = new ArrayList<>();
+        this.productIds = new HashSet<>();
+
+        for (int i = 0; i < INSTALLED_PRODUCT_COUNT; ++i) {
+            Product engProduct = TestUtil.createProduct(String.valueOf(1000 + i), "Eng Product " + i);
+            engProducts.add(engProduct);
+            this.productIds.add(engProduct.getId());
+
+            this.consumer.addInstalledProduct(new ConsumerInstalledProduct()
+                .setProductId(engProduct.getId())
+                .setProductName(engProduct.getName()));
+        }
+
+        this.pools = new ArrayList<>();
+        for (int i = 0; i < this.poolCount; ++i) {
+            Product sku = TestUtil.createProduct("SKU-" + i, "SKU " + i);
+            sku.setAttribute(Product.Attributes.SOCKETS, String.valueOf(2 << (i % 3)));
+            sku.setAttribute(Product.Attributes.STACKING_ID, "stack-" + (i % 10));
+            sku.setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, "yes");
+
+            // Each SKU provides an overlapping subset of the installed products
+            sku.addProvidedProduct(engProducts.get(i % INSTALLED_PRODUCT_COUNT));
+            sku.addProvidedProduct(engProducts.get((i + 1) % INSTALLED_PRODUCT_COUNT));
+
+            Pool pool = TestUtil.createPool(owner, sku, 100)
+                .setId("pool-" + i);
+
+            this.pools.add(pool);
+        }
+    }
+
+    @Benchmark
+    public List<PoolQuantity> selectBestPools() {
+        return this.autobindRules.selectBestPools(this.consumer, this.productIds, this.pools,
+            new ComplianceStatus(), null, new HashSet<>(), false);
+    }
+}
@@ -42,6 +42,16 @@ public class JobExecutionContext {
         this.job = job;
     }
 
+    /**
+     * Fetches the ID of the executing job
+     *
+     * @return
+     *  the ID of the executing job
+     */
+    public String getJobId() {
+        return this.job.getId();
+    }
+
     /**
      * Fetches the arguments for this execution of the job
      *
@@ -26,6 +26,8 @@ import org.candlepin.controller.mode.ModeChangeListener;
 import org.candlepin.guice.CandlepinRequestScope;
 import org.candlepin.guice.PrincipalProvider;
 import org.candlepin.logging.LoggingUtil;
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
 import org.candlepin.model.AsyncJobStatus;
 import org.candlepin.model.AsyncJobStatus.JobState;
 import org.candlepin.model.AsyncJobStatusCurator;
@@ -107,6 +109,9 @@ public class JobManager implements ModeChangeListener {
     private static final Object SUSPEND_KEY_DEFAULT = "default_suspend_key";
     private static final Object SUSPEND_KEY_TRIGGERED = "triggered_suspend_key";
 
+    /** Prefix applied to the names of the metrics recorded for each job key */
+    public static final String METRIC_PREFIX = "jobs.";
+
     /** Stores our mapping of job keys to job classes */
     private static final Map<String, Class<? extends AsyncJob>> JOB_KEY_MAP = new HashMap<>();
 
@@ -1086,6 +1091,10 @@ public class JobManager implements ModeChangeListener {
                 // Build and send the job message and update the job state accordingly
                 status = this.postJobStatusMessage(status);
                 log.info("Job queued: {}", status);
+
+                MetricRegistry.getInstance()
+                    .counter(METRIC_PREFIX + status.getJobKey() + ".queued")
+                    .increment();
             }
             else {
                 // TODO: Add support for the WAITING option. For now, always default to ABORTED
@@ -1282,6 +1291,10 @@ public class JobManager implements ModeChangeListener {
             }
 
             EventSink eventSink = this.eventSinkProvider.get();
+            Timer.Sample sample = MetricRegistry.getInstance()
+                .timer(METRIC_PREFIX + status.getJobKey() + ".execution")
+                .start();
+
             try {
                 job.execute(new JobExecutionContext(status));
 
@@ -1302,6 +1315,9 @@ public class JobManager implements ModeChangeListener {
                 status = this.processJobFailure(status, eventSink, e, retry);
                 throw new JobExecutionException(e);
             }
+            finally {
+                sample.close();
+            }
 
             eventSink.sendEvents();
             status.setEndTime(new Date());
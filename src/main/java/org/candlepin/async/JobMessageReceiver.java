@@ -27,6 +27,7 @@ import org.candlepin.messaging.CPMSessionConfig;
 import org.candlepin.messaging.CPMSessionFactory;
 import org.candlepin.model.AsyncJobStatus;
 import org.candlepin.model.AsyncJobStatus.JobState;
+import org.candlepin.util.Util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.inject.persist.UnitOfWork;
@@ -34,10 +35,12 @@ import com.google.inject.persist.UnitOfWork;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -46,6 +49,12 @@ import javax.inject.Inject;
 /**
  * The JobMessageReceiver class manages the various receivers for handling messages received from
  * the backing message queues, and passes the messages back to the job manager
+ *
+ * By default, all jobs are received by a shared set of sessions, one per configured job thread.
+ * Jobs which have a per-job thread limit configured are instead received by their own set of
+ * sessions, filtered by job key, and are excluded from the shared sessions. This limits how many
+ * instances of such jobs may run concurrently on this node, and keeps long-running, I/O-bound jobs
+ * from occupying every shared session.
  */
 public class JobMessageReceiver {
     private static Logger log = LoggerFactory.getLogger(JobMessageReceiver.class);
@@ -62,7 +71,9 @@ public class JobMessageReceiver {
     private MessageListener listener;
     private String receiveAddress;
     private String receiveFilter;
-    private Set<CPMSession> sessions;
+    private Map<String, Integer> jobThreads;
+    private List<String> sessionFilters;
+    private List<CPMSession> sessions;
     private UnitOfWork unitOfWork;
 
 
@@ -89,7 +100,8 @@ public class JobMessageReceiver {
 
         this.initialized = false;
         this.suspended = false;
-        this.sessions = new HashSet<>();
+        this.sessionFilters = new ArrayList<>();
+        this.sessions = new ArrayList<>();
 
         this.configure(this.config);
     }
@@ -110,15 +122,92 @@ public class JobMessageReceiver {
         }
 
         this.receiveFilter = config.getString(ConfigProperties.ASYNC_JOBS_RECEIVE_FILTER);
+        this.jobThreads = this.getJobThreads(config);
+    }
+
+    /**
+     * Fetches the per-job thread limits from the given configuration, mapping job keys to the
+     * number of threads which should receive messages for those jobs.
+     *
+     * @param config
+     *  the configuration from which to read the per-job thread limits
+     *
+     * @throws ConfigurationException
+     *  if a thread limit is not a positive integer
+     *
+     * @return
+     *  a map of job keys to their thread limits
+     */
+    private Map<String, Integer> getJobThreads(Configuration config) throws ConfigurationException {
+        String suffix = "." + ConfigProperties.ASYNC_JOBS_JOB_THREADS;
+        Map<String, Integer> limits = new TreeMap<>();
+
+        Map<String, String> values = config.getValuesByPrefix(ConfigProperties.ASYNC_JOBS_PREFIX);
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String key = Util.stripPrefix(entry.getKey(), ConfigProperties.ASYNC_JOBS_PREFIX);
+            if (!key.endsWith(suffix) || key.length() == suffix.length()) {
+                continue;
+            }
+
+            int threads;
+            try {
+                threads = entry.getValue() != null ? Integer.parseInt(entry.getValue().trim()) : 0;
+            }
+            catch (NumberFormatException e) {
+                threads = 0;
+            }
+
+            if (threads < 1) {
+                throw new ConfigurationException(String.format(
+                    "Invalid job thread limit for %s: %s", entry.getKey(), entry.getValue()));
+            }
+
+            limits.put(key.substring(0, key.length() - suffix.length()), threads);
+        }
+
+        return limits;
+    }
+
+    /**
+     * Builds a message filter combining the configured receive filter with the given job key
+     * filter.
+     *
+     * @param jobKeyFilter
+     *  the job key filter to apply, or null to use the configured receive filter as-is
+     *
+     * @return
+     *  the combined message filter
+     */
+    private String buildMessageFilter(String jobKeyFilter) {
+        if (jobKeyFilter == null) {
+            return this.receiveFilter;
+        }
+
+        if (this.receiveFilter == null || this.receiveFilter.isEmpty()) {
+            return jobKeyFilter;
+        }
+
+        return String.format("(%s) AND (%s)", this.receiveFilter, jobKeyFilter);
+    }
+
+    /**
+     * Quotes the given job key as a string literal usable in message filters
+     */
+    private static String quoteJobKey(String jobKey) {
+        return "'" + jobKey.replace("'", "''") + "'";
     }
 
     /**
      * Creates and configures a new session and consumer
      *
+     * @param filter
+     *  the message filter the consumer should use to select messages, or null to receive all
+     *  messages
+     *
      * @return
      *  The newly created CPM session
      */
-    private CPMSession createSession() throws CPMException {
+    private CPMSession createSession(String filter) throws CPMException {
         CPMSessionConfig sconfig = this.cpmSessionFactory.createSessionConfig()
             .setTransactional(true);
 
@@ -128,7 +217,7 @@ public class JobMessageReceiver {
 
         CPMConsumerConfig cconfig = session.createConsumerConfig()
             .setQueue(this.receiveAddress)
-            .setMessageFilter(this.receiveFilter);
+            .setMessageFilter(filter);
 
         session.createConsumer(cconfig)
             .setMessageListener(this.listener);
@@ -144,29 +233,16 @@ public class JobMessageReceiver {
      * will recreate it.
      */
     private void startSessions() throws CPMException {
-        Set<CPMSession> created = null;
-
-        Iterator<CPMSession> iterator = this.sessions.iterator();
-        while (iterator.hasNext()) {
-            CPMSession session = iterator.next();
+        for (int i = 0; i < this.sessions.size(); ++i) {
+            CPMSession session = this.sessions.get(i);
 
             if (session == null || session.isClosed()) {
-                if (created == null) {
-                    created = new HashSet<>();
-                }
-
-                iterator.remove();
-                session = this.createSession();
-
-                created.add(session);
+                session = this.createSession(this.sessionFilters.get(i));
+                this.sessions.set(i, session);
             }
 
             session.start();
         }
-
-        if (created != null) {
-            this.sessions.addAll(created);
-        }
     }
 
     /**
@@ -204,14 +280,31 @@ public class JobMessageReceiver {
             this.listener = new MessageListener(manager, this.mapper, this.unitOfWork);
             int listenerThreads = this.config.getInt(ConfigProperties.ASYNC_JOBS_THREADS);
 
+            // Jobs with their own thread limits are excluded from the shared sessions. Messages
+            // without a job key must be matched explicitly, as NOT IN never matches a null property.
+            String sharedFilter = this.buildMessageFilter(this.jobThreads.isEmpty() ? null :
+                this.jobThreads.keySet().stream()
+                    .map(JobMessageReceiver::quoteJobKey)
+                    .collect(Collectors.joining(", ", JOB_KEY_MESSAGE_PROPERTY + " IS NULL OR " +
+                        JOB_KEY_MESSAGE_PROPERTY + " NOT IN (", ")")));
+
             log.info("Creating {} threads receiving job messages from address: \"{}\", with filter: \"{}\"",
-                listenerThreads, this.receiveAddress, this.receiveFilter);
+                listenerThreads, this.receiveAddress, sharedFilter);
 
             for (int i = 0; i < listenerThreads; ++i) {
-                // Each session+consumer gives us an implicit thread for async job processing, so
-                // we don't need to do any additional thread creation/management ourselves.
-                CPMSession session = this.createSession();
-                this.sessions.add(session);
+                this.addSession(sharedFilter);
+            }
+
+            for (Map.Entry<String, Integer> entry : this.jobThreads.entrySet()) {
+                String jobFilter = this.buildMessageFilter(
+                    JOB_KEY_MESSAGE_PROPERTY + " = " + quoteJobKey(entry.getKey()));
+
+                log.info("Creating {} threads receiving {} job messages from address: \"{}\", " +
+                    "with filter: \"{}\"", entry.getValue(), entry.getKey(), this.receiveAddress, jobFilter);
+
+                for (int i = 0; i < entry.getValue(); ++i) {
+                    this.addSession(jobFilter);
+                }
             }
 
             this.initialized = true;
@@ -225,6 +318,20 @@ public class JobMessageReceiver {
         }
     }
 
+    /**
+     * Creates a new session receiving messages matching the given filter, and adds it to the
+     * sessions managed by this receiver.
+     *
+     * @param filter
+     *  the message filter the session's consumer should use to select messages
+     */
+    private void addSession(String filter) throws CPMException {
+        // Each session+consumer gives us an implicit thread for async job processing, so
+        // we don't need to do any additional thread creation/management ourselves.
+        this.sessions.add(this.createSession(filter));
+        this.sessionFilters.add(filter);
+    }
+
     /**
      * Shuts down this job message receiver, closing any sessions it may have opened
      */
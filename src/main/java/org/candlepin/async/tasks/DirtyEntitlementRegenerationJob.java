@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.tasks;
+
+import org.candlepin.async.AsyncJob;
+import org.candlepin.async.JobExecutionContext;
+import org.candlepin.async.JobExecutionException;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.controller.EntitlementCertificateService;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.EntitlementCurator;
+
+import com.google.common.collect.Iterables;
+import com.google.inject.persist.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+
+
+/**
+ * The DirtyEntitlementRegenerationJob periodically regenerates the certificates of entitlements
+ * which were lazily marked dirty, so clients checking in after a product or content change find
+ * fresh certificates waiting for them rather than all regenerating them on demand at once.
+ * <p></p>
+ * Entitlements are regenerated in priority order, starting with those of the most recently
+ * checked-in consumers, as these are the most likely to fetch their certificates soon. Each run
+ * regenerates no more than a configured number of entitlements, in transactions of a configured
+ * batch size, leaving the remainder to subsequent runs. Entitlements regenerated on demand by a
+ * client in the meantime are skipped.
+ */
+public class DirtyEntitlementRegenerationJob implements AsyncJob {
+    private static final Logger log = LoggerFactory.getLogger(DirtyEntitlementRegenerationJob.class);
+
+    public static final String JOB_KEY = "DirtyEntitlementRegenerationJob";
+    public static final String JOB_NAME = "Dirty Entitlement Regeneration";
+    // Every five minutes
+    public static final String DEFAULT_SCHEDULE = "0 0/5 * * * ?";
+
+    /** The number of entitlements to regenerate in a single transaction */
+    public static final String CFG_BATCH_SIZE = "batch_size";
+    public static final String DEFAULT_BATCH_SIZE = "100";
+
+    /** The maximum number of entitlements to regenerate in a single run of the job */
+    public static final String CFG_MAX_ENTITLEMENTS = "max_entitlements";
+    public static final String DEFAULT_MAX_ENTITLEMENTS = "5000";
+
+    private final Configuration config;
+    private final EntitlementCurator entitlementCurator;
+    private final EntitlementCertificateService ecService;
+
+    @Inject
+    public DirtyEntitlementRegenerationJob(Configuration config, EntitlementCurator entitlementCurator,
+        EntitlementCertificateService ecService) {
+
+        this.config = Objects.requireNonNull(config);
+        this.entitlementCurator = Objects.requireNonNull(entitlementCurator);
+        this.ecService = Objects.requireNonNull(ecService);
+    }
+
+    /**
+     * Regenerates the certificates of the specified entitlements which are still dirty.
+     *
+     * @param entitlementIds
+     *  the IDs of the entitlements to regenerate
+     *
+     * @return
+     *  the number of entitlements regenerated
+     */
+    @Transactional
+    public int regenerateEntitlements(Collection<String> entitlementIds) {
+        if (entitlementIds == null || entitlementIds.isEmpty()) {
+            return 0;
+        }
+
+        // Clients may have regenerated some of these on demand since we looked them up
+        List<Entitlement> dirty = this.entitlementCurator.listAllByIds(entitlementIds)
+            .stream()
+            .filter(Entitlement::isDirty)
+            .collect(Collectors.toList());
+
+        this.ecService.regenerateCertificatesOf(dirty, false);
+        this.entitlementCurator.flush();
+
+        return dirty.size();
+    }
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        int batchSize = this.getPositiveConfig(CFG_BATCH_SIZE);
+        int maxEntitlements = this.getPositiveConfig(CFG_MAX_ENTITLEMENTS);
+
+        List<String> entitlementIds = this.entitlementCurator.listDirtyEntitlementIds(maxEntitlements);
+        if (entitlementIds.isEmpty()) {
+            context.setJobResult("No dirty entitlements to regenerate");
+            return;
+        }
+
+        int regenerated = 0;
+        int failed = 0;
+
+        for (List<String> batch : Iterables.partition(entitlementIds, batchSize)) {
+            try {
+                regenerated += this.regenerateEntitlements(batch);
+            }
+            catch (Exception e) {
+                // Leave the batch dirty; it'll be retried on the next run or regenerated on demand
+                log.error("Unable to regenerate batch of {} dirty entitlements", batch.size(), e);
+                failed += batch.size();
+            }
+            finally {
+                // Clear the session between batches so the entitlements and certificates loaded by
+                // each batch do not accumulate for the whole run
+                this.entitlementCurator.clear();
+            }
+        }
+
+        log.info("Regenerated {} dirty entitlement(s); {} failed", regenerated, failed);
+        context.setJobResult("Regenerated %d dirty entitlement(s); %d failed", regenerated, failed);
+    }
+
+    /**
+     * Retrieves the specified job configuration, which must be a positive integer.
+     *
+     * @param name
+     *  the name of the job configuration to fetch
+     *
+     * @throws JobExecutionException
+     *  if the configured value is not a positive integer
+     *
+     * @return
+     *  the configured value
+     */
+    private int getPositiveConfig(String name) throws JobExecutionException {
+        String configuration = ConfigProperties.jobConfig(JOB_KEY, name);
+        int value = this.config.getInt(configuration);
+
+        if (value <= 0) {
+            String errorMessage = String.format(
+                "Invalid value for configuration \"%s\", must be a positive integer: %s", configuration,
+                value);
+
+            log.error(errorMessage);
+            throw new JobExecutionException(errorMessage, true);
+        }
+
+        return value;
+    }
+}
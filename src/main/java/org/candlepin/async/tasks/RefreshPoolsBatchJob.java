@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.tasks;
+
+import org.candlepin.async.ArgumentConversionException;
+import org.candlepin.async.AsyncJob;
+import org.candlepin.async.JobArguments;
+import org.candlepin.async.JobConfig;
+import org.candlepin.async.JobConfigValidationException;
+import org.candlepin.async.JobConstraints;
+import org.candlepin.async.JobExecutionContext;
+import org.candlepin.async.JobExecutionException;
+import org.candlepin.async.JobManager;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.controller.refresher.RefreshResult;
+import org.candlepin.controller.refresher.RefreshWorker;
+import org.candlepin.model.AsyncJobStatus;
+import org.candlepin.model.AsyncJobStatusCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.service.SubscriptionServiceAdapter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+
+
+/**
+ * Asynchronous job which coordinates the refresh of several organizations at once. The upstream
+ * subscriptions of every organization are collected up front, and the products and content they
+ * reference are resolved in a single pass through the global namespace. Once complete, a
+ * {@link RefreshPoolsJob} is queued for each organization to update its pools. The pool refreshes
+ * are tagged with the ID of the batch, and the batch only queues the next refresh once fewer than
+ * a configured number of its own refreshes remain in a non-terminal state. Pool refreshes queued
+ * outside of the batch, such as those requested for a single organization or by manifest imports,
+ * are not held up by the batch.
+ * <p></p>
+ * Since the global entities have already been brought up to date by the time the per-org jobs
+ * run, those jobs will generally find their products and content unchanged, and will not contend
+ * with one another over the creation or update of the shared entities.
+ */
+public class RefreshPoolsBatchJob implements AsyncJob {
+    private static final Logger log = LoggerFactory.getLogger(RefreshPoolsBatchJob.class);
+
+    public static final String JOB_KEY = "RefreshPoolsBatchJob";
+    public static final String JOB_NAME = "Refresh Pools Batch";
+
+    /** The maximum number of per-org refresh jobs queued by this job which may run concurrently */
+    public static final String CFG_ORG_THROTTLE = "org_throttle";
+    public static final String DEFAULT_ORG_THROTTLE = "4";
+
+    /** The interval, in milliseconds, at which to check whether another per-org refresh may be queued */
+    public static final String CFG_POLL_INTERVAL = "poll_interval";
+    public static final String DEFAULT_POLL_INTERVAL = "1000";
+
+    protected static final String OWNER_KEYS = "org_keys";
+    protected static final String LAZY_REGEN = "lazy_regen";
+
+    private final Configuration config;
+    private final OwnerCurator ownerCurator;
+    private final SubscriptionServiceAdapter subAdapter;
+    private final Provider<RefreshWorker> refreshWorkerProvider;
+    private final JobManager jobManager;
+    private final AsyncJobStatusCurator jobCurator;
+
+
+    /**
+     * Job configuration object for the refresh pools batch job
+     */
+    public static class RefreshPoolsBatchJobConfig extends JobConfig<RefreshPoolsBatchJobConfig> {
+        public RefreshPoolsBatchJobConfig() {
+            this.setJobKey(JOB_KEY)
+                .setJobName(JOB_NAME)
+                .addConstraint(JobConstraints.uniqueByArguments(OWNER_KEYS));
+        }
+
+        /**
+         * Sets the owners to refresh as part of this batch. At least one owner is required.
+         *
+         * @param owners
+         *  the owners to refresh
+         *
+         * @throws IllegalArgumentException
+         *  if owners is null, or contains a null owner or an owner lacking a key
+         *
+         * @return
+         *  a reference to this job config
+         */
+        public RefreshPoolsBatchJobConfig setOwners(Collection<Owner> owners) {
+            if (owners == null) {
+                throw new IllegalArgumentException("owners is null");
+            }
+
+            String[] keys = owners.stream()
+                .map(owner -> {
+                    if (owner == null || owner.getKey() == null) {
+                        throw new IllegalArgumentException("owner is null or lacks a key");
+                    }
+
+                    return owner.getKey();
+                })
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+
+            this.setJobArgument(OWNER_KEYS, keys);
+            return this;
+        }
+
+        /**
+         * Sets whether or not to generate the certificates immediately, or mark them as dirty and allow
+         * them to be regenerated on-demand.
+         *
+         * @param lazy
+         *  whether or not to generate the certificates immediately
+         *
+         * @return
+         *  a reference to this job config
+         */
+        public RefreshPoolsBatchJobConfig setLazyRegeneration(boolean lazy) {
+            this.setJobArgument(LAZY_REGEN, lazy);
+            return this;
+        }
+
+        @Override
+        public void validate() throws JobConfigValidationException {
+            super.validate();
+
+            try {
+                JobArguments arguments = this.getJobArguments();
+
+                String[] ownerKeys = arguments.getAs(OWNER_KEYS, String[].class);
+                Boolean lazyRegeneration = arguments.getAsBoolean(LAZY_REGEN);
+
+                if (ownerKeys == null || ownerKeys.length == 0) {
+                    String errmsg = "owners have not been set";
+                    throw new JobConfigValidationException(errmsg);
+                }
+
+                if (lazyRegeneration == null) {
+                    String errmsg = "lazy regeneration has not been set";
+                    throw new JobConfigValidationException(errmsg);
+                }
+            }
+            catch (ArgumentConversionException e) {
+                String errmsg = "One or more required arguments are of the wrong type";
+                throw new JobConfigValidationException(errmsg, e);
+            }
+        }
+    }
+
+    @Inject
+    public RefreshPoolsBatchJob(Configuration config, OwnerCurator ownerCurator,
+        SubscriptionServiceAdapter subAdapter, Provider<RefreshWorker> refreshWorkerProvider,
+        JobManager jobManager, AsyncJobStatusCurator jobCurator) {
+
+        this.config = Objects.requireNonNull(config);
+        this.ownerCurator = Objects.requireNonNull(ownerCurator);
+        this.subAdapter = Objects.requireNonNull(subAdapter);
+        this.refreshWorkerProvider = Objects.requireNonNull(refreshWorkerProvider);
+        this.jobManager = Objects.requireNonNull(jobManager);
+        this.jobCurator = Objects.requireNonNull(jobCurator);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Resolves the global products and content for all of the owners in the batch, and then queues
+     * a {@link RefreshPoolsJob} for each owner, waiting for earlier refreshes of the batch to
+     * complete as necessary to limit the number of them running concurrently.
+     *
+     * @param context the job's execution context
+     */
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        String batchId = context.getJobId();
+        JobArguments args = context.getJobArguments();
+        String[] ownerKeys = args.getAs(OWNER_KEYS, String[].class);
+        boolean lazy = args.getAsBoolean(LAZY_REGEN);
+
+        List<Owner> owners = this.ownerCurator.getByKeys(Arrays.asList(ownerKeys));
+        if (owners == null || owners.isEmpty()) {
+            throw new JobExecutionException("Nothing to do; owners no longer exist: " +
+                Arrays.toString(ownerKeys), true);
+        }
+
+        try {
+            RefreshWorker worker = this.refreshWorkerProvider.get();
+            for (Owner owner : owners) {
+                log.debug("Fetching subscriptions for owner: {}", owner.getKey());
+                worker.addSubscriptions(this.subAdapter.getSubscriptions(owner.getKey()));
+            }
+
+            log.info("Resolving {} product(s) and {} content for {} owner(s)", worker.getProducts().size(),
+                worker.getContent().size(), owners.size());
+
+            RefreshResult result = worker.executeGlobalEntities(owners.get(0));
+            log.debug("Global entity refresh complete: {}", result);
+        }
+        catch (Exception e) {
+            throw new JobExecutionException(e.getMessage(), e, false);
+        }
+
+        int throttle = this.config.getInt(ConfigProperties.jobConfig(JOB_KEY, CFG_ORG_THROTTLE));
+        long interval = this.config.getLong(ConfigProperties.jobConfig(JOB_KEY, CFG_POLL_INTERVAL));
+        List<String> queued = new ArrayList<>();
+
+        for (Owner owner : owners) {
+            JobConfig jobConfig = RefreshPoolsJob.createJobConfig()
+                .setOwner(owner)
+                .setLazyRegeneration(lazy)
+                .setBatchId(batchId);
+
+            // Impl note: job constraints abort a blocked job rather than deferring it, so rather than
+            // constraining the refreshes, we hold off on queuing them until the batch has capacity.
+            this.awaitCapacity(jobConfig.getJobArguments(), throttle, interval);
+
+            try {
+                AsyncJobStatus status = this.jobManager.queueJob(jobConfig);
+                queued.add(status.getId());
+            }
+            catch (Exception e) {
+                // Don't let one org prevent the others from being refreshed; the caller can retry
+                // the failed org individually.
+                log.error("Unable to queue pool refresh for owner: {}", owner.getKey(), e);
+            }
+        }
+
+        context.setJobResult("Global entities refreshed for %d owner(s); queued %d pool refresh job(s): %s",
+            owners.size(), queued.size(), queued);
+    }
+
+    /**
+     * Waits until fewer than the given number of pool refreshes queued by the batch remain in a
+     * non-terminal state.
+     *
+     * @param refreshArgs
+     *  the arguments of the pool refresh to be queued, providing the ID of the batch
+     *
+     * @param throttle
+     *  the maximum number of pool refreshes of the batch which may be in a non-terminal state
+     *
+     * @param interval
+     *  the interval, in milliseconds, at which to check the state of the batch's pool refreshes
+     *
+     * @throws JobExecutionException
+     *  if interrupted while waiting
+     */
+    private void awaitCapacity(JobArguments refreshArgs, int throttle, long interval)
+        throws JobExecutionException {
+
+        Map<String, String> batchArgs = Map.of(RefreshPoolsJob.BATCH_ID,
+            refreshArgs.getSerializedValue(RefreshPoolsJob.BATCH_ID));
+
+        try {
+            int pending = this.jobCurator.fetchJobIdsByArguments(RefreshPoolsJob.JOB_KEY, batchArgs).size();
+            while (pending >= throttle) {
+                Thread.sleep(interval);
+                pending = this.jobCurator.fetchJobIdsByArguments(RefreshPoolsJob.JOB_KEY, batchArgs).size();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobExecutionException("Interrupted while waiting to queue pool refreshes", e, true);
+        }
+    }
+
+    /**
+     * Creates a JobConfig configured to execute the refresh pools batch job. Callers may further
+     * manipulate the JobConfig as necessary before queuing it.
+     *
+     * @return
+     *  a JobConfig instance configured to execute the refresh pools batch job
+     */
+    public static RefreshPoolsBatchJobConfig createJobConfig() {
+        return new RefreshPoolsBatchJobConfig();
+    }
+}
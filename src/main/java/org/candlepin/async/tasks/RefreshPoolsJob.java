@@ -44,6 +44,7 @@ public class RefreshPoolsJob implements AsyncJob {
 
     protected static final String OWNER_KEY = "org";
     protected static final String LAZY_REGEN = "lazy_regen";
+    protected static final String BATCH_ID = "batch_id";
 
     private final OwnerCurator ownerCurator;
     private final RefresherFactory refresherFactory;
@@ -99,6 +100,22 @@ public class RefreshPoolsJob implements AsyncJob {
             return this;
         }
 
+        /**
+         * Sets the ID of the batch job which queued this refresh, allowing the batch to track the
+         * refreshes it has queued. Refreshes queued outside of a batch need not set a batch ID.
+         *
+         * @param batchId
+         *  the ID of the batch job queuing this refresh
+         *
+         * @return
+         *  a reference to this job config
+         */
+        public RefreshPoolsJobConfig setBatchId(String batchId) {
+            this.setJobArgument(BATCH_ID, batchId);
+
+            return this;
+        }
+
         @Override
         public void validate() throws JobConfigValidationException {
             super.validate();
@@ -98,6 +98,13 @@ public class RevokeEntitlementsJob implements AsyncJob {
         for (List<String> batch : Iterables.partition(consumerUuids, batchSize)) {
             log.debug("Revoking entitlements for consumers with UUIDs: {}", batch);
             entRevokeCount += poolService.revokeAllEntitlements(batch, false);
+
+            // Clear the session between batches so the cost of flushing each batch does not grow
+            // with the number of entities loaded by the batches before it. The request-scoped
+            // consumer caches are reset with it, as they would otherwise hold detached consumers.
+            consumerCurator.flush();
+            consumerCurator.clear();
+            consumerCurator.clearCachedConsumers();
         }
 
         log.info("{} has run! {} entitlements revoked and {} activation key pools removed.", JOB_KEY,
@@ -40,6 +40,9 @@ public class ActiveMQContextListener {
     private ArtemisMessageSource messageSource;
 
     public void contextDestroyed(Injector injector) {
+        // Flush any events still waiting to be sent before tearing down the messaging bits
+        injector.getInstance(EventEgressPipeline.class).shutdown();
+
         if (this.messageSource != null) {
             this.messageSource.shutDown();
         }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * The EventCoalescer reduces bursts of redundant events down to the latest event for each entity.
+ * Events such as compliance updates carry the full state of their entity, so when several of them
+ * are sent together for the same consumer, only the last is of any use to listeners.
+ * <p></p>
+ * Events are considered redundant if they share the same type, target and entity ID, and their
+ * type and target are configured as coalescible via {@link ConfigProperties#AUDIT_COALESCE_EVENTS}
+ * using the format TYPE-TARGET, for example:
+ *
+ * <pre>
+ *     candlepin.audit.coalesce.events=CREATED-COMPLIANCE,MODIFIED-ENTITLEMENT
+ * </pre>
+ *
+ * Events lacking an entity ID are never coalesced. The relative order of the surviving events is
+ * preserved, with each coalesced event taking the position of the latest event it replaces.
+ */
+@Singleton
+public class EventCoalescer {
+    private static final Logger log = LoggerFactory.getLogger(EventCoalescer.class);
+
+    private final boolean enabled;
+    private final long window;
+    private final Set<String> coalescible;
+
+    @Inject
+    public EventCoalescer(Configuration config) {
+        Objects.requireNonNull(config);
+
+        this.enabled = config.getBoolean(ConfigProperties.AUDIT_COALESCE_ENABLED);
+        this.window = config.getInt(ConfigProperties.AUDIT_COALESCE_WINDOW);
+        this.coalescible = new HashSet<>();
+
+        for (String entry : config.getList(ConfigProperties.AUDIT_COALESCE_EVENTS)) {
+            if (entry == null || entry.isBlank()) {
+                continue;
+            }
+
+            String[] chunks = entry.trim().split("-");
+            if (chunks.length != 2) {
+                throw new IllegalArgumentException("Invalid coalescible event: " + entry);
+            }
+
+            Event.Type type = Event.Type.valueOf(chunks[0].trim());
+            Event.Target target = Event.Target.valueOf(chunks[1].trim());
+
+            this.coalescible.add(this.buildTypeKey(type, target));
+        }
+    }
+
+    private String buildTypeKey(Event.Type type, Event.Target target) {
+        return type + "-" + target;
+    }
+
+    /**
+     * Checks whether or not event coalescing is enabled.
+     *
+     * @return
+     *  true if event coalescing is enabled; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Fetches the time, in milliseconds, batched egress may wait for additional events to coalesce
+     * with those it has already received. Always zero when coalescing is disabled.
+     *
+     * @return
+     *  the coalescing window, in milliseconds
+     */
+    public long getWindow() {
+        return this.enabled ? this.window : 0;
+    }
+
+    /**
+     * Checks whether or not the given event may be coalesced with other events for the same
+     * entity.
+     *
+     * @param event
+     *  the event to check
+     *
+     * @return
+     *  true if the event is coalescible; false otherwise
+     */
+    public boolean isCoalescible(Event event) {
+        return event != null && event.getEntityId() != null &&
+            this.coalescible.contains(this.buildTypeKey(event.getType(), event.getTarget()));
+    }
+
+    /**
+     * Coalesces the given events, dropping any coalescible event which is followed by another
+     * event of the same type and target for the same entity. If coalescing is disabled, the events
+     * are returned as-is.
+     *
+     * @param events
+     *  the events to coalesce, in the order they were queued
+     *
+     * @return
+     *  a new list containing the coalesced events, in order
+     */
+    public List<Event> coalesce(Collection<Event> events) {
+        if (events == null || events.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        if (!this.enabled) {
+            return new ArrayList<>(events);
+        }
+
+        // Walk the events backwards, so the first event we see for a given key is the latest
+        List<Event> input = new ArrayList<>(events);
+        List<Event> output = new ArrayList<>(input.size());
+        Set<String> seen = new HashSet<>();
+
+        ListIterator<Event> iterator = input.listIterator(input.size());
+        while (iterator.hasPrevious()) {
+            Event event = iterator.previous();
+
+            if (this.isCoalescible(event)) {
+                String key = this.buildTypeKey(event.getType(), event.getTarget()) + ":" +
+                    event.getEntityId();
+
+                if (!seen.add(key)) {
+                    continue;
+                }
+            }
+
+            output.add(event);
+        }
+
+        Collections.reverse(output);
+
+        if (output.size() < input.size()) {
+            log.debug("Coalesced {} event(s) down to {}", input.size(), output.size());
+        }
+
+        return output;
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import org.candlepin.async.impl.ActiveMQSessionFactory;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+
+/**
+ * The EventEgressPipeline is a shared, node-wide path for sending events to the message broker.
+ * Rather than each request opening its own session and committing its own transaction, requests
+ * hand their events off to the pipeline once they have completed successfully. A single worker
+ * thread serializes the events and sends those of many requests in a single broker transaction,
+ * reusing one session for as long as it remains open.
+ * <p></p>
+ * The events of a given request are always sent in the same transaction. Requests which roll
+ * back never hand their events off, so no compensation is necessary on the broker. Should the
+ * pipeline's queue be full, the submitting thread sends its events directly rather than dropping
+ * them.
+ * <p></p>
+ * When event coalescing is enabled, redundant events are also coalesced across the requests sent
+ * in a single transaction, and the worker may wait up to the configured coalescing window for
+ * further requests to complete before sending.
+ */
+@Singleton
+public class EventEgressPipeline {
+    private static final Logger log = LoggerFactory.getLogger(EventEgressPipeline.class);
+
+    private static final String WORKER_THREAD_NAME = "event-egress";
+    private static final long POLL_INTERVAL = 250; // milliseconds
+    private static final long SHUTDOWN_TIMEOUT = 30000; // milliseconds
+
+    private final ActiveMQSessionFactory sessionFactory;
+    private final ObjectMapper mapper;
+    private final EventCoalescer coalescer;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final BlockingQueue<List<Event>> queue;
+
+    /** Guards the session and producer, which are shared by the worker and overflowing requests */
+    private final Object sendLock;
+    private ClientSession session;
+    private ClientProducer producer;
+
+    private Thread worker;
+    private volatile boolean running;
+    private boolean shutdown;
+
+    @Inject
+    public EventEgressPipeline(Configuration config, ActiveMQSessionFactory sessionFactory,
+        ObjectMapper mapper, EventCoalescer coalescer) {
+
+        Objects.requireNonNull(config);
+
+        this.sessionFactory = Objects.requireNonNull(sessionFactory);
+        this.mapper = Objects.requireNonNull(mapper);
+        this.coalescer = Objects.requireNonNull(coalescer);
+        this.enabled = config.getBoolean(ConfigProperties.AUDIT_EGRESS_BATCHED);
+        this.maxBatchSize = config.getInt(ConfigProperties.AUDIT_EGRESS_MAX_BATCH_SIZE);
+        this.queue = new ArrayBlockingQueue<>(config.getInt(ConfigProperties.AUDIT_EGRESS_QUEUE_CAPACITY));
+
+        this.sendLock = new Object();
+        this.running = false;
+        this.shutdown = false;
+    }
+
+    /**
+     * Checks whether or not batched egress is enabled. When disabled, the pipeline should not be
+     * used, and events should be sent by the event sink directly.
+     *
+     * @return
+     *  true if batched egress is enabled; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Submits the events of a single, completed request or job to be sent to the broker. The
+     * events will be sent together in a single transaction, in the order provided. If the pipeline
+     * is full or has been shut down, the events are sent on the calling thread before this method
+     * returns.
+     *
+     * @param events
+     *  the events to send
+     */
+    public void submit(Collection<Event> events) {
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+
+        List<Event> batch = new ArrayList<>(events);
+
+        if (!this.startWorker() || !this.queue.offer(batch)) {
+            log.debug("Event egress pipeline unavailable; sending {} event(s) directly", batch.size());
+            this.publish(batch);
+        }
+    }
+
+    /**
+     * Starts the worker thread if it has not yet been started.
+     *
+     * @return
+     *  true if the worker is running; false if the pipeline has been shut down
+     */
+    private synchronized boolean startWorker() {
+        if (this.shutdown) {
+            return false;
+        }
+
+        if (this.worker == null) {
+            this.running = true;
+
+            this.worker = new Thread(this::drain, WORKER_THREAD_NAME);
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+
+        return true;
+    }
+
+    /**
+     * Worker loop; collects the pending batches up to the max batch size, waiting up to the
+     * coalescing window for more, and publishes them together until the pipeline is shut down and
+     * empty.
+     */
+    private void drain() {
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                List<Event> first = this.queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                List<Event> events = new ArrayList<>(first);
+                List<Event> next;
+
+                long deadline = System.currentTimeMillis() + this.coalescer.getWindow();
+
+                while (events.size() < this.maxBatchSize) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    next = remaining > 0 && this.running ?
+                        this.queue.poll(remaining, TimeUnit.MILLISECONDS) :
+                        this.queue.poll();
+
+                    if (next == null) {
+                        break;
+                    }
+
+                    events.addAll(next);
+                }
+
+                this.publish(this.coalescer.coalesce(events));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch (Exception e) {
+                // Never let the worker die; failures are logged by publish
+                log.error("Unexpected exception in event egress pipeline", e);
+            }
+        }
+    }
+
+    /**
+     * Serializes and sends the given events in a single broker transaction. Events which cannot
+     * be serialized are logged and skipped. In keeping with the event sink, failure to send is
+     * logged rather than propagated.
+     *
+     * @param events
+     *  the events to send
+     */
+    void publish(List<Event> events) {
+        synchronized (this.sendLock) {
+            try {
+                this.openSession();
+
+                int sent = 0;
+                for (Event event : events) {
+                    String eventString;
+
+                    try {
+                        eventString = this.mapper.writeValueAsString(event);
+                    }
+                    catch (Exception e) {
+                        log.error("Error while trying to serialize event: {}", event, e);
+                        continue;
+                    }
+
+                    this.producer.send(EventSinkImpl.buildEventMessage(this.session, eventString,
+                        event.getType(), event.getTarget()));
+
+                    ++sent;
+                }
+
+                this.session.commit();
+                log.debug("Sent {} event(s) in a single transaction", sent);
+            }
+            catch (Exception e) {
+                // This would be pretty bad, but we always try not to let event errors
+                // interfere with the operation of the overall application.
+                log.error("Error sending {} event(s) to the broker", events.size(), e);
+                this.closeSession();
+            }
+        }
+    }
+
+    /**
+     * Opens a new session and producer if the current session is missing or has been closed.
+     * Must be called while holding the send lock.
+     */
+    private void openSession() throws Exception {
+        if (this.session == null || this.session.isClosed()) {
+            this.session = this.sessionFactory.getEgressSession(true);
+            this.producer = this.session.createProducer(MessageAddress.DEFAULT_EVENT_MESSAGE_ADDRESS);
+
+            log.debug("Opened new event egress session");
+        }
+    }
+
+    /**
+     * Closes the current session, if any, discarding any uncommitted messages. Must be called
+     * while holding the send lock.
+     */
+    private void closeSession() {
+        if (this.session != null) {
+            try {
+                this.session.close();
+            }
+            catch (Exception e) {
+                log.debug("Error closing event egress session", e);
+            }
+        }
+
+        this.session = null;
+        this.producer = null;
+    }
+
+    /**
+     * Shuts down the pipeline, sending any events which are still pending. Once shut down, events
+     * submitted to the pipeline are sent directly by the submitting thread.
+     */
+    public void shutdown() {
+        Thread active;
+
+        synchronized (this) {
+            this.shutdown = true;
+            this.running = false;
+            active = this.worker;
+        }
+
+        if (active != null) {
+            try {
+                active.join(SHUTDOWN_TIMEOUT);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Send anything the worker did not get to
+        List<Event> remaining;
+        while ((remaining = this.queue.poll()) != null) {
+            this.publish(remaining);
+        }
+
+        synchronized (this.sendLock) {
+            this.closeSession();
+        }
+    }
+}
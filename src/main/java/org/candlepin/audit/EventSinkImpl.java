@@ -66,10 +66,14 @@ public class EventSinkImpl implements EventSink {
     private ActiveMQSessionFactory sessionFactory;
     private EventMessageSender messageSender;
 
+    private EventEgressPipeline egressPipeline;
+    private EventCoalescer coalescer;
+    private List<Event> pendingEvents;
+
     @Inject
     public EventSinkImpl(EventFilter eventFilter, EventFactory eventFactory,
         ObjectMapper mapper, Configuration config, ActiveMQSessionFactory sessionFactory,
-        CandlepinModeManager modeManager) {
+        CandlepinModeManager modeManager, EventEgressPipeline egressPipeline, EventCoalescer coalescer) {
 
         this.eventFactory = eventFactory;
         this.mapper = mapper;
@@ -77,6 +81,9 @@ public class EventSinkImpl implements EventSink {
         this.modeManager = modeManager;
         this.config = config;
         this.sessionFactory = sessionFactory;
+        this.egressPipeline = egressPipeline;
+        this.coalescer = coalescer;
+        this.pendingEvents = new LinkedList<>();
     }
 
     // FIXME This method really does not belong here. It should probably be moved
@@ -127,6 +134,24 @@ public class EventSinkImpl implements EventSink {
 
         log.debug("Queuing event: {}", event);
 
+        // When batched egress or coalescing is enabled, hold on to the event until the request
+        // completes; redundant events are then dropped and the rest sent together.
+        if (this.isBatchedEgressEnabled() || this.isCoalescingEnabled()) {
+            this.pendingEvents.add(event);
+            return;
+        }
+
+        this.dispatchEvent(event);
+    }
+
+    /**
+     * Serializes the given event and adds it to the transaction of the message sender, creating
+     * the sender if necessary.
+     *
+     * @param event
+     *  the event to dispatch
+     */
+    private void dispatchEvent(Event event) {
         try {
             // Lazily initialize the message sender when the first
             // message gets queued.
@@ -148,26 +173,102 @@ public class EventSinkImpl implements EventSink {
      */
     @Override
     public void sendEvents() {
-        if (!hasQueuedMessages()) {
+        if (!hasPendingEvents() && !hasQueuedMessages()) {
             log.debug("No events to send.");
             return;
         }
-        messageSender.sendMessages();
+
+        if (hasPendingEvents()) {
+            List<Event> events = this.isCoalescingEnabled() ?
+                this.coalescer.coalesce(this.pendingEvents) :
+                this.pendingEvents;
+
+            this.pendingEvents = new LinkedList<>();
+
+            if (this.isBatchedEgressEnabled()) {
+                log.debug("Handing off {} event(s) to the egress pipeline.", events.size());
+                this.egressPipeline.submit(events);
+            }
+            else {
+                events.forEach(this::dispatchEvent);
+            }
+        }
+
+        if (hasQueuedMessages()) {
+            messageSender.sendMessages();
+        }
     }
 
     @Override
     public void rollback() {
-        if (!hasQueuedMessages()) {
+        if (!hasPendingEvents() && !hasQueuedMessages()) {
             log.debug("No events to roll back.");
             return;
         }
-        messageSender.cancelMessages();
+
+        if (hasPendingEvents()) {
+            log.warn("Discarding {} pending event(s).", this.pendingEvents.size());
+            this.pendingEvents.clear();
+        }
+
+        if (hasQueuedMessages()) {
+            messageSender.cancelMessages();
+        }
+    }
+
+    private boolean isBatchedEgressEnabled() {
+        return this.egressPipeline != null && this.egressPipeline.isEnabled();
+    }
+
+    private boolean isCoalescingEnabled() {
+        return this.coalescer != null && this.coalescer.isEnabled();
+    }
+
+    private boolean hasPendingEvents() {
+        return !this.pendingEvents.isEmpty();
     }
 
     private boolean hasQueuedMessages() {
         return messageSender != null;
     }
 
+    /**
+     * Builds a durable message carrying the given serialized event, tagged with the event type and
+     * target, if provided.
+     *
+     * @param session
+     *  the session with which to create the message
+     *
+     * @param eventString
+     *  the serialized event
+     *
+     * @param type
+     *  the type of the event; may be null
+     *
+     * @param target
+     *  the target of the event; may be null
+     *
+     * @return
+     *  a new message carrying the given event
+     */
+    static ClientMessage buildEventMessage(ClientSession session, String eventString, Event.Type type,
+        Event.Target target) {
+
+        ClientMessage message = session.createMessage(ClientMessage.TEXT_TYPE, true);
+        message.getBodyBuffer().writeNullableSimpleString(SimpleString.of(eventString));
+
+        // Set the event type and target if provided
+        if (type != null) {
+            message.putStringProperty(EVENT_TYPE_KEY, type.name());
+        }
+
+        if (target != null) {
+            message.putStringProperty(EVENT_TARGET_KEY, target.name());
+        }
+
+        return message;
+    }
+
     public void emitConsumerCreated(Consumer newConsumer) {
         Event e = eventFactory.consumerCreated(newConsumer);
         queueEvent(e);
@@ -274,20 +375,8 @@ public class EventSinkImpl implements EventSink {
                 }
             }
 
-            ClientMessage message = session.createMessage(ClientMessage.TEXT_TYPE, true);
-            message.getBodyBuffer().writeNullableSimpleString(SimpleString.of(eventString));
-
-            // Set the event type and target if provided
-            if (type != null) {
-                message.putStringProperty(EVENT_TYPE_KEY, type.name());
-            }
-
-            if (target != null) {
-                message.putStringProperty(EVENT_TARGET_KEY, target.name());
-            }
-
             // NOTE: not actually sent until we commit the session.
-            producer.send(message);
+            producer.send(buildEventMessage(session, eventString, type, target));
         }
 
         public void sendMessages() {
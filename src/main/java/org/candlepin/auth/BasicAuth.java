@@ -15,6 +15,7 @@
 package org.candlepin.auth;
 
 import org.candlepin.auth.permissions.PermissionFactory;
+import org.candlepin.cache.UserAuthCache;
 import org.candlepin.exceptions.CandlepinException;
 import org.candlepin.exceptions.NotAuthorizedException;
 import org.candlepin.exceptions.ServiceUnavailableException;
@@ -39,9 +40,9 @@ public class BasicAuth extends UserAuth {
 
     @Inject
     BasicAuth(UserServiceAdapter userServiceAdapter, Provider<I18n> i18nProvider,
-        PermissionFactory permissionFactory) {
+        PermissionFactory permissionFactory, UserAuthCache userAuthCache) {
 
-        super(userServiceAdapter, i18nProvider, permissionFactory);
+        super(userServiceAdapter, i18nProvider, permissionFactory, userAuthCache);
     }
 
     @Override
@@ -64,7 +65,7 @@ public class BasicAuth extends UserAuth {
                     log.debug("check for: {} - password of length {}", username, length);
                 }
 
-                if (userServiceAdapter.validateUser(username, password)) {
+                if (this.validateUser(username, password)) {
                     Principal principal = ((UserPrincipal) createPrincipal(username))
                         .setAuthenticationMethod(AuthenticationMethod.BASIC);
                     log.debug("principal created for user '{}'", username);
@@ -90,4 +91,21 @@ public class BasicAuth extends UserAuth {
         return null;
     }
 
+    /**
+     * Validates the given credentials, checking the credentials which were recently verified
+     * before falling back to the user service, to avoid hashing the password on every request.
+     */
+    private boolean validateUser(String username, String password) {
+        if (this.userAuthCache.isVerified(username, password)) {
+            return true;
+        }
+
+        if (this.userServiceAdapter.validateUser(username, password)) {
+            this.userAuthCache.setVerified(username, password);
+            return true;
+        }
+
+        return false;
+    }
+
 }
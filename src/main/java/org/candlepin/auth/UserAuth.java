@@ -15,6 +15,8 @@
 package org.candlepin.auth;
 
 import org.candlepin.auth.permissions.PermissionFactory;
+import org.candlepin.cache.UserAuthCache;
+import org.candlepin.cache.UserAuthCache.CachedUser;
 import org.candlepin.exceptions.BadRequestException;
 import org.candlepin.service.UserServiceAdapter;
 import org.candlepin.service.model.UserInfo;
@@ -34,33 +36,43 @@ public abstract class UserAuth implements AuthProvider {
     protected UserServiceAdapter userServiceAdapter;
     protected Provider<I18n> i18nProvider;
     protected PermissionFactory permissionFactory;
+    protected UserAuthCache userAuthCache;
 
     @Inject
     public UserAuth(UserServiceAdapter userServiceAdapter, Provider<I18n> i18nProvider,
-        PermissionFactory permissionFactory) {
+        PermissionFactory permissionFactory, UserAuthCache userAuthCache) {
 
         this.userServiceAdapter = userServiceAdapter;
         this.i18nProvider = i18nProvider;
         this.permissionFactory = permissionFactory;
+        this.userAuthCache = userAuthCache;
     }
 
     /**
-     * Creates a user principal for a given username
+     * Creates a user principal for a given username. The user's permissions are looked up once and
+     * cached, but a new principal is built for every call, as principals are modified per request.
      */
     protected Principal createPrincipal(String username) {
-        UserInfo user = this.userServiceAdapter.findByLogin(username);
+        CachedUser user = this.userAuthCache.getUser(username, this::lookupUser);
 
         if (user == null) {
             throw new BadRequestException(this.i18nProvider.get().tr("User not found: {0}", username));
         }
 
-        // TODO: This creates a lot of object churn. We should probably update this later in a way
-        // that can do permission checking without creating piles of objects that we just throw away
-        // without ever using them in the general case.
-        return user.isSuperAdmin() != null && user.isSuperAdmin() ?
-            (new UserPrincipal(username, null, true, user.getPrimaryOwner())) :
-            (new UserPrincipal(username, this.permissionFactory.createPermissions(user), false,
-                user.getPrimaryOwner()));
+        return user.superAdmin() ?
+            (new UserPrincipal(username, null, true, user.primaryOwner())) :
+            (new UserPrincipal(username, user.permissions(), false, user.primaryOwner()));
+    }
+
+    private CachedUser lookupUser(String username) {
+        UserInfo user = this.userServiceAdapter.findByLogin(username);
+        if (user == null) {
+            return null;
+        }
+
+        boolean superAdmin = user.isSuperAdmin() != null && user.isSuperAdmin();
+        return new CachedUser(superAdmin, user.getPrimaryOwner(),
+            superAdmin ? null : this.permissionFactory.createPermissions(user));
     }
 
 }
@@ -17,6 +17,7 @@ package org.candlepin.cache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.config.ConfigurationException;
+import org.candlepin.metrics.MetricRegistry;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
@@ -34,6 +35,9 @@ import javax.inject.Singleton;
  */
 @Singleton
 public class AnonymousCertContentCache {
+    private static final String HIT_COUNTER = "cache.anon_cert_content.hits";
+    private static final String MISS_COUNTER = "cache.anon_cert_content.misses";
+
     private Cache<MultiKey, AnonymousCertContent> cache;
 
     @Inject
@@ -80,7 +84,12 @@ public class AnonymousCertContentCache {
             return null;
         }
 
-        return cache.getIfPresent(new MultiKey(skuIds));
+        AnonymousCertContent content = cache.getIfPresent(new MultiKey(skuIds));
+        MetricRegistry.getInstance()
+            .counter(content != null ? HIT_COUNTER : MISS_COUNTER)
+            .increment();
+
+        return content;
     }
 
     /**
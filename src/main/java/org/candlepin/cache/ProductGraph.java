@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import org.candlepin.model.Branding;
+import org.candlepin.model.Content;
+import org.candlepin.model.Product;
+import org.candlepin.model.ProductContent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A snapshot of a product and the products reachable from it: its provided products, its derived
+ * product, and the derived product's provided products, along with their attributes, branding and
+ * content. The snapshot is built from detached copies of the entities, so walking it never triggers
+ * a lazy load, and it may be shared between threads and requests.
+ * <p></p>
+ * The products in the snapshot must be treated as read-only, and must never be persisted or merged
+ * into a session.
+ */
+public class ProductGraph {
+
+    private final Product product;
+    private final Set<Product> providedProducts;
+    private final Product derivedProduct;
+    private final Set<Product> derivedProvidedProducts;
+    private final int size;
+
+    private ProductGraph(Product product, int size) {
+        this.product = product;
+        this.size = size;
+        this.providedProducts = Collections.unmodifiableSet(new HashSet<>(product.getProvidedProducts()));
+        this.derivedProduct = product.getDerivedProduct();
+        this.derivedProvidedProducts = this.derivedProduct != null ?
+            Collections.unmodifiableSet(new HashSet<>(this.derivedProduct.getProvidedProducts())) :
+            Set.of();
+    }
+
+    /**
+     * Builds a snapshot of the given product and the products reachable from it. Products and
+     * content referenced from several places in the graph are copied only once.
+     *
+     * @param product
+     *  the product from which to build a snapshot
+     *
+     * @throws IllegalArgumentException
+     *  if product is null
+     *
+     * @return
+     *  a snapshot of the given product
+     */
+    public static ProductGraph of(Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException("product is null");
+        }
+
+        Map<Product, Product> products = new IdentityHashMap<>();
+        Map<Content, Content> contents = new IdentityHashMap<>();
+
+        Product copy = copyProduct(product, products, contents);
+        return new ProductGraph(copy, products.size() + contents.size());
+    }
+
+    private static Product copyProduct(Product source, Map<Product, Product> products,
+        Map<Content, Content> contents) {
+
+        Product copy = products.get(source);
+        if (copy != null) {
+            return copy;
+        }
+
+        copy = new Product()
+            .setUuid(source.getUuid())
+            .setId(source.getId())
+            .setName(source.getName())
+            .setMultiplier(source.getMultiplier())
+            .setNamespace(source.getNamespace())
+            .setAttributes(source.getAttributes())
+            .setDependentProductIds(source.getDependentProductIds());
+
+        copy.setCreated(source.getCreated() != null ? (Date) source.getCreated().clone() : null);
+        copy.setUpdated(source.getUpdated() != null ? (Date) source.getUpdated().clone() : null);
+
+        products.put(source, copy);
+
+        for (ProductContent pc : source.getProductContent()) {
+            Content content = contents.computeIfAbsent(pc.getContent(), Content::clone);
+            copy.addContent(content, pc.isEnabled());
+        }
+
+        for (Branding branding : source.getBranding()) {
+            copy.addBranding(new Branding(copy, branding.getProductId(), branding.getName(),
+                branding.getType()));
+        }
+
+        List<Product> provided = new ArrayList<>();
+        for (Product child : source.getProvidedProducts()) {
+            provided.add(copyProduct(child, products, contents));
+        }
+
+        copy.setProvidedProducts(provided);
+
+        if (source.getDerivedProduct() != null) {
+            copy.setDerivedProduct(copyProduct(source.getDerivedProduct(), products, contents));
+        }
+
+        return copy;
+    }
+
+    /**
+     * Fetches the copy of the product from which this snapshot was built.
+     *
+     * @return
+     *  the root product of this snapshot
+     */
+    public Product getProduct() {
+        return this.product;
+    }
+
+    /**
+     * Fetches the provided products of the root product.
+     *
+     * @return
+     *  an unmodifiable set of the root product's provided products
+     */
+    public Set<Product> getProvidedProducts() {
+        return this.providedProducts;
+    }
+
+    /**
+     * Fetches the derived product of the root product, if any.
+     *
+     * @return
+     *  the root product's derived product, or null if it does not have a derived product
+     */
+    public Product getDerivedProduct() {
+        return this.derivedProduct;
+    }
+
+    /**
+     * Fetches the provided products of the derived product. If the root product does not have a
+     * derived product, this method returns an empty set.
+     *
+     * @return
+     *  an unmodifiable set of the derived product's provided products
+     */
+    public Set<Product> getDerivedProvidedProducts() {
+        return this.derivedProvidedProducts;
+    }
+
+    /**
+     * Fetches the number of distinct products and content in this snapshot. Products and content
+     * referenced from several places in the graph are only counted once.
+     *
+     * @return
+     *  the number of products and content in this snapshot
+     */
+    public int getSize() {
+        return this.size;
+    }
+}
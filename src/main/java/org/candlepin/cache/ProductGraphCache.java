@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.config.ConfigurationException;
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.model.AbstractHibernateObject;
+import org.candlepin.model.Branding;
+import org.candlepin.model.Product;
+import org.candlepin.model.ProductContent;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * A thread safe cache of {@link ProductGraph} snapshots, keyed by product UUID and the version of
+ * the product graph. The version of a graph is the latest update time of any product, content or
+ * product-content link within it, as changes to a provided product or content do not update the
+ * products referencing them; a snapshot is therefore never reused after any part of its graph has
+ * changed. As the key does not depend on the organization for which the snapshot is requested,
+ * products shared between organizations are cached only once.
+ * <p></p>
+ * The cache is bounded by the total number of products and content held across all snapshots,
+ * rather than the number of snapshots, as the size of a product graph varies by orders of
+ * magnitude. Entries are also evicted based on a time-to-live eviction policy.
+ */
+@Singleton
+public class ProductGraphCache {
+    private static final String HIT_COUNTER = "cache.product_graph.hits";
+    private static final String MISS_COUNTER = "cache.product_graph.misses";
+
+    private Cache<String, ProductGraph> cache;
+
+    @Inject
+    public ProductGraphCache(Configuration config) throws ConfigurationException {
+        Objects.requireNonNull(config);
+
+        long expirationDuration = config.getLong(ConfigProperties.CACHE_PRODUCT_GRAPH_TTL);
+        if (expirationDuration <= 0) {
+            String msg = ConfigProperties.CACHE_PRODUCT_GRAPH_TTL + " value must be larger than 0";
+            throw new ConfigurationException(msg);
+        }
+
+        long maxNodes = config.getLong(ConfigProperties.CACHE_PRODUCT_GRAPH_MAX_NODES);
+        if (maxNodes < 0) {
+            String msg = ConfigProperties.CACHE_PRODUCT_GRAPH_MAX_NODES +
+                " must be larger than or equal to 0";
+            throw new ConfigurationException(msg);
+        }
+
+        cache = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(expirationDuration))
+            .maximumWeight(maxNodes)
+            .weigher((String key, ProductGraph graph) -> graph.getSize())
+            .build();
+    }
+
+    /**
+     * Retrieves the snapshot of the given product, building and caching it if necessary. If the
+     * product has no UUID, or nothing in its graph has an update time, a new snapshot is built and
+     * returned without being cached.
+     *
+     * @param product
+     *  the product for which to retrieve a snapshot
+     *
+     * @throws IllegalArgumentException
+     *  if the provided product is null
+     *
+     * @return
+     *  a snapshot of the given product
+     */
+    public ProductGraph get(Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException("product is null");
+        }
+
+        Date version = getGraphVersion(product);
+        if (product.getUuid() == null || version == null) {
+            return ProductGraph.of(product);
+        }
+
+        String key = product.getUuid() + ":" + version.getTime();
+
+        ProductGraph graph = cache.getIfPresent(key);
+        MetricRegistry.getInstance()
+            .counter(graph != null ? HIT_COUNTER : MISS_COUNTER)
+            .increment();
+
+        if (graph == null) {
+            graph = ProductGraph.of(product);
+            cache.put(key, graph);
+        }
+
+        return graph;
+    }
+
+    /**
+     * Fetches the latest update time of the products, content, product-content links and branding
+     * reachable from the given product, following the same relations as a snapshot.
+     *
+     * @param product
+     *  the product for which to fetch the graph version
+     *
+     * @return
+     *  the latest update time within the product graph, or null if nothing within it has an update
+     *  time
+     */
+    private static Date getGraphVersion(Product product) {
+        Set<Product> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Product> pending = new ArrayDeque<>();
+        pending.push(product);
+
+        Date latest = null;
+        while (!pending.isEmpty()) {
+            Product current = pending.pop();
+            if (!visited.add(current)) {
+                continue;
+            }
+
+            latest = later(latest, current);
+
+            for (ProductContent pc : current.getProductContent()) {
+                latest = later(later(latest, pc), pc.getContent());
+            }
+
+            for (Branding branding : current.getBranding()) {
+                latest = later(latest, branding);
+            }
+
+            for (Product child : current.getProvidedProducts()) {
+                pending.push(child);
+            }
+
+            if (current.getDerivedProduct() != null) {
+                pending.push(current.getDerivedProduct());
+            }
+        }
+
+        return latest;
+    }
+
+    private static Date later(Date latest, AbstractHibernateObject<?> entity) {
+        Date updated = entity != null ? entity.getUpdated() : null;
+        return updated != null && (latest == null || updated.after(latest)) ? updated : latest;
+    }
+
+    /**
+     * Clears all entries in the cache
+     */
+    public void removeAll() {
+        cache.invalidateAll();
+    }
+
+}
@@ -15,6 +15,7 @@
 package org.candlepin.cache;
 
 import org.candlepin.dto.api.server.v1.StatusDTO;
+import org.candlepin.metrics.MetricRegistry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +32,9 @@ public class StatusCache {
     /** The Time-To-Live setting for our cached status object, in milliseconds */
     private static final int STATUS_CACHE_TTL = 5000;
 
+    private static final String HIT_COUNTER = "cache.status.hits";
+    private static final String MISS_COUNTER = "cache.status.misses";
+
     /** Cached status object; Will be discarded after STATUS_CACHE_TTL milliseconds */
     private static volatile StatusDTO cachedStatus;
 
@@ -48,6 +52,8 @@ public class StatusCache {
                 if (lastUpdateTimeSkew <= STATUS_CACHE_TTL) {
                     log.debug("Returning cached status. Last Update Date: {}, Age: {}ms",
                         cachedStatus.getTimeUTC(), lastUpdateTimeSkew);
+
+                    MetricRegistry.getInstance().counter(HIT_COUNTER).increment();
                     return cachedStatus;
                 }
                 log.debug("Cache existed but had expired. Date: {}, Age: {}ms", cachedStatus.getTimeUTC(),
@@ -56,6 +62,9 @@ public class StatusCache {
             // If the cached value was invalidated, reset it.
             reset();
         }
+
+        MetricRegistry.getInstance().counter(MISS_COUNTER).increment();
+
         // Return null if the cached value was invalidated.
         return null;
     }
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import org.candlepin.auth.permissions.Permission;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.config.ConfigurationException;
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.service.model.OwnerInfo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * A thread safe cache of the results of user authentication, used to avoid repeating expensive
+ * password hashing and permission lookups for every request made by the same user. Two kinds of
+ * entries are kept, both keyed by username:
+ *
+ * <ul>
+ *   <li>verified credentials, stored as a keyed digest of the username and password which were
+ *   last successfully validated by the user service; the password itself is never retained, and
+ *   the digest key is generated randomly for each process</li>
+ *   <li>the data needed to build a user principal: the super admin flag, primary owner and the
+ *   permissions created from the user's roles</li>
+ * </ul>
+ *
+ * Entries are evicted based on a time-to-live eviction policy, which bounds how long a changed
+ * password or role assignment can go unnoticed when the change is made outside of this process.
+ * Changes made through Candlepin should invalidate the affected entries explicitly.
+ */
+@Singleton
+public class UserAuthCache {
+    private static final String CREDENTIAL_HIT_COUNTER = "cache.user_auth.credentials.hits";
+    private static final String CREDENTIAL_MISS_COUNTER = "cache.user_auth.credentials.misses";
+    private static final String USER_HIT_COUNTER = "cache.user_auth.users.hits";
+    private static final String USER_MISS_COUNTER = "cache.user_auth.users.misses";
+
+    private static final String DIGEST_ALGORITHM = "HmacSHA256";
+
+    /**
+     * The cached data needed to build a principal for a given user
+     *
+     * @param superAdmin
+     *  whether or not the user is a super admin
+     *
+     * @param primaryOwner
+     *  the primary owner of the user, or null if the user has no primary owner
+     *
+     * @param permissions
+     *  the permissions granted to the user by its roles; empty for super admins
+     */
+    public record CachedUser(boolean superAdmin, OwnerInfo primaryOwner, List<Permission> permissions) {
+        public CachedUser {
+            permissions = permissions != null ? List.copyOf(permissions) : List.of();
+        }
+    }
+
+    private final SecretKeySpec digestKey;
+    private final Cache<String, byte[]> credentials;
+    private final Cache<String, CachedUser> users;
+
+    @Inject
+    public UserAuthCache(Configuration config) throws ConfigurationException {
+        Objects.requireNonNull(config);
+
+        long expirationDuration = config.getLong(ConfigProperties.CACHE_USER_AUTH_TTL);
+        if (expirationDuration <= 0) {
+            String msg = ConfigProperties.CACHE_USER_AUTH_TTL + " value must be larger than 0";
+            throw new ConfigurationException(msg);
+        }
+
+        long maxEntries = config.getLong(ConfigProperties.CACHE_USER_AUTH_MAX_ENTRIES);
+        if (maxEntries < 0) {
+            String msg = ConfigProperties.CACHE_USER_AUTH_MAX_ENTRIES +
+                " must be larger than or equal to 0";
+            throw new ConfigurationException(msg);
+        }
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, DIGEST_ALGORITHM);
+
+        this.credentials = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(expirationDuration))
+            .maximumSize(maxEntries)
+            .build();
+
+        this.users = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(expirationDuration))
+            .maximumSize(maxEntries)
+            .build();
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(DIGEST_ALGORITHM);
+            mac.init(this.digestKey);
+
+            // The username cannot contain a colon in basic auth, so this is unambiguous
+            return mac.doFinal((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        }
+        catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to digest credentials", e);
+        }
+    }
+
+    /**
+     * Checks whether the given credentials match the credentials last recorded as verified for
+     * the user.
+     *
+     * @param username
+     *  the username to check
+     *
+     * @param password
+     *  the password to check
+     *
+     * @return
+     *  true if the credentials have been verified and the entry has not yet expired; false
+     *  otherwise
+     */
+    public boolean isVerified(String username, String password) {
+        if (username == null || password == null) {
+            return false;
+        }
+
+        byte[] cached = this.credentials.getIfPresent(username);
+        boolean verified = cached != null && MessageDigest.isEqual(cached, this.digest(username, password));
+
+        MetricRegistry.getInstance()
+            .counter(verified ? CREDENTIAL_HIT_COUNTER : CREDENTIAL_MISS_COUNTER)
+            .increment();
+
+        return verified;
+    }
+
+    /**
+     * Records the given credentials as successfully verified by the user service. Only
+     * credentials which have been validated should be recorded.
+     *
+     * @param username
+     *  the username of the verified credentials
+     *
+     * @param password
+     *  the password of the verified credentials
+     */
+    public void setVerified(String username, String password) {
+        if (username == null || password == null) {
+            return;
+        }
+
+        this.credentials.put(username, this.digest(username, password));
+    }
+
+    /**
+     * Retrieves the cached data for the given user, looking it up and caching it if necessary.
+     * If the lookup function returns null, nothing is cached and null is returned.
+     *
+     * @param username
+     *  the username of the user to retrieve
+     *
+     * @param lookup
+     *  the function to use to look up the user data when it is not cached
+     *
+     * @throws IllegalArgumentException
+     *  if the provided username or lookup function is null
+     *
+     * @return
+     *  the cached data for the user, or null if the user could not be found
+     */
+    public CachedUser getUser(String username, Function<String, CachedUser> lookup) {
+        if (username == null) {
+            throw new IllegalArgumentException("username is null");
+        }
+
+        if (lookup == null) {
+            throw new IllegalArgumentException("lookup is null");
+        }
+
+        CachedUser user = this.users.getIfPresent(username);
+        MetricRegistry.getInstance()
+            .counter(user != null ? USER_HIT_COUNTER : USER_MISS_COUNTER)
+            .increment();
+
+        if (user == null) {
+            user = lookup.apply(username);
+
+            if (user != null) {
+                this.users.put(username, user);
+            }
+        }
+
+        return user;
+    }
+
+    /**
+     * Removes the verified credentials and cached data of the given user. Should be called
+     * whenever the user's password, roles or primary owner change, or the user is deleted.
+     *
+     * @param username
+     *  the username of the user to remove from the cache
+     */
+    public void removeUser(String username) {
+        if (username != null) {
+            this.credentials.invalidate(username);
+            this.users.invalidate(username);
+        }
+    }
+
+    /**
+     * Removes the cached data of all users, while retaining verified credentials. Should be
+     * called whenever roles, role permissions or owners change in a way which may affect the
+     * permissions of any number of users.
+     */
+    public void removeAllUsers() {
+        this.users.invalidateAll();
+    }
+
+    /**
+     * Clears all entries in the cache
+     */
+    public void removeAll() {
+        this.credentials.invalidateAll();
+        this.users.invalidateAll();
+    }
+
+}
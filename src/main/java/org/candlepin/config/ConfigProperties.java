@@ -18,12 +18,14 @@ import static org.candlepin.config.ConfigurationPrefixes.JPA_CONFIG_PREFIX;
 
 import org.candlepin.async.tasks.ActiveEntitlementJob;
 import org.candlepin.async.tasks.CertificateCleanupJob;
+import org.candlepin.async.tasks.DirtyEntitlementRegenerationJob;
 import org.candlepin.async.tasks.EntitlerJob;
 import org.candlepin.async.tasks.ExpiredPoolsCleanupJob;
 import org.candlepin.async.tasks.ImportRecordCleanerJob;
 import org.candlepin.async.tasks.InactiveConsumerCleanerJob;
 import org.candlepin.async.tasks.JobCleaner;
 import org.candlepin.async.tasks.ManifestCleanerJob;
+import org.candlepin.async.tasks.RefreshPoolsBatchJob;
 import org.candlepin.async.tasks.RevokeEntitlementsJob;
 import org.candlepin.async.tasks.UnmappedGuestEntitlementCleanerJob;
 import org.candlepin.config.validation.ConfigurationValidator;
@@ -122,6 +124,38 @@ public class ConfigProperties {
      */
     public static final String AUDIT_FILTER_DEFAULT_POLICY = "candlepin.audit.filter.policy";
 
+    /**
+     * When enabled, the events of each request or job are handed off to a shared egress pipeline
+     * upon completion, which serializes them off the request thread and sends the events of many
+     * requests to the broker in a single transaction.
+     */
+    public static final String AUDIT_EGRESS_BATCHED = "candlepin.audit.egress.batched";
+    /**
+     * The maximum number of request event batches which may be waiting in the egress pipeline.
+     * Once full, requests send their own events directly.
+     */
+    public static final String AUDIT_EGRESS_QUEUE_CAPACITY = "candlepin.audit.egress.queue_capacity";
+    /**
+     * The target number of events sent by the egress pipeline in a single broker transaction. The
+     * events of a single request are never split across transactions.
+     */
+    public static final String AUDIT_EGRESS_MAX_BATCH_SIZE = "candlepin.audit.egress.max_batch_size";
+
+    /**
+     * Enables coalescing of redundant events. When enabled, of the events sent together which share
+     * a type, target and entity, only the latest is delivered. See documentation of EventCoalescer
+     */
+    public static final String AUDIT_COALESCE_ENABLED = "candlepin.audit.coalesce.enabled";
+    /**
+     * The events eligible for coalescing, in the format TYPE-TARGET. For example CREATED-COMPLIANCE.
+     */
+    public static final String AUDIT_COALESCE_EVENTS = "candlepin.audit.coalesce.events";
+    /**
+     * The time, in milliseconds, the egress pipeline waits after receiving a batch of events for
+     * further batches to coalesce and send with it. Only applies to batched egress.
+     */
+    public static final String AUDIT_COALESCE_WINDOW = "candlepin.audit.coalesce.window";
+
     public static final String PRETTY_PRINT = "candlepin.pretty_print";
     public static final String ACTIVATION_DEBUG_PREFIX = "candlepin.subscription.activation.debug_prefix";
 
@@ -183,12 +217,23 @@ public class ConfigProperties {
     public static final String DB_MAX_CONNECTION_ATTEMPTS = "candlepin.db.max_connection_attempts";
     public static final String DB_CONNECTION_RETRY_INTERVAL = "candlepin.db.retry_interval";
 
+    // Per-request counting of SQL statements, entity loads and collection initializations. When
+    // enabled, counts are reported in response headers; requests exceeding the warn threshold are
+    // logged, and those exceeding the fail threshold are failed. Thresholds of zero are disabled.
+    public static final String DB_QUERY_COUNT_ENABLED = "candlepin.db.query_count.enabled";
+    public static final String DB_QUERY_COUNT_WARN_THRESHOLD = "candlepin.db.query_count.warn_threshold";
+    public static final String DB_QUERY_COUNT_FAIL_THRESHOLD = "candlepin.db.query_count.fail_threshold";
+
     // Cache
     public static final String CACHE_JMX_STATS = "cache.jmx.statistics";
     public static final String CACHE_CONFIG_FILE_URI = JPA_CONFIG_PREFIX + "hibernate.javax.cache.uri";
     public static final String CACHE_ANON_CERT_CONTENT_TTL = "candlepin.cache.anonymous.cert.content.ttl";
     public static final String CACHE_ANON_CERT_CONTENT_MAX_ENTRIES =
         "candlepin.cache.anonymous.cert.content.max_entries";
+    public static final String CACHE_PRODUCT_GRAPH_TTL = "candlepin.cache.product_graph.ttl";
+    public static final String CACHE_PRODUCT_GRAPH_MAX_NODES = "candlepin.cache.product_graph.max_nodes";
+    public static final String CACHE_USER_AUTH_TTL = "candlepin.cache.user_auth.ttl";
+    public static final String CACHE_USER_AUTH_MAX_ENTRIES = "candlepin.cache.user_auth.max_entries";
 
     // Paging
     public static final String PAGING_DEFAULT_PAGE_SIZE = "candlepin.paging.default_page_size";
@@ -202,6 +247,18 @@ public class ConfigProperties {
      */
     public static final String CONSUMER_FACTS_MATCHER = "candlepin.consumer.facts.match_regex";
 
+    /**
+     * Whether or not unpaged consumer searches should be streamed to the client as they are read from
+     * the database, rather than being materialized and limited to the max page size.
+     */
+    public static final String CONSUMER_SEARCH_STREAMING = "candlepin.consumer.search.streaming";
+
+    /** The number of consumers fetched per round trip when streaming consumer search results */
+    public static final String CONSUMER_SEARCH_CHUNK_SIZE = "candlepin.consumer.search.chunk_size";
+
+    /** The number of entitlements fetched per round trip when streaming unpaged owner entitlements */
+    public static final String OWNER_ENTITLEMENTS_CHUNK_SIZE = "candlepin.owner.entitlements.chunk_size";
+
     public static final String SHARD_USERNAME = "candlepin.shard.username";
     public static final String SHARD_PASSWORD = "candlepin.shard.password";
     public static final String SHARD_WEBAPP = "candlepin.shard.webapp";
@@ -285,6 +342,12 @@ public class ConfigProperties {
     public static final String ASYNC_JOBS_PREFIX = "candlepin.async.jobs.";
     public static final String ASYNC_JOBS_JOB_SCHEDULE = "schedule";
 
+    // Per-job number of threads receiving messages for the job on this node. Jobs with a thread
+    // count are received separately from other jobs, and at most that many instances of the job
+    // will run concurrently on this node; for instance:
+    // candlepin.async.jobs.HypervisorUpdateJob.threads=4
+    public static final String ASYNC_JOBS_JOB_THREADS = "threads";
+
     // Special value used to denote a job's schedule should be manual rather than automatic.
     public static final String ASYNC_JOBS_MANUAL_SCHEDULE = "manual";
 
@@ -294,6 +357,7 @@ public class ConfigProperties {
     public static final String[] ASYNC_JOBS_TRIGGERABLE_JOBS_LIST = new String[] {
         ActiveEntitlementJob.JOB_KEY,
         CertificateCleanupJob.JOB_KEY,
+        DirtyEntitlementRegenerationJob.JOB_KEY,
         ExpiredPoolsCleanupJob.JOB_KEY,
         ImportRecordCleanerJob.JOB_KEY,
         JobCleaner.JOB_KEY,
@@ -347,6 +411,19 @@ public class ConfigProperties {
 
     public static final String ENTITLER_BULK_SIZE = "entitler.bulk.size";
 
+    /**
+     * Whether or not refreshes spanning multiple organizations should be coordinated by a single
+     * RefreshPoolsBatchJob, rather than queued as independent per-org refresh jobs.
+     */
+    public static final String REFRESH_POOLS_BATCH_ENABLED = "candlepin.refresh.batch.enabled";
+
+    /**
+     * Whether or not rules which have a Java implementation may be evaluated natively rather than
+     * by the JS rules. Native evaluation is only ever used while the loaded rules are the version
+     * the Java implementation mirrors.
+     */
+    public static final String NATIVE_RULES_ENABLED = "candlepin.rules.native.enabled";
+
     public static final Map<String, String> DEFAULT_PROPERTIES = new HashMap<>() {
         private static final long serialVersionUID = 1L;
 
@@ -356,6 +433,9 @@ public class ConfigProperties {
             // Database connection
             this.put(DB_CONNECTION_RETRY_INTERVAL, "5"); // seconds
             this.put(DB_MAX_CONNECTION_ATTEMPTS, "3");
+            this.put(DB_QUERY_COUNT_ENABLED, "false");
+            this.put(DB_QUERY_COUNT_WARN_THRESHOLD, "0");
+            this.put(DB_QUERY_COUNT_FAIL_THRESHOLD, "0");
 
             this.put(JWT_ISSUER, "Candlepin");
             this.put(JWT_TOKEN_TTL, "600"); // seconds
@@ -393,6 +473,8 @@ public class ConfigProperties {
             this.put(AUDIT_FILTER_ENABLED, "false");
 
             this.put(ENTITLER_BULK_SIZE, "1000");
+            this.put(REFRESH_POOLS_BATCH_ENABLED, "false");
+            this.put(NATIVE_RULES_ENABLED, "true");
 
             // These default DO_NOT_FILTER events are those events needed by other Satellite components.
             this.put(AUDIT_FILTER_DO_NOT_FILTER,
@@ -404,11 +486,24 @@ public class ConfigProperties {
 
             this.put(AUDIT_FILTER_DO_FILTER, "");
             this.put(AUDIT_FILTER_DEFAULT_POLICY, "DO_FILTER");
+            this.put(AUDIT_EGRESS_BATCHED, "false");
+            this.put(AUDIT_EGRESS_QUEUE_CAPACITY, "10000");
+            this.put(AUDIT_EGRESS_MAX_BATCH_SIZE, "500");
+            this.put(AUDIT_COALESCE_ENABLED, "false");
+            this.put(AUDIT_COALESCE_EVENTS,
+                "CREATED-COMPLIANCE," +
+                    "CREATED-SYSTEM_PURPOSE_COMPLIANCE," +
+                    "MODIFIED-ENTITLEMENT," +
+                    "CREATED-GUESTID");
+            this.put(AUDIT_COALESCE_WINDOW, "0");
 
             this.put(PRETTY_PRINT, "false");
 
             this.put(SYNC_WORK_DIR, "/var/cache/candlepin/sync");
             this.put(CONSUMER_FACTS_MATCHER, ".*");
+            this.put(CONSUMER_SEARCH_STREAMING, "false");
+            this.put(CONSUMER_SEARCH_CHUNK_SIZE, "500");
+            this.put(OWNER_ENTITLEMENTS_CHUNK_SIZE, "500");
             this.put(TRUSTED_AUTHENTICATION, "false");
             this.put(SSL_AUTHENTICATION, "true");
             this.put(OAUTH_AUTHENTICATION, "false");
@@ -431,6 +526,10 @@ public class ConfigProperties {
             this.put(CACHE_CONFIG_FILE_URI, "ehcache.xml");
             this.put(CACHE_ANON_CERT_CONTENT_TTL, "120000"); // milliseconds
             this.put(CACHE_ANON_CERT_CONTENT_MAX_ENTRIES, "10000");
+            this.put(CACHE_PRODUCT_GRAPH_TTL, "600000"); // milliseconds
+            this.put(CACHE_PRODUCT_GRAPH_MAX_NODES, "250000");
+            this.put(CACHE_USER_AUTH_TTL, "60000"); // milliseconds
+            this.put(CACHE_USER_AUTH_MAX_ENTRIES, "10000");
 
             this.put(PAGING_DEFAULT_PAGE_SIZE, "10");
             this.put(PAGING_MAX_PAGE_SIZE, "3000");
@@ -502,6 +601,16 @@ public class ConfigProperties {
             this.put(jobConfig(CertificateCleanupJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
                 CertificateCleanupJob.DEFAULT_SCHEDULE);
 
+            // DirtyEntitlementRegenerationJob
+            this.put(jobConfig(DirtyEntitlementRegenerationJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
+                DirtyEntitlementRegenerationJob.DEFAULT_SCHEDULE);
+            this.put(jobConfig(DirtyEntitlementRegenerationJob.JOB_KEY,
+                DirtyEntitlementRegenerationJob.CFG_BATCH_SIZE),
+                DirtyEntitlementRegenerationJob.DEFAULT_BATCH_SIZE);
+            this.put(jobConfig(DirtyEntitlementRegenerationJob.JOB_KEY,
+                DirtyEntitlementRegenerationJob.CFG_MAX_ENTITLEMENTS),
+                DirtyEntitlementRegenerationJob.DEFAULT_MAX_ENTITLEMENTS);
+
             // EntitlerJob
             this.put(jobConfig(EntitlerJob.JOB_KEY, EntitlerJob.CFG_JOB_THROTTLE),
                 EntitlerJob.DEFAULT_THROTTLE);
@@ -548,6 +657,12 @@ public class ConfigProperties {
             this.put(jobConfig(UnmappedGuestEntitlementCleanerJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
                 UnmappedGuestEntitlementCleanerJob.DEFAULT_SCHEDULE);
 
+            // RefreshPoolsBatchJob
+            this.put(jobConfig(RefreshPoolsBatchJob.JOB_KEY, RefreshPoolsBatchJob.CFG_ORG_THROTTLE),
+                RefreshPoolsBatchJob.DEFAULT_ORG_THROTTLE);
+            this.put(jobConfig(RefreshPoolsBatchJob.JOB_KEY, RefreshPoolsBatchJob.CFG_POLL_INTERVAL),
+                RefreshPoolsBatchJob.DEFAULT_POLL_INTERVAL);
+
             // RevokeEntitlementsJob
             this.put(jobConfig(RevokeEntitlementsJob.JOB_KEY, RevokeEntitlementsJob.CFG_BATCH_SIZE), "500");
 
@@ -577,6 +692,21 @@ public class ConfigProperties {
             this.add(new IntegerConfigurationValidator(PAGING_MAX_PAGE_SIZE)
                 .min(1));
 
+            this.add(new IntegerConfigurationValidator(CONSUMER_SEARCH_CHUNK_SIZE)
+                .min(1));
+
+            this.add(new IntegerConfigurationValidator(OWNER_ENTITLEMENTS_CHUNK_SIZE)
+                .min(1));
+
+            this.add(new IntegerConfigurationValidator(AUDIT_EGRESS_QUEUE_CAPACITY)
+                .min(1));
+
+            this.add(new IntegerConfigurationValidator(AUDIT_EGRESS_MAX_BATCH_SIZE)
+                .min(1));
+
+            this.add(new IntegerConfigurationValidator(AUDIT_COALESCE_WINDOW)
+                .min(0));
+
             this.add(new IntegerConfigurationValidator(DB_CONNECTION_RETRY_INTERVAL)
                 .min(1));
 
@@ -50,6 +50,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -385,7 +386,7 @@ public class PoolService {
 
                 // Fire post-unbind events for revoked entitlements
                 log.info("Firing post-unbind events for {} entitlements...", entitlements.size());
-                entitlements.forEach(this::postUnbind);
+                this.postUnbind(entitlements);
 
                 log.info("Recomputing status for {} consumers", consumerStackedEnts.keySet().size());
 
@@ -434,41 +435,59 @@ public class PoolService {
      *  The entitlement that needs to be revoked
      */
     public void postUnbind(Entitlement ent) {
-        Pool pool = ent.getPool();
+        this.postUnbind(Collections.singletonList(ent));
+    }
 
-        // Can this attribute appear on pools?
-        if (pool.hasAttribute(Product.Attributes.VIRT_LIMIT) ||
-            pool.getProduct().hasAttribute(Product.Attributes.VIRT_LIMIT)) {
+    /**
+     * Run post-entitlement actions for a collection of revoked entitlements. The virt limit
+     * adjustments of entitlements revoked from the same pool are combined, so the pools derived
+     * from each pool's subscription are fetched and updated once per pool, rather than once per
+     * entitlement.
+     *
+     * @param entitlements
+     *  The entitlements that have been revoked
+     */
+    private void postUnbind(Collection<Entitlement> entitlements) {
+        Map<Pool, Integer> exportedQuantities = new LinkedHashMap<>();
 
-            Map<String, String> attributes = PoolHelper.getFlattenedAttributes(pool);
-            Consumer consumer = ent.getConsumer();
-            postUnbindVirtLimit(ent, pool, consumer, attributes);
+        for (Entitlement entitlement : entitlements) {
+            Pool pool = entitlement.getPool();
+
+            // Can this attribute appear on pools?
+            if (pool.hasAttribute(Product.Attributes.VIRT_LIMIT) ||
+                pool.getProduct().hasAttribute(Product.Attributes.VIRT_LIMIT)) {
+
+                ConsumerType ctype = this.consumerTypeCurator.getConsumerType(entitlement.getConsumer());
+                if (ctype.isManifest()) {
+                    int quantity = entitlement.getQuantity() != null ? entitlement.getQuantity() : 0;
+                    exportedQuantities.merge(pool, quantity, Integer::sum);
+                }
+            }
         }
-    }
 
-    private void postUnbindVirtLimit(Entitlement entitlement, Pool pool,
-        Consumer consumer, Map<String, String> attributes) {
+        exportedQuantities.forEach(this::postUnbindVirtLimit);
+    }
 
+    private void postUnbindVirtLimit(Pool pool, int exportedQuantity) {
         log.debug("Running virt_limit post unbind.");
 
-        ConsumerType ctype = this.consumerTypeCurator.getConsumerType(consumer);
-
+        Map<String, String> attributes = PoolHelper.getFlattenedAttributes(pool);
         boolean hostLimited = "true".equals(attributes.get(Product.Attributes.HOST_LIMITED));
 
-        if (!config.getBoolean(ConfigProperties.STANDALONE) && !hostLimited && ctype.isManifest()) {
+        if (!config.getBoolean(ConfigProperties.STANDALONE) && !hostLimited) {
             // We're making an assumption that VIRT_LIMIT is defined the same way in every possible
             // source for the attributes map.
             String virtLimit = attributes.get(Product.Attributes.VIRT_LIMIT);
 
             if (!"unlimited".equals(virtLimit)) {
                 /*
-                 * Case I As we have unbound an entitlement from a physical pool that was previously exported,
-                 * we need to add back the reduced bonus pool quantity.
+                 * Case I As we have unbound entitlements from a physical pool that were previously
+                 * exported, we need to add back the reduced bonus pool quantity.
                  *
                  * Case II If Primary pool quantity is unlimited, with non-zero virt_limit & pool under
                  * consideration is of type Unmapped guest or Bonus pool, set its quantity to be unlimited.
                  */
-                int virtQuantity = Integer.parseInt(virtLimit) * entitlement.getQuantity();
+                int virtQuantity = Integer.parseInt(virtLimit) * exportedQuantity;
                 if (virtQuantity > 0) {
                     List<Pool> pools = this.getBySubscriptionId(pool.getOwner(), pool.getSubscriptionId());
                     boolean isPrimaryPoolUnlimited = isPrimaryPoolUnlimited(pools);
@@ -655,11 +674,11 @@ public class PoolService {
         log.info("Batch revoking {} entitlements", entsToRevoke.size());
         entsToRevoke = new ArrayList<>(entsToRevoke);
 
-        for (Pool pool : poolsToDelete) {
-            for (Entitlement ent : pool.getEntitlements()) {
-                ent.setDeletedFromPool(true);
-                entsToRevoke.add(ent);
-            }
+        // Fetch the entitlements of the pools being deleted in bulk, rather than initializing the
+        // entitlement collection of each pool in turn
+        for (Entitlement ent : this.poolCurator.entitlementsIn(poolsToDelete)) {
+            ent.setDeletedFromPool(true);
+            entsToRevoke.add(ent);
         }
 
         log.debug("Adjusting consumed quantities on pools");
@@ -707,13 +726,22 @@ public class PoolService {
             log.debug("{} dependent entitlements marked dirty.", update);
         }
 
+        // Unlink the pools we're about to delete from their source entitlements, so the entitlements
+        // and their certificates can be deleted in bulk ahead of the pools. Pending changes are
+        // flushed first, so certificates not yet written are caught by the bulk deletes.
+        log.info("Starting batch delete of entitlements");
+        this.entitlementCurator.flush();
+        this.poolCurator.clearPoolSourceEntitlementRefs(poolIdsToDelete);
+        this.entitlementCertificateCurator.deleteByEntitlementIds(entIdsToRevoke);
+        this.entitlementCurator.batchDelete(entsToRevoke);
+        this.entitlementCurator.flush();
+        this.entitlementCurator.batchDetach(entsToRevoke);
+
         log.info("Starting batch delete of pools");
         poolCurator.batchDelete(poolsToDelete, alreadyDeletedPools);
         firePoolDeletedEvents(poolsToDelete);
-        log.info("Starting batch delete of entitlements");
-        entitlementCurator.batchDelete(entsToRevoke);
         log.info("Starting delete flush");
-        entitlementCurator.flush();
+        poolCurator.flush();
         log.info("All deletes flushed successfully");
 
         updateStackingEntitlements(entsToRevoke, alreadyDeletedPools);
@@ -742,10 +770,6 @@ public class PoolService {
             .forEach(this.sink::queueEvent);
     }
 
-    private void postUnbind(Collection<Entitlement> entitlements) {
-        entitlements.forEach(this::postUnbind);
-    }
-
     private void recomputeStatusForConsumers(Set<Consumer> consumers) {
         log.info("Recomputing status for {} consumers.", consumers.size());
         int i = 1;
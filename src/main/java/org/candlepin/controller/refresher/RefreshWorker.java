@@ -385,29 +385,70 @@ public class RefreshWorker {
     /**
      * Performs the import operation on the currently compiled objects
      *
+     * @param owner
+     *  the organization for which to refresh pools
+     *
      * @return
      *  the result of this refresh operation
      */
-    @SuppressWarnings("indentation")
     public RefreshResult execute(Owner owner) {
+        return this.execute(owner, true);
+    }
+
+    /**
+     * Performs the import operation on the currently compiled products and content, without mapping
+     * or processing any pools. Since products and content live in the global namespace, this may be
+     * used to resolve the upstream product and content updates for several organizations in a
+     * single pass, after which the per-organization refreshes will find those entities unchanged.
+     *
+     * @param owner
+     *  the organization to use as context for the node trees; no pools are read or modified for
+     *  this organization
+     *
+     * @return
+     *  the result of this refresh operation, which will only contain products and content
+     */
+    public RefreshResult executeGlobalEntities(Owner owner) {
+        return this.execute(owner, false);
+    }
+
+    /**
+     * Performs the import operation on the currently compiled objects, optionally including the
+     * pools of the given organization.
+     *
+     * @param owner
+     *  the organization for which to perform the refresh
+     *
+     * @param includePools
+     *  whether or not to map and process pools for the organization
+     *
+     * @return
+     *  the result of this refresh operation
+     */
+    @SuppressWarnings("indentation")
+    private RefreshResult execute(Owner owner, boolean includePools) {
         Transactional<RefreshResult> block = this.poolCurator.transactional((args) -> {
             NodeMapper nodeMapper = new NodeMapper();
 
             NodeFactory nodeFactory = new NodeFactory()
                 .setNodeMapper(nodeMapper)
-                .addMapper(this.poolMapper)
                 .addMapper(this.productMapper)
                 .addMapper(this.contentMapper)
-                .addBuilder(new PoolNodeBuilder())
                 .addBuilder(new ProductNodeBuilder())
                 .addBuilder(new ContentNodeBuilder());
 
             NodeProcessor nodeProcessor = new NodeProcessor()
                 .setNodeMapper(nodeMapper)
-                .addVisitor(new PoolNodeVisitor(this.poolCurator))
                 .addVisitor(new ProductNodeVisitor(this.productCurator))
                 .addVisitor(new ContentNodeVisitor(this.contentCurator));
 
+            if (includePools) {
+                nodeFactory.addMapper(this.poolMapper)
+                    .addBuilder(new PoolNodeBuilder());
+
+                nodeProcessor.addVisitor(new PoolNodeVisitor(this.poolCurator));
+            }
+
             // We shouldn't need these locks anymore. Simultaneous creations may cause one job to
             // fail and retry when its transaction commits (and fails), but simultaneous updates
             // will just clobber each other in a way that doesn't matter anymore with refresh only
@@ -422,10 +463,12 @@ public class RefreshWorker {
             Collection<String> importedProductIds = this.productMapper.getImportedEntities().keySet();
             Collection<String> importedContentIds = this.contentMapper.getImportedEntities().keySet();
 
-            log.debug("Adding existing subscriptions to mapper...");
-            List<Pool> pools = this.poolCurator
-                .listByOwnerAndTypes(owner.getId(), PoolType.NORMAL);
-            this.mapExistingPools(pools);
+            if (includePools) {
+                log.debug("Adding existing subscriptions to mapper...");
+                List<Pool> pools = this.poolCurator
+                    .listByOwnerAndTypes(owner.getId(), PoolType.NORMAL);
+                this.mapExistingPools(pools);
+            }
 
             // Add globally namespaced products and content to refresh.
             // TODO: FIXME: We don't need to do this on a per-org basis anymore (kind of)!
@@ -21,6 +21,7 @@ import org.candlepin.async.tasks.ActiveEntitlementJob;
 import org.candlepin.async.tasks.CertificateCleanupJob;
 import org.candlepin.async.tasks.CloudAccountOrgSetupJob;
 import org.candlepin.async.tasks.ConsumerMigrationJob;
+import org.candlepin.async.tasks.DirtyEntitlementRegenerationJob;
 import org.candlepin.async.tasks.EntitleByProductsJob;
 import org.candlepin.async.tasks.EntitlerJob;
 import org.candlepin.async.tasks.ExpiredPoolsCleanupJob;
@@ -33,6 +34,7 @@ import org.candlepin.async.tasks.ImportRecordCleanerJob;
 import org.candlepin.async.tasks.InactiveConsumerCleanerJob;
 import org.candlepin.async.tasks.JobCleaner;
 import org.candlepin.async.tasks.ManifestCleanerJob;
+import org.candlepin.async.tasks.RefreshPoolsBatchJob;
 import org.candlepin.async.tasks.RefreshPoolsForProductJob;
 import org.candlepin.async.tasks.RefreshPoolsJob;
 import org.candlepin.async.tasks.RegenEnvEntitlementCertsJob;
@@ -42,6 +44,8 @@ import org.candlepin.async.tasks.UndoImportsJob;
 import org.candlepin.async.tasks.UnmappedGuestEntitlementCleanerJob;
 import org.candlepin.audit.ArtemisMessageSource;
 import org.candlepin.audit.ArtemisMessageSourceReceiverFactory;
+import org.candlepin.audit.EventCoalescer;
+import org.candlepin.audit.EventEgressPipeline;
 import org.candlepin.audit.EventSink;
 import org.candlepin.audit.EventSinkImpl;
 import org.candlepin.audit.MessageSource;
@@ -94,6 +98,7 @@ import org.candlepin.messaging.impl.artemis.ArtemisSessionFactory;
 import org.candlepin.messaging.impl.artemis.ArtemisUtil;
 import org.candlepin.messaging.impl.noop.NoopContextListener;
 import org.candlepin.messaging.impl.noop.NoopSessionFactory;
+import org.candlepin.metrics.MetricRegistry;
 import org.candlepin.pki.CertificateReader;
 import org.candlepin.pki.KeyPairGenerator;
 import org.candlepin.pki.PemEncoder;
@@ -135,6 +140,7 @@ import org.candlepin.resource.EnvironmentResource;
 import org.candlepin.resource.GuestIdResource;
 import org.candlepin.resource.HypervisorResource;
 import org.candlepin.resource.JobResource;
+import org.candlepin.resource.MetricsResource;
 import org.candlepin.resource.OwnerContentResource;
 import org.candlepin.resource.OwnerProductResource;
 import org.candlepin.resource.OwnerResource;
@@ -157,7 +163,9 @@ import org.candlepin.resteasy.filter.CandlepinSuspendModeFilter;
 import org.candlepin.resteasy.filter.ConsumerCheckInFilter;
 import org.candlepin.resteasy.filter.DynamicJsonFilter;
 import org.candlepin.resteasy.filter.LinkHeaderResponseFilter;
+import org.candlepin.resteasy.filter.MetricsFilter;
 import org.candlepin.resteasy.filter.PageRequestFilter;
+import org.candlepin.resteasy.filter.QueryCountFilter;
 import org.candlepin.resteasy.filter.SecurityHoleAuthorizationFilter;
 import org.candlepin.resteasy.filter.StoreFactory;
 import org.candlepin.resteasy.filter.SuperAdminAuthorizationFilter;
@@ -234,6 +242,7 @@ public class CandlepinModule extends AbstractModule {
         resources();
 
         bind(DateSource.class).to(DateSourceImpl.class).asEagerSingleton();
+        bind(MetricRegistry.class).toInstance(MetricRegistry.getInstance());
         bind(Enforcer.class).to(EntitlementRules.class);
         bind(EntitlementRulesTranslator.class);
         bind(PoolManager.class);
@@ -328,6 +337,7 @@ public class CandlepinModule extends AbstractModule {
         bind(EnvironmentResource.class);
         bind(HypervisorResource.class);
         bind(JobResource.class);
+        bind(MetricsResource.class);
         bind(OwnerResource.class);
         bind(OwnerProductResource.class);
         bind(OwnerContentResource.class);
@@ -426,6 +436,7 @@ public class CandlepinModule extends AbstractModule {
     }
 
     private void configureInterceptors() {
+        bind(MetricsFilter.class);
         bind(ConsumerCheckInFilter.class);
         bind(PageRequestFilter.class);
         bind(VersionResponseFilter.class);
@@ -437,6 +448,11 @@ public class CandlepinModule extends AbstractModule {
             bind(CandlepinSuspendModeFilter.class);
         }
 
+        // Only bind the query count filter if per-request query counting is enabled
+        if (this.config.getBoolean(ConfigProperties.DB_QUERY_COUNT_ENABLED)) {
+            bind(QueryCountFilter.class);
+        }
+
         bindConstant().annotatedWith(Names.named("PREFIX_APIURL_KEY")).to(ConfigProperties.PREFIX_APIURL);
     }
 
@@ -448,6 +464,8 @@ public class CandlepinModule extends AbstractModule {
 
         JobManager.registerJob(ActiveEntitlementJob.JOB_KEY, ActiveEntitlementJob.class);
         JobManager.registerJob(CertificateCleanupJob.JOB_KEY, CertificateCleanupJob.class);
+        JobManager.registerJob(DirtyEntitlementRegenerationJob.JOB_KEY,
+            DirtyEntitlementRegenerationJob.class);
         JobManager.registerJob(EntitlerJob.JOB_KEY, EntitlerJob.class);
         JobManager.registerJob(EntitleByProductsJob.JOB_KEY, EntitleByProductsJob.class);
         JobManager.registerJob(ExpiredPoolsCleanupJob.JOB_KEY, ExpiredPoolsCleanupJob.class);
@@ -461,6 +479,7 @@ public class CandlepinModule extends AbstractModule {
         JobManager.registerJob(ManifestCleanerJob.JOB_KEY, ManifestCleanerJob.class);
         JobManager.registerJob(RefreshPoolsForProductJob.JOB_KEY, RefreshPoolsForProductJob.class);
         JobManager.registerJob(RefreshPoolsJob.JOB_KEY, RefreshPoolsJob.class);
+        JobManager.registerJob(RefreshPoolsBatchJob.JOB_KEY, RefreshPoolsBatchJob.class);
         JobManager.registerJob(RegenEnvEntitlementCertsJob.JOB_KEY, RegenEnvEntitlementCertsJob.class);
         JobManager.registerJob(RegenProductEntitlementCertsJob.JOB_KEY,
             RegenProductEntitlementCertsJob.class);
@@ -486,6 +505,8 @@ public class CandlepinModule extends AbstractModule {
             bind(MessageSource.class).to(ArtemisMessageSource.class);
             bind(MessageSourceReceiverFactory.class).to(ArtemisMessageSourceReceiverFactory.class);
             bind(EventSink.class).to(EventSinkImpl.class);
+            bind(EventEgressPipeline.class);
+            bind(EventCoalescer.class);
         }
         else {
             bind(EventSink.class).to(NoopEventSinkImpl.class);
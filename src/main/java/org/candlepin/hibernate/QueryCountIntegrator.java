@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.hibernate;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+
+
+/**
+ * Integrator which registers listeners counting entity loads and collection initializations
+ * against the {@link QueryCounter} of the current thread. The listeners are appended after
+ * Hibernate's default listeners, and do not affect how entities or collections are loaded.
+ *
+ * Registered through META-INF/services/org.hibernate.integrator.spi.Integrator.
+ */
+public class QueryCountIntegrator implements Integrator {
+
+    /**
+     * Listener counting entity loads and collection initializations
+     */
+    private static class QueryCountListener implements PostLoadEventListener,
+        InitializeCollectionEventListener {
+
+        @Override
+        public void onPostLoad(PostLoadEvent event) {
+            QueryCounter.entityLoaded();
+        }
+
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) {
+            QueryCounter.collectionInitialized();
+        }
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+        SessionFactoryServiceRegistry serviceRegistry) {
+
+        QueryCountListener listener = new QueryCountListener();
+
+        EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, listener);
+        registry.appendListeners(EventType.INIT_COLLECTION, listener);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory,
+        SessionFactoryServiceRegistry serviceRegistry) {
+        // Nothing to clean up
+    }
+}
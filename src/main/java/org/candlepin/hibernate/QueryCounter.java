@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.hibernate;
+
+/**
+ * The QueryCounter counts the SQL statements, entity loads and collection initializations
+ * performed by Hibernate on the current thread between calls to {@link #start()} and
+ * {@link #stop()}. Counting is driven by the {@link QueryCountingStatementInspector} and the
+ * listeners registered by the {@link QueryCountIntegrator}, both of which do nothing on threads
+ * which have not started counting.
+ *
+ * Since counts are tracked per thread, work which is handed off to other threads, such as async
+ * jobs, is not included in the counts of the thread which started it.
+ */
+public final class QueryCounter {
+
+    /**
+     * The number of statements, entity loads and collection initializations counted on a thread.
+     *
+     * @param statements
+     *  the number of SQL statements prepared
+     *
+     * @param entityLoads
+     *  the number of entities loaded from the database
+     *
+     * @param collectionLoads
+     *  the number of lazy collections initialized
+     */
+    public record Counts(long statements, long entityLoads, long collectionLoads) {
+        public static final Counts NONE = new Counts(0, 0, 0);
+    }
+
+    private static final int STATEMENTS = 0;
+    private static final int ENTITY_LOADS = 1;
+    private static final int COLLECTION_LOADS = 2;
+
+    private static final ThreadLocal<long[]> COUNTS = new ThreadLocal<>();
+
+    private QueryCounter() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Starts counting on the current thread, discarding any counts from a previous call to start
+     * which was not stopped.
+     */
+    public static void start() {
+        COUNTS.set(new long[3]);
+    }
+
+    /**
+     * Stops counting on the current thread, returning the counts since counting was started. If
+     * counting was not started on this thread, this method returns empty counts.
+     *
+     * @return
+     *  the counts since counting was started on the current thread
+     */
+    public static Counts stop() {
+        Counts counts = current();
+        COUNTS.remove();
+
+        return counts;
+    }
+
+    /**
+     * Fetches the counts since counting was started on the current thread, without stopping. If
+     * counting was not started on this thread, this method returns empty counts.
+     *
+     * @return
+     *  the counts since counting was started on the current thread
+     */
+    public static Counts current() {
+        long[] counts = COUNTS.get();
+
+        return counts != null ?
+            new Counts(counts[STATEMENTS], counts[ENTITY_LOADS], counts[COLLECTION_LOADS]) :
+            Counts.NONE;
+    }
+
+    /**
+     * Checks if counting has been started on the current thread.
+     *
+     * @return
+     *  true if counting has been started on the current thread; false otherwise
+     */
+    public static boolean isCounting() {
+        return COUNTS.get() != null;
+    }
+
+    static void statementPrepared() {
+        increment(STATEMENTS);
+    }
+
+    static void entityLoaded() {
+        increment(ENTITY_LOADS);
+    }
+
+    static void collectionInitialized() {
+        increment(COLLECTION_LOADS);
+    }
+
+    private static void increment(int index) {
+        long[] counts = COUNTS.get();
+        if (counts != null) {
+            ++counts[index];
+        }
+    }
+}
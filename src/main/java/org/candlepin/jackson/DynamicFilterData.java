@@ -14,13 +14,9 @@
  */
 package org.candlepin.jackson;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 
 
@@ -29,11 +25,19 @@ import java.util.Map;
  *
  * Class to hold filtering data to be passed from DynamicJsonFilter
  * to DynamicPropertyFilter
+ * <p></p>
+ * The include and exclude filters are compiled into case-insensitive tries as they are added, so
+ * checking a path costs a single walk down each trie, regardless of the number of filters.
+ * <p></p>
+ * A filter matches a path if either is a prefix of the other. A filter which is a prefix of the
+ * path (or the path itself) is an exact match, and takes precedence over filters which extend
+ * the path; among exact matches, the longest filter is the most specific.
  */
 public class DynamicFilterData {
-    private static Logger log = LoggerFactory.getLogger(DynamicFilterData.class);
 
     private static class Match {
+        private static final Match NONE = new Match(0, false);
+
         private final int level;
         private final boolean exact;
 
@@ -51,9 +55,26 @@ public class DynamicFilterData {
         }
     }
 
+    /**
+     * A node in a filter trie. Each node represents a path chunk, and is terminal if a filter ends
+     * at that chunk.
+     */
+    private static class FilterNode {
+        private final Map<String, FilterNode> children = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private boolean terminal;
+
+        public FilterNode getChild(String chunk) {
+            return chunk != null ? this.children.get(chunk) : null;
+        }
+
+        public FilterNode getOrCreateChild(String chunk) {
+            return this.children.computeIfAbsent(chunk, key -> new FilterNode());
+        }
+    }
+
 
-    private Map<String, List<String>> includeFilters;
-    private Map<String, List<String>> excludeFilters;
+    private final FilterNode includeFilters;
+    private final FilterNode excludeFilters;
     private boolean allowlist;
 
     public DynamicFilterData() {
@@ -61,8 +82,8 @@ public class DynamicFilterData {
     }
 
     public DynamicFilterData(boolean allowlist) {
-        this.includeFilters = new HashMap<>();
-        this.excludeFilters = new HashMap<>();
+        this.includeFilters = new FilterNode();
+        this.excludeFilters = new FilterNode();
         this.allowlist = allowlist;
     }
 
@@ -86,19 +107,40 @@ public class DynamicFilterData {
         this.addAttributeFilter(this.excludeFilters, path);
     }
 
-    private void addAttributeFilter(Map<String, List<String>> filters, String path) {
-        String[] chunklets = path.split("\\.");
-        filters.put(path.toLowerCase(), Arrays.asList(chunklets));
+    private void addAttributeFilter(FilterNode root, String path) {
+        FilterNode node = root;
+
+        for (String chunk : path.split("\\.")) {
+            node = node.getOrCreateChild(chunk);
+        }
+
+        node.terminal = true;
     }
 
     public boolean isAttributeExcluded(String path) {
         String[] chunklets = path.split("\\.");
-        return this.isAttributeExcluded(Arrays.asList(chunklets));
+        return this.isAttributeExcluded(chunklets, chunklets.length);
     }
 
     public boolean isAttributeExcluded(List<String> path) {
-        Match iLevel = this.getFilterLevel(this.includeFilters, path);
-        Match eLevel = this.getFilterLevel(this.excludeFilters, path);
+        return this.isAttributeExcluded(path.toArray(new String[0]), path.size());
+    }
+
+    /**
+     * Checks whether or not the attribute at the given path should be excluded from serialization.
+     *
+     * @param path
+     *  an array containing the chunks of the path to check, starting from the root
+     *
+     * @param length
+     *  the number of chunks in the path array to check
+     *
+     * @return
+     *  true if the attribute should be excluded; false otherwise
+     */
+    public boolean isAttributeExcluded(String[] path, int length) {
+        Match iLevel = this.getFilterLevel(this.includeFilters, path, length);
+        Match eLevel = this.getFilterLevel(this.excludeFilters, path, length);
 
         if (iLevel.isExact() && iLevel.getLevel() > eLevel.getLevel()) {
             return false;
@@ -111,32 +153,28 @@ public class DynamicFilterData {
         return this.allowlist && (iLevel.getLevel() < 1 || iLevel.getLevel() < eLevel.getLevel());
     }
 
-    private Match getFilterLevel(Map<String, List<String>> filters, List<String> path) {
-        int level = 0;
-        boolean exact = false;
-
-        for (List<String> fpath : filters.values()) {
-            boolean match = false;
-            int i = 0;
+    private Match getFilterLevel(FilterNode root, String[] path, int length) {
+        FilterNode node = root;
+        int exactDepth = 0;
+        int depth = 0;
 
-            do {
-                String fchunk = fpath.get(i);
-                String pchunk = path.get(i);
+        while (depth < length && (node = node.getChild(path[depth])) != null) {
+            ++depth;
 
-                match = fchunk != null && fchunk.equalsIgnoreCase(pchunk);
-                ++i;
-            } while (match && i < path.size() && i < fpath.size());
+            if (node.terminal) {
+                exactDepth = depth;
+            }
+        }
 
-            if (match && i > level) {
-                level = i + 1;
-                exact = i >= fpath.size();
+        if (exactDepth > 0) {
+            return new Match(exactDepth + 1, true);
+        }
 
-                if (exact) {
-                    break;
-                }
-            }
+        // The path is a prefix of one or more filters
+        if (depth > 0 && depth == length) {
+            return new Match(depth + 1, false);
         }
 
-        return new Match(level, exact);
+        return Match.NONE;
     }
 }
@@ -21,8 +21,7 @@ import com.fasterxml.jackson.databind.ser.PropertyWriter;
 
 import org.jboss.resteasy.core.ResteasyContext;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * DynamicPropertyFilter
@@ -32,26 +31,69 @@ import java.util.List;
  */
 public class DynamicPropertyFilter extends CheckableBeanPropertyFilter {
 
+    /** Serialization attribute used to cache the filter data for the duration of a serialization */
+    private static final Object FILTER_DATA_ATTRIBUTE = DynamicFilterData.class;
+    private static final Object NO_FILTER_DATA = new Object();
+
+    private static final ThreadLocal<String[]> PATH_BUFFER = ThreadLocal.withInitial(() -> new String[16]);
+
+    /**
+     * Fetches the filter data for the current request, caching it in the serializer provider's
+     * per-call attributes so it is only looked up once per serialization.
+     */
+    private static DynamicFilterData getFilterData(SerializerProvider serializerProvider) {
+        if (serializerProvider == null) {
+            return ResteasyContext.getContextData(DynamicFilterData.class);
+        }
+
+        Object cached = serializerProvider.getAttribute(FILTER_DATA_ATTRIBUTE);
+        if (cached == null) {
+            DynamicFilterData filterData = ResteasyContext.getContextData(DynamicFilterData.class);
+            serializerProvider.setAttribute(FILTER_DATA_ATTRIBUTE,
+                filterData != null ? filterData : NO_FILTER_DATA);
+
+            return filterData;
+        }
+
+        return cached instanceof DynamicFilterData ? (DynamicFilterData) cached : null;
+    }
+
     public boolean isSerializable(Object obj, JsonGenerator jsonGenerator,
         SerializerProvider serializerProvider, PropertyWriter writer) {
 
-        DynamicFilterData filterData = ResteasyContext.getContextData(DynamicFilterData.class);
+        DynamicFilterData filterData = getFilterData(serializerProvider);
 
         if (filterData != null) {
-            List<String> path = new ArrayList<>(10);
-            path.clear();
-            path.add(0, writer.getName());
+            // Build full path from the context, leaf first, into a reusable buffer...
+            String[] path = PATH_BUFFER.get();
+            int length = 0;
+
+            path[length++] = writer.getName();
 
-            // Build full path from the context...
             JsonStreamContext context = jsonGenerator.getOutputContext();
             while ((context = context.getParent()) != null) {
                 String cname = context.getCurrentName();
                 if (cname != null) {
-                    path.add(0, cname);
+                    if (length == path.length) {
+                        path = Arrays.copyOf(path, length * 2);
+                        PATH_BUFFER.set(path);
+                    }
+
+                    path[length++] = cname;
                 }
             }
 
-            return !filterData.isAttributeExcluded(path);
+            // ...and flip it around so it starts from the root
+            for (int i = 0, j = length - 1; i < j; ++i, --j) {
+                String tmp = path[i];
+                path[i] = path[j];
+                path[j] = tmp;
+            }
+
+            boolean excluded = filterData.isAttributeExcluded(path, length);
+            Arrays.fill(path, 0, length, null);
+
+            return !excluded;
         }
 
         // Allow serialization by default
@@ -22,6 +22,7 @@ import liquibase.exception.DatabaseException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -44,12 +45,22 @@ public class PerOrgProductsMigrationTask extends LiquibaseCustomTask {
     /** The maximum number of parameters we can cram into a single statement on all DBs. */
     private static final int MAX_PARAMETERS_PER_STATEMENT = 32000;
 
+    /** The number of orgs to migrate before committing the migrated data */
+    private static final int ORG_CHUNK_SIZE = 100;
+
+    private final int orgChunkSize;
+
     protected Map<String, String> migratedProducts;
     protected Map<String, String> migratedContent;
 
     public PerOrgProductsMigrationTask(Database database, CustomTaskLogger logger) {
+        this(database, logger, ORG_CHUNK_SIZE);
+    }
+
+    PerOrgProductsMigrationTask(Database database, CustomTaskLogger logger, int orgChunkSize) {
         super(database, logger);
 
+        this.orgChunkSize = orgChunkSize;
         this.migratedProducts = new HashMap<>();
         this.migratedContent = new HashMap<>();
     }
@@ -105,6 +116,13 @@ public class PerOrgProductsMigrationTask extends LiquibaseCustomTask {
 
     /**
      * Executes the multi-org upgrade task.
+     * <p></p>
+     * Orgs are migrated in chunks of {@value #ORG_CHUNK_SIZE}, each of which is committed once
+     * migrated, along with a report of the migration's progress. Should the migration fail, the
+     * uncommitted chunk is rolled back. When the task is run again, the products, content and org
+     * assignments committed by the previous run are reused, and only the missing ones are written,
+     * so that the migration resumes rather than starting over, even for an org that was only
+     * partly migrated.
      *
      * @throws DatabaseException
      *  if an error occurs while performing a database operation
@@ -120,19 +138,29 @@ public class PerOrgProductsMigrationTask extends LiquibaseCustomTask {
         try {
             this.connection.setAutoCommit(false);
 
-            // Fetch our org count for prettier log messages
-            ResultSet countQuery = this.executeQuery("SELECT count(id) FROM cp_owner");
-            countQuery.next();
-            int count = countQuery.getInt(1);
-            countQuery.close();
+            // Fetch the orgs up front, as we commit between chunks of orgs
+            List<String[]> orgs = new ArrayList<>();
+            ResultSet orgids = this.executeQuery("SELECT id, account FROM cp_owner");
+            while (orgids.next()) {
+                orgs.add(new String[] { orgids.getString(1), orgids.getString(2) });
+            }
+            orgids.close();
+
+            int count = orgs.size();
+
+            // Pick up where a previous, interrupted run of this task left off
+            int migratedOrgs = this.resumeMigration();
+            if (migratedOrgs > 0) {
+                this.logger.info("Resuming migration; %d of %d orgs have already been migrated",
+                    migratedOrgs, count);
+            }
 
             // Do our initial validation check to avoid doing a multi-hour migration and fail out
             // while validating the last org...
             boolean validated = true;
-            ResultSet orgids = this.executeQuery("SELECT id, account FROM cp_owner");
-            for (int index = 1; orgids.next(); ++index) {
-                String orgid = orgids.getString(1);
-                String account = orgids.getString(2);
+            for (int index = 1; index <= count; ++index) {
+                String orgid = orgs.get(index - 1)[0];
+                String account = orgs.get(index - 1)[1];
 
                 this.logger.info("Validating data for org %s (%s) (%d of %d)", account, orgid, index, count);
 
@@ -150,28 +178,50 @@ public class PerOrgProductsMigrationTask extends LiquibaseCustomTask {
                     this.logger.error("Org %s (%s) failed data validation", account, orgid);
                 }
             }
-            orgids.close();
 
             if (!validated) {
                 throw new DatabaseException("One or more orgs failed data validation");
             }
 
             // Perform the actual per-org migration
-            orgids = this.executeQuery("SELECT id, account FROM cp_owner");
-            for (int index = 1; orgids.next(); ++index) {
-                String orgid = orgids.getString(1);
-                String account = orgids.getString(2);
+            long start = System.currentTimeMillis();
+            int chunked = 0;
+            int done = 0;
+
+            for (int index = 1; index <= count; ++index) {
+                String orgid = orgs.get(index - 1)[0];
+                String account = orgs.get(index - 1)[1];
 
                 this.logger.info("Migrating data for org %s (%s) (%d of %d)", account, orgid, index, count);
 
                 this.migrateProductData(orgid);
                 this.migrateContentData(orgid);
+
+                ++done;
+                if (++chunked >= this.orgChunkSize && done < count) {
+                    this.connection.commit();
+                    this.reportProgress(start, done, count);
+
+                    chunked = 0;
+                }
             }
 
             this.migrateRelatedData();
 
-            orgids.close();
             this.connection.commit();
+            this.reportProgress(start, done, count);
+        }
+        catch (DatabaseException | SQLException | RuntimeException e) {
+            // Discard the uncommitted chunk explicitly, as restoring autocommit below would
+            // otherwise commit it, leaving its last org partly migrated
+            try {
+                this.connection.rollback();
+            }
+            catch (DatabaseException rollbackException) {
+                e.addSuppressed(rollbackException);
+            }
+
+            throw e;
         }
         finally {
             // Restore original autocommit state
@@ -179,6 +229,97 @@ public class PerOrgProductsMigrationTask extends LiquibaseCustomTask {
         }
     }
 
+    /**
+     * Prepares this task to resume a previous run which was interrupted after committing one or
+     * more chunks of orgs. The products and content migrated by the previous run are loaded, so
+     * they are shared with the remaining orgs rather than migrated again.
+     * <p></p>
+     * Orgs are not skipped based on this state, as an org may only have been partly migrated.
+     * Instead, each org is migrated again, writing only the products, content and assignments
+     * which are still missing.
+     *
+     * @return
+     *  the number of orgs with products or content already assigned by a previous run
+     */
+    private int resumeMigration() throws DatabaseException, SQLException {
+        ResultSet resultSet = this.executeQuery("SELECT product_id, uuid FROM cp2_products");
+        while (resultSet.next()) {
+            this.migratedProducts.put(resultSet.getString(1), resultSet.getString(2));
+        }
+        resultSet.close();
+
+        resultSet = this.executeQuery("SELECT content_id, uuid FROM cp2_content");
+        while (resultSet.next()) {
+            this.migratedContent.put(resultSet.getString(1), resultSet.getString(2));
+        }
+        resultSet.close();
+
+        Set<String> migratedOrgs = new HashSet<>();
+        resultSet = this.executeQuery(
+            "SELECT owner_id FROM cp2_owner_products " +
+            "UNION " +
+            "SELECT owner_id FROM cp2_owner_content");
+
+        while (resultSet.next()) {
+            migratedOrgs.add(resultSet.getString(1));
+        }
+        resultSet.close();
+
+        return migratedOrgs.size();
+    }
+
+    /**
+     * Fetches the UUIDs of the products or content already assigned to the given org, such as by a
+     * previous, interrupted run of this task.
+     *
+     * @param table
+     *  the org assignment table to read; either cp2_owner_products or cp2_owner_content
+     *
+     * @param column
+     *  the column of the table holding the UUID of the assigned product or content
+     *
+     * @param orgid
+     *  the id of the owner/organization for which to fetch the assignments
+     *
+     * @return
+     *  the UUIDs of the products or content assigned to the org
+     */
+    private Set<String> getAssignedUuids(String table, String column, String orgid)
+        throws DatabaseException, SQLException {
+
+        Set<String> uuids = new HashSet<>();
+
+        ResultSet resultSet = this.executeQuery(
+            "SELECT " + column + " FROM " + table + " WHERE owner_id = ?", orgid);
+
+        while (resultSet.next()) {
+            uuids.add(resultSet.getString(1));
+        }
+        resultSet.close();
+
+        return uuids;
+    }
+
+    /**
+     * Logs the progress of the migration, along with an estimate of the time remaining based on
+     * the rate at which orgs have been migrated so far.
+     *
+     * @param start
+     *  the time at which the migration of orgs started, in milliseconds
+     *
+     * @param done
+     *  the number of orgs migrated so far
+     *
+     * @param total
+     *  the total number of orgs to migrate
+     */
+    private void reportProgress(long start, int done, int total) {
+        long elapsed = System.currentTimeMillis() - start;
+        long estimate = done > 0 ? elapsed * (total - done) / done : 0;
+
+        this.logger.info("Migrated %d of %d orgs (%d%%) in %ds; estimated time remaining: %ds", done, total,
+            total > 0 ? done * 100L / total : 100, elapsed / 1000, estimate / 1000);
+    }
 
     /**
      * Checks for any pools or subscriptions which contain bad data (typically products which do
@@ -509,6 +650,9 @@ public class PerOrgProductsMigrationTask extends LiquibaseCustomTask {
         bulkInsertProductData(productRows);
         productRows.clear();
 
+        // Skip any products assigned to the org by a previous run
+        uuidCache.removeAll(this.getAssignedUuids("cp2_owner_products", "product_uuid", orgid));
+
         // // Do a bulk insert for all the products for this orgs...
         if (uuidCache.size() > 0) {
             maxrows = MAX_PARAMETERS_PER_STATEMENT / 2;
@@ -681,6 +825,9 @@ public class PerOrgProductsMigrationTask extends LiquibaseCustomTask {
         this.bulkInsertContentData(contentRows);
         contentRows.clear();
 
+        // Skip any content assigned to the org by a previous run
+        uuidCache.removeAll(this.getAssignedUuids("cp2_owner_content", "content_uuid", orgid));
+
         // Do a bulk insert for all the content for this orgs...
         if (uuidCache.size() > 0) {
             maxrows = MAX_PARAMETERS_PER_STATEMENT / 2;
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+
+/**
+ * The Counter class tracks a monotonically increasing count of events. Counters are safe to
+ * update concurrently from any number of threads.
+ */
+public class Counter {
+    private final String name;
+    private final LongAdder count;
+
+    /**
+     * Creates a new counter with the given name.
+     *
+     * @param name
+     *  the name of this counter
+     *
+     * @throws IllegalArgumentException
+     *  if name is null or empty
+     */
+    public Counter(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("name is null or empty");
+        }
+
+        this.name = name;
+        this.count = new LongAdder();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Increments this counter by one.
+     */
+    public void increment() {
+        this.count.increment();
+    }
+
+    /**
+     * Increments this counter by the given amount. Negative amounts are ignored.
+     *
+     * @param amount
+     *  the amount by which to increment this counter
+     */
+    public void increment(long amount) {
+        if (amount > 0) {
+            this.count.add(amount);
+        }
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+
+
+/**
+ * The MetricRegistry is the node-local store of the timers, counters and gauges used to track
+ * the behavior of the hot paths of this Candlepin node. Metrics are created on first use and live
+ * for the lifetime of the process.
+ * <p></p>
+ * A single, shared registry is used by the entire process, and may be fetched either through
+ * injection or via the static {@link #getInstance()} method. The latter is provided for the
+ * benefit of objects which are not built by the injector, such as rules runners and certificate
+ * builders.
+ */
+public class MetricRegistry {
+    private static final MetricRegistry INSTANCE = new MetricRegistry();
+
+    private final Map<String, Timer> timers;
+    private final Map<String, Counter> counters;
+    private final Map<String, Supplier<? extends Number>> gauges;
+
+    /**
+     * Creates a new, empty metric registry. Outside of testing, the shared instance returned by
+     * {@link #getInstance()} should be used instead.
+     */
+    public MetricRegistry() {
+        this.timers = new ConcurrentHashMap<>();
+        this.counters = new ConcurrentHashMap<>();
+        this.gauges = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Fetches the metric registry shared by the entire process.
+     *
+     * @return
+     *  the shared metric registry
+     */
+    public static MetricRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Fetches the timer with the given name, creating it if necessary.
+     *
+     * @param name
+     *  the name of the timer to fetch
+     *
+     * @throws IllegalArgumentException
+     *  if name is null or empty
+     *
+     * @return
+     *  the timer with the given name
+     */
+    public Timer timer(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("name is null or empty");
+        }
+
+        return this.timers.computeIfAbsent(name, Timer::new);
+    }
+
+    /**
+     * Fetches the counter with the given name, creating it if necessary.
+     *
+     * @param name
+     *  the name of the counter to fetch
+     *
+     * @throws IllegalArgumentException
+     *  if name is null or empty
+     *
+     * @return
+     *  the counter with the given name
+     */
+    public Counter counter(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("name is null or empty");
+        }
+
+        return this.counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Registers a gauge with the given name, replacing any gauge previously registered with the
+     * same name. The supplier is invoked each time the registered gauges are read, and should be
+     * cheap to call.
+     *
+     * @param name
+     *  the name of the gauge to register
+     *
+     * @param supplier
+     *  the supplier providing the current value of the gauge
+     *
+     * @throws IllegalArgumentException
+     *  if name is null or empty, or supplier is null
+     */
+    public void gauge(String name, Supplier<? extends Number> supplier) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("name is null or empty");
+        }
+
+        if (supplier == null) {
+            throw new IllegalArgumentException("supplier is null");
+        }
+
+        this.gauges.put(name, supplier);
+    }
+
+    /**
+     * Fetches a snapshot of the timers in this registry, sorted by name.
+     *
+     * @return
+     *  a sorted map of the timers in this registry
+     */
+    public SortedMap<String, Timer> getTimers() {
+        return new TreeMap<>(this.timers);
+    }
+
+    /**
+     * Fetches a snapshot of the counters in this registry, sorted by name.
+     *
+     * @return
+     *  a sorted map of the counters in this registry
+     */
+    public SortedMap<String, Counter> getCounters() {
+        return new TreeMap<>(this.counters);
+    }
+
+    /**
+     * Reads the current value of each gauge in this registry. Gauges which fail to provide a
+     * value are omitted from the output.
+     *
+     * @return
+     *  a sorted map of the current values of the gauges in this registry
+     */
+    public SortedMap<String, Number> getGaugeValues() {
+        SortedMap<String, Number> values = new TreeMap<>();
+
+        this.gauges.forEach((name, supplier) -> {
+            try {
+                Number value = supplier.get();
+                if (value != null) {
+                    values.put(name, value);
+                }
+            }
+            catch (RuntimeException e) {
+                // Gauges are informational; a broken gauge should not break the others
+            }
+        });
+
+        return values;
+    }
+
+    /**
+     * Removes all metrics from this registry.
+     */
+    public void clear() {
+        this.timers.clear();
+        this.counters.clear();
+        this.gauges.clear();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+
+/**
+ * The Timer class tracks the number of times an operation has been performed, along with the
+ * total and maximum time spent performing it. Timers are safe to update concurrently from any
+ * number of threads.
+ * <p></p>
+ * The simplest way to time an operation is with a sample in a try-with-resources block:
+ *
+ * <pre>
+ *  try (Timer.Sample sample = timer.start()) {
+ *      // operation to time
+ *  }
+ * </pre>
+ */
+public class Timer {
+
+    /**
+     * A single in-progress timing of an operation. The elapsed time is recorded to the owning
+     * timer when the sample is closed; closing a sample more than once has no further effect.
+     */
+    public static class Sample implements AutoCloseable {
+        private final Timer timer;
+        private final long start;
+        private boolean closed;
+
+        private Sample(Timer timer) {
+            this.timer = timer;
+            this.start = System.nanoTime();
+            this.closed = false;
+        }
+
+        @Override
+        public void close() {
+            if (!this.closed) {
+                this.closed = true;
+                this.timer.record(System.nanoTime() - this.start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private final String name;
+    private final LongAdder count;
+    private final LongAdder total;
+    private final LongAccumulator max;
+
+    /**
+     * Creates a new timer with the given name.
+     *
+     * @param name
+     *  the name of this timer
+     *
+     * @throws IllegalArgumentException
+     *  if name is null or empty
+     */
+    public Timer(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("name is null or empty");
+        }
+
+        this.name = name;
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Starts a new sample of this timer. The sample must be closed to record its elapsed time.
+     *
+     * @return
+     *  a new sample of this timer
+     */
+    public Sample start() {
+        return new Sample(this);
+    }
+
+    /**
+     * Records a single timing of the operation tracked by this timer. Negative durations are
+     * ignored.
+     *
+     * @param duration
+     *  the duration to record
+     *
+     * @param unit
+     *  the unit of the duration
+     */
+    public void record(long duration, TimeUnit unit) {
+        if (duration < 0 || unit == null) {
+            return;
+        }
+
+        long nanos = unit.toNanos(duration);
+
+        this.count.increment();
+        this.total.add(nanos);
+        this.max.accumulate(nanos);
+    }
+
+    /**
+     * Fetches the number of timings recorded by this timer.
+     *
+     * @return
+     *  the number of timings recorded by this timer
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Fetches the total time recorded by this timer, in the given unit.
+     *
+     * @param unit
+     *  the unit in which to return the total time
+     *
+     * @return
+     *  the total time recorded by this timer
+     */
+    public double getTotalTime(TimeUnit unit) {
+        return (double) this.total.sum() / unit.toNanos(1);
+    }
+
+    /**
+     * Fetches the longest single timing recorded by this timer, in the given unit.
+     *
+     * @param unit
+     *  the unit in which to return the maximum time
+     *
+     * @return
+     *  the longest single timing recorded by this timer
+     */
+    public double getMaxTime(TimeUnit unit) {
+        return (double) this.max.get() / unit.toNanos(1);
+    }
+
+    /**
+     * Fetches the mean time of the timings recorded by this timer, in the given unit. If no
+     * timings have been recorded, this method returns zero.
+     *
+     * @param unit
+     *  the unit in which to return the mean time
+     *
+     * @return
+     *  the mean time of the timings recorded by this timer
+     */
+    public double getMeanTime(TimeUnit unit) {
+        long count = this.getCount();
+        return count > 0 ? this.getTotalTime(unit) / count : 0;
+    }
+}
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -352,6 +353,38 @@ public class AsyncJobStatusCurator extends AbstractHibernateCurator<AsyncJobStat
             .getSingleResult();
     }
 
+    /**
+     * Counts the jobs in the given states, grouped by job key. Job keys with no jobs in the given
+     * states are omitted from the output. If no states are provided, this method returns an empty
+     * map.
+     *
+     * @param states
+     *  a collection of states to use for filtering jobs
+     *
+     * @return
+     *  a map of job keys to the number of jobs with that key in the provided states
+     */
+    public Map<String, Long> getJobCountsByKey(Collection<JobState> states) {
+        Map<String, Long> counts = new HashMap<>();
+
+        if (states != null && !states.isEmpty()) {
+            String jpql = "SELECT aj.jobKey, COUNT(aj) FROM AsyncJobStatus aj " +
+                "WHERE aj.state IN (:states) " +
+                "GROUP BY aj.jobKey";
+
+            List<Object[]> rows = this.getEntityManager()
+                .createQuery(jpql, Object[].class)
+                .setParameter("states", states)
+                .getResultList();
+
+            for (Object[] row : rows) {
+                counts.put((String) row[0], (Long) row[1]);
+            }
+        }
+
+        return counts;
+    }
+
     /**
      * Deletes a number of jobs based on the provided filter data in the query builder. If the
      * query builder is null or contains no arguments, this method does nothing.
@@ -588,6 +588,11 @@ public class Consumer extends AbstractHibernateObject<Consumer> implements Linka
     }
 
     /**
+     * Sets the facts for this consumer. The incoming facts are applied to the existing facts as a
+     * diff, such that facts which are unchanged are never removed and re-added, and the fact
+     * collection is not dirtied at all if nothing changed. This limits the rows written on a
+     * fact update to those of the facts which were actually added, changed or removed.
+     *
      * @param facts facts about this consumer.
      *
      * @return
@@ -601,10 +606,21 @@ public class Consumer extends AbstractHibernateObject<Consumer> implements Linka
         if (this.facts == null) {
             this.facts = new HashMap<>();
         }
-        this.facts.clear();
 
-        if (facts != null) {
-            this.facts.putAll(facts);
+        if (facts == null || facts.isEmpty()) {
+            this.facts.clear();
+            return this;
+        }
+
+        this.facts.keySet().retainAll(facts.keySet());
+
+        for (Entry<String, String> entry : facts.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+
+            if (!this.facts.containsKey(key) || !Objects.equals(this.facts.get(key), value)) {
+                this.facts.put(key, value);
+            }
         }
 
         return this;
@@ -14,6 +14,7 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.auth.ConsumerPrincipal;
 import org.candlepin.auth.Principal;
 import org.candlepin.exceptions.BadRequestException;
 import org.candlepin.exceptions.NotFoundException;
@@ -48,10 +49,15 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -86,6 +92,9 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
     /** Regular expression used to convert fact expressions to SQL-safe LIKE expressions */
     private static final Pattern FACT_TRANSLATION_REGEX = Pattern.compile("(\\\\?+)([*?]|(?<=\\\\)\\\\)");
 
+    /** Regular expression used to detect fact expressions which contain no wildcards or escapes */
+    private static final Pattern LITERAL_FACT_EXPRESSION_REGEX = Pattern.compile("[^*?\\\\]+");
+
     /**
      * Container object for providing various arguments to the consumer lookup method(s).
      */
@@ -190,18 +199,21 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
     private final DeletedConsumerCurator deletedConsumerCurator;
     private final FactValidator factValidator;
     private final Provider<HostCache> cachedHostsProvider;
+    private final Provider<EntityIdentityMap> identityMapProvider;
     private final PrincipalProvider principalProvider;
 
     @Inject
     public ConsumerCurator(EntitlementCurator entitlementCurator, ConsumerTypeCurator consumerTypeCurator,
         DeletedConsumerCurator deletedConsumerCurator, FactValidator factValidator,
-        Provider<HostCache> cachedHostsProvider, PrincipalProvider principalProvider) {
+        Provider<HostCache> cachedHostsProvider, Provider<EntityIdentityMap> identityMapProvider,
+        PrincipalProvider principalProvider) {
         super(Consumer.class);
         this.entitlementCurator = Objects.requireNonNull(entitlementCurator);
         this.consumerTypeCurator = Objects.requireNonNull(consumerTypeCurator);
         this.deletedConsumerCurator = Objects.requireNonNull(deletedConsumerCurator);
         this.factValidator = Objects.requireNonNull(factValidator);
         this.cachedHostsProvider = Objects.requireNonNull(cachedHostsProvider);
+        this.identityMapProvider = Objects.requireNonNull(identityMapProvider);
         this.principalProvider = Objects.requireNonNull(principalProvider);
     }
 
@@ -218,6 +230,8 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
     public void delete(Consumer entity) {
         log.debug("Deleting consumer: {}", entity);
 
+        this.identityMapProvider.get().remove(Consumer.class, entity.getUuid());
+
         // Fetch the principal that's triggering this
         Principal principal = this.principalProvider.get();
 
@@ -471,6 +485,13 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
     // TODO: Come up with a better way to do this!
     public Consumer getConsumer(String uuid) {
         EntityManager em = this.getEntityManager();
+        Principal principal = this.principalProvider.get();
+
+        Consumer known = this.getKnownConsumer(em, principal, uuid);
+        if (known != null) {
+            return known;
+        }
+
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<Consumer> query = cb.createQuery(Consumer.class);
         Root<Consumer> consumerRoot = query.from(Consumer.class);
@@ -486,13 +507,43 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
         }
 
         try {
-            return em.createQuery(query).getSingleResult();
+            Consumer consumer = em.createQuery(query).getSingleResult();
+            this.identityMapProvider.get().put(Consumer.class, uuid, consumer, principal);
+
+            return consumer;
         }
         catch (NoResultException e) {
             return null;
         }
     }
 
+    /**
+     * Fetches a consumer which has already been looked up during the current request, either by
+     * authentication, in which case it is the consumer of the principal itself, or by a previous
+     * lookup made under the same principal. Consumers which are no longer managed by the current
+     * persistence context, such as those which have since been deleted or evicted, are ignored.
+     *
+     * @return
+     *  the known consumer with the given UUID, or null if the consumer must be looked up
+     */
+    private Consumer getKnownConsumer(EntityManager em, Principal principal, String uuid) {
+        if (uuid == null) {
+            return null;
+        }
+
+        Consumer consumer = null;
+        if (principal instanceof ConsumerPrincipal consumerPrincipal &&
+            uuid.equals(consumerPrincipal.getConsumer().getUuid())) {
+
+            consumer = consumerPrincipal.getConsumer();
+        }
+        else {
+            consumer = this.identityMapProvider.get().get(Consumer.class, uuid, principal);
+        }
+
+        return consumer != null && em.contains(consumer) ? consumer : null;
+    }
+
     /**
      * Fetches consumers with the specified IDs. If a consumer does not exist for a given ID, no
      * matching consumer object will be returned, nor will an exception be thrown. As such, the number
@@ -735,7 +786,8 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
      * Get host consumer for a guest system id.
      *
      * As multiple hosts could have reported the same guest ID, we find the newest and assume this is
-     * the authoritative host for the guest.
+     * the authoritative host for the guest. Guest IDs without an updated timestamp are treated as the
+     * oldest, regardless of how the database sorts nulls, so this agrees with {@link #getHostIds}.
      *
      * This search needs to be case insensitive as some hypervisors report uppercase guest UUIDs, when
      * the guest itself will report lowercase.
@@ -766,7 +818,7 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
             SELECT g.consumer FROM GuestId g
             WHERE g.consumer.owner.id = :ownerId
                 AND g.guestIdLower IN :possibleIds
-            ORDER BY g.updated DESC
+            ORDER BY g.updated DESC NULLS LAST
             """;
 
         Consumer host = null;
@@ -785,6 +837,16 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
         return host;
     }
 
+    /**
+     * Drops the consumers cached for the current request by {@link #getHost} and by the consumer
+     * identity map. Callers that clear the session part way through a request must also call this
+     * method, or later lookups would return consumers that are no longer managed by the session.
+     */
+    public void clearCachedConsumers() {
+        this.cachedHostsProvider.get().clear();
+        this.identityMapProvider.get().clear();
+    }
+
     /**
      * Get guest consumers for a host consumer.
      *
@@ -803,24 +865,113 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
 
         List<Consumer> guests = new ArrayList<>();
         List<GuestId> consumerGuests = consumer.getGuestIds();
-        if (consumerGuests != null) {
-            consumerGuests = consumerGuests.stream().distinct()
-                .collect(Collectors.toList());
-            for (GuestId cg : consumerGuests) {
-                // Check if this is the most recent host to report the guest by asking
-                // for the consumer's current host and comparing it to ourselves.
-                if (consumer.equals(getHost(cg.getGuestId(), consumer.getOwnerId()))) {
-                    Consumer guest = findByVirtUuid(cg.getGuestId(), consumer.getOwnerId());
-                    if (guest != null) {
-                        guests.add(guest);
-                    }
-                }
+        if (consumerGuests == null || consumerGuests.isEmpty()) {
+            return guests;
+        }
+
+        List<String> guestIds = consumerGuests.stream()
+            .distinct()
+            .map(GuestId::getGuestId)
+            .collect(Collectors.toList());
+
+        // Only keep the guests for which this consumer is the most recent host to report them
+        Map<String, String> hostIds = this.getHostIds(consumer.getOwnerId(), guestIds);
+        List<String> reportedGuestIds = guestIds.stream()
+            .filter(guestId -> Objects.equals(consumer.getId(), hostIds.get(guestId.toLowerCase())))
+            .collect(Collectors.toList());
+
+        VirtConsumerMap guestConsumers = this.getGuestConsumersMap(consumer.getOwnerId(),
+            new HashSet<>(reportedGuestIds));
+
+        for (String guestId : reportedGuestIds) {
+            Consumer guest = guestConsumers.get(guestId);
+            if (guest != null) {
+                guests.add(guest);
             }
         }
 
         return guests;
     }
 
+    /**
+     * Resolves the IDs of the host consumers which most recently reported each of the given guest
+     * IDs within the specified organization. This is the bulk equivalent of {@link #getHost}, and
+     * resolves all of the guest IDs with one query per block of IDs rather than one per guest,
+     * without loading the host consumers themselves.
+     *
+     * As with getHost, guest IDs are matched case-insensitively and in both byte orders.
+     *
+     * @param ownerId
+     *     ID of the organization to scope the search
+     *
+     * @param guestIds
+     *     a collection of virtual guest IDs (not consumer UUIDs)
+     *
+     * @return
+     *     a map of lowercased guest IDs to the ID of the host consumer which most recently reported
+     *     them; guests without a host will not be present in the map
+     */
+    @Transactional
+    public Map<String, String> getHostIds(String ownerId, Collection<String> guestIds) {
+        Map<String, String> hostIds = new HashMap<>();
+
+        if (ownerId == null || guestIds == null || guestIds.isEmpty()) {
+            return hostIds;
+        }
+
+        Set<String> lowerGuestIds = guestIds.stream()
+            .filter(Objects::nonNull)
+            .map(String::toLowerCase)
+            .collect(Collectors.toSet());
+
+        String jpql = """
+            SELECT g.guestIdLower, g.consumer.id, g.updated FROM GuestId g
+            WHERE g.consumer.ownerId = :ownerId
+                AND g.guestIdLower IN :possibleIds
+            """;
+
+        TypedQuery<Object[]> query = this.getEntityManager()
+            .createQuery(jpql, Object[].class)
+            .setParameter("ownerId", ownerId);
+
+        // Track the most recently reported host for each form of the guest IDs
+        Map<String, Object[]> latest = new HashMap<>();
+        for (List<String> block : this.partition(Util.getPossibleUuids(lowerGuestIds))) {
+            for (Object[] row : query.setParameter("possibleIds", block).getResultList()) {
+                latest.merge((String) row[0], row, (current, candidate) ->
+                    isReportedAfter(candidate, current) ? candidate : current);
+            }
+        }
+
+        for (String guestId : lowerGuestIds) {
+            Object[] newest = null;
+            for (String possibleId : Util.getPossibleUuids(guestId)) {
+                Object[] row = latest.get(possibleId);
+                if (row != null && (newest == null || isReportedAfter(row, newest))) {
+                    newest = row;
+                }
+            }
+
+            if (newest != null) {
+                hostIds.put(guestId, (String) newest[1]);
+            }
+        }
+
+        return hostIds;
+    }
+
+    /**
+     * Checks whether the guest ID row fetched by getHostIds was updated after another such row;
+     * rows without an updated timestamp are treated as the oldest, matching the ordering used by
+     * getHost.
+     */
+    private static boolean isReportedAfter(Object[] row, Object[] other) {
+        Date updated = (Date) row[2];
+        Date otherUpdated = (Date) other[2];
+
+        return updated != null && (otherUpdated == null || updated.after(otherUpdated));
+    }
+
     /**
      * This is an insecure query, because we need to know whether or not the consumer exists
      *
@@ -1295,6 +1446,103 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
         return query.getResultList();
     }
 
+    /**
+     * Streams the consumers matching the provided filter data in the query builder. Unlike
+     * findConsumers, the matching consumers are not materialized all at once; instead they are
+     * fetched in chunks of the given size using keyset pagination over the consumer ID, and each
+     * chunk is evicted from the session once the stream moves past it. The stream should be closed
+     * once it is no longer needed.
+     * <p></p>
+     * Any offset, limit, or ordering present in the query arguments is ignored, and the consumers
+     * are returned in order of their IDs.
+     *
+     * @param queryArgs
+     *     an ConsumerQueryArguments instance containing the various arguments or filters to use to
+     *     select consumers
+     *
+     * @param chunkSize
+     *     the number of consumers to fetch per round trip to the database
+     *
+     * @throws IllegalArgumentException
+     *     if chunkSize is less than one
+     *
+     * @return a stream of consumers matching the provided query arguments/filters
+     */
+    public Stream<Consumer> streamConsumers(ConsumerQueryArguments queryArgs, int chunkSize) {
+        Function<String, List<Consumer>> chunkFetcher = lastId -> {
+            CriteriaBuilder criteriaBuilder = this.getEntityManager().getCriteriaBuilder();
+            CriteriaQuery<Consumer> criteriaQuery = criteriaBuilder.createQuery(Consumer.class);
+
+            Root<Consumer> root = criteriaQuery.from(Consumer.class);
+            criteriaQuery.select(root)
+                .distinct(true);
+
+            List<Predicate> predicates = this.buildConsumerQueryPredicates(criteriaBuilder, root, queryArgs);
+            Predicate securityPredicate = this.getSecurityPredicate(Consumer.class, criteriaBuilder, root);
+
+            if (securityPredicate != null) {
+                predicates.add(securityPredicate);
+            }
+
+            if (lastId != null) {
+                predicates.add(criteriaBuilder.greaterThan(root.get(Consumer_.id), lastId));
+            }
+
+            if (!predicates.isEmpty()) {
+                criteriaQuery.where(predicates.toArray(new Predicate[0]));
+            }
+
+            criteriaQuery.orderBy(criteriaBuilder.asc(root.get(Consumer_.id)));
+
+            return this.getEntityManager()
+                .createQuery(criteriaQuery)
+                .setHint(QueryHints.FETCH_SIZE, chunkSize)
+                .setMaxResults(chunkSize)
+                .getResultList();
+        };
+
+        ResultIterator<Consumer> iterator = new KeysetResultIterator<>(this.currentSession(), chunkFetcher,
+            Consumer::getId, chunkSize, true, ConsumerCurator::getCertificateAssociations);
+
+        Spliterator<Consumer> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+            Spliterator.ORDERED | Spliterator.NONNULL);
+
+        return StreamSupport.stream(spliterator, false)
+            .onClose(iterator::close);
+    }
+
+    /**
+     * Fetches the certificates of the given consumer, and their serials, which have been loaded into
+     * the session. Evicting a consumer does not cascade to its certificates, so these need to be
+     * evicted along with it when streaming consumers.
+     *
+     * @param consumer
+     *     the consumer for which to fetch the loaded certificates
+     *
+     * @return a list of the loaded certificates and serials of the consumer
+     */
+    static List<Object> getCertificateAssociations(Consumer consumer) {
+        List<Object> associations = new ArrayList<>();
+
+        for (RevocableCertificate<?> cert : Arrays.<RevocableCertificate<?>>asList(consumer.getIdCert(),
+            consumer.getContentAccessCert())) {
+
+            if (cert == null) {
+                continue;
+            }
+
+            associations.add(cert);
+
+            // Impl note: the content access certificate is lazily loaded; we don't want to
+            // initialize it just to evict its serial
+            if (Hibernate.isInitialized(cert) && cert.getSerial() != null) {
+                associations.add(cert.getSerial());
+            }
+        }
+
+        return associations;
+    }
+
     /**
      * Fetches the count of consumers matching the provided filter data in the query builder. If the
      * query builder is null or contains no arguments, this method will return the count of all known
@@ -1499,30 +1747,53 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
         }
 
         MapJoin<Consumer, String, String> consumerFacts = root.join(Consumer_.facts);
-
-        String keyExp = this.translateFactExpression(fact);
         List<Predicate> valuePredicates = new ArrayList<>();
 
+        // Impl note: expressions without any wildcards or escapes are compared with plain equality
+        // rather than LIKE. The result is the same, but it allows the backend to resolve the match
+        // from the fact key/value index rather than evaluating the pattern against every fact.
         for (String value : values) {
-            String valueExp = this.translateFactExpression(value);
+            if (value == null || value.isEmpty()) {
+                valuePredicates.add(criteriaBuilder.isNull(consumerFacts.value()));
+                valuePredicates.add(criteriaBuilder.equal(consumerFacts.value(), ""));
+            }
+            else if (this.isLiteralFactExpression(value)) {
+                valuePredicates.add(criteriaBuilder.equal(criteriaBuilder.lower(consumerFacts.value()),
+                    criteriaBuilder.lower(criteriaBuilder.literal(value))));
+            }
+            else {
+                String valueExp = this.translateFactExpression(value);
 
-            if (valueExp != null && !valueExp.isEmpty()) {
                 valuePredicates.add(criteriaBuilder.like(criteriaBuilder.lower(consumerFacts.value()),
                     criteriaBuilder.lower(criteriaBuilder.literal(valueExp)), '!'));
             }
-            else {
-                valuePredicates.add(criteriaBuilder.isNull(consumerFacts.value()));
-                valuePredicates.add(criteriaBuilder.equal(consumerFacts.value(), ""));
-            }
         }
 
+        Predicate keyPredicate = this.isLiteralFactExpression(fact) ?
+            criteriaBuilder.equal(consumerFacts.key(), fact) :
+            criteriaBuilder.like(consumerFacts.key(), this.translateFactExpression(fact), '!');
+
         Predicate[] predicateArray = new Predicate[valuePredicates.size()];
 
         return criteriaBuilder.and(
-            criteriaBuilder.like(consumerFacts.key(), keyExp, '!'),
+            keyPredicate,
             criteriaBuilder.or(valuePredicates.toArray(predicateArray)));
     }
 
+    /**
+     * Checks if the given fact expression is a plain literal; that is, it contains no shell-style
+     * wildcards or escape sequences, and would therefore match only itself.
+     *
+     * @param expression
+     *     the fact expression to check
+     *
+     * @return true if the expression is a non-empty literal; false otherwise
+     */
+    private boolean isLiteralFactExpression(String expression) {
+        return expression != null && !expression.isEmpty() &&
+            LITERAL_FACT_EXPRESSION_REGEX.matcher(expression).matches();
+    }
+
     /**
      * Translates a fact expression from the external syntax with shell-style wildcards to an expression
      * compatible with an SQL LIKE operation.
@@ -21,6 +21,7 @@ import com.google.common.collect.Iterables;
 import com.google.inject.persist.Transactional;
 
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.QueryHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +37,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -468,6 +475,147 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
         return listFilteredPages(null, null, null, null, filters, pageRequest);
     }
 
+    /**
+     * Streams the entitlements of the given owner, applying the same product and attribute filters
+     * as the listByOwner method. Rather than materializing every matching entitlement, the
+     * entitlements are fetched in chunks ordered by ID, with their pool, the pool's product and
+     * their consumer fetched in the same query. Each chunk is evicted from the session once the
+     * stream moves past it, along with the pools, products, consumers and other entities loaded
+     * with it, so the memory held is bounded by the chunk size rather than the number of
+     * entitlements in the org. The owner itself is left in the session.
+     * <p></p>
+     * The returned stream holds no database resources between chunks, but should still be closed
+     * once it is no longer needed.
+     *
+     * @param owner
+     *  the owner for which to stream entitlements
+     *
+     * @param productId
+     *  an optional product ID to match against the entitlements' pool products or provided products;
+     *  if provided, the attribute filters are ignored
+     *
+     * @param filters
+     *  an optional set of entitlement filters to apply
+     *
+     * @param chunkSize
+     *  the number of entitlements to fetch per round trip to the database
+     *
+     * @throws IllegalArgumentException
+     *  if owner is null, or chunkSize is less than one
+     *
+     * @return a stream of the entitlements matching the provided filters
+     */
+    public Stream<Entitlement> streamByOwner(Owner owner, String productId, EntitlementFilterBuilder filters,
+        int chunkSize) {
+
+        if (owner == null) {
+            throw new IllegalArgumentException("owner is null");
+        }
+
+        Function<String, List<Entitlement>> chunkFetcher = lastId -> {
+            CriteriaBuilder cb = this.getEntityManager().getCriteriaBuilder();
+            CriteriaQuery<Entitlement> query = cb.createQuery(Entitlement.class);
+
+            Root<Entitlement> root = query.from(Entitlement.class);
+            root.fetch(Entitlement_.pool).fetch(Pool_.product);
+            root.fetch(Entitlement_.consumer);
+
+            List<Predicate> predicates = new ArrayList<>();
+            if (productId != null) {
+                predicates.add(this.createListByProductCriteria(owner, "owner", productId, root));
+            }
+            else {
+                predicates.addAll(this.createCriteriaFromFilters(root, query, filters));
+                predicates.add(cb.equal(root.get(Entitlement_.owner), owner));
+            }
+
+            if (lastId != null) {
+                predicates.add(cb.greaterThan(root.get(Entitlement_.id), lastId));
+            }
+
+            query.select(root)
+                .distinct(true)
+                .where(toArray(predicates))
+                .orderBy(cb.asc(root.get(Entitlement_.id)));
+
+            return this.getEntityManager()
+                .createQuery(query)
+                .setHint(QueryHints.FETCH_SIZE, chunkSize)
+                .setMaxResults(chunkSize)
+                .getResultList();
+        };
+
+        ResultIterator<Entitlement> iterator = new KeysetResultIterator<>(this.currentSession(),
+            chunkFetcher, Entitlement::getId, chunkSize, true, EntitlementCurator::getStreamedAssociations);
+
+        Spliterator<Entitlement> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+            Spliterator.ORDERED | Spliterator.NONNULL);
+
+        return StreamSupport.stream(spliterator, false)
+            .onClose(iterator::close);
+    }
+
+    /**
+     * Fetches the entities loaded into the session along with the given streamed entitlement.
+     * Evicting an entitlement does not cascade to its pool or consumer, nor to the entities those
+     * load eagerly, so these need to be evicted along with it when streaming entitlements. The
+     * owner is shared by every entitlement streamed and is not included.
+     *
+     * @param entitlement
+     *     the entitlement for which to fetch the loaded associations
+     *
+     * @return a list of the entities loaded along with the entitlement
+     */
+    private static List<Object> getStreamedAssociations(Entitlement entitlement) {
+        List<Object> associations = new ArrayList<>();
+
+        // Impl note: derived pools eagerly load the entitlement they were derived from, which in
+        // turn loads its own consumer and pool, so we follow the chain of source entitlements
+        for (Entitlement current = entitlement; current != null;) {
+            if (current != entitlement) {
+                associations.add(current);
+            }
+
+            Consumer consumer = current.getConsumer();
+            if (consumer != null) {
+                associations.add(consumer);
+
+                if (Hibernate.isInitialized(consumer)) {
+                    associations.addAll(ConsumerCurator.getCertificateAssociations(consumer));
+                }
+            }
+
+            Pool pool = current.getPool();
+            if (pool == null) {
+                break;
+            }
+
+            associations.add(pool);
+
+            // We don't want to initialize a proxied pool just to evict what it would load
+            if (!Hibernate.isInitialized(pool)) {
+                break;
+            }
+
+            Product product = pool.getProduct();
+            Product derived = product != null && Hibernate.isInitialized(product) ?
+                product.getDerivedProduct() :
+                null;
+
+            for (Object association : Arrays.asList(product, derived, pool.getCdn(),
+                pool.getSourceSubscription(), pool.getSourceStack())) {
+
+                if (association != null) {
+                    associations.add(association);
+                }
+            }
+
+            current = pool.getSourceEntitlement();
+        }
+
+        return associations;
+    }
+
     private Page<List<Entitlement>> listFilteredPages(String ownerId, AbstractHibernateObject object,
         String objectType, String productId, EntitlementFilterBuilder filters, PageRequest pageRequest) {
         Page<List<Entitlement>> entitlementsPage;
@@ -670,6 +818,32 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
         return Collections.emptyList();
     }
 
+    /**
+     * Lists the IDs of dirty entitlements across all consumers, ordered such that the entitlements
+     * of the most recently checked-in consumers come first. Consumers which have never checked in
+     * are ordered last.
+     *
+     * @param limit
+     *  the maximum number of entitlement IDs to return
+     *
+     * @return
+     *  a list of up to limit dirty entitlement IDs, in priority order
+     */
+    public List<String> listDirtyEntitlementIds(int limit) {
+        if (limit < 1) {
+            return Collections.emptyList();
+        }
+
+        String jpql = "SELECT e.id FROM Entitlement e JOIN e.consumer c " +
+            "WHERE e.dirty = true " +
+            "ORDER BY c.lastCheckin DESC NULLS LAST, e.id ASC";
+
+        return this.getEntityManager()
+            .createQuery(jpql, String.class)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
     /**
      * Returns the set of all entitled product IDs from consumer's entitlements, current pool &
      * set of all pools about to be entitled (selected via auto attach or bulk pool attach) which overlap
@@ -916,29 +1090,26 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
     }
 
     /**
-     * Deletes the given collection of entitlements.
+     * Deletes the given collection of entitlements. The entitlements are unlinked from their
+     * consumers and pools, and then deleted by ID in blocks, rather than being removed one at a
+     * time.
      * <p/></p>
      * Note: Unlike the standard delete method, this method does not perform a lookup on an entity
-     * before deleting it.
+     * before deleting it, nor does it delete the certificates of the entitlements. The certificates
+     * must be deleted beforehand, such as with EntitlementCertificateCurator.deleteByEntitlementIds.
      *
      * @param entitlements
      *  The collection of entitlement entities to delete
      */
     public void batchDelete(Collection<Entitlement> entitlements) {
-        for (Entitlement entitlement : entitlements) {
-            this.deleteImpl(entitlement);
-
-            // Maintain runtime consistency.
-            entitlement.setCertificates(null);
+        this.unlinkEntitlements(entitlements);
 
-            if (Hibernate.isInitialized(entitlement.getConsumer().getEntitlements())) {
-                entitlement.getConsumer().removeEntitlement(entitlement);
-            }
+        Set<String> entitlementIds = entitlements.stream()
+            .map(Entitlement::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
 
-            if (Hibernate.isInitialized(entitlement.getPool().getEntitlements())) {
-                entitlement.getPool().getEntitlements().remove(entitlement);
-            }
-        }
+        this.batchDeleteByIds(entitlementIds);
     }
 
     /**
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.candlepin.auth.Principal;
+import org.candlepin.guice.CandlepinRequestScoped;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+
+/**
+ * A request scoped identity map of entities looked up by a natural key, such as consumers by UUID,
+ * allowing the authentication, verification and resource layers to share a single lookup of the
+ * same entity within a request, rather than each querying for it again.
+ *
+ * Each entity is recorded along with the principal under which it was looked up, as secure
+ * lookups filter their results according to the principal's permissions; an entity is only
+ * returned to lookups made under the same principal. Callers are expected to verify that a
+ * returned entity is still managed by the current persistence context before using it.
+ *
+ * The map is bounded, as long-running units of work, such as jobs, may look up many entities
+ * while periodically clearing their persistence context.
+ */
+@CandlepinRequestScoped
+public class EntityIdentityMap {
+    private static final int MAX_ENTRIES = 1000;
+
+    private record Key(Class<?> type, String naturalKey) {
+    }
+
+    private record Entry(Object entity, Principal principal) {
+    }
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return this.size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Fetches the entity of the given type and natural key, if it was previously recorded under
+     * the given principal.
+     *
+     * @param type
+     *  the type of the entity to fetch
+     *
+     * @param naturalKey
+     *  the natural key of the entity to fetch
+     *
+     * @param principal
+     *  the principal on behalf of which the entity is being looked up; may be null
+     *
+     * @return
+     *  the recorded entity, or null if no entity was recorded for the given key and principal
+     */
+    public <E> E get(Class<E> type, String naturalKey, Principal principal) {
+        if (type == null || naturalKey == null) {
+            return null;
+        }
+
+        Entry entry = this.entries.get(new Key(type, naturalKey));
+        if (entry == null || entry.principal() != principal) {
+            return null;
+        }
+
+        return type.cast(entry.entity());
+    }
+
+    /**
+     * Records the entity of the given type and natural key, as looked up under the given
+     * principal. Null entities are not recorded.
+     *
+     * @param type
+     *  the type of the entity to record
+     *
+     * @param naturalKey
+     *  the natural key of the entity to record
+     *
+     * @param entity
+     *  the entity to record
+     *
+     * @param principal
+     *  the principal on behalf of which the entity was looked up; may be null
+     */
+    public <E> void put(Class<E> type, String naturalKey, E entity, Principal principal) {
+        if (type == null || naturalKey == null || entity == null) {
+            return;
+        }
+
+        this.entries.put(new Key(type, naturalKey), new Entry(entity, principal));
+    }
+
+    /**
+     * Removes the entity of the given type and natural key from this map, if present.
+     *
+     * @param type
+     *  the type of the entity to remove
+     *
+     * @param naturalKey
+     *  the natural key of the entity to remove
+     */
+    public void remove(Class<?> type, String naturalKey) {
+        if (type != null && naturalKey != null) {
+            this.entries.remove(new Key(type, naturalKey));
+        }
+    }
+
+    /**
+     * Removes all entities from this map.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+}
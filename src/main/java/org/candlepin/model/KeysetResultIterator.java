@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.hibernate.Session;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+
+
+/**
+ * The KeysetResultIterator iterates over a potentially very large result set by fetching it in
+ * fixed-size chunks, using the key of the last element of each chunk as the lower bound of the
+ * next (keyset pagination). Unlike offset paging, the cost of fetching each chunk does not grow
+ * with its position in the result set, and unlike a scrolling cursor, no database resources are
+ * held between chunks.
+ * <p></p>
+ * The chunk fetcher is expected to return elements ordered by their key, strictly greater than
+ * the key provided, and to return no more than the chunk size. A null key is provided when
+ * fetching the first chunk. When evict is set, the elements of each chunk are evicted from the
+ * session as the iterator moves on to the next chunk, along with any associated entities provided
+ * by the association extractor. Eviction only cascades along associations mapped to cascade it,
+ * so entities fetched with the elements through other associations must be provided by the
+ * association extractor to keep the session from growing with the size of the result set.
+ *
+ * @param <T>
+ *  The element type to be returned by this iterators's next method
+ *
+ * @param <K>
+ *  The type of the key used to order and bound the chunks
+ */
+public class KeysetResultIterator<T, K> implements ResultIterator<T> {
+    private final Session session;
+    private final Function<K, List<T>> chunkFetcher;
+    private final Function<T, K> keyExtractor;
+    private final int chunkSize;
+    private final boolean evict;
+    private final Function<T, ? extends Collection<?>> associationExtractor;
+
+    private List<T> chunk;
+    private Iterator<T> chunkIterator;
+    private K lastKey;
+    private boolean exhausted;
+
+    public KeysetResultIterator(Session session, Function<K, List<T>> chunkFetcher,
+        Function<T, K> keyExtractor, int chunkSize, boolean evict) {
+
+        this(session, chunkFetcher, keyExtractor, chunkSize, evict, null);
+    }
+
+    public KeysetResultIterator(Session session, Function<K, List<T>> chunkFetcher,
+        Function<T, K> keyExtractor, int chunkSize, boolean evict,
+        Function<T, ? extends Collection<?>> associationExtractor) {
+
+        if (session == null) {
+            throw new IllegalArgumentException("session is null");
+        }
+
+        if (chunkFetcher == null) {
+            throw new IllegalArgumentException("chunkFetcher is null");
+        }
+
+        if (keyExtractor == null) {
+            throw new IllegalArgumentException("keyExtractor is null");
+        }
+
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize is less than one");
+        }
+
+        this.session = session;
+        this.chunkFetcher = chunkFetcher;
+        this.keyExtractor = keyExtractor;
+        this.chunkSize = chunkSize;
+        this.evict = evict;
+        this.associationExtractor = associationExtractor;
+
+        this.chunk = null;
+        this.chunkIterator = null;
+        this.lastKey = null;
+        this.exhausted = false;
+    }
+
+    /**
+     * Evicts the elements of the current chunk and their associated entities, if eviction is
+     * enabled, and releases it.
+     */
+    private void releaseChunk() {
+        if (this.evict && this.chunk != null) {
+            // Associated entities are commonly shared by many elements of a chunk, so we only
+            // evict each of them once
+            Set<Object> associations = Collections.newSetFromMap(new IdentityHashMap<>());
+
+            for (T element : this.chunk) {
+                this.session.evict(element);
+
+                if (this.associationExtractor != null) {
+                    Collection<?> associated = this.associationExtractor.apply(element);
+                    if (associated != null) {
+                        associations.addAll(associated);
+                    }
+                }
+            }
+
+            for (Object association : associations) {
+                if (association != null) {
+                    this.session.evict(association);
+                }
+            }
+        }
+
+        this.chunk = null;
+        this.chunkIterator = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.chunkIterator != null && this.chunkIterator.hasNext()) {
+            return true;
+        }
+
+        if (this.exhausted) {
+            this.releaseChunk();
+            return false;
+        }
+
+        // Impl note: a short chunk means there is nothing left beyond it, which saves us a
+        // final, empty round trip in the common case.
+        boolean lastChunk = this.chunk != null && this.chunk.size() < this.chunkSize;
+        this.releaseChunk();
+
+        if (lastChunk) {
+            this.exhausted = true;
+            return false;
+        }
+
+        List<T> fetched = this.chunkFetcher.apply(this.lastKey);
+        if (fetched == null || fetched.isEmpty()) {
+            this.exhausted = true;
+            return false;
+        }
+
+        this.chunk = fetched;
+        this.chunkIterator = fetched.iterator();
+        this.lastKey = this.keyExtractor.apply(fetched.get(fetched.size() - 1));
+
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return this.chunkIterator.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException(
+            "The remove operation is not supported on KeysetResultIterator instances."
+        );
+    }
+
+    @Override
+    public void close() {
+        this.releaseChunk();
+        this.exhausted = true;
+    }
+}
@@ -231,13 +231,7 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
     }
 
     private Set<Entitlement> convertPoolsToEntitlements(Collection<Pool> pools) {
-        Set<Entitlement> output = new HashSet<>();
-
-        for (Pool p : pools) {
-            output.addAll(p.getEntitlements());
-        }
-
-        return output;
+        return new HashSet<>(this.entitlementsIn(pools));
     }
 
     /**
@@ -436,7 +430,7 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
         getProductsPredicate(root, builder, product, providedProduct, qualifier.getProductIds())
             .ifPresent(predicates::add);
 
-        getMatchesPredicates(query, root, builder, product, providedProduct, qualifier.getMatches())
+        getMatchesPredicates(query, root, builder, product, qualifier.getMatches())
             .ifPresent(predicates::addAll);
 
         getAttributesPredicate(query, root, builder, qualifier.getAttributes())
@@ -512,23 +506,18 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
     }
 
     private Optional<List<Predicate>> getMatchesPredicates(CriteriaQuery<?> query, Root<Pool> root,
-        CriteriaBuilder builder, Join<Pool, Product> product, SetJoin<Product, Product> providedProduct,
-        Set<String> matches) {
+        CriteriaBuilder builder, Join<Pool, Product> product, Set<String> matches) {
 
         if (matches == null || matches.isEmpty()) {
             return Optional.empty();
         }
 
-        if (providedProduct == null) {
-            providedProduct = product.join(Product_.providedProducts, JoinType.LEFT);
-        }
-
-        Join<Product, ProductContent> providedProdContent = providedProduct
-            .join(Product_.productContent, JoinType.LEFT);
-
-        Join<ProductContent, Content> content = providedProdContent
-            .join(ProductContent_.content, JoinType.LEFT);
-
+        // Impl note:
+        // Provided products and their content are matched through uncorrelated subqueries selecting
+        // the UUIDs of the products providing a match, rather than by joining them into the pool
+        // query. This avoids multiplying the pool rows by every provided product and content, and
+        // allows the database to resolve each subquery once using the trigram indexes on the
+        // product and content names (see 20261018010000-add-pool-search-indexes.xml).
         List<Predicate> predicates = new ArrayList<>();
         for (String match : matches) {
             String sanitized = this.sanitizeMatchesFilter(match);
@@ -549,10 +538,10 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
                 ilike(builder, root.get(Pool_.orderNumber), sanitized),
                 ilike(builder, product.get(Product_.id), sanitized),
                 ilike(builder, product.get(Product_.name), sanitized),
-                ilike(builder, providedProduct.get(Product_.id), sanitized),
-                ilike(builder, providedProduct.get(Product_.name), sanitized),
-                ilike(builder, content.get(Content_.name), sanitized),
-                ilike(builder, content.get(Content_.label), sanitized),
+                product.get(Product_.uuid).in(this.buildProvidedProductMatchSubquery(query, builder,
+                    sanitized)),
+                product.get(Product_.uuid).in(this.buildProvidedContentMatchSubquery(query, builder,
+                    sanitized)),
                 supportLevelPredicate
             );
 
@@ -562,6 +551,42 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
         return Optional.of(predicates);
     }
 
+    /**
+     * Builds a subquery selecting the UUIDs of products providing a product with an ID or name
+     * matching the given sanitized filter.
+     */
+    private Subquery<String> buildProvidedProductMatchSubquery(CriteriaQuery<?> query,
+        CriteriaBuilder builder, String sanitized) {
+
+        Subquery<String> subquery = query.subquery(String.class);
+        Root<Product> subRoot = subquery.from(Product.class);
+        SetJoin<Product, Product> providedProduct = subRoot.join(Product_.providedProducts);
+
+        return subquery.select(subRoot.get(Product_.uuid))
+            .where(builder.or(
+                ilike(builder, providedProduct.get(Product_.id), sanitized),
+                ilike(builder, providedProduct.get(Product_.name), sanitized)));
+    }
+
+    /**
+     * Builds a subquery selecting the UUIDs of products providing a product with content having a
+     * name or label matching the given sanitized filter.
+     */
+    private Subquery<String> buildProvidedContentMatchSubquery(CriteriaQuery<?> query,
+        CriteriaBuilder builder, String sanitized) {
+
+        Subquery<String> subquery = query.subquery(String.class);
+        Root<Product> subRoot = subquery.from(Product.class);
+        Join<ProductContent, Content> content = subRoot.join(Product_.providedProducts)
+            .join(Product_.productContent)
+            .join(ProductContent_.content);
+
+        return subquery.select(subRoot.get(Product_.uuid))
+            .where(builder.or(
+                ilike(builder, content.get(Content_.name), sanitized),
+                ilike(builder, content.get(Content_.label), sanitized)));
+    }
+
     private Optional<List<Predicate>> getAttributesPredicate(CriteriaQuery<?> query, Root<Pool> root,
         CriteriaBuilder builder, Map<String, List<String>> attributes) {
 
@@ -906,6 +931,38 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
             .getResultList();
     }
 
+    /**
+     * Fetches the entitlements of the given pools, in blocks of pools, rather than initializing
+     * the entitlement collection of each pool in turn.
+     *
+     * @param pools
+     *  the pools for which to fetch entitlements
+     *
+     * @return
+     *  a list of the entitlements of the given pools
+     */
+    public List<Entitlement> entitlementsIn(Collection<Pool> pools) {
+        List<Entitlement> output = new ArrayList<>();
+
+        if (pools == null || pools.isEmpty()) {
+            return output;
+        }
+
+        String jpql = """
+            SELECT e FROM Entitlement e
+            WHERE e.pool IN (:pools)""";
+
+        TypedQuery<Entitlement> query = this.getEntityManager()
+            .createQuery(jpql, Entitlement.class);
+
+        for (List<Pool> block : this.partition(pools)) {
+            output.addAll(query.setParameter("pools", block)
+                .getResultList());
+        }
+
+        return output;
+    }
+
     /**
      * Query pools by the subscription that generated them.
      *
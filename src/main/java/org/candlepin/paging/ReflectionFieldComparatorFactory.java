@@ -14,10 +14,20 @@
  */
 package org.candlepin.paging;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 
@@ -25,15 +35,32 @@ import java.util.function.Function;
 /**
  * A field comparator factory which uses reflection against a specified class to build comparators
  * from arbitrary field names.
+ * <p></p>
+ * Reflection is only used to resolve the accessor for a given field; the resolved accessor is
+ * converted to a generated function which invokes it directly, and cached for each class and
+ * field name, so neither the lookup nor reflective invocation is repeated when comparing. Field
+ * names which cannot be mapped are not cached, as they are provided by clients; the cache is
+ * therefore bounded by the accessors of each class.
  *
  * @param <T>
  *  the class type for which this factory's mapping logic applies
  */
 public class ReflectionFieldComparatorFactory<T> implements FieldComparatorFactory<T> {
 
+    private static final Logger log = LoggerFactory.getLogger(ReflectionFieldComparatorFactory.class);
+
     /** A collection of prefixes to apply when mapping field names to accessors */
     private static final List<String> METHOD_NAME_PREFIXES = List.of("get", "is", "has");
 
+    /** Resolved extractor functions, per class and field name; only successfully mapped fields are cached */
+    private static final ClassValue<Map<String, Function<Object, Comparable>>> EXTRACTORS =
+        new ClassValue<>() {
+            @Override
+            protected Map<String, Function<Object, Comparable>> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
     private final Class<T> type;
     private final String defaultSortField;
 
@@ -110,6 +137,25 @@ public class ReflectionFieldComparatorFactory<T> implements FieldComparatorFacto
             return null;
         }
 
+        // Impl note: computeIfAbsent does not record a mapping when the resolved function is null
+        Function<Object, Comparable> extractor = EXTRACTORS.get(this.type)
+            .computeIfAbsent(fieldName, this::resolveExtractorFunction);
+
+        return (Function<? super T, Comparable<? super Comparable>>) (Function) extractor;
+    }
+
+    /**
+     * Resolves the accessor method for the given field name and builds an extractor function which
+     * invokes it. See {@link #getExtractorFunction(String)} for details on how accessors are mapped.
+     *
+     * @param fieldName
+     *  the name of the field for which to resolve an extractor function
+     *
+     * @return
+     *  an extractor function for the specified field name, or null if the field name could not be
+     *  mapped to an accessor method on the underlying type
+     */
+    private Function<Object, Comparable> resolveExtractorFunction(String fieldName) {
         for (String prefix : METHOD_NAME_PREFIXES) {
             String candidate = this.buildMethodNameCandidate(prefix, fieldName);
 
@@ -121,14 +167,7 @@ public class ReflectionFieldComparatorFactory<T> implements FieldComparatorFacto
                     throw new NoSuchMethodException("incomparable return type: " + returnType);
                 }
 
-                return (T instance) -> {
-                    try {
-                        return (Comparable<? super Comparable>) method.invoke(instance);
-                    }
-                    catch (InvocationTargetException | IllegalAccessException e) {
-                        throw new RuntimeException(e); // This shouldn't happen... probably.
-                    }
-                };
+                return this.buildExtractorFunction(method);
             }
             catch (NoSuchMethodException e) {
                 // Intentionally left empty
@@ -138,6 +177,78 @@ public class ReflectionFieldComparatorFactory<T> implements FieldComparatorFacto
         return null;
     }
 
+    /**
+     * Builds an extractor function which invokes the given accessor method. Where possible, the
+     * function is generated to invoke the accessor directly. Failing that, the function invokes the
+     * accessor through a method handle or, if the accessor cannot be looked up as a method handle,
+     * through reflection.
+     *
+     * @param method
+     *  the accessor method to invoke
+     *
+     * @return
+     *  an extractor function which invokes the given accessor
+     */
+    @SuppressWarnings("unchecked")
+    private Function<Object, Comparable> buildExtractorFunction(Method method) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(this.type, MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflect(method);
+
+            try {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(method.getReturnType(), this.type));
+
+                return (Function<Object, Comparable>) site.getTarget().invoke();
+            }
+            catch (Throwable e) {
+                log.debug("Unable to generate extractor function for accessor: {}", method, e);
+            }
+
+            MethodHandle generic = handle.asType(MethodType.methodType(Comparable.class, Object.class));
+
+            return instance -> {
+                try {
+                    return (Comparable) generic.invokeExact(instance);
+                }
+                catch (RuntimeException | Error e) {
+                    throw e;
+                }
+                catch (Throwable e) {
+                    throw new RuntimeException(e); // This shouldn't happen... probably.
+                }
+            };
+        }
+        catch (IllegalAccessException e) {
+            log.debug("Unable to look up method handle for accessor: {}", method, e);
+        }
+
+        return instance -> {
+            try {
+                return (Comparable) method.invoke(instance);
+            }
+            catch (InvocationTargetException | IllegalAccessException e) {
+                throw new RuntimeException(e); // This shouldn't happen... probably.
+            }
+        };
+    }
+
+    /**
+     * Fetches the number of extractor functions cached for the given class.
+     *
+     * @param type
+     *  the class for which to count cached extractor functions
+     *
+     * @return
+     *  the number of extractor functions cached for the given class
+     */
+    static int getCachedExtractorCount(Class<?> type) {
+        return EXTRACTORS.get(type).size();
+    }
+
     /**
      * {@inheritDoc}
      */
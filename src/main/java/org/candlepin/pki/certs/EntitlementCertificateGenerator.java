@@ -14,10 +14,14 @@
  */
 package org.candlepin.pki.certs;
 
+import org.candlepin.cache.ProductGraph;
+import org.candlepin.cache.ProductGraphCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.controller.util.ContentPathBuilder;
 import org.candlepin.controller.util.PromotedContent;
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
 import org.candlepin.model.CertificateSerial;
 import org.candlepin.model.CertificateSerialCurator;
 import org.candlepin.model.Consumer;
@@ -71,6 +75,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -82,6 +87,7 @@ import javax.inject.Provider;
  */
 public class EntitlementCertificateGenerator {
     private static final Logger log = LoggerFactory.getLogger(EntitlementCertificateGenerator.class);
+    private static final String GENERATION_TIMER = "pki.entitlement_certificate.generate";
 
     private final EntitlementCertificateCurator entCertCurator;
     private final X509ExtensionUtil extensionUtil;
@@ -98,6 +104,7 @@ public class EntitlementCertificateGenerator {
     private final PemEncoder pemEncoder;
     private final Signer signer;
     private final Provider<X509CertificateBuilder> certificateBuilder;
+    private final ProductGraphCache productGraphCache;
 
     @Inject
     public EntitlementCertificateGenerator(
@@ -114,7 +121,8 @@ public class EntitlementCertificateGenerator {
         KeyPairGenerator keyPairGenerator,
         PemEncoder pemEncoder,
         Signer signer,
-        Provider<X509CertificateBuilder> certificateBuilder) {
+        Provider<X509CertificateBuilder> certificateBuilder,
+        ProductGraphCache productGraphCache) {
 
         this.extensionUtil = Objects.requireNonNull(extensionUtil);
         this.v3extensionUtil = Objects.requireNonNull(v3extensionUtil);
@@ -131,6 +139,7 @@ public class EntitlementCertificateGenerator {
         this.pemEncoder = Objects.requireNonNull(pemEncoder);
         this.signer = Objects.requireNonNull(signer);
         this.certificateBuilder = Objects.requireNonNull(certificateBuilder);
+        this.productGraphCache = Objects.requireNonNull(productGraphCache);
     }
 
     /**
@@ -173,7 +182,10 @@ public class EntitlementCertificateGenerator {
 
         Map<String, EntitlementCertificate> entitlementCerts = new HashMap<>();
         boolean shouldCreateV3Certificate = shouldGenerateV3(consumer);
+        Timer generationTimer = MetricRegistry.getInstance().timer(GENERATION_TIMER);
+
         for (Entry<String, PoolQuantity> entry : poolQuantities.entrySet()) {
+            long start = System.nanoTime();
             Pool pool = entry.getValue().getPool();
             Entitlement ent = entitlements.get(entry.getKey());
             CertificateSerial serial = serialMap.get(entry.getKey());
@@ -184,12 +196,20 @@ public class EntitlementCertificateGenerator {
                 ent.getQuantity(),
                 ent.getId());
 
-            Set<Product> providedProducts = new HashSet<>(pool.getProduct().getProvidedProducts());
+            // Impl note: the product tree is read from a snapshot cached by the version of the
+            // product graph, to avoid copying and walking the same products and content for every
+            // cert.
+            ProductGraph graph = this.productGraphCache.get(pool.getProduct());
+            if (product == pool.getProduct()) {
+                product = graph.getProduct();
+            }
+
+            Set<Product> providedProducts = new HashSet<>(graph.getProvidedProducts());
 
             // If creating a certificate for a distributor, we need
             // to add any derived products as well so that their content
             // is available in the upstream certificate.
-            providedProducts.addAll(getDerivedProductsForDistributor(pool, consumer));
+            providedProducts.addAll(getDerivedProductsForDistributor(pool, graph, consumer));
             providedProducts.add(product);
 
             log.info("Creating X509 cert for product: {}", product);
@@ -225,6 +245,7 @@ public class EntitlementCertificateGenerator {
             }
 
             entitlementCerts.put(entry.getKey(), cert);
+            generationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
         // Now that the serials have been saved, update the newly created
@@ -259,15 +280,15 @@ public class EntitlementCertificateGenerator {
         return entitlementCerts;
     }
 
-    private Set<Product> getDerivedProductsForDistributor(Pool pool, Consumer consumer) {
+    private Set<Product> getDerivedProductsForDistributor(Pool pool, ProductGraph graph, Consumer consumer) {
         Set<Product> derivedProducts = new HashSet<>();
 
         if (!pool.hasAttribute(Pool.Attributes.DERIVED_POOL) && this.isManifestDistributor(consumer)) {
-            Product derivedProduct = pool.getDerivedProduct();
+            Product derivedProduct = graph.getDerivedProduct();
 
             if (derivedProduct != null) {
                 derivedProducts.add(derivedProduct);
-                derivedProducts.addAll(derivedProduct.getProvidedProducts());
+                derivedProducts.addAll(graph.getDerivedProvidedProducts());
             }
         }
 
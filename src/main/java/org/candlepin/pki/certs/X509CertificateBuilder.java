@@ -15,6 +15,8 @@
 
 package org.candlepin.pki.certs;
 
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
 import org.candlepin.pki.CertificateReader;
 import org.candlepin.pki.DistinguishedName;
 import org.candlepin.pki.SubjectKeyIdentifierWriter;
@@ -38,6 +40,7 @@ import org.bouncycastle.asn1.x509.KeyPurposeId;
 import org.bouncycastle.asn1.x509.KeyUsage;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.cert.CertIOException;
+import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
@@ -73,6 +76,7 @@ import javax.inject.Provider;
  */
 public class X509CertificateBuilder {
     private static final String SIGNATURE_ALGORITHM = "SHA256WithRSA";
+    private static final String SIGNING_TIMER = "pki.certificate.sign";
     private static final Pattern X500_SPECIAL_SYMBOL_REGEX = Pattern.compile("\\A([,=+<>#;\"])");
 
     private final Provider<BouncyCastleProvider> securityProvider;
@@ -283,7 +287,12 @@ public class X509CertificateBuilder {
 
     private X509Certificate buildCertificate(X509v3CertificateBuilder builder, ContentSigner signer) {
         try {
-            return new JcaX509CertificateConverter().getCertificate(builder.build(signer));
+            X509CertificateHolder holder;
+            try (Timer.Sample sample = MetricRegistry.getInstance().timer(SIGNING_TIMER).start()) {
+                holder = builder.build(signer);
+            }
+
+            return new JcaX509CertificateConverter().getCertificate(holder);
         }
         catch (CertificateException e) {
             throw new CertificateCreationException("Failed to build the certificate.", e);
@@ -14,6 +14,8 @@
  */
 package org.candlepin.pki.impl;
 
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
 import org.candlepin.pki.CertificateReader;
 import org.candlepin.pki.SignatureFailedException;
 
@@ -38,6 +40,7 @@ import javax.inject.Inject;
  */
 public class Signer {
     private static final Logger log = LoggerFactory.getLogger(Signer.class);
+    private static final String SIGNING_TIMER = "pki.payload.sign";
 
     private final CertificateReader certificateAuthority;
 
@@ -54,7 +57,7 @@ public class Signer {
      * @return a byte array of the SHA256withRSA digital signature
      */
     public byte[] sign(InputStream input) {
-        try {
+        try (Timer.Sample sample = MetricRegistry.getInstance().timer(SIGNING_TIMER).start()) {
             Signature signature = Signature.getInstance("SHA256withRSA");
             signature.initSign(this.certificateAuthority.getCaKey());
 
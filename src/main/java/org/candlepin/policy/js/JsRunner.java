@@ -14,6 +14,9 @@
  */
 package org.candlepin.policy.js;
 
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
+
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.Function;
 import org.mozilla.javascript.RhinoException;
@@ -24,6 +27,12 @@ import org.mozilla.javascript.Wrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
 /**
  * JsRunner - Responsible for running the javascript rules methods in all
  * namespaces.
@@ -36,11 +45,67 @@ public class JsRunner {
     private Object rulesNameSpace;
     private String namespace;
     private Scriptable scope;
+    private String rulesVersion;
+    private ConcurrentMap<String, Optional<?>> rulesData;
 
     private boolean initialized = false;
 
     public JsRunner(Scriptable scope) {
+        this(scope, null);
+    }
+
+    public JsRunner(Scriptable scope, String rulesVersion) {
+        this(scope, rulesVersion, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Creates a runner for the given scope, sharing the given store of rules data with the other
+     * runners created from the same compilation of the rules.
+     *
+     * @param scope
+     *  the scope of the rules to run
+     *
+     * @param rulesVersion
+     *  the version of the rules compiled into the scope
+     *
+     * @param rulesData
+     *  the store of values derived from the compiled rules; see {@link #getRulesData}
+     */
+    public JsRunner(Scriptable scope, String rulesVersion, ConcurrentMap<String, Optional<?>> rulesData) {
         this.scope = scope;
+        this.rulesVersion = rulesVersion;
+        this.rulesData = Objects.requireNonNull(rulesData);
+    }
+
+    /**
+     * Fetches the version of the rules compiled into the scope of this runner.
+     *
+     * @return
+     *  the version of the rules run by this runner, or null if it is not known
+     */
+    public String getRulesVersion() {
+        return this.rulesVersion;
+    }
+
+    /**
+     * Fetches a value derived from the rules run by this runner, computing it on first use. As
+     * such values only depend on the rules, they are shared by every runner created from the same
+     * compilation of the rules, and discarded once the rules are recompiled.
+     *
+     * @param key
+     *  the key of the value to fetch
+     *
+     * @param loader
+     *  the function computing the value if it is not yet known; may return null, which is kept as
+     *  the value as well
+     *
+     * @return
+     *  the value derived from the rules, or null if the loader computed null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getRulesData(String key, Supplier<T> loader) {
+        return (T) this.rulesData.computeIfAbsent(key, k -> Optional.ofNullable(loader.get()))
+            .orElse(null);
     }
 
     /**
@@ -95,8 +160,9 @@ public class JsRunner {
         if (!(func instanceof Function)) {
             throw new NoSuchMethodException("no such javascript method: " + method);
         }
+        Timer timer = MetricRegistry.getInstance().timer("rules." + this.namespace);
         Context context = Context.enter();
-        try {
+        try (Timer.Sample sample = timer.start()) {
             return (T) unwrapReturnValue(((Function) func).call(context, scope,
                 localScope, Context.emptyArgs));
         }
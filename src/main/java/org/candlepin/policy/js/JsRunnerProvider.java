@@ -29,6 +29,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -59,7 +62,10 @@ public class JsRunnerProvider implements Provider<JsRunner> {
     private String rulesVersion;
     private RulesSourceEnum rulesSource;
 
-    // Use this lock to access script, scope and updated
+    // Values derived from the compiled rules, shared by the runners until the rules are recompiled
+    private ConcurrentMap<String, Optional<?>> rulesData = new ConcurrentHashMap<>();
+
+    // Use this lock to access script, scope, rules data and updated
     private ReadWriteLock scriptLock = new ReentrantReadWriteLock();
 
     /**
@@ -125,6 +131,7 @@ public class JsRunnerProvider implements Provider<JsRunner> {
                     rules.getRules(), "rules", 1, null);
                 script.exec(context, scope);
                 ((ScriptableObject) scope).sealObject();
+                rulesData = new ConcurrentHashMap<>();
                 this.currentRulesUpdated = newUpdated;
             }
             finally {
@@ -157,8 +164,13 @@ public class JsRunnerProvider implements Provider<JsRunner> {
             compileRules();
         }
         Scriptable rulesScope;
+        String version;
+        ConcurrentMap<String, Optional<?>> data;
         scriptLock.readLock().lock();
         try {
+            // Read the version and data under the same lock as the scope so they always match
+            version = rulesVersion;
+            data = rulesData;
             Context context = Context.enter();
             rulesScope = context.newObject(scope);
             rulesScope.setPrototype(scope);
@@ -169,7 +181,7 @@ public class JsRunnerProvider implements Provider<JsRunner> {
             scriptLock.readLock().unlock();
         }
 
-        return new JsRunner(rulesScope);
+        return new JsRunner(rulesScope, version, data);
     }
 
     public String getRulesVersion() {
@@ -73,6 +73,7 @@ import javax.inject.Inject;
 public class EntitlementRules implements Enforcer {
     private static final Logger log = LoggerFactory.getLogger(EntitlementRules.class);
     private static final long UNLIMITED_QUANTITY = -1L;
+    private static final String ATTRIBUTE_RULES_KEY = "entitlement_name_space.attribute_mappings";
 
     private final DateSource dateSource;
     private final I18n i18n;
@@ -84,6 +85,9 @@ public class EntitlementRules implements Enforcer {
     private final ModelTranslator translator;
     private final PoolService poolService;
 
+    // The attribute rule table of the JS rules, or null if pools must be validated by the JS rules
+    private final List<Rule> attributeRules;
+
     @Inject
     public EntitlementRules(DateSource dateSource,
         JsRunner jsRules, I18n i18n, Configuration config, ConsumerCurator consumerCurator,
@@ -101,6 +105,76 @@ public class EntitlementRules implements Enforcer {
         this.poolService = Objects.requireNonNull(poolService);
 
         jsRules.init("entitlement_name_space");
+        this.attributeRules = this.useNativeRules() ?
+            jsRules.getRulesData(ATTRIBUTE_RULES_KEY, this::readAttributeRules) :
+            null;
+    }
+
+    /**
+     * Checks whether pools may be validated by the native rules. The native rules are only used
+     * when enabled, and while the loaded JS rules are the version they mirror, as the rules may
+     * be replaced by a rules import at any time.
+     *
+     * @return
+     *  true if pools may be validated natively; false if they must be validated by the JS rules
+     */
+    private boolean useNativeRules() {
+        if (!this.config.getBoolean(ConfigProperties.NATIVE_RULES_ENABLED)) {
+            return false;
+        }
+
+        String rulesVersion = this.jsRules.getRulesVersion();
+        if (!PreEntitlementEvaluator.supportsRulesVersion(rulesVersion)) {
+            log.debug("Native entitlement rules mirror rules version {}; running rules version {} in JS",
+                PreEntitlementEvaluator.RULES_VERSION, rulesVersion);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads the attribute rule table from the "attribute_mappings" function of the JS rules,
+     * preserving the order in which the rules are defined, as it determines the order in which
+     * the rules are evaluated. The table only depends on the rules, so it is read once per
+     * compilation of the rules and shared through the rules data of the runner.
+     *
+     * @return
+     *  the attribute rules, or null if the JS rules do not define a valid attribute rule table
+     */
+    private List<Rule> readAttributeRules() {
+        Object mappings = this.jsRules.invokeRule("attribute_mappings");
+        if (!(mappings instanceof CharSequence)) {
+            return null;
+        }
+
+        try {
+            List<Rule> rules = new ArrayList<>();
+            for (String mapping : mappings.toString().split(",")) {
+                if (!mapping.isBlank()) {
+                    rules.add(this.parseRule(mapping));
+                }
+            }
+
+            return Collections.unmodifiableList(rules);
+        }
+        catch (IllegalArgumentException e) {
+            log.warn("Unable to parse the attribute mappings of the entitlement rules", e);
+            return null;
+        }
+    }
+
+    /**
+     * Selects the attribute rules applying to the given pool, if they can all be evaluated
+     * natively.
+     *
+     * @return
+     *  the attribute rules applying to the pool, or null if the pool must be validated by the
+     *  JS rules
+     */
+    private List<Rule> selectNativeRules(Pool pool) {
+        return this.attributeRules != null ? PreEntitlementEvaluator.selectRules(pool, this.attributeRules) :
+            null;
     }
 
     @Override
@@ -130,12 +204,50 @@ public class EntitlementRules implements Enforcer {
         return preEntitlement(consumer, getHost(consumer), entitlementPoolQuantities, caller);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Pools are validated natively against the attribute rules of the JS rules, sharing the
+     * consumer and host between all of them. Only pools matching rules without a native
+     * implementation are validated by the JS rules, in a single invocation.
+     */
     @Override
-    @SuppressWarnings("checkstyle:indentation")
     public Map<String, ValidationResult> preEntitlement(Consumer consumer, Consumer host,
         Collection<PoolQuantity> entitlementPoolQuantities, CallerType caller) {
 
         ConsumerType ctype = this.consumerTypeCurator.getConsumerType(consumer);
+        PreEntitlementEvaluator evaluator = new PreEntitlementEvaluator(consumer, ctype, host, caller);
+
+        Map<String, ValidationResult> resultMap = new HashMap<>();
+        List<PoolQuantity> jsPoolQuantities = new ArrayList<>();
+
+        for (PoolQuantity poolQuantity : entitlementPoolQuantities) {
+            Pool pool = poolQuantity.getPool();
+            List<Rule> rules = this.selectNativeRules(pool);
+
+            if (rules != null) {
+                resultMap.put(pool.getId(), evaluator.validate(pool, poolQuantity.getQuantity(), rules));
+            }
+            else {
+                jsPoolQuantities.add(poolQuantity);
+            }
+        }
+
+        if (!jsPoolQuantities.isEmpty()) {
+            resultMap.putAll(this.runPreEntitlementRules(consumer, host, jsPoolQuantities, caller));
+        }
+
+        for (PoolQuantity poolQuantity : entitlementPoolQuantities) {
+            finishValidation(resultMap.get(poolQuantity.getPool().getId()),
+                poolQuantity.getPool(), poolQuantity.getQuantity());
+        }
+
+        return resultMap;
+    }
+
+    @SuppressWarnings("checkstyle:indentation")
+    private Map<String, ValidationResult> runPreEntitlementRules(Consumer consumer, Consumer host,
+        Collection<PoolQuantity> entitlementPoolQuantities, CallerType caller) {
 
         /* This document describes the java script portion of the pre entitlement rules check:
          * http://www.candlepinproject.org/docs/candlepin/pre_entitlement_rules_check.html
@@ -144,9 +256,8 @@ public class EntitlementRules implements Enforcer {
             consumer.getEntitlements().stream()
                 .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
 
-        Stream<PoolQuantityDTO> quantityStream = entitlementPoolQuantities == null ? Stream.empty() :
-            entitlementPoolQuantities.stream()
-                .map(this.translator.getStreamMapper(PoolQuantity.class, PoolQuantityDTO.class));
+        Stream<PoolQuantityDTO> quantityStream = entitlementPoolQuantities.stream()
+            .map(this.translator.getStreamMapper(PoolQuantity.class, PoolQuantityDTO.class));
 
         JsonJsContext args = new JsonJsContext(objectMapper);
         args.put("consumer", this.translator.translate(consumer, ConsumerDTO.class));
@@ -174,45 +285,39 @@ public class EntitlementRules implements Enforcer {
             throw new RuleExecutionException(e);
         }
 
-        for (PoolQuantity poolQuantity : entitlementPoolQuantities) {
-            finishValidation(resultMap.get(poolQuantity.getPool().getId()),
-                poolQuantity.getPool(), poolQuantity.getQuantity());
-        }
-
         return resultMap;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * As with {@link #preEntitlement(Consumer, Consumer, Collection, CallerType)}, only pools
+     * matching rules without a native implementation are validated by the JS rules.
+     */
     @Override
-    @SuppressWarnings("checkstyle:indentation")
     public List<Pool> filterPools(Consumer consumer, List<Pool> pools, boolean showAll) {
-        JsonJsContext args = new JsonJsContext(objectMapper);
-
         ConsumerType ctype = this.consumerTypeCurator.getConsumerType(consumer);
+        Consumer host = getHost(consumer);
+        PreEntitlementEvaluator evaluator = new PreEntitlementEvaluator(consumer, ctype, host,
+            CallerType.LIST_POOLS);
 
-        Stream<PoolDTO> poolStream = pools == null ? Stream.empty() :
-            pools.stream().map(this.translator.getStreamMapper(Pool.class, PoolDTO.class));
-
-        Stream<EntitlementDTO> entStream = consumer.getEntitlements() == null ? Stream.empty() :
-            consumer.getEntitlements().stream()
-                .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
-
-        args.put("consumer", this.translator.translate(consumer, ConsumerDTO.class));
-        args.put("hostConsumer", this.translator.translate(getHost(consumer), ConsumerDTO.class));
-        args.put("consumerEntitlements", entStream.collect(Collectors.toSet()));
-        args.put("standalone", config.getBoolean(ConfigProperties.STANDALONE));
-        args.put("pools", poolStream.collect(Collectors.toSet()));
-        args.put("caller", CallerType.LIST_POOLS.getLabel());
-        args.put("log", log, false);
+        Map<String, ValidationResult> resultMap = new HashMap<>();
+        List<Pool> jsPools = new ArrayList<>();
 
-        Map<String, ValidationResult> resultMap;
-        String json = jsRules.runJsFunction(String.class, "validate_pools_list", args);
-        TypeReference<Map<String, ValidationResult>> typeref = new TypeReference<>() {};
+        for (Pool pool : pools) {
+            List<Rule> rules = this.selectNativeRules(pool);
 
-        try {
-            resultMap = objectMapper.toObject(json, typeref);
+            if (rules != null) {
+                // We know the caller is list pools, use quantity 1
+                resultMap.put(pool.getId(), evaluator.validate(pool, 1, rules));
+            }
+            else {
+                jsPools.add(pool);
+            }
         }
-        catch (Exception e) {
-            throw new RuleExecutionException(e);
+
+        if (!jsPools.isEmpty()) {
+            resultMap.putAll(this.runListPoolsRules(consumer, host, jsPools));
         }
 
         List<Pool> filteredPools = new LinkedList<>();
@@ -238,6 +343,38 @@ public class EntitlementRules implements Enforcer {
         return filteredPools;
     }
 
+    @SuppressWarnings("checkstyle:indentation")
+    private Map<String, ValidationResult> runListPoolsRules(Consumer consumer, Consumer host,
+        List<Pool> pools) {
+
+        JsonJsContext args = new JsonJsContext(objectMapper);
+
+        Stream<PoolDTO> poolStream = pools.stream()
+            .map(this.translator.getStreamMapper(Pool.class, PoolDTO.class));
+
+        Stream<EntitlementDTO> entStream = consumer.getEntitlements() == null ? Stream.empty() :
+            consumer.getEntitlements().stream()
+                .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
+
+        args.put("consumer", this.translator.translate(consumer, ConsumerDTO.class));
+        args.put("hostConsumer", this.translator.translate(host, ConsumerDTO.class));
+        args.put("consumerEntitlements", entStream.collect(Collectors.toSet()));
+        args.put("standalone", config.getBoolean(ConfigProperties.STANDALONE));
+        args.put("pools", poolStream.collect(Collectors.toSet()));
+        args.put("caller", CallerType.LIST_POOLS.getLabel());
+        args.put("log", log, false);
+
+        String json = jsRules.runJsFunction(String.class, "validate_pools_list", args);
+        TypeReference<Map<String, ValidationResult>> typeref = new TypeReference<>() {};
+
+        try {
+            return objectMapper.toObject(json, typeref);
+        }
+        catch (Exception e) {
+            throw new RuleExecutionException(e);
+        }
+    }
+
     private Consumer getHost(Consumer consumer) {
         if (!consumer.hasFact(Consumer.Facts.VIRT_UUID)) {
             return null;
@@ -0,0 +1,669 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.entitlement;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCapability;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.policy.ValidationResult;
+import org.candlepin.policy.js.entitlement.Enforcer.CallerType;
+import org.candlepin.policy.js.entitlement.EntitlementRules.Rule;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+
+/**
+ * Native implementation of the attribute-driven pre-entitlement rules defined in the "Entitlement"
+ * namespace of the JS rules, used to validate a set of candidate pools without translating them
+ * or the consumer for the rules engine.
+ *
+ * The consumer, its type, host and entitlements are shared by all pools validated by a given
+ * evaluator. Each rule mirrors its "do_pre_*" counterpart in the JS rules, including the way
+ * the JS rules coerce attribute and fact values to numbers, and reports the same error and warning
+ * keys in the same order. Pools matching rules without a native implementation must still be
+ * validated by the rules engine.
+ */
+public class PreEntitlementEvaluator {
+
+    /** The name of the rule applied to every pool, regardless of its attributes */
+    public static final String GLOBAL_RULE = "global";
+
+    /** The version of the JS rules mirrored by the native rules */
+    public static final String RULES_VERSION = "5.46";
+
+    private static final Set<String> SUPPORTED_RULES = Set.of(GLOBAL_RULE, "architecture", "sockets", "ram",
+        "cores", "requires_consumer_type", "virt_only", "requires_host", "instance_multiplier", "vcpu",
+        "physical_only", "unmapped_guests_only", "storage_band", "requires_consumer");
+
+    private static final String SYSTEM_TYPE = "system";
+    private static final String HYPERVISOR_TYPE = "hypervisor";
+    private static final String UEBERCERT_TYPE = "uebercert";
+
+    private static final String SOCKET_FACT = "cpu.cpu_socket(s)";
+    private static final String RAM_FACT = "memory.memtotal";
+    private static final String CORES_FACT = "cpu.core(s)_per_socket";
+    private static final String ARCH_FACT = "uname.machine";
+    private static final String STORAGE_BAND_FACT = "band.storage.usage";
+
+    private static final String STORAGE_BAND = "storage_band";
+
+    private static final long ONE_DAY = 24 * 60 * 60 * 1000L;
+
+    private static final Pattern HEX_PATTERN = Pattern.compile("^([+-]?)0[xX]([0-9a-fA-F]+)");
+    private static final Pattern INTEGER_PATTERN = Pattern.compile("^[+-]?\\d+");
+    private static final Pattern DECIMAL_PATTERN =
+        Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+    private static final Pattern INFINITY_PATTERN = Pattern.compile("[+-]?Infinity");
+
+    private final Consumer consumer;
+    private final Consumer host;
+    private final CallerType caller;
+    private final boolean manifest;
+    private final String typeLabel;
+    private final boolean guest;
+    private final Set<String> capabilities;
+    private final Set<String> entitledPoolIds;
+
+    /**
+     * Creates a new evaluator validating pools for the given consumer.
+     *
+     * @param consumer
+     *  the consumer for which pools will be validated
+     *
+     * @param type
+     *  the type of the consumer
+     *
+     * @param host
+     *  the host of the consumer, or null if the consumer is not a guest with a known host
+     *
+     * @param caller
+     *  the type of operation for which pools will be validated
+     */
+    public PreEntitlementEvaluator(Consumer consumer, ConsumerType type, Consumer host, CallerType caller) {
+        this.consumer = Objects.requireNonNull(consumer);
+        this.host = host;
+        this.caller = Objects.requireNonNull(caller);
+
+        this.manifest = type.isManifest();
+        this.typeLabel = type.getLabel();
+        this.guest = consumer.isGuest();
+
+        this.capabilities = new HashSet<>();
+        if (consumer.getCapabilities() != null) {
+            for (ConsumerCapability capability : consumer.getCapabilities()) {
+                this.capabilities.add(capability.getName());
+            }
+        }
+
+        this.entitledPoolIds = new HashSet<>();
+        if (consumer.getEntitlements() != null) {
+            for (Entitlement entitlement : consumer.getEntitlements()) {
+                if (entitlement.getPool() != null) {
+                    this.entitledPoolIds.add(entitlement.getPool().getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the native rules mirror the given version of the JS rules. Rules may be replaced at
+     * runtime by a rules import, in which case the native rules must not be used, as they may no
+     * longer match the JS rules being run.
+     *
+     * @param rulesVersion
+     *  the version of the JS rules to check
+     *
+     * @return
+     *  true if the native rules mirror the given version of the JS rules; false otherwise
+     */
+    public static boolean supportsRulesVersion(String rulesVersion) {
+        return RULES_VERSION.equals(rulesVersion);
+    }
+
+    /**
+     * Checks if the rule with the given name has a native implementation.
+     *
+     * @param ruleName
+     *  the name of the rule to check
+     *
+     * @return
+     *  true if the rule can be evaluated natively; false otherwise
+     */
+    public static boolean supports(String ruleName) {
+        return ruleName != null && SUPPORTED_RULES.contains(ruleName);
+    }
+
+    /**
+     * Selects the rules from the given attribute rule table which apply to the given pool, in the
+     * order they are defined. As with the JS rules, an attribute with a value of "0" is considered
+     * to not be set.
+     *
+     * @param pool
+     *  the pool for which to select rules
+     *
+     * @param rules
+     *  the attribute rule table, in the order the rules are defined
+     *
+     * @return
+     *  the rules to apply to the pool, excluding the global rule, or null if any of them does not
+     *  have a native implementation
+     */
+    public static List<Rule> selectRules(Pool pool, List<Rule> rules) {
+        List<Rule> selected = new ArrayList<>();
+
+        for (Rule rule : rules) {
+            boolean applies = rule.getAttributes().stream()
+                .anyMatch(attribute -> getPoolAttribute(pool, attribute) != null);
+
+            if (applies) {
+                if (!supports(rule.getRuleName())) {
+                    return null;
+                }
+
+                selected.add(rule);
+            }
+        }
+
+        return selected;
+    }
+
+    /**
+     * Validates the given pool against the global rule and the given attribute rules.
+     *
+     * @param pool
+     *  the pool to validate
+     *
+     * @param quantity
+     *  the quantity requested from the pool; may be null
+     *
+     * @param rules
+     *  the attribute rules applying to the pool, as selected by {@link #selectRules}
+     *
+     * @throws IllegalArgumentException
+     *  if any of the given rules does not have a native implementation
+     *
+     * @return
+     *  the result of the validation
+     */
+    public ValidationResult validate(Pool pool, Integer quantity, Collection<Rule> rules) {
+        ValidationResult result = new ValidationResult();
+
+        this.validateGlobal(pool, quantity, result);
+        for (Rule rule : rules) {
+            this.apply(rule.getRuleName(), pool, quantity, result);
+        }
+
+        return result;
+    }
+
+    private void apply(String ruleName, Pool pool, Integer quantity, ValidationResult result) {
+        switch (ruleName) {
+            case GLOBAL_RULE -> this.validateGlobal(pool, quantity, result);
+            case "virt_only" -> this.validateVirtOnly(pool, result);
+            case "physical_only" -> this.validatePhysicalOnly(pool, result);
+            case "unmapped_guests_only" -> this.validateUnmappedGuestsOnly(pool, result);
+            case "requires_host" -> this.validateRequiresHost(pool, result);
+            case "requires_consumer" -> this.validateRequiresConsumer(pool, result);
+            case "requires_consumer_type" -> this.validateRequiresConsumerType(pool, result);
+            case "vcpu" -> this.validateVcpu(pool, result);
+            case "architecture" -> this.validateArchitecture(pool, result);
+            case "sockets" -> this.validateSockets(pool, result);
+            case "cores" -> this.validateCores(pool, result);
+            case "ram" -> this.validateRam(pool, result);
+            case "storage_band" -> this.validateStorageBand(pool, result);
+            case "instance_multiplier" -> this.validateInstanceMultiplier(pool, quantity, result);
+            default -> throw new IllegalArgumentException("Rule does not have a native implementation: " +
+                ruleName);
+        }
+    }
+
+    private void validateGlobal(Pool pool, Integer quantity, ValidationResult result) {
+        if (this.manifest) {
+            // Distributors should not be able to consume from pools with derived products if they
+            // are not capable of supporting them.
+            Product product = pool.getProduct();
+            Product derived = product != null ? product.getDerivedProduct() : null;
+
+            if (derived != null && isTruthy(derived.getId())) {
+                this.validateCapability(result, "derived_product",
+                    "rulefailed.derivedproduct.unsupported.by.consumer",
+                    "rulewarning.derivedproduct.unsupported.by.consumer");
+            }
+
+            return;
+        }
+
+        boolean multiEnt = "yes".equalsIgnoreCase(
+            getProductAttribute(pool, Pool.Attributes.MULTI_ENTITLEMENT));
+
+        if (this.entitledPoolIds.contains(pool.getId()) && !multiEnt) {
+            result.addError("rulefailed.consumer.already.has.product");
+        }
+
+        if (quantity != null && quantity > 1 && !multiEnt) {
+            result.addError("rulefailed.pool.does.not.support.multi-entitlement");
+        }
+
+        // If the product has no required consumer type, assume it is restricted to "system".
+        // "hypervisor" type are essentially the same as "system".
+        if (!isTruthy(getProductAttribute(pool, Pool.Attributes.REQUIRES_CONSUMER_TYPE)) &&
+            !SYSTEM_TYPE.equals(this.typeLabel) && !HYPERVISOR_TYPE.equals(this.typeLabel) &&
+            !UEBERCERT_TYPE.equals(this.typeLabel)) {
+
+            result.addError("rulefailed.consumer.type.mismatch");
+        }
+
+        String restrictedToUsername = pool.getRestrictedToUsername();
+        if (restrictedToUsername != null && !restrictedToUsername.equals(this.consumer.getUsername())) {
+            result.addError("pool.not.available.to.user, pool= '" + restrictedToUsername +
+                "', actual username='" + this.consumer.getUsername() + "'");
+        }
+    }
+
+    private void validateVirtOnly(Pool pool, ValidationResult result) {
+        if (!"true".equalsIgnoreCase(getContextAttribute(pool, Pool.Attributes.VIRT_ONLY))) {
+            return;
+        }
+
+        if (this.manifest) {
+            if ("true".equalsIgnoreCase(getContextAttribute(pool, Pool.Attributes.DERIVED_POOL))) {
+                result.addError("pool.not.available.to.manifest.consumers");
+            }
+        }
+        else if (!this.guest) {
+            this.addErrorOrWarning(result, "rulefailed.virt.only", "rulewarning.virt.only");
+        }
+    }
+
+    private void validatePhysicalOnly(Pool pool, ValidationResult result) {
+        if ("true".equalsIgnoreCase(getContextAttribute(pool, Pool.Attributes.PHYSICAL_ONLY)) &&
+            !this.manifest && this.guest) {
+
+            this.addErrorOrWarning(result, "rulefailed.physical.only", "rulewarning.physical.only");
+        }
+    }
+
+    private void validateUnmappedGuestsOnly(Pool pool, ValidationResult result) {
+        if (!"true".equalsIgnoreCase(getContextAttribute(pool, Pool.Attributes.UNMAPPED_GUESTS_ONLY))) {
+            return;
+        }
+
+        // We want to hide the temporary pools completely if the consumer can't use them. Using an
+        // error instead of a warning keeps the pool from appearing in the results of a
+        // subscription-manager list --available --all
+        if (this.host != null) {
+            result.addError("virt.guest.cannot.use.unmapped.guest.pool.has.host");
+        }
+
+        // As with the JS rules, these checks use the system clock rather than the date source
+        long now = System.currentTimeMillis();
+
+        if (this.consumer.getCreated() == null || now >= this.consumer.getCreated().getTime() + ONE_DAY) {
+            result.addError("virt.guest.cannot.use.unmapped.guest.pool.not.new");
+        }
+
+        if (this.caller == CallerType.BIND && pool.getStartDate() != null &&
+            pool.getStartDate().getTime() > now) {
+
+            result.addError("virt.guest.cannot.bind.future.unmapped.guest.pool");
+        }
+    }
+
+    private void validateRequiresHost(Pool pool, ValidationResult result) {
+        // requires_host derived pools are not available to manifests
+        if (this.manifest) {
+            result.addError("pool.not.available.to.manifest.consumers");
+            return;
+        }
+
+        if (!isTruthy(this.consumer.getFact(Consumer.Facts.VIRT_UUID))) {
+            result.addError("rulefailed.virt.only");
+            return;
+        }
+
+        if (this.host == null ||
+            !Objects.equals(this.host.getUuid(), getContextAttribute(pool, Pool.Attributes.REQUIRES_HOST))) {
+
+            result.addError("virt.guest.host.does.not.match.pool.owner");
+        }
+    }
+
+    private void validateRequiresConsumer(Pool pool, ValidationResult result) {
+        String requiredConsumer = getContextAttribute(pool, Pool.Attributes.REQUIRES_CONSUMER);
+
+        // requires_consumer pools are not available to manifests
+        if (this.manifest && isTruthy(requiredConsumer)) {
+            result.addError("pool.not.available.to.manifest.consumers");
+            return;
+        }
+
+        if (!Objects.equals(this.consumer.getUuid(), requiredConsumer)) {
+            result.addError("consumer.does.not.match.pool.consumer.requirement");
+        }
+    }
+
+    private void validateRequiresConsumerType(Pool pool, ValidationResult result) {
+        // Distributors can access everything
+        if (this.manifest) {
+            return;
+        }
+
+        String requiredType = getContextAttribute(pool, Pool.Attributes.REQUIRES_CONSUMER_TYPE);
+        if (requiredType != null && !UEBERCERT_TYPE.equals(this.typeLabel) &&
+            !requiredType.equals(this.typeLabel) &&
+            !(SYSTEM_TYPE.equals(requiredType) && HYPERVISOR_TYPE.equals(this.typeLabel))) {
+
+            // Consumer types need to match, but hypervisors are allowed to be like systems
+            result.addError("rulefailed.consumer.type.mismatch");
+        }
+    }
+
+    private void validateVcpu(Pool pool, ValidationResult result) {
+        if (this.manifest || !this.guest) {
+            return;
+        }
+
+        double consumerCores = this.getConsumerCores();
+        if (isTruthy(consumerCores) && !isStacked(pool)) {
+            double poolCores = parseInt(getProductAttribute(pool, Product.Attributes.VCPU));
+            if (poolCores > 0 && poolCores < consumerCores) {
+                result.addWarning("rulewarning.unsupported.number.of.vcpus");
+            }
+        }
+    }
+
+    private void validateArchitecture(Pool pool, ValidationResult result) {
+        if (this.manifest) {
+            return;
+        }
+
+        if (!this.architectureMatches(getProductAttribute(pool, Product.Attributes.ARCHITECTURE))) {
+            result.addWarning("rulewarning.architecture.mismatch");
+        }
+    }
+
+    private boolean architectureMatches(String productArches) {
+        String consumerArch = this.consumer.getFact(ARCH_FACT);
+
+        // Non-system consumers without an architecture fact can pass this rule regardless of the
+        // architecture the product requires
+        if (!isTruthy(consumerArch) && !SYSTEM_TYPE.equals(this.typeLabel)) {
+            return true;
+        }
+
+        if (productArches != null) {
+            List<String> supported = new ArrayList<>(
+                Arrays.asList(productArches.toUpperCase(Locale.ROOT).split(",", -1)));
+
+            // If X86 is supported, add all variants to the list
+            if (supported.contains("X86")) {
+                supported.addAll(List.of("I386", "I586", "I686"));
+            }
+
+            return supported.contains("ALL") ||
+                (isTruthy(consumerArch) && supported.contains(consumerArch.toUpperCase(Locale.ROOT)));
+        }
+
+        return true;
+    }
+
+    private void validateSockets(Pool pool, ValidationResult result) {
+        if (this.manifest || this.guest) {
+            return;
+        }
+
+        // Usually we assume a socket count of 1 if it is undefined, but here we skip the socket
+        // comparison if the consumer does not report its sockets
+        String consumerSockets = this.consumer.getFact(SOCKET_FACT);
+        if (isTruthy(consumerSockets) && !isStacked(pool)) {
+            double poolSockets = parseInt(getProductAttribute(pool, Product.Attributes.SOCKETS));
+            if (poolSockets > 0 && poolSockets < parseInt(consumerSockets)) {
+                result.addWarning("rulewarning.unsupported.number.of.sockets");
+            }
+        }
+    }
+
+    private void validateCores(Pool pool, ValidationResult result) {
+        if (this.manifest) {
+            this.validateCapability(result, Product.Attributes.CORES,
+                "rulefailed.cores.unsupported.by.consumer",
+                "rulewarning.cores.unsupported.by.consumer");
+
+            return;
+        }
+
+        if (this.guest) {
+            return;
+        }
+
+        double consumerCores = this.getConsumerCores();
+        if (isTruthy(consumerCores) && !isStacked(pool)) {
+            double poolCores = parseInt(getProductAttribute(pool, Product.Attributes.CORES));
+            if (poolCores > 0 && poolCores < consumerCores) {
+                result.addWarning("rulewarning.unsupported.number.of.cores");
+            }
+        }
+    }
+
+    private void validateRam(Pool pool, ValidationResult result) {
+        if (this.manifest) {
+            this.validateCapability(result, Product.Attributes.RAM,
+                "rulefailed.ram.unsupported.by.consumer",
+                "rulewarning.ram.unsupported.by.consumer");
+
+            return;
+        }
+
+        // The consumer reports its RAM in KB, while products specify it in GB
+        String consumerRamFact = this.consumer.getFact(RAM_FACT);
+        double consumerRam = Math.floor(parseInt(isTruthy(consumerRamFact) ? consumerRamFact : "1") /
+            1024 / 1024 + 0.5);
+
+        double productRam = parseInt(getProductAttribute(pool, Product.Attributes.RAM));
+        if (consumerRam > productRam && !isStacked(pool)) {
+            result.addWarning("rulewarning.unsupported.ram");
+        }
+    }
+
+    private void validateStorageBand(Pool pool, ValidationResult result) {
+        if (this.manifest) {
+            this.validateCapability(result, STORAGE_BAND,
+                "rulefailed.storageband.unsupported.by.consumer",
+                "rulewarning.storageband.unsupported.by.consumer");
+
+            return;
+        }
+
+        double consumerUsage = this.getNumericFact(STORAGE_BAND_FACT);
+        double productUsage = parseInt(getProductAttribute(pool, STORAGE_BAND));
+        if (consumerUsage > productUsage && !isStacked(pool)) {
+            result.addWarning("rulewarning.unsupported.storageband");
+        }
+    }
+
+    private void validateInstanceMultiplier(Pool pool, Integer quantity, ValidationResult result) {
+        if (this.manifest) {
+            this.validateCapability(result, Product.Attributes.INSTANCE_MULTIPLIER,
+                "rulefailed.instance.unsupported.by.consumer",
+                "rulewarning.instance.unsupported.by.consumer");
+
+            return;
+        }
+
+        // Only block quantities which do not evenly divide the multiplier, and only on physical
+        // systems
+        if (this.caller == CallerType.BIND && !this.guest) {
+            double multiplier = toNumber(getProductAttribute(pool, Product.Attributes.INSTANCE_MULTIPLIER));
+            double mod = (quantity != null ? quantity : 0) % multiplier;
+
+            // Non-numeric or unset multipliers leave a remainder which is not a number, and fail
+            if (mod != 0) {
+                result.addError("rulefailed.quantity.mismatch");
+            }
+        }
+    }
+
+    private void validateCapability(ValidationResult result, String capability, String errorKey,
+        String warningKey) {
+
+        if (!this.capabilities.contains(capability)) {
+            this.addErrorOrWarning(result, errorKey, warningKey);
+        }
+    }
+
+    private void addErrorOrWarning(ValidationResult result, String errorKey, String warningKey) {
+        if (this.caller == CallerType.BEST_POOLS || this.caller == CallerType.BIND) {
+            result.addError(errorKey);
+        }
+        else {
+            result.addWarning(warningKey);
+        }
+    }
+
+    /**
+     * Calculates the total number of cores of the consumer, from its sockets and cores per socket,
+     * each of which defaults to 1 if not reported.
+     */
+    private double getConsumerCores() {
+        return this.getNumericFact(CORES_FACT) * this.getNumericFact(SOCKET_FACT);
+    }
+
+    private double getNumericFact(String fact) {
+        String value = this.consumer.getFact(fact);
+        return isTruthy(value) ? toNumber(value) : 1;
+    }
+
+    /**
+     * Fetches the value of an attribute from the given attribute maps, checking the second map if
+     * the attribute is not set in the first. As with the JS rules, an attribute with a value of "0"
+     * is considered to not be set.
+     */
+    private static String findAttribute(String name, Map<String, String> first, Map<String, String> second) {
+        String value = first.get(name);
+        if (value == null || "0".equals(value)) {
+            value = second.get(name);
+        }
+
+        return "0".equals(value) ? null : value;
+    }
+
+    private static Map<String, String> getProductAttributes(Pool pool) {
+        Product product = pool.getProduct();
+        return product != null && product.getAttributes() != null ? product.getAttributes() :
+            Collections.emptyMap();
+    }
+
+    /**
+     * Mirrors pool.getAttribute in the JS rules: checks the pool, then its product
+     */
+    private static String getPoolAttribute(Pool pool, String name) {
+        return findAttribute(name, pool.getAttributes(), getProductAttributes(pool));
+    }
+
+    /**
+     * Mirrors pool.getProductAttribute in the JS rules: checks the product, then the pool
+     */
+    private static String getProductAttribute(Pool pool, String name) {
+        return findAttribute(name, getProductAttributes(pool), pool.getAttributes());
+    }
+
+    /**
+     * Mirrors context.getAttribute in the JS rules: checks the pool attributes, falling back to
+     * the product attributes if the value is empty
+     */
+    private static String getContextAttribute(Pool pool, String name) {
+        String value = getPoolAttribute(pool, name);
+        return isTruthy(value) ? value : getProductAttribute(pool, name);
+    }
+
+    private static boolean isStacked(Pool pool) {
+        return isTruthy(getProductAttribute(pool, Product.Attributes.STACKING_ID));
+    }
+
+    private static boolean isTruthy(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    private static boolean isTruthy(double value) {
+        return value != 0 && !Double.isNaN(value);
+    }
+
+    /**
+     * Converts the given value to a number as JS's Number function would, returning NaN if the
+     * value is not numeric.
+     */
+    static double toNumber(String value) {
+        if (value == null) {
+            return 0;
+        }
+
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return 0;
+        }
+
+        if (DECIMAL_PATTERN.matcher(trimmed).matches()) {
+            return Double.parseDouble(trimmed);
+        }
+
+        if (INFINITY_PATTERN.matcher(trimmed).matches()) {
+            return trimmed.charAt(0) == '-' ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+
+        Matcher hex = HEX_PATTERN.matcher(trimmed);
+        if (hex.matches() && hex.group(1).isEmpty()) {
+            return new BigInteger(hex.group(2), 16).doubleValue();
+        }
+
+        return Double.NaN;
+    }
+
+    /**
+     * Parses the leading integer of the given value as JS's parseInt function would, returning NaN
+     * if the value does not start with an integer.
+     */
+    static double parseInt(String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+
+        String trimmed = value.stripLeading();
+
+        Matcher hex = HEX_PATTERN.matcher(trimmed);
+        if (hex.find()) {
+            double parsed = new BigInteger(hex.group(2), 16).doubleValue();
+            return "-".equals(hex.group(1)) ? -parsed : parsed;
+        }
+
+        Matcher integer = INTEGER_PATTERN.matcher(trimmed);
+        return integer.find() ? Double.parseDouble(integer.group()) : Double.NaN;
+    }
+}
@@ -14,6 +14,8 @@
  */
 package org.candlepin.policy.js.quantity;
 
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.rules.v1.ConsumerDTO;
 import org.candlepin.dto.rules.v1.EntitlementDTO;
@@ -34,7 +36,9 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -48,19 +52,27 @@ import javax.inject.Inject;
  */
 public class QuantityRules {
 
+    /** The version of the JS rules mirrored by the suggested quantities resolved without the rules */
+    public static final String RULES_VERSION = "5.46";
+
     private JsRunner jsRules;
     private RulesObjectMapper mapper;
     private static Logger log = LoggerFactory.getLogger(QuantityRules.class);
     private ModelTranslator translator;
+    private boolean nativeRules;
 
     @Inject
     public QuantityRules(JsRunner jsRules, RulesObjectMapper mapper,
-        ModelTranslator translator) {
+        ModelTranslator translator, Configuration config) {
 
         this.jsRules = jsRules;
         this.mapper = mapper;
         this.translator = translator;
 
+        // Rules may be replaced by a rules import, which may compute quantities differently
+        this.nativeRules = config.getBoolean(ConfigProperties.NATIVE_RULES_ENABLED) &&
+            RULES_VERSION.equals(jsRules.getRulesVersion());
+
         jsRules.init("quantity_name_space");
     }
 
@@ -92,6 +104,13 @@ public class QuantityRules {
      * performant list pools queries with large numbers of pools and a large amount of
      * entitlements to serialize.
      *
+     * Pools which are not multi-entitlement, and all pools for manifest consumers, always have a
+     * suggested quantity and increment of 1. While the loaded rules are the version mirrored by
+     * this class, such pools are resolved without invoking the rules. The remaining pools are
+     * evaluated by the rules in a single call, sharing one serialized copy of the consumer's valid
+     * entitlements. If no pool requires the rules, the consumer's entitlements are not serialized
+     * at all.
+     *
      * Map returned will map each pool ID to the suggested quantities for it. Every pool
      * provided should have it's ID present in the result.
      *
@@ -102,10 +121,32 @@ public class QuantityRules {
      */
     @SuppressWarnings("checkstyle:indentation")
     public Map<String, SuggestedQuantityDTO> getSuggestedQuantities(List<Pool> pools, Consumer c, Date date) {
+        Map<String, SuggestedQuantityDTO> resultMap = new HashMap<>();
+        if (pools == null || pools.isEmpty()) {
+            return resultMap;
+        }
+
+        ConsumerDTO consumer = this.translator.translate(c, ConsumerDTO.class);
+        boolean manifest = consumer.getType() != null && Boolean.TRUE.equals(consumer.getType().isManifest());
+
+        List<Pool> rulesPools = new ArrayList<>();
+        for (Pool pool : pools) {
+            if (this.nativeRules && (manifest || !isMultiEntitlement(pool))) {
+                resultMap.put(pool.getId(), defaultSuggestedQuantity());
+            }
+            else {
+                rulesPools.add(pool);
+            }
+        }
+
+        if (rulesPools.isEmpty()) {
+            return resultMap;
+        }
+
         JsonJsContext args = new JsonJsContext(mapper);
 
-        Stream<PoolDTO> poolStream = pools == null ? Stream.empty() :
-            pools.stream().map(this.translator.getStreamMapper(Pool.class, PoolDTO.class));
+        Stream<PoolDTO> poolStream = rulesPools.stream()
+            .map(this.translator.getStreamMapper(Pool.class, PoolDTO.class));
 
         Stream<EntitlementDTO> entStream = c.getEntitlements() == null ? Stream.empty() :
             c.getEntitlements().stream()
@@ -117,18 +158,17 @@ public class QuantityRules {
                 .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class));
 
         args.put("pools", poolStream);
-        args.put("consumer", this.translator.translate(c, ConsumerDTO.class));
+        args.put("consumer", consumer);
         args.put("validEntitlements", entStream);
         args.put("log", log, false);
         args.put("guestIds", guestIdStream);
 
         String json = jsRules.runJsFunction(String.class, "get_suggested_quantities", args);
-        Map<String, SuggestedQuantityDTO> resultMap;
         TypeReference<Map<String, SuggestedQuantityDTO>> typeref =
             new TypeReference<Map<String, SuggestedQuantityDTO>>() {};
 
         try {
-            resultMap = mapper.toObject(json, typeref);
+            resultMap.putAll(mapper.toObject(json, typeref));
         }
         catch (Exception e) {
             throw new RuleExecutionException(e);
@@ -136,4 +176,26 @@ public class QuantityRules {
 
         return resultMap;
     }
+
+    /**
+     * Checks whether the given pool allows multiple entitlements, mirroring the Utils.isMultiEnt
+     * check of the rules: the product attribute is used if set, falling back to the pool attribute,
+     * and a value of "0" is considered unset.
+     */
+    private static boolean isMultiEntitlement(Pool pool) {
+        String value = pool.getProductAttributes().get(Pool.Attributes.MULTI_ENTITLEMENT);
+        if (value == null || "0".equals(value)) {
+            value = pool.getAttributeValue(Pool.Attributes.MULTI_ENTITLEMENT);
+        }
+
+        return "yes".equalsIgnoreCase(value);
+    }
+
+    private static SuggestedQuantityDTO defaultSuggestedQuantity() {
+        SuggestedQuantityDTO suggested = new SuggestedQuantityDTO();
+        suggested.setSuggested(1L);
+        suggested.setIncrement(1L);
+
+        return suggested;
+    }
 }
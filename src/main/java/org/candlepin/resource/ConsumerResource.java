@@ -665,6 +665,14 @@ public class ConsumerResource implements ConsumerApi {
             // Store the page for the LinkHeaderResponseFilter
             ResteasyContext.pushContext(Page.class, pageResponse);
         }
+        // If streaming is enabled, unpaged results are written out as they are fetched rather than
+        // materialized, so there is no need to limit them
+        else if (config.getBoolean(ConfigProperties.CONSUMER_SEARCH_STREAMING)) {
+            int chunkSize = config.getInt(ConfigProperties.CONSUMER_SEARCH_CHUNK_SIZE);
+
+            return this.consumerCurator.streamConsumers(queryArgs, chunkSize)
+                .map(this.translator.getStreamMapper(Consumer.class, ConsumerDTOArrayElement.class));
+        }
         // If no paging was specified, force a limit on amount of results
         else {
             int maxSize = config.getInt(ConfigProperties.PAGING_MAX_PAGE_SIZE);
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resource;
+
+import org.candlepin.async.JobManager;
+import org.candlepin.audit.EventSink;
+import org.candlepin.dto.api.server.v1.MetricDTO;
+import org.candlepin.dto.api.server.v1.QueueStatus;
+import org.candlepin.metrics.Counter;
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
+import org.candlepin.model.AsyncJobStatus.JobState;
+import org.candlepin.model.AsyncJobStatusCurator;
+import org.candlepin.resource.server.v1.MetricsApi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+
+
+/**
+ * Exposes the metrics recorded by this Candlepin node. In addition to the contents of the metric
+ * registry, the job queue depth per job key and the depths of the message queues are sampled
+ * each time the metrics are requested.
+ */
+public class MetricsResource implements MetricsApi {
+    private static final Logger log = LoggerFactory.getLogger(MetricsResource.class);
+
+    private static final Set<JobState> QUEUED_JOB_STATES = Set.of(JobState.CREATED, JobState.WAITING,
+        JobState.QUEUED, JobState.FAILED_WITH_RETRY);
+
+    private final MetricRegistry registry;
+    private final AsyncJobStatusCurator jobCurator;
+    private final EventSink eventSink;
+
+    @Inject
+    public MetricsResource(MetricRegistry registry, AsyncJobStatusCurator jobCurator, EventSink eventSink) {
+        this.registry = Objects.requireNonNull(registry);
+        this.jobCurator = Objects.requireNonNull(jobCurator);
+        this.eventSink = Objects.requireNonNull(eventSink);
+    }
+
+    @Override
+    public List<MetricDTO> getMetrics() {
+        List<MetricDTO> metrics = new ArrayList<>();
+
+        for (Counter counter : this.registry.getCounters().values()) {
+            metrics.add(new MetricDTO()
+                .name(counter.getName())
+                .type("counter")
+                .count(counter.getCount()));
+        }
+
+        Map<String, Number> gauges = new TreeMap<>(this.registry.getGaugeValues());
+        gauges.putAll(this.sampleQueueDepths());
+
+        gauges.forEach((name, value) -> metrics.add(new MetricDTO()
+            .name(name)
+            .type("gauge")
+            .value(value.doubleValue())));
+
+        for (Timer timer : this.registry.getTimers().values()) {
+            metrics.add(new MetricDTO()
+                .name(timer.getName())
+                .type("timer")
+                .count(timer.getCount())
+                .totalTime(timer.getTotalTime(TimeUnit.MILLISECONDS))
+                .meanTime(timer.getMeanTime(TimeUnit.MILLISECONDS))
+                .maxTime(timer.getMaxTime(TimeUnit.MILLISECONDS)));
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Samples the number of jobs waiting to be executed for each job key, and the number of
+     * messages pending in each message queue. Failure to sample either is logged and otherwise
+     * ignored, such that the remaining metrics can still be reported.
+     *
+     * @return
+     *  a map of gauge names to their sampled values
+     */
+    private Map<String, Number> sampleQueueDepths() {
+        Map<String, Number> depths = new TreeMap<>();
+
+        try {
+            this.jobCurator.getJobCountsByKey(QUEUED_JOB_STATES).forEach((key, count) ->
+                depths.put(JobManager.METRIC_PREFIX + key + ".queue_depth", count));
+        }
+        catch (Exception e) {
+            log.warn("Unable to sample job queue depths", e);
+        }
+
+        try {
+            for (QueueStatus status : this.eventSink.getQueueInfo()) {
+                depths.put("messaging." + status.getQueueName() + ".queue_depth",
+                    status.getPendingMessageCount());
+            }
+        }
+        catch (Exception e) {
+            log.warn("Unable to sample message queue depths", e);
+        }
+
+        return depths;
+    }
+}
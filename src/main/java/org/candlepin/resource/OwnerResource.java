@@ -32,6 +32,7 @@ import org.candlepin.auth.Access;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.SubResource;
 import org.candlepin.auth.Verify;
+import org.candlepin.cache.UserAuthCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.Configuration;
 import org.candlepin.controller.ContentAccessManager;
@@ -139,7 +140,6 @@ import org.xnap.commons.i18n.I18n;
 import java.io.File;
 import java.io.IOException;
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
@@ -197,6 +197,7 @@ public class OwnerResource implements OwnerApi {
     private final DTOValidator validator;
     private final PrincipalProvider principalProvider;
     private final PagingUtilFactory pagingUtilFactory;
+    private final UserAuthCache userAuthCache;
     private final int maxPagingSize;
 
     @Inject
@@ -231,7 +232,8 @@ public class OwnerResource implements OwnerApi {
         JobManager jobManager,
         DTOValidator validator,
         PrincipalProvider principalProvider,
-        PagingUtilFactory pagingUtilFactory) {
+        PagingUtilFactory pagingUtilFactory,
+        UserAuthCache userAuthCache) {
 
         this.ownerCurator = Objects.requireNonNull(ownerCurator);
         this.ownerInfoCurator = Objects.requireNonNull(ownerInfoCurator);
@@ -264,6 +266,7 @@ public class OwnerResource implements OwnerApi {
         this.validator = Objects.requireNonNull(validator);
         this.principalProvider = Objects.requireNonNull(principalProvider);
         this.pagingUtilFactory = Objects.requireNonNull(pagingUtilFactory);
+        this.userAuthCache = Objects.requireNonNull(userAuthCache);
         this.maxPagingSize = this.config.getInt(ConfigProperties.PAGING_MAX_PAGE_SIZE);
     }
 
@@ -909,6 +912,9 @@ public class OwnerResource implements OwnerApi {
             ownerCurator.flush();
         }
 
+        // Cached principals carry owner permissions built from the previous owner state
+        this.userAuthCache.removeAllUsers();
+
         // Build and queue the owner modified event
         Event event = this.eventFactory.getEventBuilder(Target.OWNER, Type.MODIFIED)
             .setEventData(owner)
@@ -992,11 +998,14 @@ public class OwnerResource implements OwnerApi {
             }
         }
 
+        // Drop any cached principals still holding permissions on the deleted owner
+        this.userAuthCache.removeAllUsers();
+
         sink.queueEvent(event);
     }
 
     @Override
-    public List<EntitlementDTO> ownerEntitlements(
+    public Stream<EntitlementDTO> ownerEntitlements(
         @Verify(Owner.class) String ownerKey,
         String productId,
         List<String> attrFilters,
@@ -1009,18 +1018,23 @@ public class OwnerResource implements OwnerApi {
         new KeyValueStringParser(this.i18n).parseKeyValuePairs(attrFilters)
             .forEach(kvpair -> filters.addAttributeFilter(kvpair.getKey(), kvpair.getValue()));
 
+        // Unpaged listings can span every entitlement in the org, so they are written out as they
+        // are fetched rather than materialized
+        if (pageRequest == null) {
+            int chunkSize = this.config.getInt(ConfigProperties.OWNER_ENTITLEMENTS_CHUNK_SIZE);
+
+            return this.entitlementCurator.streamByOwner(owner, productId, filters, chunkSize)
+                .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
+        }
+
         Page<List<Entitlement>> entitlementsPage = entitlementCurator
             .listByOwner(owner, productId, filters, pageRequest);
 
         // Store the page for the LinkHeaderPostInterceptor
         ResteasyContext.pushContext(Page.class, entitlementsPage);
 
-        List<EntitlementDTO> entitlementDTOs = new ArrayList<>();
-        for (Entitlement entitlement : entitlementsPage.getPageData()) {
-            entitlementDTOs.add(this.translator.translate(entitlement, EntitlementDTO.class));
-        }
-
-        return entitlementDTOs;
+        return entitlementsPage.getPageData().stream()
+            .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
     }
 
     @Override
@@ -16,6 +16,7 @@ package org.candlepin.resource;
 
 import org.candlepin.async.JobConfig;
 import org.candlepin.async.JobManager;
+import org.candlepin.async.tasks.RefreshPoolsBatchJob;
 import org.candlepin.async.tasks.RefreshPoolsJob;
 import org.candlepin.auth.SecurityHole;
 import org.candlepin.config.ConfigProperties;
@@ -44,6 +45,7 @@ import org.xnap.commons.i18n.I18n;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -200,8 +202,21 @@ public class ProductResource implements ProductsApi {
             }
         };
 
-        return this.ownerCurator.getOwnersWithProducts(productIds)
-            .stream()
+        Set<Owner> owners = this.ownerCurator.getOwnersWithProducts(productIds);
+
+        // When batching is enabled, let a single coordinator job resolve the shared products and
+        // content once and fan out the per-org pool refreshes itself
+        if (owners.size() > 1 && config.getBoolean(ConfigProperties.REFRESH_POOLS_BATCH_ENABLED)) {
+            JobConfig batchConfig = RefreshPoolsBatchJob.createJobConfig()
+                .setOwners(owners)
+                .setLazyRegeneration(lazyRegen);
+
+            return Stream.of(batchConfig)
+                .map(jobQueueMapper)
+                .map(this.translator.getStreamMapper(AsyncJobStatus.class, AsyncJobStatusDTO.class));
+        }
+
+        return owners.stream()
             .map(jobConfigMapper)
             .map(jobQueueMapper)
             .map(this.translator.getStreamMapper(AsyncJobStatus.class, AsyncJobStatusDTO.class));
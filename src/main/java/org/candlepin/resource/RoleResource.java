@@ -15,6 +15,7 @@
 package org.candlepin.resource;
 
 import org.candlepin.auth.Access;
+import org.candlepin.cache.UserAuthCache;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.api.server.v1.PermissionBlueprintDTO;
 import org.candlepin.dto.api.server.v1.RoleDTO;
@@ -45,17 +46,19 @@ public class RoleResource implements RolesApi {
     private UserServiceAdapter userService;
     private I18n i18n;
     private ModelTranslator modelTranslator;
+    private UserAuthCache userAuthCache;
     private DTOValidator validator;
 
     @Inject
     public RoleResource(UserServiceAdapter userService, OwnerCurator ownerCurator,
         PermissionBlueprintCurator permCurator, I18n i18n, ModelTranslator modelTranslator,
-        DTOValidator validator) {
+        DTOValidator validator, UserAuthCache userAuthCache) {
 
         this.userService = userService;
         this.i18n = i18n;
         this.modelTranslator = modelTranslator;
         this.validator = validator;
+        this.userAuthCache = userAuthCache;
     }
 
     /**
@@ -135,6 +138,8 @@ public class RoleResource implements RolesApi {
 
         validator.validateCollectionElementsNotNull(dto::getUsers, dto::getPermissions);
         RoleInfo role = this.userService.createRole(InfoAdapter.roleInfoAdapter(dto));
+        this.userAuthCache.removeAllUsers();
+
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
 
@@ -151,6 +156,8 @@ public class RoleResource implements RolesApi {
         validator.validateCollectionElementsNotNull(dto::getUsers, dto::getPermissions);
 
         RoleInfo role = this.userService.updateRole(roleName, InfoAdapter.roleInfoAdapter(dto));
+        this.userAuthCache.removeAllUsers();
+
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
 
@@ -171,6 +178,7 @@ public class RoleResource implements RolesApi {
 
         RoleInfo role = this.userService.addPermissionToRole(roleName,
             InfoAdapter.permissionBlueprintInfoAdapter(permission));
+        this.userAuthCache.removeAllUsers();
 
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
@@ -185,6 +193,8 @@ public class RoleResource implements RolesApi {
         this.fetchRoleByName(roleName);
 
         RoleInfo role = this.userService.removePermissionFromRole(roleName, permissionId);
+        this.userAuthCache.removeAllUsers();
+
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
 
@@ -206,6 +216,7 @@ public class RoleResource implements RolesApi {
         this.fetchRoleByName(roleName);
 
         this.userService.deleteRole(roleName);
+        this.userAuthCache.removeAllUsers();
     }
 
     /**
@@ -221,6 +232,8 @@ public class RoleResource implements RolesApi {
         this.fetchUserByUsername(username);
 
         RoleInfo role = this.userService.addUserToRole(roleName, username);
+        this.userAuthCache.removeAllUsers();
+
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
 
@@ -237,6 +250,8 @@ public class RoleResource implements RolesApi {
         this.fetchUserByUsername(username);
 
         RoleInfo role = this.userService.removeUserFromRole(roleName, username);
+        this.userAuthCache.removeAllUsers();
+
         return this.modelTranslator.translate(role, RoleDTO.class);
     }
 
@@ -76,6 +76,7 @@ public class RootResource implements RootApi {
         addResource(CrlResource.class);
         addResource(EntitlementResource.class);
         addResource(JobResource.class);
+        addResource(MetricsResource.class);
         addResource(OwnerResource.class);
         addResource(PoolResource.class);
         addResource(ProductResource.class);
@@ -15,6 +15,7 @@
 package org.candlepin.resource;
 
 import org.candlepin.auth.Verify;
+import org.candlepin.cache.UserAuthCache;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.api.server.v1.OwnerDTO;
 import org.candlepin.dto.api.server.v1.RoleDTO;
@@ -54,14 +55,16 @@ public class UserResource implements UsersApi {
     private final I18n i18n;
     private final OwnerCurator ownerCurator;
     private final ModelTranslator modelTranslator;
+    private final UserAuthCache userAuthCache;
 
     @Inject
     public UserResource(UserServiceAdapter userService, I18n i18n, OwnerCurator ownerCurator,
-        ModelTranslator modelTranslator) {
+        ModelTranslator modelTranslator, UserAuthCache userAuthCache) {
         this.userService = Objects.requireNonNull(userService);
         this.i18n = Objects.requireNonNull(i18n);
         this.ownerCurator = Objects.requireNonNull(ownerCurator);
         this.modelTranslator = Objects.requireNonNull(modelTranslator);
+        this.userAuthCache = Objects.requireNonNull(userAuthCache);
     }
 
     /**
@@ -157,15 +160,17 @@ public class UserResource implements UsersApi {
         // generation
         UserInfo user = this.fetchUserByUsername(username);
 
-        return this.modelTranslator.translate(
-            userService.updateUser(username, InfoAdapter.userInfoAdapter(dto)),
-            UserDTO.class);
+        UserInfo updated = userService.updateUser(username, InfoAdapter.userInfoAdapter(dto));
+        this.userAuthCache.removeUser(username);
+
+        return this.modelTranslator.translate(updated, UserDTO.class);
     }
 
     @Override
     public void deleteUser(String username) {
         UserInfo user = this.fetchUserByUsername(username);
         userService.deleteUser(username);
+        this.userAuthCache.removeUser(username);
     }
 
     /**
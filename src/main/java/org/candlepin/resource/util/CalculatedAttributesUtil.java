@@ -24,6 +24,7 @@ import org.xnap.commons.i18n.I18n;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,10 +48,23 @@ public class CalculatedAttributesUtil {
     }
 
     public Map<String, String> buildCalculatedAttributes(Pool pool, Date date) {
+        return this.buildCalculatedAttributes(pool, new EnumMap<>(PoolComplianceType.class));
+    }
+
+    /**
+     * Builds the calculated attributes of the given pool, reusing and populating the given map of
+     * translated compliance type descriptions, so that a page of pools sharing a handful of
+     * compliance types only translates each of them once.
+     */
+    private Map<String, String> buildCalculatedAttributes(Pool pool,
+        Map<PoolComplianceType, String> complianceTypes) {
+
         Map<String, String> attrMap = new HashMap<>();
         PoolComplianceType type = pool.getComplianceType();
 
-        String complianceType = this.i18n.tr(type.getDescription());
+        String complianceType = complianceTypes
+            .computeIfAbsent(type, key -> this.i18n.tr(key.getDescription()));
+
         if (pool.isUnmappedGuestPool()) {
             complianceType = this.i18n.tr("{0} (Temporary)", complianceType);
         }
@@ -61,13 +75,15 @@ public class CalculatedAttributesUtil {
     }
 
     public void setCalculatedAttributes(List<Pool> poolList, Date date) {
+        Map<PoolComplianceType, String> complianceTypes = new EnumMap<>(PoolComplianceType.class);
+
         for (Pool pool : poolList) {
             Map<String, String> attrMap = pool.getCalculatedAttributes();
             if (attrMap == null) {
                 attrMap = new HashMap<>();
                 pool.setCalculatedAttributes(attrMap);
             }
-            attrMap.putAll(this.buildCalculatedAttributes(pool, date));
+            attrMap.putAll(this.buildCalculatedAttributes(pool, complianceTypes));
         }
     }
 
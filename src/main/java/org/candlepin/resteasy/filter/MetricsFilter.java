@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resteasy.filter;
+
+import org.candlepin.metrics.MetricRegistry;
+
+import org.jboss.resteasy.core.ResteasyContext;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.ext.Provider;
+
+
+
+/**
+ * The MetricsFilter records the latency of each request against a timer specific to the resource
+ * method which served it. Timers are named "http.{resource class}.{method}".
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION - 100)
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    private static final String START_TIME_PROPERTY = MetricsFilter.class.getName() + ".start";
+    public static final String TIMER_PREFIX = "http.";
+
+    private final MetricRegistry registry;
+
+    @Inject
+    public MetricsFilter(MetricRegistry registry) {
+        this.registry = Objects.requireNonNull(registry);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        requestContext.setProperty(START_TIME_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object start = requestContext.getProperty(START_TIME_PROPERTY);
+        if (!(start instanceof Long)) {
+            return;
+        }
+
+        String name = this.getTimerName(ResteasyContext.getContextData(ResourceInfo.class));
+        if (name != null) {
+            this.registry.timer(name)
+                .record(System.nanoTime() - (Long) start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Builds the name of the timer for the resource method described by the given resource info.
+     * If the resource info does not describe a resource method, this method returns null.
+     *
+     * @param resourceInfo
+     *  the resource info describing the resource method which served the request
+     *
+     * @return
+     *  the name of the timer for the resource method, or null if the resource method cannot be
+     *  determined
+     */
+    protected String getTimerName(ResourceInfo resourceInfo) {
+        String name = getResourceMethodName(resourceInfo);
+        return name != null ? TIMER_PREFIX + name : null;
+    }
+
+    /**
+     * Builds a name for the resource method described by the given resource info, in the form
+     * "{resource class}.{method}". If the resource info does not describe a resource method, this
+     * method returns null.
+     *
+     * @param resourceInfo
+     *  the resource info describing the resource method which served the request
+     *
+     * @return
+     *  the name of the resource method, or null if the resource method cannot be determined
+     */
+    public static String getResourceMethodName(ResourceInfo resourceInfo) {
+        if (resourceInfo == null) {
+            return null;
+        }
+
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null) {
+            return null;
+        }
+
+        // Impl note: resources may be proxied by the injector for method interception, in which
+        // case we want the name of the class that was proxied rather than that of the proxy.
+        Class<?> resourceClass = resourceInfo.getResourceClass();
+        if (resourceClass == null) {
+            resourceClass = method.getDeclaringClass();
+        }
+
+        while (resourceClass.getSuperclass() != null && resourceClass.getName().contains("$$")) {
+            resourceClass = resourceClass.getSuperclass();
+        }
+
+        return resourceClass.getSimpleName() + "." + method.getName();
+    }
+}
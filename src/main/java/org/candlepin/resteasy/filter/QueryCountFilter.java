@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resteasy.filter;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.Configuration;
+import org.candlepin.exceptions.ExceptionMessage;
+import org.candlepin.hibernate.QueryCounter;
+import org.candlepin.metrics.MetricRegistry;
+
+import org.jboss.resteasy.core.ResteasyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+
+
+
+/**
+ * The QueryCountFilter counts the SQL statements, entity loads and collection initializations
+ * performed while serving each request, to help track down N+1 query patterns. When enabled, the
+ * counts are reported in response headers, logged, and accumulated in counters specific to the
+ * resource method which served the request, named "db.{statements|entity_loads|collection_loads}.
+ * {resource class}.{method}".
+ *
+ * Requests exceeding the configured warn threshold of statements are logged as warnings. Requests
+ * exceeding the fail threshold have their response replaced with an internal server error, so
+ * that query count regressions fail spec tests; the fail threshold should not be set in
+ * production, as any changes made by the request will already have been committed.
+ *
+ * Counting starts before authentication and stops after all other response filters have run.
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION - 200)
+public class QueryCountFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    public static final String STATEMENT_COUNT_HEADER = "X-Candlepin-Statement-Count";
+    public static final String ENTITY_LOAD_COUNT_HEADER = "X-Candlepin-Entity-Load-Count";
+    public static final String COLLECTION_LOAD_COUNT_HEADER = "X-Candlepin-Collection-Load-Count";
+
+    public static final String COUNTER_PREFIX = "db.";
+
+    private final MetricRegistry registry;
+    private final boolean enabled;
+    private final int warnThreshold;
+    private final int failThreshold;
+
+    @Inject
+    public QueryCountFilter(Configuration config, MetricRegistry registry) {
+        this.registry = Objects.requireNonNull(registry);
+
+        this.enabled = config.getBoolean(ConfigProperties.DB_QUERY_COUNT_ENABLED);
+        this.warnThreshold = config.getInt(ConfigProperties.DB_QUERY_COUNT_WARN_THRESHOLD);
+        this.failThreshold = config.getInt(ConfigProperties.DB_QUERY_COUNT_FAIL_THRESHOLD);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (this.enabled) {
+            QueryCounter.start();
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (!QueryCounter.isCounting()) {
+            return;
+        }
+
+        QueryCounter.Counts counts = QueryCounter.stop();
+
+        MultivaluedMap<String, Object> headers = responseContext.getHeaders();
+        headers.putSingle(STATEMENT_COUNT_HEADER, counts.statements());
+        headers.putSingle(ENTITY_LOAD_COUNT_HEADER, counts.entityLoads());
+        headers.putSingle(COLLECTION_LOAD_COUNT_HEADER, counts.collectionLoads());
+
+        String name = MetricsFilter.getResourceMethodName(ResteasyContext.getContextData(ResourceInfo.class));
+        if (name != null) {
+            this.registry.counter(COUNTER_PREFIX + "statements." + name).increment(counts.statements());
+            this.registry.counter(COUNTER_PREFIX + "entity_loads." + name).increment(counts.entityLoads());
+            this.registry.counter(COUNTER_PREFIX + "collection_loads." + name)
+                .increment(counts.collectionLoads());
+        }
+        else {
+            name = requestContext.getMethod() + " " + requestContext.getUriInfo().getPath();
+        }
+
+        if (this.failThreshold > 0 && counts.statements() > this.failThreshold) {
+            String message = String.format("Request %s executed %d statements, exceeding the limit of %d",
+                name, counts.statements(), this.failThreshold);
+
+            log.error("{}; entity loads: {}, collection loads: {}", message, counts.entityLoads(),
+                counts.collectionLoads());
+
+            responseContext.setStatus(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+            responseContext.setEntity(new ExceptionMessage(message), null, MediaType.APPLICATION_JSON_TYPE);
+        }
+        else if (this.warnThreshold > 0 && counts.statements() > this.warnThreshold) {
+            log.warn("Request {} executed {} statements; entity loads: {}, collection loads: {}", name,
+                counts.statements(), counts.entityLoads(), counts.collectionLoads());
+        }
+        else {
+            log.debug("Request {} executed {} statements; entity loads: {}, collection loads: {}", name,
+                counts.statements(), counts.entityLoads(), counts.collectionLoads());
+        }
+    }
+}
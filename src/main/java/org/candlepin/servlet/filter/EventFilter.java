@@ -15,7 +15,6 @@
 package org.candlepin.servlet.filter;
 
 import org.candlepin.audit.EventSink;
-import org.candlepin.servlet.filter.logging.TeeHttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,7 +60,7 @@ public class EventFilter implements Filter {
         // because on creation of the filter we will be out of the
         // CandlepinRequestScope as the filter must be a singleton.
         EventSink eventSink = this.eventSinkProvider.get();
-        TeeHttpServletResponse resp = new TeeHttpServletResponse((HttpServletResponse) response);
+        HttpServletResponse resp = (HttpServletResponse) response;
         chain.doFilter(request, resp);
         Status status = Status.fromStatusCode(resp.getStatus());
         if (status.getFamily() == Status.Family.SUCCESSFUL) {
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.servlet.filter.logging;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+
+
+/**
+ * A small pool of fixed-size buffers used to capture response bodies for logging. Buffers are
+ * handed out as needed and returned once the response has been logged; if the pool is empty a new
+ * buffer is allocated, and if the pool is full a returned buffer is left for the garbage
+ * collector.
+ */
+final class CaptureBufferPool {
+
+    /** The size of each capture buffer; response bytes beyond this are not captured */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The maximum number of idle buffers to retain */
+    private static final int MAX_POOLED = 32;
+
+    private static final BlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    private CaptureBufferPool() {
+        // Static methods only
+    }
+
+    /**
+     * Fetches a capture buffer from the pool, allocating a new one if the pool is empty.
+     *
+     * @return
+     *  a capture buffer of BUFFER_SIZE bytes
+     */
+    static byte[] acquire() {
+        byte[] buffer = POOL.poll();
+        return buffer != null ? buffer : new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Returns a capture buffer to the pool. The buffer must not be used by the caller afterward.
+     *
+     * @param buffer
+     *  the buffer to return; null or foreign buffers are ignored
+     */
+    static void release(byte[] buffer) {
+        if (buffer != null && buffer.length == BUFFER_SIZE) {
+            POOL.offer(buffer);
+        }
+    }
+}
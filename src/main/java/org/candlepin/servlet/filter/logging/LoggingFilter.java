@@ -70,8 +70,10 @@ public class LoggingFilter implements Filter {
         long startTime = System.currentTimeMillis();
         TeeHttpServletRequest req = new TeeHttpServletRequest(
             (HttpServletRequest) request);
+        // Impl note: whether the response body is captured is decided when it is first written,
+        // by which point the owner-specific log level, if any, has been applied.
         TeeHttpServletResponse resp = new TeeHttpServletResponse(
-            (HttpServletResponse) response);
+            (HttpServletResponse) response, log::isDebugEnabled);
 
         try {
             // Generate a UUID for this request and store in the thread local MDC.
@@ -132,6 +134,8 @@ public class LoggingFilter implements Filter {
             resp.finish();
         }
         finally {
+            // The capture buffer must be returned to the pool even if the chain failed
+            resp.release();
             MDC.clear();
         }
     }
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
@@ -40,16 +41,32 @@ public class TeeHttpServletResponse extends HttpServletResponseWrapper
     protected PrintWriter teeWriter;
     protected Map<String, List<String>> headers = new HashMap<>();
     protected int status;
+    private final BooleanSupplier captureBody;
 
     public TeeHttpServletResponse(HttpServletResponse httpServletResponse) {
+        this(httpServletResponse, () -> true);
+    }
+
+    /**
+     * Creates a new response wrapper which only captures the response body if the given check
+     * passes at the time the body is first written.
+     *
+     * @param httpServletResponse
+     *  the response to wrap
+     *
+     * @param captureBody
+     *  a check determining whether or not the response body should be captured
+     */
+    public TeeHttpServletResponse(HttpServletResponse httpServletResponse, BooleanSupplier captureBody) {
         super(httpServletResponse);
+        this.captureBody = captureBody;
     }
 
     @Override
     public ServletOutputStream getOutputStream() throws IOException {
         if (teeServletOutputStream == null) {
             teeServletOutputStream = new TeeServletOutputStream(
-                this.getResponse());
+                this.getResponse(), this.captureBody);
         }
         return teeServletOutputStream;
     }
@@ -88,6 +105,18 @@ public class TeeHttpServletResponse extends HttpServletResponseWrapper
         if (this.teeServletOutputStream != null) {
             this.teeServletOutputStream.close();
         }
+
+        this.release();
+    }
+
+    /**
+     * Returns the body capture buffer, if any, to the pool without finishing the response. Safe to
+     * call more than once, and after {@link #finish()}.
+     */
+    public void release() {
+        if (this.teeServletOutputStream != null) {
+            this.teeServletOutputStream.release();
+        }
     }
 
     @Override
@@ -96,7 +125,11 @@ public class TeeHttpServletResponse extends HttpServletResponseWrapper
 
         if (buff != null) {
             if (ServletLogger.showAsText(getContentType())) {
-                return new String(buff);
+                long uncaptured = this.teeServletOutputStream.getUncapturedByteCount();
+
+                return uncaptured > 0 ?
+                    new String(buff) + "... [" + uncaptured + " more bytes]" :
+                    new String(buff);
             }
             return StringUtils.abbreviate(Util.toBase64(buff), 100);
         }
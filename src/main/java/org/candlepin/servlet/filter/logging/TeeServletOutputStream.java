@@ -14,8 +14,9 @@
  */
 package org.candlepin.servlet.filter.logging;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletResponse;
@@ -23,26 +24,91 @@ import javax.servlet.WriteListener;
 
 /**
  * Heavily borrowed from the logback-access package.
+ * <p></p>
+ * Only the first {@link CaptureBufferPool#BUFFER_SIZE} bytes written are captured, into a buffer
+ * borrowed from the capture buffer pool. Whether or not to capture at all is decided when the
+ * first bytes are written, so responses which will not be logged are passed through without
+ * being copied.
  */
 public class TeeServletOutputStream extends ServletOutputStream {
 
     protected final ServletOutputStream underlyingStream;
-    protected final ByteArrayOutputStream baosCopy;
+    private final BooleanSupplier captureEnabled;
+
+    private Boolean capturing;
+    private byte[] capture;
+    private int captured;
+    private long written;
 
     TeeServletOutputStream(ServletResponse httpServletResponse) throws IOException {
+        this(httpServletResponse, () -> true);
+    }
+
+    TeeServletOutputStream(ServletResponse httpServletResponse, BooleanSupplier captureEnabled)
+        throws IOException {
+
         this.underlyingStream = httpServletResponse.getOutputStream();
-        baosCopy = new ByteArrayOutputStream();
+        this.captureEnabled = captureEnabled;
     }
 
     byte[] getOutputStreamAsByteArray() {
-        return baosCopy.toByteArray();
+        return this.capture != null ? Arrays.copyOf(this.capture, this.captured) : new byte[0];
+    }
+
+    /**
+     * Fetches the number of bytes written to this stream which were not captured.
+     *
+     * @return
+     *  the number of bytes written but not captured
+     */
+    long getUncapturedByteCount() {
+        return this.capturing == Boolean.TRUE ? this.written - this.captured : this.written;
+    }
+
+    /**
+     * Returns the capture buffer to the pool. Any bytes written afterward are not captured.
+     */
+    void release() {
+        CaptureBufferPool.release(this.capture);
+
+        this.capture = null;
+        this.captured = 0;
+        this.capturing = Boolean.FALSE;
+    }
+
+    /**
+     * Accounts for the given number of written bytes and checks whether or not any of them should
+     * be captured, borrowing a capture buffer if necessary.
+     *
+     * @return
+     *  true if there is room in the capture buffer for at least one of the bytes; false otherwise
+     */
+    private boolean prepareCapture(int length) {
+        this.written += length;
+
+        if (this.capturing == null) {
+            this.capturing = this.captureEnabled.getAsBoolean();
+        }
+
+        if (!this.capturing) {
+            return false;
+        }
+
+        if (this.capture == null) {
+            this.capture = CaptureBufferPool.acquire();
+        }
+
+        return this.captured < this.capture.length;
     }
 
     @Override
     public void write(int val) throws IOException {
         if (underlyingStream != null) {
             underlyingStream.write(val);
-            baosCopy.write(val);
+
+            if (prepareCapture(1)) {
+                capture[captured++] = (byte) val;
+            }
         }
     }
 
@@ -61,7 +127,12 @@ public class TeeServletOutputStream extends ServletOutputStream {
         }
 
         underlyingStream.write(byteArray, offset, length);
-        baosCopy.write(byteArray, offset, length);
+
+        if (prepareCapture(length)) {
+            int count = Math.min(length, capture.length - captured);
+            System.arraycopy(byteArray, offset, capture, captured, count);
+            captured += count;
+        }
     }
 
     @Override
@@ -78,7 +149,6 @@ public class TeeServletOutputStream extends ServletOutputStream {
             return;
         }
         underlyingStream.flush();
-        baosCopy.flush();
     }
 
     @Override
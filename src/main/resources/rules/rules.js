@@ -1,4 +1,4 @@
-// Version: 5.44
+// Version: 5.46
 
 /*
  * Default Candlepin rule set.
@@ -3699,17 +3699,40 @@ var Quantity = {
         var consumer = context.consumer;
         var validEntitlements = context.validEntitlements;
 
+        // Group the entitlements by stack once, rather than scanning all of them for every pool
+        var stackedEntitlements = Quantity.group_entitlements_by_stack(validEntitlements);
+
         var result_map = {};
         for (var i = 0; i < context.pools.length; i++) {
             pool = context.pools[i];
-            var result = Quantity.get_suggested_quantity_worker(pool, consumer, validEntitlements);
+            var result = Quantity.get_suggested_quantity_worker(pool, consumer, validEntitlements,
+                stackedEntitlements);
             result_map[pool['id']] = result;
         }
         return JSON.stringify(result_map);
     },
 
+    /*
+     * Maps each stacking ID to the entitlements of the given list which are part of that stack.
+     * The map has no prototype, so stacking IDs such as "constructor" cannot match inherited keys.
+     */
+    group_entitlements_by_stack: function(entitlements) {
+        var stacks = Object.create(null);
+        for (var i = 0; i < entitlements.length; i++) {
+            var ent = entitlements[i];
+            if (ent.pool.hasProductAttribute(STACKING_ID_ATTRIBUTE)) {
+                var stack_id = ent.pool.getProductAttribute(STACKING_ID_ATTRIBUTE);
+                if (!(stack_id in stacks)) {
+                    stacks[stack_id] = [];
+                }
+                stacks[stack_id].push(ent);
+            }
+        }
+        return stacks;
+    },
+
     /* Consider this a "private" worker method, not called by java, used by the other methods we do call from Java. */
-    get_suggested_quantity_worker: function(pool, consumer, validEntitlements) {
+    get_suggested_quantity_worker: function(pool, consumer, validEntitlements, stackedEntitlements) {
 
         var result = {
             suggested: 1,
@@ -3724,11 +3747,20 @@ var Quantity = {
         if (pool.hasProductAttribute(STACKING_ID_ATTRIBUTE)) {
             var complianceTracker = createComplianceTrackerFromPool(pool, consumer);
 
-            for (var j = 0; j < validEntitlements.length; j++) {
-                var ent = validEntitlements[j];
-                if (ent.pool.hasProductAttribute(STACKING_ID_ATTRIBUTE) &&
-                    ent.pool.getProductAttribute(STACKING_ID_ATTRIBUTE) == pool.getProductAttribute(STACKING_ID_ATTRIBUTE)) {
-                    complianceTracker.updateAccumulatedFromEnt(ent);
+            if (stackedEntitlements) {
+                var stack_id = pool.getProductAttribute(STACKING_ID_ATTRIBUTE);
+                var stackEnts = (stack_id in stackedEntitlements) ? stackedEntitlements[stack_id] : [];
+                for (var j = 0; j < stackEnts.length; j++) {
+                    complianceTracker.updateAccumulatedFromEnt(stackEnts[j]);
+                }
+            }
+            else {
+                for (var j = 0; j < validEntitlements.length; j++) {
+                    var ent = validEntitlements[j];
+                    if (ent.pool.hasProductAttribute(STACKING_ID_ATTRIBUTE) &&
+                        ent.pool.getProductAttribute(STACKING_ID_ATTRIBUTE) == pool.getProductAttribute(STACKING_ID_ATTRIBUTE)) {
+                        complianceTracker.updateAccumulatedFromEnt(ent);
+                    }
                 }
             }
             result.suggested = CoverageCalculator.getQuantityToCoverStack(complianceTracker, pool, consumer, validEntitlements);
@@ -14,6 +14,7 @@
  */
 package org.candlepin.async;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -49,6 +50,8 @@ import com.google.inject.persist.UnitOfWork;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 
 
@@ -150,6 +153,11 @@ public class JobMessageReceiverTest {
         return receiver;
     }
 
+    private void setJobThreads(String jobKey, String threads) {
+        this.config.setProperty(ConfigProperties.jobConfig(jobKey, ConfigProperties.ASYNC_JOBS_JOB_THREADS),
+            threads);
+    }
+
     @Test
     public void testReceiveAddressCannotBeNull() {
         this.config.clearProperty(ConfigProperties.ASYNC_JOBS_RECEIVE_ADDRESS);
@@ -197,6 +205,75 @@ public class JobMessageReceiverTest {
         assertEquals(filter, config.getMessageFilter());
     }
 
+    @Test
+    public void testCreatesDedicatedConsumersForJobsWithThreadLimits() throws Exception {
+        this.config.setProperty(ConfigProperties.ASYNC_JOBS_THREADS, "2");
+        this.setJobThreads("JobA", "3");
+        this.setJobThreads("JobB", "1");
+
+        ArgumentCaptor<CPMConsumerConfig> captor = ArgumentCaptor.forClass(CPMConsumerConfig.class);
+
+        this.buildJobMessageReceiver();
+
+        verify(this.session, times(6)).createConsumer(captor.capture());
+
+        assertThat(captor.getAllValues())
+            .extracting(CPMConsumerConfig::getMessageFilter)
+            .containsExactly(
+                "job_key IS NULL OR job_key NOT IN ('JobA', 'JobB')",
+                "job_key IS NULL OR job_key NOT IN ('JobA', 'JobB')",
+                "job_key = 'JobA'",
+                "job_key = 'JobA'",
+                "job_key = 'JobA'",
+                "job_key = 'JobB'");
+    }
+
+    @Test
+    public void testDedicatedConsumerFiltersIncludeConfiguredFilter() throws Exception {
+        this.config.setProperty(ConfigProperties.ASYNC_JOBS_RECEIVE_FILTER, "origin = 'node1'");
+        this.setJobThreads("JobA", "1");
+
+        ArgumentCaptor<CPMConsumerConfig> captor = ArgumentCaptor.forClass(CPMConsumerConfig.class);
+
+        this.buildJobMessageReceiver();
+
+        verify(this.session, times(2)).createConsumer(captor.capture());
+
+        assertThat(captor.getAllValues())
+            .extracting(CPMConsumerConfig::getMessageFilter)
+            .containsExactly(
+                "(origin = 'node1') AND (job_key IS NULL OR job_key NOT IN ('JobA'))",
+                "(origin = 'node1') AND (job_key = 'JobA')");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "0", "-1", "many" })
+    public void testInvalidJobThreadLimitsAreRejected(String threads) {
+        this.setJobThreads("JobA", threads);
+
+        assertThrows(ConfigurationException.class, this::buildJobMessageReceiver);
+    }
+
+    @Test
+    public void testRestartRecreatesClosedSessionsWithTheirFilters() throws Exception {
+        this.setJobThreads("JobA", "1");
+
+        JobMessageReceiver receiver = this.buildJobMessageReceiver();
+        receiver.start();
+        receiver.suspend();
+
+        doReturn(true).when(this.session).isClosed();
+
+        ArgumentCaptor<CPMConsumerConfig> captor = ArgumentCaptor.forClass(CPMConsumerConfig.class);
+        receiver.resume();
+
+        verify(this.session, times(4)).createConsumer(captor.capture());
+
+        assertThat(captor.getAllValues().subList(2, 4))
+            .extracting(CPMConsumerConfig::getMessageFilter)
+            .containsExactly("job_key IS NULL OR job_key NOT IN ('JobA')", "job_key = 'JobA'");
+    }
+
     @Test
     public void testMessageAckAndSessionCommitOnSuccess() throws Exception {
         CPMMessage message = this.createCPMMessage("test_id", "test_key");
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.async.JobExecutionContext;
+import org.candlepin.async.JobExecutionException;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.controller.EntitlementCertificateService;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.EntitlementCurator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+
+
+public class DirtyEntitlementRegenerationJobTest {
+
+    private DevConfig config;
+    private EntitlementCurator entitlementCurator;
+    private EntitlementCertificateService ecService;
+    private JobExecutionContext context;
+
+    @BeforeEach
+    public void init() {
+        this.config = TestConfig.defaults();
+        this.entitlementCurator = mock(EntitlementCurator.class);
+        this.ecService = mock(EntitlementCertificateService.class);
+        this.context = mock(JobExecutionContext.class);
+    }
+
+    private DirtyEntitlementRegenerationJob createJobInstance() {
+        return new DirtyEntitlementRegenerationJob(this.config, this.entitlementCurator, this.ecService);
+    }
+
+    private void setJobConfig(String name, int value) {
+        this.config.setProperty(ConfigProperties.jobConfig(DirtyEntitlementRegenerationJob.JOB_KEY, name),
+            String.valueOf(value));
+    }
+
+    private Entitlement buildEntitlement(String id, boolean dirty) {
+        Entitlement entitlement = new Entitlement();
+        entitlement.setId(id);
+        entitlement.setDirty(dirty);
+
+        return entitlement;
+    }
+
+    private void mockEntitlements(Entitlement... entitlements) {
+        Map<String, Entitlement> entitlementMap = new HashMap<>();
+        for (Entitlement entitlement : entitlements) {
+            entitlementMap.put(entitlement.getId(), entitlement);
+        }
+
+        doAnswer(iom -> {
+            Collection<String> ids = iom.getArgument(0);
+            return ids.stream()
+                .map(entitlementMap::get)
+                .collect(Collectors.toList());
+        }).when(this.entitlementCurator).listAllByIds(anyCollection());
+    }
+
+    @Test
+    public void testRegeneratesDirtyEntitlementsInBatches() throws Exception {
+        this.setJobConfig(DirtyEntitlementRegenerationJob.CFG_BATCH_SIZE, 2);
+        this.setJobConfig(DirtyEntitlementRegenerationJob.CFG_MAX_ENTITLEMENTS, 10);
+
+        Entitlement ent1 = this.buildEntitlement("ent1", true);
+        Entitlement ent2 = this.buildEntitlement("ent2", true);
+        Entitlement ent3 = this.buildEntitlement("ent3", true);
+        this.mockEntitlements(ent1, ent2, ent3);
+
+        doReturn(List.of("ent1", "ent2", "ent3")).when(this.entitlementCurator).listDirtyEntitlementIds(10);
+
+        this.createJobInstance().execute(this.context);
+
+        ArgumentCaptor<Iterable<Entitlement>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(this.ecService, times(2)).regenerateCertificatesOf(captor.capture(), eq(false));
+
+        List<Entitlement> regenerated = new ArrayList<>();
+        captor.getAllValues().forEach(batch -> batch.forEach(regenerated::add));
+
+        assertEquals(List.of(ent1, ent2, ent3), regenerated);
+    }
+
+    @Test
+    public void testFlushesAndClearsSessionAfterEachBatch() throws Exception {
+        this.setJobConfig(DirtyEntitlementRegenerationJob.CFG_BATCH_SIZE, 1);
+
+        Entitlement ent1 = this.buildEntitlement("ent1", true);
+        Entitlement ent2 = this.buildEntitlement("ent2", true);
+        this.mockEntitlements(ent1, ent2);
+
+        doReturn(List.of("ent1", "ent2")).when(this.entitlementCurator).listDirtyEntitlementIds(anyInt());
+
+        this.createJobInstance().execute(this.context);
+
+        InOrder inOrder = inOrder(this.ecService, this.entitlementCurator);
+        for (Entitlement entitlement : List.of(ent1, ent2)) {
+            inOrder.verify(this.ecService).regenerateCertificatesOf(eq(List.of(entitlement)), eq(false));
+            inOrder.verify(this.entitlementCurator).flush();
+            inOrder.verify(this.entitlementCurator).clear();
+        }
+    }
+
+    @Test
+    public void testClearsSessionAfterFailedBatch() throws Exception {
+        Entitlement ent1 = this.buildEntitlement("ent1", true);
+        this.mockEntitlements(ent1);
+
+        doReturn(List.of("ent1")).when(this.entitlementCurator).listDirtyEntitlementIds(anyInt());
+        doThrow(new RuntimeException("kaboom"))
+            .when(this.ecService).regenerateCertificatesOf(any(Iterable.class), anyBoolean());
+
+        this.createJobInstance().execute(this.context);
+
+        verify(this.entitlementCurator, never()).flush();
+        verify(this.entitlementCurator).clear();
+    }
+
+    @Test
+    public void testSkipsEntitlementsNoLongerDirty() throws Exception {
+        Entitlement dirty = this.buildEntitlement("dirty", true);
+        Entitlement clean = this.buildEntitlement("clean", false);
+        this.mockEntitlements(dirty, clean);
+
+        doReturn(List.of("dirty", "clean")).when(this.entitlementCurator).listDirtyEntitlementIds(anyInt());
+
+        this.createJobInstance().execute(this.context);
+
+        verify(this.ecService).regenerateCertificatesOf(eq(List.of(dirty)), eq(false));
+    }
+
+    @Test
+    public void testNoDirtyEntitlements() throws Exception {
+        doReturn(List.of()).when(this.entitlementCurator).listDirtyEntitlementIds(anyInt());
+
+        this.createJobInstance().execute(this.context);
+
+        verify(this.ecService, never()).regenerateCertificatesOf(any(Iterable.class), anyBoolean());
+    }
+
+    @Test
+    public void testFailedBatchDoesNotBlockOthers() throws Exception {
+        this.setJobConfig(DirtyEntitlementRegenerationJob.CFG_BATCH_SIZE, 1);
+
+        Entitlement ent1 = this.buildEntitlement("ent1", true);
+        Entitlement ent2 = this.buildEntitlement("ent2", true);
+        this.mockEntitlements(ent1, ent2);
+
+        doReturn(List.of("ent1", "ent2")).when(this.entitlementCurator).listDirtyEntitlementIds(anyInt());
+        doThrow(new RuntimeException("kaboom"))
+            .when(this.ecService).regenerateCertificatesOf(eq(List.of(ent1)), eq(false));
+
+        this.createJobInstance().execute(this.context);
+
+        verify(this.ecService).regenerateCertificatesOf(eq(List.of(ent2)), eq(false));
+        verify(this.context).setJobResult(any(String.class), eq(1), eq(1));
+    }
+
+    @Test
+    public void testInvalidConfigurationFailsJob() {
+        this.setJobConfig(DirtyEntitlementRegenerationJob.CFG_BATCH_SIZE, 0);
+
+        assertThrows(JobExecutionException.class, () -> this.createJobInstance().execute(this.context));
+        verify(this.entitlementCurator, never()).listDirtyEntitlementIds(anyInt());
+    }
+}
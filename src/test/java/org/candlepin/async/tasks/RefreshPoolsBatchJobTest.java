@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.async.JobArguments;
+import org.candlepin.async.JobConfig;
+import org.candlepin.async.JobConfigValidationException;
+import org.candlepin.async.JobConstraint;
+import org.candlepin.async.JobExecutionContext;
+import org.candlepin.async.JobExecutionException;
+import org.candlepin.async.JobManager;
+import org.candlepin.async.impl.ThrottledByJobKeyConstraint;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.controller.refresher.RefreshResult;
+import org.candlepin.controller.refresher.RefreshWorker;
+import org.candlepin.model.AsyncJobStatus;
+import org.candlepin.model.AsyncJobStatusCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.service.SubscriptionServiceAdapter;
+import org.candlepin.test.TestUtil;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshPoolsBatchJobTest {
+
+    @Mock private OwnerCurator ownerCurator;
+    @Mock private SubscriptionServiceAdapter subAdapter;
+    @Mock private RefreshWorker refreshWorker;
+    @Mock private JobManager jobManager;
+    @Mock private AsyncJobStatusCurator jobCurator;
+
+    private DevConfig config;
+
+    @BeforeEach
+    public void setUp() {
+        this.config = TestConfig.defaults();
+    }
+
+    private RefreshPoolsBatchJob buildJob() {
+        return new RefreshPoolsBatchJob(this.config, this.ownerCurator, this.subAdapter,
+            () -> this.refreshWorker, this.jobManager, this.jobCurator);
+    }
+
+    private Owner createTestOwner(String key) {
+        Owner owner = TestUtil.createOwner();
+
+        owner.setId(TestUtil.randomString());
+        owner.setKey(key);
+
+        return owner;
+    }
+
+    private JobExecutionContext buildContext(JobConfig jobConfig) {
+        AsyncJobStatus status = mock(AsyncJobStatus.class);
+        doReturn("batch_job_id").when(status).getId();
+        doReturn(jobConfig.getJobArguments()).when(status).getJobArguments();
+
+        return spy(new JobExecutionContext(status));
+    }
+
+    @Test
+    public void testJobConfigSetOwners() {
+        Owner owner1 = this.createTestOwner("owner-b");
+        Owner owner2 = this.createTestOwner("owner-a");
+
+        JobConfig config = RefreshPoolsBatchJob.createJobConfig()
+            .setOwners(List.of(owner1, owner2));
+
+        JobArguments args = config.getJobArguments();
+
+        assertTrue(args.containsKey(RefreshPoolsBatchJob.OWNER_KEYS));
+        assertArrayEquals(new String[] { "owner-a", "owner-b" },
+            args.getAs(RefreshPoolsBatchJob.OWNER_KEYS, String[].class));
+    }
+
+    @Test
+    public void testJobConfigSetOwnersRejectsOwnersWithoutKeys() {
+        Owner owner = new Owner();
+
+        assertThrows(IllegalArgumentException.class, () -> RefreshPoolsBatchJob.createJobConfig()
+            .setOwners(List.of(owner)));
+    }
+
+    @Test
+    public void testValidate() throws JobConfigValidationException {
+        JobConfig config = RefreshPoolsBatchJob.createJobConfig()
+            .setOwners(List.of(this.createTestOwner("owner")))
+            .setLazyRegeneration(true);
+
+        config.validate();
+    }
+
+    @Test
+    public void testValidateNoOwners() {
+        JobConfig config = RefreshPoolsBatchJob.createJobConfig()
+            .setOwners(List.of())
+            .setLazyRegeneration(true);
+
+        assertThrows(JobConfigValidationException.class, config::validate);
+    }
+
+    @Test
+    public void testValidateNoLazyRegeneration() {
+        JobConfig config = RefreshPoolsBatchJob.createJobConfig()
+            .setOwners(List.of(this.createTestOwner("owner")));
+
+        assertThrows(JobConfigValidationException.class, config::validate);
+    }
+
+    @Test
+    public void testGlobalEntitiesAreResolvedOnceAndOrgRefreshesAreTaggedWithBatch() throws Exception {
+        Owner owner1 = this.createTestOwner("owner-1");
+        Owner owner2 = this.createTestOwner("owner-2");
+
+        JobConfig jobConfig = RefreshPoolsBatchJob.createJobConfig()
+            .setOwners(List.of(owner1, owner2))
+            .setLazyRegeneration(true);
+
+        JobExecutionContext context = this.buildContext(jobConfig);
+
+        doReturn(List.of(owner1, owner2)).when(this.ownerCurator).getByKeys(anyCollection());
+        doReturn(new RefreshResult()).when(this.refreshWorker).executeGlobalEntities(any(Owner.class));
+        doReturn(List.of()).when(this.jobCurator)
+            .fetchJobIdsByArguments(eq(RefreshPoolsJob.JOB_KEY), anyMap());
+        doReturn(new AsyncJobStatus()).when(this.jobManager).queueJob(any(JobConfig.class));
+
+        this.buildJob().execute(context);
+
+        verify(this.subAdapter, times(1)).getSubscriptions("owner-1");
+        verify(this.subAdapter, times(1)).getSubscriptions("owner-2");
+        verify(this.refreshWorker, times(1)).executeGlobalEntities(any(Owner.class));
+        verify(this.refreshWorker, never()).execute(any(Owner.class));
+
+        ArgumentCaptor<JobConfig> captor = ArgumentCaptor.forClass(JobConfig.class);
+        verify(this.jobManager, times(2)).queueJob(captor.capture());
+
+        for (JobConfig queued : captor.getAllValues()) {
+            assertEquals(RefreshPoolsJob.JOB_KEY, queued.getJobKey());
+            assertEquals("batch_job_id", queued.getJobArguments().getAsString(RefreshPoolsJob.BATCH_ID));
+
+            // The batch must not throttle pool refreshes which it did not queue
+            for (JobConstraint constraint : (Iterable<JobConstraint>) queued.getConstraints()) {
+                assertFalse(constraint instanceof ThrottledByJobKeyConstraint);
+            }
+        }
+    }
+
+    @Test
+    public void testOrgRefreshesAreQueuedOnceBatchHasCapacity() throws Exception {
+        this.config.setProperty(ConfigProperties.jobConfig(RefreshPoolsBatchJob.JOB_KEY,
+            RefreshPoolsBatchJob.CFG_ORG_THROTTLE), "1");
+        this.config.setProperty(ConfigProperties.jobConfig(RefreshPoolsBatchJob.JOB_KEY,
+            RefreshPoolsBatchJob.CFG_POLL_INTERVAL), "1");
+
+        Owner owner1 = this.createTestOwner("owner-1");
+        Owner owner2 = this.createTestOwner("owner-2");
+
+        JobConfig jobConfig = RefreshPoolsBatchJob.createJobConfig()
+            .setOwners(List.of(owner1, owner2))
+            .setLazyRegeneration(true);
+
+        JobExecutionContext context = this.buildContext(jobConfig);
+
+        doReturn(List.of(owner1, owner2)).when(this.ownerCurator).getByKeys(anyCollection());
+        doReturn(new RefreshResult()).when(this.refreshWorker).executeGlobalEntities(any(Owner.class));
+        doReturn(new AsyncJobStatus()).when(this.jobManager).queueJob(any(JobConfig.class));
+
+        // Nothing is pending before the first refresh is queued; the first refresh is then still
+        // pending the first time the batch checks before queuing the second
+        doReturn(List.of())
+            .doReturn(List.of("refresh-1"))
+            .doReturn(List.of())
+            .when(this.jobCurator).fetchJobIdsByArguments(eq(RefreshPoolsJob.JOB_KEY), anyMap());
+
+        this.buildJob().execute(context);
+
+        ArgumentCaptor<Map<String, String>> argsCaptor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<JobConfig> configCaptor = ArgumentCaptor.forClass(JobConfig.class);
+
+        InOrder inOrder = Mockito.inOrder(this.jobCurator, this.jobManager);
+        inOrder.verify(this.jobCurator)
+            .fetchJobIdsByArguments(eq(RefreshPoolsJob.JOB_KEY), argsCaptor.capture());
+        inOrder.verify(this.jobManager).queueJob(configCaptor.capture());
+        inOrder.verify(this.jobCurator, times(2))
+            .fetchJobIdsByArguments(eq(RefreshPoolsJob.JOB_KEY), anyMap());
+        inOrder.verify(this.jobManager).queueJob(any(JobConfig.class));
+
+        // Only the refreshes of this batch are counted against its throttle
+        String batchId = configCaptor.getValue()
+            .getJobArguments()
+            .getSerializedValue(RefreshPoolsJob.BATCH_ID);
+
+        assertEquals(Map.of(RefreshPoolsJob.BATCH_ID, batchId), argsCaptor.getValue());
+    }
+
+    @Test
+    public void testFailureToQueueOneOrgDoesNotBlockOthers() throws Exception {
+        Owner owner1 = this.createTestOwner("owner-1");
+        Owner owner2 = this.createTestOwner("owner-2");
+
+        JobConfig jobConfig = RefreshPoolsBatchJob.createJobConfig()
+            .setOwners(List.of(owner1, owner2))
+            .setLazyRegeneration(false);
+
+        JobExecutionContext context = this.buildContext(jobConfig);
+
+        doReturn(List.of(owner1, owner2)).when(this.ownerCurator).getByKeys(anyCollection());
+        doReturn(List.of()).when(this.jobCurator)
+            .fetchJobIdsByArguments(eq(RefreshPoolsJob.JOB_KEY), anyMap());
+        doThrow(new IllegalStateException("nope"))
+            .doReturn(new AsyncJobStatus())
+            .when(this.jobManager).queueJob(any(JobConfig.class));
+
+        this.buildJob().execute(context);
+
+        verify(this.jobManager, times(2)).queueJob(any(JobConfig.class));
+    }
+
+    @Test
+    public void testGlobalRefreshFailureFailsJob() {
+        Owner owner = this.createTestOwner("owner-1");
+
+        JobConfig jobConfig = RefreshPoolsBatchJob.createJobConfig()
+            .setOwners(List.of(owner))
+            .setLazyRegeneration(true);
+
+        JobExecutionContext context = this.buildContext(jobConfig);
+
+        doReturn(List.of(owner)).when(this.ownerCurator).getByKeys(anyCollection());
+        doThrow(new RuntimeException("refresh failed")).when(this.refreshWorker)
+            .executeGlobalEntities(any(Owner.class));
+
+        Exception e = assertThrows(JobExecutionException.class, () -> this.buildJob().execute(context));
+        assertEquals("refresh failed", e.getMessage());
+    }
+
+    @Test
+    public void testMissingOwnersFailsJob() {
+        JobConfig jobConfig = RefreshPoolsBatchJob.createJobConfig()
+            .setOwners(List.of(this.createTestOwner("owner-1")))
+            .setLazyRegeneration(true);
+
+        JobExecutionContext context = this.buildContext(jobConfig);
+
+        doReturn(List.of()).when(this.ownerCurator).getByKeys(anyCollection());
+
+        assertThrows(JobExecutionException.class, () -> this.buildJob().execute(context));
+    }
+}
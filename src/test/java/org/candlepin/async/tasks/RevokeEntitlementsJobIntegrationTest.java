@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2009 - 2024 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.tasks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.candlepin.async.JobExecutionContext;
+import org.candlepin.async.tasks.RevokeEntitlementsJob.RevokeEntitlementsJobConfig;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.controller.PoolService;
+import org.candlepin.model.AsyncJobStatus;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.GuestId;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.test.DatabaseTestFixture;
+import org.candlepin.util.Util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class RevokeEntitlementsJobIntegrationTest extends DatabaseTestFixture {
+    private static final String GUEST_ID = "daf0fe10-956b-7b4e-b7dc-b383ce681ba8";
+
+    @Test
+    public void testBatchesDoNotShareCachedHostsAcrossSessionClears() throws Exception {
+        Owner owner = this.createOwner();
+        ConsumerType type = this.createConsumerType();
+        Product product = this.createProduct();
+
+        Consumer host = this.createConsumer(owner, type);
+        host.addGuestId(new GuestId(GUEST_ID));
+        this.consumerCurator.update(host);
+
+        // An expired unmapped guest entitlement makes revocation look up the guest's host, so each
+        // guest, revoked in a batch of its own, goes through the host cache
+        Pool pool = this.createPool(owner, product, 10L, Util.addDaysToDt(-10), Util.yesterday());
+        pool.setAttribute(Pool.Attributes.UNMAPPED_GUESTS_ONLY, "true");
+        this.poolCurator.merge(pool);
+
+        Consumer guest1 = this.createConsumer(owner, type);
+        guest1.setFact(Consumer.Facts.VIRT_UUID, GUEST_ID);
+        this.consumerCurator.update(guest1);
+        Entitlement ent1 = this.createEntitlement(owner, guest1, pool);
+
+        Consumer guest2 = this.createConsumer(owner, type);
+        guest2.setFact(Consumer.Facts.VIRT_UUID, GUEST_ID);
+        this.consumerCurator.update(guest2);
+        Entitlement ent2 = this.createEntitlement(owner, guest2, pool);
+
+        this.config.setProperty(ConfigProperties.jobConfig(RevokeEntitlementsJob.JOB_KEY,
+            RevokeEntitlementsJob.CFG_BATCH_SIZE), "1");
+
+        RevokeEntitlementsJob job = new RevokeEntitlementsJob(this.config, this.consumerCurator,
+            this.ownerCurator, this.injector.getInstance(PoolService.class), this.activationKeyCurator);
+
+        RevokeEntitlementsJobConfig jobConfig = new RevokeEntitlementsJobConfig()
+            .setOwner(owner);
+        AsyncJobStatus jobStatus = new AsyncJobStatus()
+            .setJobArguments(jobConfig.getJobArguments());
+
+        job.execute(new JobExecutionContext(jobStatus));
+
+        for (String entId : List.of(ent1.getId(), ent2.getId())) {
+            assertThat(this.entitlementCurator.get(entId)).isNull();
+        }
+
+        // The host cached by the first guest's batch must not outlive that batch's session
+        Consumer cachedHost = this.consumerCurator.getHost(GUEST_ID, owner.getId());
+        assertThat(cachedHost)
+            .isNotNull()
+            .returns(host.getId(), Consumer::getId);
+        assertThat(this.getEntityManager().contains(cachedHost)).isTrue();
+    }
+}
@@ -19,6 +19,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import org.candlepin.async.JobConfigValidationException;
 import org.candlepin.async.JobExecutionContext;
@@ -170,5 +172,8 @@ public class RevokeEntitlementsJobTest {
             .contains(String.valueOf(consumerUuids.size()))
             // Validating the pools was removed
             .contains(String.valueOf(removedPools));
+
+        // The consumer caches are reset with the session after each batch
+        verify(consumerCurator, times(consumerUuids.size())).clearCachedConsumers();
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.auth.PrincipalData;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+
+
+public class EventCoalescerTest {
+
+    private DevConfig config;
+
+    @BeforeEach
+    public void setUp() {
+        this.config = TestConfig.defaults();
+        this.config.setProperty(ConfigProperties.AUDIT_COALESCE_ENABLED, "true");
+    }
+
+    private Event buildEvent(Event.Type type, Event.Target target, String entityId) {
+        return new Event(type, target, new PrincipalData("user", "admin"))
+            .setEntityId(entityId);
+    }
+
+    @Test
+    public void testCoalesceKeepsLatestEventPerEntity() {
+        Event first = this.buildEvent(Event.Type.CREATED, Event.Target.COMPLIANCE, "consumer-1");
+        Event other = this.buildEvent(Event.Type.CREATED, Event.Target.COMPLIANCE, "consumer-2");
+        Event latest = this.buildEvent(Event.Type.CREATED, Event.Target.COMPLIANCE, "consumer-1");
+
+        List<Event> output = new EventCoalescer(this.config).coalesce(List.of(first, other, latest));
+
+        assertEquals(2, output.size());
+        assertSame(other, output.get(0));
+        assertSame(latest, output.get(1));
+    }
+
+    @Test
+    public void testCoalesceDistinguishesTargets() {
+        Event compliance = this.buildEvent(Event.Type.CREATED, Event.Target.COMPLIANCE, "consumer");
+        Event syspurpose = this.buildEvent(Event.Type.CREATED, Event.Target.SYSTEM_PURPOSE_COMPLIANCE,
+            "consumer");
+
+        List<Event> output = new EventCoalescer(this.config).coalesce(List.of(compliance, syspurpose));
+
+        assertEquals(List.of(compliance, syspurpose), output);
+    }
+
+    @Test
+    public void testCoalesceIgnoresUnconfiguredEvents() {
+        Event event1 = this.buildEvent(Event.Type.CREATED, Event.Target.POOL, "pool");
+        Event event2 = this.buildEvent(Event.Type.CREATED, Event.Target.POOL, "pool");
+
+        EventCoalescer coalescer = new EventCoalescer(this.config);
+
+        assertFalse(coalescer.isCoalescible(event1));
+        assertEquals(List.of(event1, event2), coalescer.coalesce(List.of(event1, event2)));
+    }
+
+    @Test
+    public void testCoalesceIgnoresEventsWithoutEntityId() {
+        Event event1 = this.buildEvent(Event.Type.MODIFIED, Event.Target.ENTITLEMENT, null);
+        Event event2 = this.buildEvent(Event.Type.MODIFIED, Event.Target.ENTITLEMENT, null);
+
+        List<Event> output = new EventCoalescer(this.config).coalesce(List.of(event1, event2));
+
+        assertEquals(2, output.size());
+    }
+
+    @Test
+    public void testCoalesceUsesConfiguredEvents() {
+        this.config.setProperty(ConfigProperties.AUDIT_COALESCE_EVENTS, "CREATED-POOL");
+
+        EventCoalescer coalescer = new EventCoalescer(this.config);
+
+        assertTrue(coalescer.isCoalescible(this.buildEvent(Event.Type.CREATED, Event.Target.POOL, "pool")));
+        assertFalse(coalescer.isCoalescible(
+            this.buildEvent(Event.Type.CREATED, Event.Target.COMPLIANCE, "consumer")));
+    }
+
+    @Test
+    public void testCoalesceDisabledReturnsEventsUnchanged() {
+        this.config.setProperty(ConfigProperties.AUDIT_COALESCE_ENABLED, "false");
+        this.config.setProperty(ConfigProperties.AUDIT_COALESCE_WINDOW, "500");
+
+        Event event1 = this.buildEvent(Event.Type.CREATED, Event.Target.COMPLIANCE, "consumer");
+        Event event2 = this.buildEvent(Event.Type.CREATED, Event.Target.COMPLIANCE, "consumer");
+
+        EventCoalescer coalescer = new EventCoalescer(this.config);
+
+        assertFalse(coalescer.isEnabled());
+        assertEquals(0, coalescer.getWindow());
+        assertEquals(List.of(event1, event2), coalescer.coalesce(List.of(event1, event2)));
+    }
+
+    @Test
+    public void testCoalesceEmptyInput() {
+        EventCoalescer coalescer = new EventCoalescer(this.config);
+
+        assertTrue(coalescer.coalesce(List.of()).isEmpty());
+        assertTrue(coalescer.coalesce(null).isEmpty());
+    }
+
+    @Test
+    public void testInvalidConfigurationIsRejected() {
+        this.config.setProperty(ConfigProperties.AUDIT_COALESCE_EVENTS, "CREATED");
+        assertThrows(IllegalArgumentException.class, () -> new EventCoalescer(this.config));
+
+        this.config.setProperty(ConfigProperties.AUDIT_COALESCE_EVENTS, "CREATED-NOPE");
+        assertThrows(IllegalArgumentException.class, () -> new EventCoalescer(this.config));
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyByte;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.auth.PrincipalData;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.util.ObjectMapperFactory;
+
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class EventEgressPipelineTest {
+    @Mock
+    private ClientSessionFactory mockSessionFactory;
+    @Mock
+    private ClientSession mockClientSession;
+    @Mock
+    private ClientProducer mockClientProducer;
+    @Mock
+    private ClientMessage mockClientMessage;
+
+    private DevConfig config;
+    private ObjectMapper mapper;
+    private EventEgressPipeline pipeline;
+
+    @BeforeEach
+    public void init() throws Exception {
+        doReturn(this.mockClientSession).when(this.mockSessionFactory).createSession();
+        doReturn(this.mockClientProducer).when(this.mockClientSession).createProducer(anyString());
+        doReturn(this.mockClientMessage).when(this.mockClientSession).createMessage(anyByte(), anyBoolean());
+        doReturn(ActiveMQBuffers.fixedBuffer(2000)).when(this.mockClientMessage).getBodyBuffer();
+
+        this.config = TestConfig.defaults();
+        this.config.setProperty(ConfigProperties.AUDIT_EGRESS_BATCHED, "true");
+
+        this.mapper = spy(ObjectMapperFactory.getObjectMapper());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (this.pipeline != null) {
+            this.pipeline.shutdown();
+        }
+    }
+
+    private EventEgressPipeline buildPipeline() {
+        this.pipeline = new EventEgressPipeline(this.config,
+            new TestingActiveMQSessionFactory(null, this.mockSessionFactory), this.mapper,
+            new EventCoalescer(this.config));
+
+        return this.pipeline;
+    }
+
+    private Event buildEvent() {
+        return new Event(Event.Type.CREATED, Event.Target.OWNER, new PrincipalData("user", "admin"));
+    }
+
+    @Test
+    public void testIsEnabled() {
+        assertTrue(this.buildPipeline().isEnabled());
+
+        this.config.setProperty(ConfigProperties.AUDIT_EGRESS_BATCHED, "false");
+        assertFalse(this.buildPipeline().isEnabled());
+    }
+
+    @Test
+    public void testPublishSendsEventsInOneTransaction() throws Exception {
+        this.buildPipeline().publish(List.of(this.buildEvent(), this.buildEvent(), this.buildEvent()));
+
+        verify(this.mockClientProducer, times(3)).send(any(ClientMessage.class));
+        verify(this.mockClientSession, times(1)).commit();
+    }
+
+    @Test
+    public void testPublishReusesOpenSession() throws Exception {
+        EventEgressPipeline pipeline = this.buildPipeline();
+
+        pipeline.publish(List.of(this.buildEvent()));
+        pipeline.publish(List.of(this.buildEvent()));
+
+        verify(this.mockSessionFactory, times(1)).createSession();
+        verify(this.mockClientSession, times(2)).commit();
+    }
+
+    @Test
+    public void testPublishSkipsEventsWhichCannotBeSerialized() throws Exception {
+        Event bad = this.buildEvent();
+        doThrow(new JsonGenerationException("Nothing serious!")).when(this.mapper).writeValueAsString(bad);
+
+        this.buildPipeline().publish(List.of(bad, this.buildEvent()));
+
+        verify(this.mockClientProducer, times(1)).send(any(ClientMessage.class));
+        verify(this.mockClientSession, times(1)).commit();
+    }
+
+    @Test
+    public void testPublishFailureClosesSession() throws Exception {
+        doThrow(new RuntimeException("broker down")).when(this.mockClientSession).commit();
+
+        EventEgressPipeline pipeline = this.buildPipeline();
+        pipeline.publish(List.of(this.buildEvent()));
+        verify(this.mockClientSession, times(1)).close();
+
+        // The next publish should open a fresh session
+        pipeline.publish(List.of(this.buildEvent()));
+        verify(this.mockSessionFactory, times(2)).createSession();
+    }
+
+    @Test
+    public void testSubmittedEventsAreSentByWorker() throws Exception {
+        this.buildPipeline().submit(List.of(this.buildEvent(), this.buildEvent()));
+
+        verify(this.mockClientProducer, timeout(5000).times(2)).send(any(ClientMessage.class));
+        verify(this.mockClientSession, timeout(5000).atLeastOnce()).commit();
+    }
+
+    @Test
+    public void testEventsAreCoalescedAcrossSubmissionsWithinWindow() throws Exception {
+        this.config.setProperty(ConfigProperties.AUDIT_COALESCE_ENABLED, "true");
+        this.config.setProperty(ConfigProperties.AUDIT_COALESCE_WINDOW, "1000");
+
+        PrincipalData principalData = new PrincipalData("user", "admin");
+        EventEgressPipeline pipeline = this.buildPipeline();
+
+        pipeline.submit(List.of(this.buildEvent(),
+            new Event(Event.Type.CREATED, Event.Target.COMPLIANCE, principalData).setEntityId("consumer")));
+        pipeline.submit(List.of(
+            new Event(Event.Type.CREATED, Event.Target.COMPLIANCE, principalData).setEntityId("consumer")));
+
+        verify(this.mockClientSession, timeout(5000).atLeastOnce()).commit();
+        pipeline.shutdown();
+
+        verify(this.mockClientProducer, times(2)).send(any(ClientMessage.class));
+        verify(this.mockClientSession, times(1)).commit();
+    }
+
+    @Test
+    public void testEmptySubmissionsAreIgnored() throws Exception {
+        EventEgressPipeline pipeline = this.buildPipeline();
+
+        pipeline.submit(List.of());
+        pipeline.submit(null);
+        pipeline.shutdown();
+
+        verify(this.mockSessionFactory, never()).createSession();
+    }
+
+    @Test
+    public void testSubmitAfterShutdownSendsDirectly() throws Exception {
+        EventEgressPipeline pipeline = this.buildPipeline();
+        pipeline.shutdown();
+
+        pipeline.submit(List.of(this.buildEvent()));
+
+        verify(this.mockClientProducer, times(1)).send(any(ClientMessage.class));
+        verify(this.mockClientSession, times(1)).commit();
+    }
+}
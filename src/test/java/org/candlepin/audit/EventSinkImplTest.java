@@ -19,17 +19,22 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.anyByte;
+import static org.mockito.Mockito.anyCollection;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.async.impl.ActiveMQSessionFactory;
 import org.candlepin.auth.Principal;
+import org.candlepin.auth.PrincipalData;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
 import org.candlepin.config.TestConfig;
 import org.candlepin.controller.mode.CandlepinModeManager;
 import org.candlepin.controller.mode.CandlepinModeManager.Mode;
@@ -67,6 +72,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.util.Collection;
 import java.util.List;
 
 
@@ -142,9 +148,19 @@ public class EventSinkImplTest {
      * @throws Exception
      */
     private EventSinkImpl createEventSink(final ClientSessionFactory sessionFactory) throws Exception {
-        EventSinkImpl sink = new EventSinkImpl(eventFilter, factory, mapper,
-            TestConfig.defaults(), this.amqSessionFactory, mockModeManager);
-        return sink;
+        EventEgressPipeline pipeline = new EventEgressPipeline(TestConfig.defaults(), this.amqSessionFactory,
+            mapper, new EventCoalescer(TestConfig.defaults()));
+
+        return this.createEventSink(pipeline);
+    }
+
+    private EventSinkImpl createEventSink(EventEgressPipeline pipeline) {
+        return this.createEventSink(pipeline, new EventCoalescer(TestConfig.defaults()));
+    }
+
+    private EventSinkImpl createEventSink(EventEgressPipeline pipeline, EventCoalescer coalescer) {
+        return new EventSinkImpl(eventFilter, factory, mapper, TestConfig.defaults(),
+            this.amqSessionFactory, mockModeManager, pipeline, coalescer);
     }
 
     @Test
@@ -249,6 +265,67 @@ public class EventSinkImplTest {
         verify(mockClientProducer).send(any(ClientMessage.class));
     }
 
+    @Test
+    public void batchedEgressHandsOffEventsOnSend() throws Exception {
+        EventEgressPipeline pipeline = mock(EventEgressPipeline.class);
+        doReturn(true).when(pipeline).isEnabled();
+
+        EventSinkImpl sink = this.createEventSink(pipeline);
+        sink.emitOwnerCreated(o);
+        sink.emitPoolCreated(TestUtil.createPool(o, TestUtil.createProduct()));
+
+        verify(pipeline, never()).submit(anyCollection());
+
+        sink.sendEvents();
+
+        ArgumentCaptor<Collection<Event>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(pipeline).submit(captor.capture());
+        assertEquals(2, captor.getValue().size());
+
+        // Events are serialized and sent by the pipeline, never on the request thread
+        verify(mapper, never()).writeValueAsString(any());
+        verify(mockSessionFactory, never()).createSession();
+    }
+
+    @Test
+    public void batchedEgressDiscardsEventsOnRollback() throws Exception {
+        EventEgressPipeline pipeline = mock(EventEgressPipeline.class);
+        doReturn(true).when(pipeline).isEnabled();
+
+        EventSinkImpl sink = this.createEventSink(pipeline);
+        sink.emitOwnerCreated(o);
+        sink.rollback();
+        sink.sendEvents();
+
+        verify(pipeline, never()).submit(anyCollection());
+    }
+
+    @Test
+    public void coalescingSendsOnlyLatestEventPerEntity() throws Exception {
+        DevConfig config = TestConfig.defaults();
+        config.setProperty(ConfigProperties.AUDIT_COALESCE_ENABLED, "true");
+
+        EventEgressPipeline pipeline = mock(EventEgressPipeline.class);
+        EventSinkImpl sink = this.createEventSink(pipeline, new EventCoalescer(config));
+
+        PrincipalData principalData = new PrincipalData("user", "admin");
+        sink.queueEvent(new Event(Event.Type.CREATED, Event.Target.COMPLIANCE, principalData)
+            .setEntityId("consumer-1"));
+        sink.queueEvent(new Event(Event.Type.CREATED, Event.Target.COMPLIANCE, principalData)
+            .setEntityId("consumer-2"));
+        sink.queueEvent(new Event(Event.Type.CREATED, Event.Target.COMPLIANCE, principalData)
+            .setEntityId("consumer-1"));
+
+        // Nothing should be sent until the request completes
+        verify(mockClientProducer, never()).send(any(ClientMessage.class));
+
+        sink.sendEvents();
+
+        verify(mockClientProducer, times(2)).send(any(ClientMessage.class));
+        verify(mockClientSession).commit();
+        verify(pipeline, never()).submit(anyCollection());
+    }
+
     @Test
     public void rulesDeletedShouldEmitSuccessfully() throws Exception {
         Rules oldRules = new Rules(TestUtil.createRulesBlob(1));
@@ -17,11 +17,16 @@ package org.candlepin.auth;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.auth.permissions.OwnerPermission;
 import org.candlepin.auth.permissions.PermissionFactory;
+import org.candlepin.cache.UserAuthCache;
+import org.candlepin.config.TestConfig;
 import org.candlepin.exceptions.NotAuthorizedException;
 import org.candlepin.model.Owner;
 import org.candlepin.model.User;
@@ -66,6 +71,7 @@ public class BasicAuthViaUserServiceTest {
     private Provider<I18n> mockI18n;
     @Mock
     private PermissionFactory mockPermissionFactory;
+    private UserAuthCache userAuthCache;
     private BasicAuth auth;
 
     @BeforeEach
@@ -82,7 +88,8 @@ public class BasicAuthViaUserServiceTest {
         I18n i18n = I18nFactory.getI18n(getClass(), Locale.US, I18nFactory.FALLBACK);
         when(mockI18n.get()).thenReturn(i18n);
 
-        this.auth = new BasicAuth(userService, mockI18n, mockPermissionFactory);
+        this.userAuthCache = new UserAuthCache(TestConfig.defaults());
+        this.auth = new BasicAuth(userService, mockI18n, mockPermissionFactory, this.userAuthCache);
     }
 
     /**
@@ -173,6 +180,53 @@ public class BasicAuthViaUserServiceTest {
         assertEquals(expected, this.auth.getPrincipal(request));
     }
 
+    @Test
+    public void verifiedCredentialsAndPermissionsAreCached() {
+        when(userService.validateUser("user", "redhat")).thenReturn(true);
+        when(userService.findByLogin("user")).thenReturn(new User());
+
+        UserPrincipal expected = new UserPrincipal("user", new ArrayList<>(), false);
+        for (int i = 0; i < 3; ++i) {
+            headerMap.clear();
+            setUserAndPassword("user", "redhat");
+            assertEquals(expected, this.auth.getPrincipal(request));
+        }
+
+        verify(userService, times(1)).validateUser("user", "redhat");
+        verify(userService, times(1)).findByLogin("user");
+        verify(mockPermissionFactory, times(1)).createPermissions(any(User.class));
+    }
+
+    @Test
+    public void cachedCredentialsDoNotAcceptOtherPasswords() {
+        when(userService.validateUser("user", "redhat")).thenReturn(true);
+        when(userService.validateUser("user", "wrong")).thenReturn(false);
+        when(userService.findByLogin("user")).thenReturn(new User());
+
+        setUserAndPassword("user", "redhat");
+        this.auth.getPrincipal(request);
+
+        headerMap.clear();
+        setUserAndPassword("user", "wrong");
+        assertThrows(NotAuthorizedException.class, () -> this.auth.getPrincipal(request));
+        verify(userService, times(1)).validateUser("user", "wrong");
+    }
+
+    @Test
+    public void invalidatedCredentialsAreValidatedAgain() {
+        when(userService.validateUser("user", "redhat")).thenReturn(true);
+        when(userService.findByLogin("user")).thenReturn(new User());
+
+        setUserAndPassword("user", "redhat");
+        this.auth.getPrincipal(request);
+
+        this.userAuthCache.removeUser("user");
+        when(userService.validateUser("user", "redhat")).thenReturn(false);
+
+        assertThrows(NotAuthorizedException.class, () -> this.auth.getPrincipal(request));
+        verify(userService, times(2)).validateUser("user", "redhat");
+    }
+
     // TODO:  Add in owner creation/retrieval tests?
 
     private void setUserAndPassword(String username, String password) {
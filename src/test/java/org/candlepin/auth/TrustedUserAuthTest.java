@@ -26,6 +26,8 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.auth.permissions.PermissionFactory;
+import org.candlepin.cache.UserAuthCache;
+import org.candlepin.config.TestConfig;
 import org.candlepin.model.User;
 import org.candlepin.service.UserServiceAdapter;
 
@@ -77,7 +79,8 @@ public class TrustedUserAuthTest {
         I18n i18n = I18nFactory.getI18n(getClass(), Locale.US, I18nFactory.FALLBACK);
         when(mockI18n.get()).thenReturn(i18n);
 
-        this.auth = new TrustedUserAuth(userService, mockI18n, mockPermissionFactory);
+        this.auth = new TrustedUserAuth(userService, mockI18n, mockPermissionFactory,
+            new UserAuthCache(TestConfig.defaults()));
     }
 
     @Test
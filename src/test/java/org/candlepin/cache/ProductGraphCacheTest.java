@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.ConfigurationException;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.model.Content;
+import org.candlepin.model.Product;
+import org.candlepin.model.ProductContent;
+import org.candlepin.test.TestUtil;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Date;
+
+public class ProductGraphCacheTest {
+
+    private DevConfig config;
+
+    @BeforeEach
+    public void beforeEach() {
+        config = TestConfig.defaults();
+    }
+
+    private static final Date UPDATED = new Date(1000000L);
+
+    private Product createProduct(String id) {
+        Product product = TestUtil.createProduct(id, id);
+        product.setUuid(id + "_uuid");
+        product.setUpdated(UPDATED);
+
+        return product;
+    }
+
+    private Product createProductGraph() {
+        Content content = TestUtil.createContent("content-1");
+        content.setUuid("content-1_uuid");
+        content.setUpdated(UPDATED);
+
+        Product shared = this.createProduct("shared");
+        shared.addContent(content, true);
+
+        Product provided = this.createProduct("provided");
+        provided.addContent(content, false);
+
+        Product derived = this.createProduct("derived");
+        derived.addProvidedProduct(shared);
+
+        Product product = this.createProduct("sku");
+        product.setAttribute(Product.Attributes.ARCHITECTURE, "x86_64");
+        product.addProvidedProduct(shared);
+        product.addProvidedProduct(provided);
+        product.setDerivedProduct(derived);
+
+        return product;
+    }
+
+    @ParameterizedTest(name = "{displayName} {index}: {0}")
+    @ValueSource(longs = { 0L, -1000L })
+    public void testCacheCreationWithInvalidDuration(long duration) {
+        config.setProperty(ConfigProperties.CACHE_PRODUCT_GRAPH_TTL, String.valueOf(duration));
+
+        assertThrows(ConfigurationException.class, () -> new ProductGraphCache(config));
+    }
+
+    @Test
+    public void testCacheCreationWithInvalidMaxNodesConfig() {
+        config.setProperty(ConfigProperties.CACHE_PRODUCT_GRAPH_MAX_NODES, "-100");
+
+        assertThrows(ConfigurationException.class, () -> new ProductGraphCache(config));
+    }
+
+    @Test
+    public void testGetWithNullProduct() throws Exception {
+        ProductGraphCache cache = new ProductGraphCache(config);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(null));
+    }
+
+    @Test
+    public void testSnapshotCopiesProductGraph() throws Exception {
+        Product product = this.createProductGraph();
+
+        ProductGraph graph = new ProductGraphCache(config).get(product);
+
+        assertThat(graph.getProduct())
+            .isNotSameAs(product)
+            .isEqualTo(product);
+        assertThat(graph.getProduct().getAttributeValue(Product.Attributes.ARCHITECTURE))
+            .isEqualTo("x86_64");
+
+        assertThat(graph.getProvidedProducts())
+            .extracting(Product::getId)
+            .containsExactlyInAnyOrder("shared", "provided");
+        assertThat(graph.getDerivedProduct())
+            .extracting(Product::getId)
+            .isEqualTo("derived");
+        assertThat(graph.getDerivedProvidedProducts())
+            .extracting(Product::getId)
+            .containsExactly("shared");
+
+        // Products and content shared within the graph should only be copied once
+        Product shared = graph.getDerivedProvidedProducts().iterator().next();
+        assertThat(graph.getProvidedProducts()).anyMatch(elem -> elem == shared);
+
+        Product provided = graph.getProvidedProducts().stream()
+            .filter(elem -> "provided".equals(elem.getId()))
+            .findFirst()
+            .get();
+
+        ProductContent sharedContent = shared.getProductContent("content-1");
+        ProductContent providedContent = provided.getProductContent("content-1");
+
+        assertThat(sharedContent.isEnabled()).isTrue();
+        assertThat(providedContent.isEnabled()).isFalse();
+        assertThat(sharedContent.getContent())
+            .isSameAs(providedContent.getContent())
+            .isNotSameAs(product.getProvidedProducts().iterator().next()
+                .getProductContent("content-1").getContent());
+    }
+
+    @Test
+    public void testSnapshotSizeCountsDistinctProductsAndContent() {
+        ProductGraph graph = ProductGraph.of(this.createProductGraph());
+
+        // sku, shared, provided and derived, along with the one content they all share
+        assertThat(graph.getSize()).isEqualTo(5);
+    }
+
+    @Test
+    public void testSnapshotIsReusedForSameVersion() throws Exception {
+        ProductGraphCache cache = new ProductGraphCache(config);
+        Product product = this.createProductGraph();
+
+        ProductGraph graph = cache.get(product);
+
+        assertThat(cache.get(product)).isSameAs(graph);
+    }
+
+    @Test
+    public void testSnapshotIsSharedBetweenReferencingProducts() throws Exception {
+        ProductGraphCache cache = new ProductGraphCache(config);
+        Product product = this.createProductGraph();
+        Product shared = product.getDerivedProduct().getProvidedProducts().iterator().next();
+
+        ProductGraph graph = cache.get(shared);
+
+        // The snapshot of a shared product does not depend on what references it
+        assertThat(cache.get(product).getProduct()).isNotNull();
+        assertThat(cache.get(shared)).isSameAs(graph);
+    }
+
+    @Test
+    public void testSnapshotIsRebuiltWhenProductIsUpdated() throws Exception {
+        ProductGraphCache cache = new ProductGraphCache(config);
+        Product product = this.createProductGraph();
+
+        ProductGraph graph = cache.get(product);
+        product.setName("updated name");
+        product.setUpdated(new Date(UPDATED.getTime() + 1000));
+
+        ProductGraph updated = cache.get(product);
+
+        assertThat(updated).isNotSameAs(graph);
+        assertThat(updated.getProduct().getName()).isEqualTo("updated name");
+    }
+
+    @Test
+    public void testSnapshotIsRebuiltWhenProvidedContentIsUpdated() throws Exception {
+        ProductGraphCache cache = new ProductGraphCache(config);
+        Product product = this.createProductGraph();
+
+        ProductGraph graph = cache.get(product);
+
+        // Updating content does not update the products referencing it
+        Product provided = product.getProvidedProducts().stream()
+            .filter(elem -> "provided".equals(elem.getId()))
+            .findFirst()
+            .get();
+
+        Content content = provided.getProductContent("content-1").getContent();
+        content.setName("updated content");
+        content.setUpdated(new Date(UPDATED.getTime() + 1000));
+
+        ProductGraph updated = cache.get(product);
+
+        assertThat(updated).isNotSameAs(graph);
+        assertThat(updated.getProvidedProducts())
+            .flatExtracting(Product::getProductContent)
+            .extracting(pc -> pc.getContent().getName())
+            .containsOnly("updated content");
+    }
+
+    @Test
+    public void testSnapshotIsNotCachedWithoutVersion() throws Exception {
+        ProductGraphCache cache = new ProductGraphCache(config);
+        Product product = TestUtil.createProduct("unversioned", "unversioned");
+        product.setUuid("unversioned_uuid");
+
+        assertThat(cache.get(product)).isNotSameAs(cache.get(product));
+    }
+
+    @Test
+    public void testSnapshotIsNotCachedWithoutUuid() throws Exception {
+        ProductGraphCache cache = new ProductGraphCache(config);
+        Product product = this.createProduct("no-uuid");
+        product.setUuid(null);
+
+        assertThat(cache.get(product)).isNotSameAs(cache.get(product));
+    }
+
+    @Test
+    public void testRemoveAll() throws Exception {
+        ProductGraphCache cache = new ProductGraphCache(config);
+        Product product = this.createProductGraph();
+
+        ProductGraph graph = cache.get(product);
+        cache.removeAll();
+
+        assertThat(cache.get(product)).isNotSameAs(graph);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.candlepin.cache.UserAuthCache.CachedUser;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.ConfigurationException;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class UserAuthCacheTest {
+
+    private DevConfig config;
+
+    @BeforeEach
+    public void beforeEach() {
+        config = TestConfig.defaults();
+    }
+
+    private Function<String, CachedUser> countingLookup(AtomicInteger lookups) {
+        return username -> {
+            lookups.incrementAndGet();
+            return new CachedUser(false, null, List.of());
+        };
+    }
+
+    @ParameterizedTest(name = "{displayName} {index}: {0}")
+    @ValueSource(longs = { 0L, -1000L })
+    public void testCacheCreationWithInvalidDuration(long duration) {
+        config.setProperty(ConfigProperties.CACHE_USER_AUTH_TTL, String.valueOf(duration));
+
+        assertThrows(ConfigurationException.class, () -> new UserAuthCache(config));
+    }
+
+    @Test
+    public void testCacheCreationWithInvalidMaxEntriesConfig() {
+        config.setProperty(ConfigProperties.CACHE_USER_AUTH_MAX_ENTRIES, "-100");
+
+        assertThrows(ConfigurationException.class, () -> new UserAuthCache(config));
+    }
+
+    @Test
+    public void testCredentialsAreNotVerifiedByDefault() throws Exception {
+        UserAuthCache cache = new UserAuthCache(config);
+
+        assertThat(cache.isVerified("user", "password")).isFalse();
+    }
+
+    @Test
+    public void testVerifiedCredentialsMatchOnlySamePassword() throws Exception {
+        UserAuthCache cache = new UserAuthCache(config);
+        cache.setVerified("user", "password");
+
+        assertThat(cache.isVerified("user", "password")).isTrue();
+        assertThat(cache.isVerified("user", "Password")).isFalse();
+        assertThat(cache.isVerified("user", null)).isFalse();
+        assertThat(cache.isVerified("other", "password")).isFalse();
+    }
+
+    @Test
+    public void testNullPasswordsAreNotCached() throws Exception {
+        UserAuthCache cache = new UserAuthCache(config);
+        cache.setVerified("user", null);
+
+        assertThat(cache.isVerified("user", null)).isFalse();
+    }
+
+    @Test
+    public void testGetUserWithNullUsername() throws Exception {
+        UserAuthCache cache = new UserAuthCache(config);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.getUser(null, username -> null));
+    }
+
+    @Test
+    public void testUserIsLookedUpOnce() throws Exception {
+        UserAuthCache cache = new UserAuthCache(config);
+        AtomicInteger lookups = new AtomicInteger();
+
+        CachedUser user = cache.getUser("user", this.countingLookup(lookups));
+
+        assertThat(cache.getUser("user", this.countingLookup(lookups))).isSameAs(user);
+        assertThat(lookups.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMissingUsersAreNotCached() throws Exception {
+        UserAuthCache cache = new UserAuthCache(config);
+        AtomicInteger lookups = new AtomicInteger();
+
+        Function<String, CachedUser> lookup = username -> {
+            lookups.incrementAndGet();
+            return null;
+        };
+
+        assertThat(cache.getUser("user", lookup)).isNull();
+        assertThat(cache.getUser("user", lookup)).isNull();
+        assertThat(lookups.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRemoveUser() throws Exception {
+        UserAuthCache cache = new UserAuthCache(config);
+        AtomicInteger lookups = new AtomicInteger();
+
+        cache.setVerified("user", "password");
+        cache.getUser("user", this.countingLookup(lookups));
+
+        cache.removeUser("user");
+
+        assertThat(cache.isVerified("user", "password")).isFalse();
+        cache.getUser("user", this.countingLookup(lookups));
+        assertThat(lookups.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRemoveAllUsersRetainsCredentials() throws Exception {
+        UserAuthCache cache = new UserAuthCache(config);
+        AtomicInteger lookups = new AtomicInteger();
+
+        cache.setVerified("user", "password");
+        cache.getUser("user", this.countingLookup(lookups));
+
+        cache.removeAllUsers();
+
+        assertThat(cache.isVerified("user", "password")).isTrue();
+        cache.getUser("user", this.countingLookup(lookups));
+        assertThat(lookups.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRemoveAll() throws Exception {
+        UserAuthCache cache = new UserAuthCache(config);
+        cache.setVerified("user", "password");
+
+        cache.removeAll();
+
+        assertThat(cache.isVerified("user", "password")).isFalse();
+    }
+}
@@ -1082,6 +1082,7 @@ public class PoolManagerTest {
         poolsWithSource.get(0).getEntitlements().add(e3);
         Set<Pool> poolsWithSourceAsSet = new HashSet<>(poolsWithSource);
         when(poolCurator.listBySourceEntitlements(entsToDelete)).thenReturn(poolsWithSourceAsSet);
+        when(poolCurator.entitlementsIn(poolsWithSourceAsSet)).thenReturn(List.of(e3));
 
         PreUnbindHelper preHelper = mock(PreUnbindHelper.class);
         ValidationResult result = new ValidationResult();
@@ -18,10 +18,12 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItems;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -56,6 +58,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.xnap.commons.i18n.I18n;
@@ -305,6 +308,74 @@ public class PoolServiceTest {
         assertEquals(argument, subids);
     }
 
+    @Test
+    public void testRevokeEntitlementsDeletesEntitlementsInBulkBeforePools() {
+        Owner owner = TestUtil.createOwner();
+        Consumer consumer = TestUtil.createConsumer(owner);
+        Pool pool = createPool(owner);
+        Entitlement entitlement = createEntitlement(owner, pool, consumer);
+        entitlement.setQuantity(1);
+
+        Pool derivedPool = createPool(owner);
+        derivedPool.setId("derived_pool");
+        Entitlement derivedEnt = createEntitlement(owner, derivedPool, TestUtil.createConsumer(owner));
+        derivedEnt.setQuantity(1);
+
+        Set<Pool> poolsToDelete = Set.of(derivedPool);
+        when(poolCurator.listBySourceEntitlements(List.of(entitlement))).thenReturn(poolsToDelete);
+        when(poolCurator.entitlementsIn(poolsToDelete)).thenReturn(List.of(derivedEnt));
+        when(consumerTypeCurator.getConsumerType(any(Consumer.class)))
+            .thenReturn(new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM));
+
+        poolService.revokeEntitlements(List.of(entitlement));
+
+        assertTrue(derivedEnt.deletedFromPool());
+
+        InOrder inOrder = inOrder(poolCurator, entitlementCertCurator, entitlementCurator);
+        inOrder.verify(poolCurator).clearPoolSourceEntitlementRefs(List.of(derivedPool.getId()));
+        inOrder.verify(entitlementCertCurator)
+            .deleteByEntitlementIds(Set.of(entitlement.getId(), derivedEnt.getId()));
+        inOrder.verify(entitlementCurator).batchDelete(List.of(entitlement, derivedEnt));
+        inOrder.verify(poolCurator).batchDelete(eq(poolsToDelete), isNull());
+
+        verify(entitlementCurator).batchDetach(List.of(entitlement, derivedEnt));
+    }
+
+    @Test
+    public void testRevokeEntitlementsCombinesVirtLimitUpdatesPerPool() {
+        DevConfig config = new DevConfig(Map.of(
+            ConfigProperties.STANDALONE, "false",
+            ConfigProperties.PRODUCT_CACHE_MAX, "100"));
+        PoolService service = new PoolService(poolCurator, sink, eventFactory,
+            new PoolRules(config, entitlementCurator, poolConverter), entitlementCurator, consumerCurator,
+            consumerTypeCurator, entitlementCertCurator, complianceRules, systemPurposeComplianceRules,
+            config, i18n);
+
+        Owner owner = TestUtil.createOwner();
+        Consumer distributor = TestUtil.createConsumer(owner);
+        ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.CANDLEPIN);
+        when(consumerTypeCurator.getConsumerType(distributor)).thenReturn(ctype);
+
+        Product product = TestUtil.createProduct();
+        product.setAttribute(Product.Attributes.VIRT_LIMIT, "10");
+        Pool pool = TestUtil.createPool(owner, product);
+
+        Pool bonusPool = TestUtil.createPool(owner, product, 100);
+        bonusPool.setAttribute(Pool.Attributes.DERIVED_POOL, "true");
+        when(poolCurator.getBySubscriptionId(owner, pool.getSubscriptionId()))
+            .thenReturn(List.of(pool, bonusPool));
+
+        Entitlement ent1 = createEntitlement(owner, pool, distributor);
+        ent1.setQuantity(2);
+        Entitlement ent2 = createEntitlement(owner, pool, distributor);
+        ent2.setQuantity(3);
+
+        service.revokeEntitlements(List.of(ent1, ent2));
+
+        verify(poolCurator).getBySubscriptionId(owner, pool.getSubscriptionId());
+        assertEquals(150L, bonusPool.getQuantity());
+    }
+
     private Entitlement createEntFromPool(Owner owner, Pool pool, Consumer consumer) {
         Entitlement e = new Entitlement(pool, consumer, owner, 2);
         e.setCreated(new Date());
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.hibernate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerInstalledProduct;
+import org.candlepin.model.Owner;
+import org.candlepin.test.DatabaseTestFixture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+
+
+public class QueryCounterTest extends DatabaseTestFixture {
+
+    @AfterEach
+    public void stopCounting() {
+        QueryCounter.stop();
+    }
+
+    private Consumer createConsumerWithInstalledProducts() {
+        Owner owner = this.createOwner();
+        Consumer consumer = this.createConsumer(owner);
+
+        consumer.addInstalledProduct(new ConsumerInstalledProduct()
+            .setProductId("prod-1")
+            .setProductName("Product 1"));
+        consumer.addInstalledProduct(new ConsumerInstalledProduct()
+            .setProductId("prod-2")
+            .setProductName("Product 2"));
+
+        this.consumerCurator.merge(consumer);
+        this.consumerCurator.flush();
+        this.consumerCurator.clear();
+
+        return consumer;
+    }
+
+    @Test
+    public void testNothingCountedWhenNotStarted() {
+        Consumer consumer = this.createConsumerWithInstalledProducts();
+
+        this.consumerCurator.get(consumer.getId()).getInstalledProducts().size();
+
+        assertThat(QueryCounter.isCounting()).isFalse();
+        assertThat(QueryCounter.stop()).isEqualTo(QueryCounter.Counts.NONE);
+    }
+
+    @Test
+    public void testCountsStatementsAndLoads() {
+        Consumer consumer = this.createConsumerWithInstalledProducts();
+
+        QueryCounter.start();
+        Consumer fetched = this.consumerCurator.get(consumer.getId());
+
+        QueryCounter.Counts counts = QueryCounter.current();
+        assertThat(counts.statements()).isPositive();
+        assertThat(counts.entityLoads()).isPositive();
+
+        assertThat(fetched.getInstalledProducts()).hasSize(2);
+
+        QueryCounter.Counts updated = QueryCounter.stop();
+        assertThat(updated.statements()).isEqualTo(counts.statements() + 1);
+        assertThat(updated.entityLoads()).isEqualTo(counts.entityLoads() + 2);
+        assertThat(updated.collectionLoads()).isEqualTo(counts.collectionLoads() + 1);
+
+        assertThat(QueryCounter.isCounting()).isFalse();
+    }
+
+    @Test
+    public void testStartResetsCounts() {
+        Consumer consumer = this.createConsumerWithInstalledProducts();
+
+        QueryCounter.start();
+        this.consumerCurator.get(consumer.getId());
+
+        QueryCounter.start();
+        assertThat(QueryCounter.current()).isEqualTo(QueryCounter.Counts.NONE);
+    }
+}
@@ -130,4 +130,25 @@ public class DynamicFilterDataTest {
         assertTrue(filterData.isAttributeExcluded(Arrays.asList("a", "b2", "d3")));
     }
 
+    @Test
+    public void testFilteringIsCaseInsensitive() {
+        DynamicFilterData filterData = new DynamicFilterData(false);
+        filterData.excludeAttribute("Bacon.EGG");
+
+        assertTrue(filterData.isAttributeExcluded("bacon.egg"));
+        assertTrue(filterData.isAttributeExcluded(new String[] { "BACON", "egg", "cheese" }, 3));
+        assertFalse(filterData.isAttributeExcluded(new String[] { "BACON", "egg", "cheese" }, 1));
+    }
+
+    @Test
+    public void testExactMatchesTakePrecedenceOverLongerFilters() {
+        DynamicFilterData filterData = new DynamicFilterData(false);
+        filterData.includeAttribute("a");
+        filterData.includeAttribute("a.b.c");
+        filterData.excludeAttribute("a.b");
+
+        assertFalse(filterData.isAttributeExcluded("a"));
+        assertTrue(filterData.isAttributeExcluded("a.b"));
+        assertFalse(filterData.isAttributeExcluded("a.d"));
+    }
 }
@@ -16,7 +16,10 @@ package org.candlepin.jackson;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -24,6 +27,7 @@ import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.PropertyWriter;
 
 import org.jboss.resteasy.core.ResteasyContext;
@@ -64,13 +68,11 @@ public class DynamicPropertyFilterTest {
     }
 
     @Test
-    @SuppressWarnings("unchecked")
     public void nonEmptyIsSerializable() {
         //Implicitly return true
-        when(dynamicFilterData.isAttributeExcluded(anyList()))
-            .thenReturn(true);
-        when(dynamicFilterData.isAttributeExcluded(Arrays.asList("CONTEXT_NAME_1", "WRITER_NAME")))
-            .thenReturn(false);
+        when(dynamicFilterData.isAttributeExcluded(any(String[].class), anyInt()))
+            .thenAnswer(iom -> !Arrays.asList("CONTEXT_NAME_1", "WRITER_NAME")
+                .equals(Arrays.asList((String[]) iom.getArgument(0)).subList(0, iom.getArgument(1))));
         when(jsonGenerator.getOutputContext()).thenReturn(context);
         when(context.getParent()).thenReturn(context).thenReturn(null);
         when(context.getCurrentName()).thenReturn("CONTEXT_NAME_1");
@@ -85,8 +87,9 @@ public class DynamicPropertyFilterTest {
 
     @Test
     public void nonEmptyIsNotSerializable() {
-        when(dynamicFilterData.isAttributeExcluded(Arrays.asList("CONTEXT_NAME_1", "WRITER_NAME")))
-            .thenReturn(true);
+        when(dynamicFilterData.isAttributeExcluded(any(String[].class), anyInt()))
+            .thenAnswer(iom -> Arrays.asList("CONTEXT_NAME_1", "WRITER_NAME")
+                .equals(Arrays.asList((String[]) iom.getArgument(0)).subList(0, iom.getArgument(1))));
         when(jsonGenerator.getOutputContext()).thenReturn(context);
         when(context.getParent()).thenReturn(context).thenReturn(null);
         when(context.getCurrentName()).thenReturn("CONTEXT_NAME_1");
@@ -99,4 +102,36 @@ public class DynamicPropertyFilterTest {
         verify(context).getCurrentName();
     }
 
+    @Test
+    public void filterDataIsCachedForSerialization() {
+        SerializerProvider provider = mock(SerializerProvider.class);
+        ResteasyContext.pushContext(DynamicFilterData.class, dynamicFilterData);
+
+        DynamicPropertyFilter propertyFilter = new DynamicPropertyFilter();
+        when(jsonGenerator.getOutputContext()).thenReturn(context);
+        when(writer.getName()).thenReturn("WRITER_NAME");
+
+        assertTrue(propertyFilter.isSerializable(null, jsonGenerator, provider, writer));
+        verify(provider).setAttribute(any(), eq(dynamicFilterData));
+
+        // Subsequent checks should use the cached filter data, even if the context changes
+        when(provider.getAttribute(any())).thenReturn(dynamicFilterData);
+        ResteasyContext.pushContext(DynamicFilterData.class, null);
+
+        assertTrue(propertyFilter.isSerializable(null, jsonGenerator, provider, writer));
+        verify(dynamicFilterData, times(2)).isAttributeExcluded(any(String[].class), eq(1));
+    }
+
+    @Test
+    public void filterDataIsNotRequiredForSerialization() {
+        SerializerProvider provider = mock(SerializerProvider.class);
+        ResteasyContext.pushContext(DynamicFilterData.class, null);
+
+        DynamicPropertyFilter propertyFilter = new DynamicPropertyFilter();
+
+        assertTrue(propertyFilter.isSerializable(null, jsonGenerator, provider, writer));
+        verify(provider).setAttribute(any(), any());
+        verifyNoInteractions(jsonGenerator, writer);
+    }
+
 }
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.liquibase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+
+/**
+ * Tests the resumption of the per-org products migration against a minimal copy of the tables it
+ * reads and writes.
+ */
+public class PerOrgProductsMigrationTaskTest {
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE cp_owner (id VARCHAR(32) PRIMARY KEY, account VARCHAR(255))",
+        "CREATE TABLE cp_product (id VARCHAR(32) PRIMARY KEY, created TIMESTAMP, updated TIMESTAMP, " +
+            "multiplier INTEGER, name VARCHAR(255))",
+        "CREATE TABLE cp_content (id VARCHAR(32) PRIMARY KEY, created TIMESTAMP, updated TIMESTAMP, " +
+            "contenturl VARCHAR(255), gpgurl VARCHAR(255), label VARCHAR(255), metadataexpire INTEGER, " +
+            "name VARCHAR(255), releasever VARCHAR(255), requiredtags VARCHAR(255), type VARCHAR(255), " +
+            "vendor VARCHAR(255), arches VARCHAR(255))",
+        "CREATE TABLE cp_pool (id VARCHAR(32) PRIMARY KEY, owner_id VARCHAR(32), " +
+            "product_id_old VARCHAR(32), derived_product_id_old VARCHAR(32), product_uuid VARCHAR(32), " +
+            "derived_product_uuid VARCHAR(32), cdn_id VARCHAR(32), certificate_id VARCHAR(32), " +
+            "upstream_entitlement_id VARCHAR(32), upstream_consumer_id VARCHAR(32), " +
+            "upstream_pool_id VARCHAR(32))",
+        "CREATE TABLE cp_pool_products (pool_id VARCHAR(32), product_id VARCHAR(32), dtype VARCHAR(32))",
+        "CREATE TABLE cp_subscription (id VARCHAR(32) PRIMARY KEY, owner_id VARCHAR(32), " +
+            "product_id VARCHAR(32), derivedproduct_id VARCHAR(32), cdn_id VARCHAR(32), " +
+            "certificate_id VARCHAR(32), upstream_entitlement_id VARCHAR(32), " +
+            "upstream_consumer_id VARCHAR(32), upstream_pool_id VARCHAR(32))",
+        "CREATE TABLE cp_subscription_products (subscription_id VARCHAR(32), product_id VARCHAR(32))",
+        "CREATE TABLE cp_sub_derivedprods (subscription_id VARCHAR(32), product_id VARCHAR(32))",
+        "CREATE TABLE cp_product_content (product_id VARCHAR(32), content_id VARCHAR(32), " +
+            "enabled BOOLEAN, created TIMESTAMP, updated TIMESTAMP)",
+        "CREATE TABLE cp_environment (id VARCHAR(32) PRIMARY KEY, owner_id VARCHAR(32))",
+        "CREATE TABLE cp_env_content (id VARCHAR(32) PRIMARY KEY, created TIMESTAMP, updated TIMESTAMP, " +
+            "contentid VARCHAR(32), enabled BOOLEAN, environment_id VARCHAR(32))",
+        "CREATE TABLE cp_activation_key (id VARCHAR(32) PRIMARY KEY, owner_id VARCHAR(32))",
+        "CREATE TABLE cp_activationkey_product (key_id VARCHAR(32), product_id VARCHAR(32))",
+        "CREATE TABLE cp_product_attribute (id VARCHAR(32) PRIMARY KEY, created TIMESTAMP, " +
+            "updated TIMESTAMP, name VARCHAR(255), value VARCHAR(255), product_id VARCHAR(32))",
+        "CREATE TABLE cp_product_certificate (id VARCHAR(32) PRIMARY KEY, created TIMESTAMP, " +
+            "updated TIMESTAMP, cert VARCHAR(255), privatekey VARCHAR(255), product_id VARCHAR(32))",
+        "CREATE TABLE cp_product_dependent_products (cp_product_id VARCHAR(32), element VARCHAR(255))",
+        "CREATE TABLE cp_content_modified_products (cp_content_id VARCHAR(32), element VARCHAR(255))",
+        "CREATE TABLE cp_pool_source_sub (id VARCHAR(32) PRIMARY KEY, subscriptionid VARCHAR(32), " +
+            "subscriptionsubkey VARCHAR(32), pool_id VARCHAR(32), created TIMESTAMP, updated TIMESTAMP)",
+
+        "CREATE TABLE cp2_products (uuid VARCHAR(32) PRIMARY KEY, created TIMESTAMP, updated TIMESTAMP, " +
+            "multiplier INTEGER, product_id VARCHAR(32) NOT NULL, name VARCHAR(255), locked INTEGER)",
+        "CREATE TABLE cp2_content (uuid VARCHAR(32) PRIMARY KEY, content_id VARCHAR(32) NOT NULL, " +
+            "created TIMESTAMP, updated TIMESTAMP, contenturl VARCHAR(255), gpgurl VARCHAR(255), " +
+            "label VARCHAR(255), metadataexpire INTEGER, name VARCHAR(255), releasever VARCHAR(255), " +
+            "requiredtags VARCHAR(255), type VARCHAR(255), vendor VARCHAR(255), arches VARCHAR(255), " +
+            "locked INTEGER)",
+        "CREATE TABLE cp2_owner_products (owner_id VARCHAR(32), product_uuid VARCHAR(32), " +
+            "PRIMARY KEY (owner_id, product_uuid))",
+        "CREATE TABLE cp2_owner_content (owner_id VARCHAR(32), content_uuid VARCHAR(32), " +
+            "PRIMARY KEY (owner_id, content_uuid))",
+        "CREATE TABLE cp2_activation_key_products (key_id VARCHAR(32), product_uuid VARCHAR(32), " +
+            "PRIMARY KEY (key_id, product_uuid))",
+        "CREATE TABLE cp2_product_attributes (id VARCHAR(32) PRIMARY KEY, created TIMESTAMP, " +
+            "updated TIMESTAMP, name VARCHAR(255), value VARCHAR(255), product_uuid VARCHAR(32))",
+        "CREATE TABLE cp2_product_content (product_uuid VARCHAR(32), content_uuid VARCHAR(32), " +
+            "enabled BOOLEAN, created TIMESTAMP, updated TIMESTAMP, " +
+            "PRIMARY KEY (product_uuid, content_uuid))",
+        "CREATE TABLE cp2_product_certificates (id VARCHAR(32) PRIMARY KEY, created TIMESTAMP, " +
+            "updated TIMESTAMP, cert VARCHAR(255), privatekey VARCHAR(255), product_uuid VARCHAR(32))",
+        "CREATE TABLE cp2_product_dependent_products (product_uuid VARCHAR(32), element VARCHAR(255))",
+        "CREATE TABLE cp2_pool_provided_products (pool_id VARCHAR(32), product_uuid VARCHAR(32), " +
+            "PRIMARY KEY (pool_id, product_uuid))",
+        "CREATE TABLE cp2_pool_derprov_products (pool_id VARCHAR(32), product_uuid VARCHAR(32), " +
+            "PRIMARY KEY (pool_id, product_uuid))",
+        "CREATE TABLE cp2_environment_content (id VARCHAR(32) PRIMARY KEY, created TIMESTAMP, " +
+            "updated TIMESTAMP, content_uuid VARCHAR(32), enabled BOOLEAN, environment_id VARCHAR(32))",
+        "CREATE TABLE cp2_content_modified_products (content_uuid VARCHAR(32), element VARCHAR(255))",
+        "CREATE TABLE cp2_pool_source_sub (id VARCHAR(32) PRIMARY KEY, subscription_id VARCHAR(32), " +
+            "subscription_sub_key VARCHAR(32), pool_id VARCHAR(32), created TIMESTAMP, updated TIMESTAMP)",
+    };
+
+    private static final String[] DATA = {
+        "INSERT INTO cp_owner VALUES ('org1', 'account1'), ('org2', 'account2'), ('org3', 'account3')",
+
+        "INSERT INTO cp_product VALUES " +
+            "('p1', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 1, 'product 1'), " +
+            "('p2', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 1, 'product 2'), " +
+            "('p3', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 1, 'product 3')",
+        "INSERT INTO cp_content VALUES " +
+            "('c1', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, '/c1', '/c1/gpg', 'c1', 1, 'content 1', '1', " +
+            "'tag', 'yum', 'vendor', 'x86_64'), " +
+            "('c2', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, '/c2', '/c2/gpg', 'c2', 1, 'content 2', '1', " +
+            "'tag', 'yum', 'vendor', 'x86_64')",
+        "INSERT INTO cp_product_content VALUES " +
+            "('p1', 'c1', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP), " +
+            "('p3', 'c2', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+
+        // org1 and org2 share p1; only org1 has p2 provided. org3 has p3 through a subscription.
+        "INSERT INTO cp_pool (id, owner_id, product_id_old) VALUES " +
+            "('pool1', 'org1', 'p1'), ('pool2', 'org2', 'p1')",
+        "INSERT INTO cp_pool_products VALUES ('pool1', 'p2', 'provided')",
+        "INSERT INTO cp_subscription (id, owner_id, product_id) VALUES ('sub3', 'org3', 'p3')",
+        "INSERT INTO cp_product_attribute VALUES " +
+            "('attr1', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 'arch', 'x86_64', 'p1')",
+    };
+
+    private Connection connection;
+    private Database database;
+
+    /**
+     * Task which fails while migrating a given org, after the orgs before it were migrated and
+     * committed, to simulate an interrupted upgrade.
+     */
+    private class InterruptedMigrationTask extends TestMigrationTask {
+        private final String failingOrg;
+
+        public InterruptedMigrationTask(String failingOrg) {
+            this.failingOrg = failingOrg;
+        }
+
+        @Override
+        protected void migrateContentData(String orgid) throws DatabaseException, SQLException {
+            if (this.failingOrg.equals(orgid)) {
+                throw new DatabaseException("Interrupted while migrating org " + orgid);
+            }
+
+            super.migrateContentData(orgid);
+        }
+    }
+
+    /**
+     * Task committing after each org. The data validation queries are not exercised by these
+     * tests, so the validation is stubbed out.
+     */
+    private class TestMigrationTask extends PerOrgProductsMigrationTask {
+        public TestMigrationTask() {
+            super(PerOrgProductsMigrationTaskTest.this.database, new SystemOutLogger(), 1);
+        }
+
+        @Override
+        protected boolean checkForMalformedObjectRefs(String orgid) {
+            return true;
+        }
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        this.connection = DriverManager.getConnection(
+            "jdbc:hsqldb:mem:perorgproducts-" + System.nanoTime(), "SA", "");
+
+        try (Statement statement = this.connection.createStatement()) {
+            for (String sql : SCHEMA) {
+                statement.execute(sql);
+            }
+
+            for (String sql : DATA) {
+                statement.execute(sql);
+            }
+        }
+
+        this.database = mock(Database.class);
+        when(this.database.getConnection()).thenReturn(new JdbcConnection(this.connection));
+    }
+
+    @AfterEach
+    public void teardown() throws Exception {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+
+        this.connection.close();
+    }
+
+    private List<String> query(String sql, Object... args) throws SQLException {
+        List<String> result = new ArrayList<>();
+
+        try (PreparedStatement statement = this.connection.prepareStatement(sql)) {
+            for (int i = 0; i < args.length; ++i) {
+                statement.setObject(i + 1, args[i]);
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    result.add(resultSet.getString(1));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private Set<String> getOrgProducts(String orgid) throws SQLException {
+        return new HashSet<>(this.query("SELECT p.product_id FROM cp2_owner_products op " +
+            "JOIN cp2_products p ON p.uuid = op.product_uuid WHERE op.owner_id = ?", orgid));
+    }
+
+    private Set<String> getOrgContent(String orgid) throws SQLException {
+        return new HashSet<>(this.query("SELECT c.content_id FROM cp2_owner_content oc " +
+            "JOIN cp2_content c ON c.uuid = oc.content_uuid WHERE oc.owner_id = ?", orgid));
+    }
+
+    private void assertFullyMigrated() throws SQLException {
+        assertEquals(Set.of("p1", "p2"), this.getOrgProducts("org1"));
+        assertEquals(Set.of("c1"), this.getOrgContent("org1"));
+        assertEquals(Set.of("p1"), this.getOrgProducts("org2"));
+        assertEquals(Set.of("c1"), this.getOrgContent("org2"));
+        assertEquals(Set.of("p3"), this.getOrgProducts("org3"));
+        assertEquals(Set.of("c2"), this.getOrgContent("org3"));
+
+        // Products and content shared between orgs are only migrated once
+        assertEquals(List.of("p1", "p2", "p3"),
+            this.query("SELECT product_id FROM cp2_products ORDER BY product_id"));
+        assertEquals(List.of("c1", "c2"),
+            this.query("SELECT content_id FROM cp2_content ORDER BY content_id"));
+
+        // Linked data is migrated once, after the orgs
+        assertEquals(List.of("attr1"), this.query("SELECT id FROM cp2_product_attributes"));
+        assertEquals(List.of("pool1"), this.query("SELECT pool_id FROM cp2_pool_provided_products"));
+        assertEquals(2, this.query("SELECT product_uuid FROM cp2_product_content").size());
+    }
+
+    @Test
+    public void testMigration() throws Exception {
+        new TestMigrationTask().execute();
+
+        this.assertFullyMigrated();
+    }
+
+    @Test
+    public void testInterruptedMigrationKeepsCommittedOrgsOnly() throws Exception {
+        assertThrows(DatabaseException.class, () -> new InterruptedMigrationTask("org3").execute());
+
+        assertEquals(Set.of("p1", "p2"), this.getOrgProducts("org1"));
+        assertEquals(Set.of("p1"), this.getOrgProducts("org2"));
+
+        // The products of the failed org are rolled back rather than committed with autocommit
+        assertTrue(this.getOrgProducts("org3").isEmpty());
+        assertTrue(this.query("SELECT uuid FROM cp2_products WHERE product_id = 'p3'").isEmpty());
+        assertTrue(this.query("SELECT id FROM cp2_product_attributes").isEmpty());
+        assertTrue(this.connection.getAutoCommit());
+    }
+
+    @Test
+    public void testInterruptedMigrationResumes() throws Exception {
+        assertThrows(DatabaseException.class, () -> new InterruptedMigrationTask("org3").execute());
+        List<String> p1Uuids = this.query("SELECT uuid FROM cp2_products WHERE product_id = 'p1'");
+
+        new TestMigrationTask().execute();
+
+        this.assertFullyMigrated();
+        assertEquals(p1Uuids, this.query("SELECT uuid FROM cp2_products WHERE product_id = 'p1'"));
+    }
+
+    @Test
+    public void testResumedMigrationCompletesPartlyMigratedOrg() throws Exception {
+        // org1 has been assigned p1, but neither p2 nor its content
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("INSERT INTO cp2_products VALUES " +
+                "('uuid-p1', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 1, 'p1', 'product 1', 0)");
+            statement.execute("INSERT INTO cp2_owner_products VALUES ('org1', 'uuid-p1')");
+        }
+
+        new TestMigrationTask().execute();
+
+        this.assertFullyMigrated();
+        assertEquals(List.of("uuid-p1"), this.query("SELECT uuid FROM cp2_products WHERE product_id = 'p1'"));
+    }
+}
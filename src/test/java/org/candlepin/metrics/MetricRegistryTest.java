@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+
+public class MetricRegistryTest {
+
+    private MetricRegistry registry;
+
+    @BeforeEach
+    public void setup() {
+        this.registry = new MetricRegistry();
+    }
+
+    @Test
+    public void testTimerIsCreatedOnceByName() {
+        Timer timer = this.registry.timer("timer");
+
+        assertSame(timer, this.registry.timer("timer"));
+        assertEquals("timer", timer.getName());
+    }
+
+    @Test
+    public void testCounterIsCreatedOnceByName() {
+        Counter counter = this.registry.counter("counter");
+
+        assertSame(counter, this.registry.counter("counter"));
+        assertEquals("counter", counter.getName());
+    }
+
+    @Test
+    public void testRejectsInvalidNames() {
+        assertThrows(IllegalArgumentException.class, () -> this.registry.timer(null));
+        assertThrows(IllegalArgumentException.class, () -> this.registry.timer(""));
+        assertThrows(IllegalArgumentException.class, () -> this.registry.counter(null));
+        assertThrows(IllegalArgumentException.class, () -> this.registry.counter(""));
+        assertThrows(IllegalArgumentException.class, () -> this.registry.gauge(null, () -> 1));
+        assertThrows(IllegalArgumentException.class, () -> this.registry.gauge("gauge", null));
+    }
+
+    @Test
+    public void testTimerRecordsTimings() {
+        Timer timer = this.registry.timer("timer");
+
+        timer.record(10, TimeUnit.MILLISECONDS);
+        timer.record(30, TimeUnit.MILLISECONDS);
+        timer.record(-5, TimeUnit.MILLISECONDS);
+
+        assertEquals(2, timer.getCount());
+        assertEquals(40.0, timer.getTotalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(20.0, timer.getMeanTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(30.0, timer.getMaxTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    public void testTimerSampleRecordsOnce() {
+        Timer timer = this.registry.timer("timer");
+
+        Timer.Sample sample = timer.start();
+        sample.close();
+        sample.close();
+
+        assertEquals(1, timer.getCount());
+    }
+
+    @Test
+    public void testEmptyTimerHasZeroMean() {
+        assertEquals(0.0, this.registry.timer("timer").getMeanTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    public void testCounterIgnoresNegativeIncrements() {
+        Counter counter = this.registry.counter("counter");
+
+        counter.increment();
+        counter.increment(4);
+        counter.increment(-3);
+
+        assertEquals(5, counter.getCount());
+    }
+
+    @Test
+    public void testMetricsAreSortedByName() {
+        this.registry.timer("b");
+        this.registry.timer("a");
+        this.registry.counter("d");
+        this.registry.counter("c");
+
+        assertEquals(List.of("a", "b"), List.copyOf(this.registry.getTimers().keySet()));
+        assertEquals(List.of("c", "d"), List.copyOf(this.registry.getCounters().keySet()));
+    }
+
+    @Test
+    public void testGaugeValuesAreReadOnDemand() {
+        int[] value = { 1 };
+
+        this.registry.gauge("gauge", () -> value[0]);
+        assertEquals(1, this.registry.getGaugeValues().get("gauge"));
+
+        value[0] = 2;
+        assertEquals(2, this.registry.getGaugeValues().get("gauge"));
+    }
+
+    @Test
+    public void testBrokenGaugesAreOmitted() {
+        this.registry.gauge("good", () -> 1);
+        this.registry.gauge("null", () -> null);
+        this.registry.gauge("broken", () -> {
+            throw new IllegalStateException();
+        });
+
+        Map<String, Number> values = this.registry.getGaugeValues();
+        assertEquals(1, values.size());
+        assertTrue(values.containsKey("good"));
+    }
+
+    @Test
+    public void testClear() {
+        this.registry.timer("timer");
+        this.registry.counter("counter");
+        this.registry.gauge("gauge", () -> 1);
+
+        this.registry.clear();
+
+        assertTrue(this.registry.getTimers().isEmpty());
+        assertTrue(this.registry.getCounters().isEmpty());
+        assertTrue(this.registry.getGaugeValues().isEmpty());
+    }
+}
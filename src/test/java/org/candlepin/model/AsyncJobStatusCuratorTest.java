@@ -225,6 +225,30 @@ public class AsyncJobStatusCuratorTest extends DatabaseTestFixture {
         }
     }
 
+    @Test
+    public void testGetJobCountsByKey() {
+        this.createJob("job-1", "key_a", JobState.QUEUED, null, null, null, null, null, null, null);
+        this.createJob("job-2", "key_a", JobState.QUEUED, null, null, null, null, null, null, null);
+        this.createJob("job-3", "key_a", JobState.FINISHED, null, null, null, null, null, null, null);
+        this.createJob("job-4", "key_b", JobState.WAITING, null, null, null, null, null, null, null);
+        this.createJob("job-5", "key_c", JobState.RUNNING, null, null, null, null, null, null, null);
+        this.asyncJobCurator.flush();
+
+        Map<String, Long> counts = this.asyncJobCurator
+            .getJobCountsByKey(List.of(JobState.QUEUED, JobState.WAITING));
+
+        assertEquals(Map.of("key_a", 2L, "key_b", 1L), counts);
+    }
+
+    @Test
+    public void testGetJobCountsByKeyWithNoStates() {
+        this.createJob("job-1", "key_a", JobState.QUEUED, null, null, null, null, null, null, null);
+        this.asyncJobCurator.flush();
+
+        assertTrue(this.asyncJobCurator.getJobCountsByKey(List.of()).isEmpty());
+        assertTrue(this.asyncJobCurator.getJobCountsByKey(null).isEmpty());
+    }
+
     /**
      * Creates a bunch of jobs for the given owners. Used primarily for the tests of the findJobs
      * method.
@@ -19,6 +19,7 @@ import static org.hamcrest.Matchers.equalToIgnoringCase;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -31,9 +32,11 @@ import org.candlepin.auth.permissions.OwnerPermission;
 import org.candlepin.auth.permissions.Permission;
 import org.candlepin.model.ConsumerCurator.ConsumerQueryArguments;
 import org.candlepin.test.DatabaseTestFixture;
+import org.candlepin.test.TestUtil;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.Arrays;
@@ -174,6 +177,90 @@ public class ConsumerCuratorSearchTest extends DatabaseTestFixture {
         }
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 3, 7, 1000 })
+    public void testStreamConsumersByOwner(int chunkSize) {
+        List<Consumer> created = this.createConsumersForQueryTests();
+
+        Owner owner = created.stream()
+            .map(Consumer::getOwner)
+            .filter(Objects::nonNull)
+            .findFirst()
+            .get();
+
+        List<String> expected = created.stream()
+            .filter(consumer -> owner.getId().equals(consumer.getOwnerId()))
+            .map(Consumer::getId)
+            .sorted()
+            .collect(Collectors.toList());
+        assertTrue(expected.size() > 0);
+
+        ConsumerQueryArguments queryArgs = new ConsumerQueryArguments()
+            .setOwner(owner);
+
+        List<String> fetched;
+        try (Stream<Consumer> stream = this.consumerCurator.streamConsumers(queryArgs, chunkSize)) {
+            fetched = stream.map(Consumer::getId)
+                .collect(Collectors.toList());
+        }
+
+        assertEquals(expected, fetched);
+    }
+
+    @Test
+    public void testStreamConsumersEvictsFetchedConsumers() {
+        List<Consumer> created = this.createConsumersForQueryTests();
+        Owner owner = created.get(0).getOwner();
+
+        ConsumerQueryArguments queryArgs = new ConsumerQueryArguments()
+            .setOwner(owner);
+
+        this.consumerCurator.clear();
+
+        List<Consumer> fetched;
+        try (Stream<Consumer> stream = this.consumerCurator.streamConsumers(queryArgs, 2)) {
+            fetched = stream.collect(Collectors.toList());
+        }
+
+        assertTrue(fetched.size() > 2);
+        for (Consumer consumer : fetched) {
+            assertFalse(this.getEntityManager().contains(consumer));
+        }
+    }
+
+    @Test
+    public void testStreamConsumersEvictsIdentityCertificates() {
+        Owner owner = this.createOwner();
+        for (int i = 0; i < 5; ++i) {
+            IdentityCertificate idCert = TestUtil.createIdCert(TestUtil.createDateOffset(2, 0, 0));
+            idCert.setId(null);
+            this.certSerialCurator.create(idCert.getSerial());
+            this.identityCertificateCurator.create(idCert);
+
+            Consumer consumer = this.createConsumer(owner);
+            consumer.setIdCert(idCert);
+            this.consumerCurator.merge(consumer);
+        }
+
+        this.consumerCurator.flush();
+        this.consumerCurator.clear();
+
+        ConsumerQueryArguments queryArgs = new ConsumerQueryArguments()
+            .setOwner(owner);
+
+        List<Consumer> fetched;
+        try (Stream<Consumer> stream = this.consumerCurator.streamConsumers(queryArgs, 2)) {
+            fetched = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(5, fetched.size());
+        for (Consumer consumer : fetched) {
+            assertNotNull(consumer.getIdCert());
+            assertFalse(this.getEntityManager().contains(consumer.getIdCert()));
+            assertFalse(this.getEntityManager().contains(consumer.getIdCert().getSerial()));
+        }
+    }
+
     @Test
     public void testFindConsumersByOwnerNoMatch() {
         List<Consumer> created = this.createConsumersForQueryTests();
@@ -779,6 +866,100 @@ public class ConsumerCuratorSearchTest extends DatabaseTestFixture {
         }
     }
 
+    @Test
+    public void testFindConsumersByLiteralFactMatchesOnlyExactValue() {
+        List<Consumer> created = this.createConsumersForQueryTests();
+
+        String expFactKey = "factkey-1";
+        String expFactValue = "value-1";
+
+        long expected = created.stream()
+            .filter(consumer -> expFactValue.equals(consumer.getFact(expFactKey)))
+            .count();
+        assertTrue(expected > 0);
+
+        ConsumerQueryArguments queryArgs = new ConsumerQueryArguments()
+            .addFact(expFactKey, expFactValue);
+
+        List<Consumer> fetched = this.consumerCurator.findConsumers(queryArgs);
+
+        // Values sharing the literal as a prefix, such as "value-1b", must not match
+        assertEquals(expected, fetched.size());
+        assertEquals(expected, this.consumerCurator.getConsumerCount(queryArgs));
+        for (Consumer consumer : fetched) {
+            assertEquals(expFactValue, consumer.getFact(expFactKey));
+        }
+    }
+
+    @ParameterizedTest(name = "{displayName} {index}: {0}={1}")
+    @CsvSource({ "factkey-1, value-1d", "factkey-1, value-", "factkey-9, value-1", "factkey-, value-1" })
+    public void testFindConsumersByLiteralFactMiss(String factKey, String factValue) {
+        this.createConsumersForQueryTests();
+
+        ConsumerQueryArguments queryArgs = new ConsumerQueryArguments()
+            .addFact(factKey, factValue);
+
+        assertEquals(0, this.consumerCurator.findConsumers(queryArgs).size());
+        assertEquals(0, this.consumerCurator.getConsumerCount(queryArgs));
+    }
+
+    @Test
+    public void testFindConsumersByLiteralFactMatchesKeysCaseSensitively() {
+        this.createConsumersForQueryTests();
+
+        ConsumerQueryArguments queryArgs = new ConsumerQueryArguments()
+            .addFact("FACTKEY-1", "value-1");
+
+        assertEquals(0, this.consumerCurator.findConsumers(queryArgs).size());
+        assertEquals(0, this.consumerCurator.getConsumerCount(queryArgs));
+    }
+
+    @Test
+    public void testFindConsumersByLiteralFactMatchesValuesCaseInsensitively() {
+        List<Consumer> created = this.createConsumersForQueryTests();
+
+        String expFactKey = "factkey-1";
+        String expFactValue = "VALUE-1B";
+
+        long expected = created.stream()
+            .filter(consumer -> "value-1b".equals(consumer.getFact(expFactKey)))
+            .count();
+        assertTrue(expected > 0);
+
+        ConsumerQueryArguments queryArgs = new ConsumerQueryArguments()
+            .addFact(expFactKey, expFactValue);
+
+        List<Consumer> fetched = this.consumerCurator.findConsumers(queryArgs);
+
+        assertEquals(expected, fetched.size());
+        for (Consumer consumer : fetched) {
+            assertEquals("value-1b", consumer.getFact(expFactKey));
+        }
+    }
+
+    @ParameterizedTest(name = "{displayName} {index}: {0}")
+    @ValueSource(strings = {"factkey_6", "factkey%6"})
+    public void testFindConsumersByLiteralFactDoesNotTreatLikeWildcardsInKeysAsWildcards(String factKey) {
+        List<Consumer> created = this.createConsumersForQueryTests();
+
+        long expected = created.stream()
+            .filter(consumer -> "value-6".equals(consumer.getFact(factKey)))
+            .count();
+        assertTrue(expected > 0);
+
+        ConsumerQueryArguments queryArgs = new ConsumerQueryArguments()
+            .addFact(factKey, "value-6");
+
+        List<Consumer> fetched = this.consumerCurator.findConsumers(queryArgs);
+
+        // "factkey-6" must not be matched by the LIKE wildcards in the literal keys
+        assertEquals(expected, fetched.size());
+        for (Consumer consumer : fetched) {
+            assertTrue(consumer.hasFact(factKey));
+            assertFalse(consumer.hasFact("factkey-6"));
+        }
+    }
+
     @ParameterizedTest(name = "{displayName} {index}: {0}")
     @ValueSource(strings = {"value-4!", "value_4!", "value%4!"})
     public void testFindConsumersByFactsEscapesLikeWildcardsInValues(String expFactValue) {
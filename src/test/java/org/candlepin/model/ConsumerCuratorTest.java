@@ -28,12 +28,14 @@ import static org.mockito.Mockito.when;
 
 import org.candlepin.async.tasks.InactiveConsumerCleanerJob;
 import org.candlepin.auth.Access;
+import org.candlepin.auth.ConsumerPrincipal;
 import org.candlepin.auth.UserPrincipal;
 import org.candlepin.auth.permissions.ConsumerPermission;
 import org.candlepin.auth.permissions.OwnerPermission;
 import org.candlepin.auth.permissions.Permission;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.exceptions.NotFoundException;
+import org.candlepin.hibernate.QueryCounter;
 import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
 import org.candlepin.paging.PageRequest;
 import org.candlepin.test.DatabaseTestFixture;
@@ -1110,6 +1112,133 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         verify(spy, times(2)).getEntityManager();
     }
 
+    @Test
+    public void testGetHostIdsResolvesMostRecentHosts() throws Exception {
+        Consumer hostA = new Consumer()
+            .setName("hostConsumerA")
+            .setUsername("testUser")
+            .setOwner(owner)
+            .setType(ct);
+        consumerCurator.create(hostA);
+        Consumer hostB = new Consumer()
+            .setName("hostConsumerB")
+            .setUsername("testUser")
+            .setOwner(owner)
+            .setType(ct);
+        consumerCurator.create(hostB);
+
+        hostA.addGuestId(new GuestId("shared-guest-id"));
+        hostA.addGuestId(new GuestId("daf0fe10-956b-7b4e-b7dc-b383ce681ba8"));
+        consumerCurator.update(hostA);
+
+        // This can happen so fast the guest IDs end up with the same updated time
+        Thread.sleep(500);
+
+        // Reported in reversed endian form and uppercase by the second host
+        hostB.addGuestId(new GuestId("SHARED-GUEST-ID"));
+        hostB.addGuestId(new GuestId("10FEF0DA-6B95-4E7B-B7DC-B383CE681BA9"));
+        consumerCurator.update(hostB);
+
+        Map<String, String> hostIds = consumerCurator.getHostIds(owner.getId(), List.of("Shared-Guest-Id",
+            "DAF0FE10-956B-7B4E-B7DC-B383CE681BA8", "daf0fe10-956b-7b4e-b7dc-b383ce681ba9", "unreported"));
+
+        assertThat(hostIds)
+            .hasSize(3)
+            .containsEntry("shared-guest-id", hostB.getId())
+            .containsEntry("daf0fe10-956b-7b4e-b7dc-b383ce681ba8", hostA.getId())
+            .containsEntry("daf0fe10-956b-7b4e-b7dc-b383ce681ba9", hostB.getId());
+    }
+
+    @Test
+    public void testHostLookupsTreatGuestIdsWithoutUpdatedAsOldest() {
+        Consumer hostA = new Consumer()
+            .setName("hostConsumerA")
+            .setUsername("testUser")
+            .setOwner(owner)
+            .setType(ct);
+        consumerCurator.create(hostA);
+        Consumer hostB = new Consumer()
+            .setName("hostConsumerB")
+            .setUsername("testUser")
+            .setOwner(owner)
+            .setType(ct);
+        consumerCurator.create(hostB);
+
+        hostA.addGuestId(new GuestId("daf0fe10-956b-7b4e-b7dc-b383ce681ba8"));
+        consumerCurator.update(hostA);
+        hostB.addGuestId(new GuestId("daf0fe10-956b-7b4e-b7dc-b383ce681ba8"));
+        consumerCurator.update(hostB);
+
+        // The updated timestamp is always set when persisting, but may be missing from older rows
+        this.getEntityManager()
+            .createQuery("UPDATE GuestId g SET g.updated = NULL WHERE g.consumer.id = :consumerId")
+            .setParameter("consumerId", hostB.getId())
+            .executeUpdate();
+        consumerCurator.clear();
+
+        Consumer host = consumerCurator.getHost("daf0fe10-956b-7b4e-b7dc-b383ce681ba8", owner.getId());
+        Map<String, String> hostIds = consumerCurator.getHostIds(owner.getId(),
+            List.of("daf0fe10-956b-7b4e-b7dc-b383ce681ba8"));
+
+        assertNotNull(host);
+        assertEquals(hostA.getId(), host.getId());
+        assertThat(hostIds)
+            .containsExactly(Map.entry("daf0fe10-956b-7b4e-b7dc-b383ce681ba8", hostA.getId()));
+    }
+
+    @Test
+    public void testGetHostIdsIsScopedToOwner() {
+        Consumer host = new Consumer()
+            .setName("hostConsumer")
+            .setUsername("testUser")
+            .setOwner(owner)
+            .setType(ct);
+        consumerCurator.create(host);
+        host.addGuestId(new GuestId("test-guest-1"));
+        consumerCurator.update(host);
+
+        Owner other = this.createOwner("other-owner", "Other Owner");
+
+        assertThat(consumerCurator.getHostIds(other.getId(), List.of("test-guest-1"))).isEmpty();
+        assertThat(consumerCurator.getHostIds(owner.getId(), List.of()))
+            .isEmpty();
+    }
+
+    @Test
+    public void testGetGuestsQueryCountDoesNotScaleWithGuests() {
+        Consumer host = new Consumer()
+            .setName("hostConsumer")
+            .setUsername("testUser")
+            .setOwner(owner)
+            .setType(ct);
+        consumerCurator.create(host);
+
+        for (int i = 0; i < 5; ++i) {
+            Consumer guest = new Consumer()
+                .setName("guestConsumer" + i)
+                .setUsername("testUser")
+                .setOwner(owner)
+                .setType(ct)
+                .setFact(Consumer.Facts.VIRT_UUID, "test-guest-" + i);
+            consumerCurator.create(guest);
+
+            host.addGuestId(new GuestId("test-guest-" + i));
+        }
+        consumerCurator.update(host);
+
+        QueryCounter.start();
+        List<Consumer> guests = consumerCurator.getGuests(host);
+        QueryCounter.Counts counts = QueryCounter.stop();
+
+        assertThat(guests)
+            .extracting(Consumer::getName)
+            .containsExactly("guestConsumer0", "guestConsumer1", "guestConsumer2", "guestConsumer3",
+                "guestConsumer4");
+
+        // One query to resolve the hosts of the guests, and one to fetch the guest consumers
+        assertThat(counts.statements()).isLessThanOrEqualTo(2);
+    }
+
     @Test
     public void noGuestsRegistered() {
         Consumer consumer = new Consumer()
@@ -1566,6 +1695,78 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         assertNull(result);
     }
 
+    private Consumer createLookupConsumer() {
+        Consumer consumer = new Consumer()
+            .setUuid("1")
+            .setName("testConsumer")
+            .setUsername("testUser")
+            .setOwner(owner)
+            .setType(ct);
+
+        return consumerCurator.create(consumer);
+    }
+
+    @Test
+    public void testFindByUuidReusesConsumerLookedUpInRequest() {
+        this.createLookupConsumer();
+        this.consumerCurator.clear();
+
+        Consumer first = consumerCurator.findByUuid("1");
+
+        QueryCounter.start();
+        Consumer second = consumerCurator.findByUuid("1");
+        QueryCounter.Counts counts = QueryCounter.stop();
+
+        assertThat(second).isSameAs(first);
+        assertThat(counts.statements()).isZero();
+    }
+
+    @Test
+    public void testFindByUuidReusesConsumerOfPrincipal() {
+        Consumer consumer = this.createLookupConsumer();
+        this.setupPrincipal(new ConsumerPrincipal(consumer, owner));
+
+        QueryCounter.start();
+        Consumer result = consumerCurator.findByUuid("1");
+        QueryCounter.Counts counts = QueryCounter.stop();
+
+        assertThat(result).isSameAs(consumer);
+        assertThat(counts.statements()).isZero();
+    }
+
+    @Test
+    public void testFindByUuidDoesNotReuseConsumerLookedUpByOtherPrincipal() {
+        this.createLookupConsumer();
+        consumerCurator.findByUuid("1");
+
+        Owner other = this.createOwner("other-owner", "Other Owner");
+        this.setupPrincipal(other, Access.ALL);
+
+        assertNull(consumerCurator.findByUuid("1"));
+    }
+
+    @Test
+    public void testFindByUuidDoesNotReuseEvictedConsumer() {
+        this.createLookupConsumer();
+        Consumer first = consumerCurator.findByUuid("1");
+
+        this.consumerCurator.clear();
+
+        Consumer second = consumerCurator.findByUuid("1");
+        assertNotNull(second);
+        assertThat(second).isNotSameAs(first);
+    }
+
+    @Test
+    public void testFindByUuidDoesNotReuseDeletedConsumer() {
+        this.createLookupConsumer();
+        Consumer consumer = consumerCurator.findByUuid("1");
+
+        consumerCurator.delete(consumer);
+
+        assertNull(consumerCurator.findByUuid("1"));
+    }
+
     @Test
     public void testVerifyAndLookupConsumer() {
         Consumer consumer = new Consumer()
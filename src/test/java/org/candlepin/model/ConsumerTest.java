@@ -14,6 +14,7 @@
  */
 package org.candlepin.model;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -24,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.candlepin.auth.ConsumerPrincipal;
 import org.candlepin.dto.api.server.v1.ConsumerDTO;
 import org.candlepin.exceptions.DuplicateEntryException;
+import org.candlepin.hibernate.QueryCounter;
 import org.candlepin.resource.ConsumerResource;
 import org.candlepin.test.DatabaseTestFixture;
 import org.candlepin.test.TestUtil;
@@ -416,6 +418,108 @@ public class ConsumerTest extends DatabaseTestFixture {
         assertTrue(first.factsAreEqual(second.getFacts()));
     }
 
+    @Test
+    public void testSetFactsReplacesExistingFacts() {
+        Consumer consumer = new Consumer()
+            .setFact("unchanged", "1")
+            .setFact("changed", "2")
+            .setFact("removed", "3");
+
+        Map<String, String> incoming = new HashMap<>();
+        incoming.put("unchanged", "1");
+        incoming.put("changed", "two");
+        incoming.put("added", "4");
+        incoming.put("nullValue", null);
+
+        consumer.setFacts(incoming);
+
+        assertEquals(incoming, consumer.getFacts());
+        assertTrue(consumer.factsAreEqual(incoming));
+        assertFalse(consumer.hasFact("removed"));
+    }
+
+    @Test
+    public void testSetFactsWithEmptyMapClearsFacts() {
+        Consumer consumer = new Consumer()
+            .setFact("key1", "1")
+            .setFact("key2", "2");
+
+        consumer.setFacts(new HashMap<>());
+
+        assertNotNull(consumer.getFacts());
+        assertTrue(consumer.getFacts().isEmpty());
+    }
+
+    @Test
+    public void testSetFactsUpdatesArePersisted() {
+        Map<String, String> incoming = new HashMap<>();
+        incoming.put("foo", "bar");
+        incoming.put("foo1", "updated");
+        incoming.put("foo2", "bar2");
+
+        consumer.setFacts(incoming);
+        consumerCurator.merge(consumer);
+        consumerCurator.flush();
+        consumerCurator.clear();
+
+        Consumer lookedUp = consumerCurator.get(consumer.getId());
+        assertEquals(incoming, lookedUp.getFacts());
+    }
+
+    @Test
+    public void testSetFactsWritesOnlyChangedFacts() {
+        Map<String, String> facts = new HashMap<>();
+        for (int i = 0; i < 20; ++i) {
+            facts.put("fact" + i, "value" + i);
+        }
+
+        consumer.setFacts(facts);
+        consumerCurator.merge(consumer);
+        consumerCurator.flush();
+        consumerCurator.clear();
+
+        Consumer lookedUp = consumerCurator.get(consumer.getId());
+        assertEquals(facts, lookedUp.getFacts());
+
+        Map<String, String> incoming = new HashMap<>(facts);
+        incoming.put("fact7", "updated");
+
+        QueryCounter.start();
+        lookedUp.setFacts(incoming);
+        consumerCurator.flush();
+        QueryCounter.Counts counts = QueryCounter.stop();
+
+        // Only the changed fact row should be written, rather than every fact being deleted and
+        // re-inserted; allow for an update of the consumer row itself
+        assertThat(counts.statements()).isLessThanOrEqualTo(2);
+
+        consumerCurator.clear();
+        assertEquals(incoming, consumerCurator.get(consumer.getId()).getFacts());
+    }
+
+    @Test
+    public void testSetFactsWithUnchangedFactsWritesNothing() {
+        Map<String, String> facts = new HashMap<>();
+        for (int i = 0; i < 20; ++i) {
+            facts.put("fact" + i, "value" + i);
+        }
+
+        consumer.setFacts(facts);
+        consumerCurator.merge(consumer);
+        consumerCurator.flush();
+        consumerCurator.clear();
+
+        Consumer lookedUp = consumerCurator.get(consumer.getId());
+        assertEquals(facts, lookedUp.getFacts());
+
+        QueryCounter.start();
+        lookedUp.setFacts(new HashMap<>(facts));
+        consumerCurator.flush();
+        QueryCounter.Counts counts = QueryCounter.stop();
+
+        assertEquals(0, counts.statements());
+    }
+
     @Test
     public void testInstalledProducts() {
         Consumer lookedUp = consumerCurator.get(consumer.getId());
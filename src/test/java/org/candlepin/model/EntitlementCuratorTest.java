@@ -30,6 +30,7 @@ import org.candlepin.util.Util;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -37,6 +38,7 @@ import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
@@ -46,6 +48,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 
@@ -436,6 +439,114 @@ public class EntitlementCuratorTest extends DatabaseTestFixture {
         assertEquals(p.getAttributeValue("pool_attr_1"), "attr1");
     }
 
+    @Test
+    public void streamByOwnerStreamsAllEntitlementsAcrossChunks() {
+        Set<String> expected = Set.of(firstEntitlement.getId(), secondEntitlement.getId());
+
+        List<Entitlement> entitlements;
+        try (Stream<Entitlement> stream = entitlementCurator.streamByOwner(owner, null, null, 1)) {
+            entitlements = stream.collect(Collectors.toList());
+        }
+
+        assertThat(entitlements)
+            .extracting(Entitlement::getId)
+            .isSorted()
+            .containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    public void streamByOwnerEvictsStreamedEntitlements() {
+        entitlementCurator.flush();
+        entitlementCurator.clear();
+
+        List<Entitlement> entitlements;
+        try (Stream<Entitlement> stream = entitlementCurator.streamByOwner(owner, null, null, 1)) {
+            entitlements = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(2, entitlements.size());
+        for (Entitlement entitlement : entitlements) {
+            assertFalse(this.getEntityManager().contains(entitlement));
+            assertTrue(Hibernate.isInitialized(entitlement.getPool()));
+            assertTrue(Hibernate.isInitialized(entitlement.getConsumer()));
+        }
+    }
+
+    @Test
+    public void streamByOwnerKeepsSessionBoundedAcrossChunks() {
+        Owner streamOwner = this.createOwner();
+        for (int i = 0; i < 6; ++i) {
+            Pool pool = this.createPool(streamOwner, this.createProduct());
+            this.createEntitlement(streamOwner, this.createConsumer(streamOwner), pool);
+        }
+
+        entitlementCurator.flush();
+        entitlementCurator.clear();
+
+        Session session = this.getEntityManager().unwrap(Session.class);
+        List<Integer> entityCounts = new ArrayList<>();
+        List<Entitlement> entitlements = new ArrayList<>();
+
+        try (Stream<Entitlement> stream = entitlementCurator.streamByOwner(streamOwner, null, null, 2)) {
+            stream.forEach(entitlement -> {
+                entitlements.add(entitlement);
+                entityCounts.add(session.getStatistics().getEntityCount());
+            });
+        }
+
+        // Every chunk loads the same number of entities, so if the previous chunks are evicted
+        // along with everything loaded with them, the session never grows past the first chunk
+        assertThat(entitlements).hasSize(6);
+        assertThat(entityCounts).containsOnly(entityCounts.get(0));
+
+        for (Entitlement entitlement : entitlements) {
+            assertFalse(this.getEntityManager().contains(entitlement.getPool()));
+            assertFalse(this.getEntityManager().contains(entitlement.getPool().getProduct()));
+            assertFalse(this.getEntityManager().contains(entitlement.getConsumer()));
+        }
+    }
+
+    @Test
+    public void streamByOwnerAppliesFilters() {
+        EntitlementFilterBuilder filters = new EntitlementFilterBuilder();
+        filters.addAttributeFilter("pool_attr_1", "attr1");
+
+        List<Entitlement> entitlements;
+        try (Stream<Entitlement> stream = entitlementCurator.streamByOwner(owner, null, filters, 10)) {
+            entitlements = stream.collect(Collectors.toList());
+        }
+
+        assertThat(entitlements)
+            .extracting(Entitlement::getId)
+            .containsExactly(firstEntitlement.getId());
+    }
+
+    @Test
+    public void streamByOwnerMatchesProduct() {
+        List<Entitlement> entitlements;
+        try (Stream<Entitlement> stream = entitlementCurator
+            .streamByOwner(owner, testProduct.getId(), null, 10)) {
+
+            entitlements = stream.collect(Collectors.toList());
+        }
+
+        assertThat(entitlements)
+            .extracting(Entitlement::getId)
+            .containsExactly(firstEntitlement.getId());
+    }
+
+    @Test
+    public void streamByOwnerExcludesOtherOwners() {
+        List<Entitlement> entitlements;
+        try (Stream<Entitlement> stream = entitlementCurator.streamByOwner(modifyOwner, null, null, 10)) {
+            entitlements = stream.collect(Collectors.toList());
+        }
+
+        assertThat(entitlements)
+            .extracting(Entitlement::getId)
+            .doesNotContain(firstEntitlement.getId(), secondEntitlement.getId());
+    }
+
     @Test
     public void findByStackIdTest() {
         String stackingId = "test_stack_id";
@@ -745,6 +856,47 @@ public class EntitlementCuratorTest extends DatabaseTestFixture {
         assertEquals(ent.getId(), ents.get(0).getId());
     }
 
+    private Entitlement createDirtyEntitlement(Owner owner, Date lastCheckin, boolean dirty) {
+        Consumer consumer = this.createConsumer(owner);
+        consumer.setLastCheckin(lastCheckin);
+        consumer = this.consumerCurator.merge(consumer);
+
+        Entitlement entitlement = this.createEntitlement(owner, consumer,
+            this.createPool(owner, this.createProduct()));
+        entitlement.setDirty(dirty);
+
+        return this.entitlementCurator.merge(entitlement);
+    }
+
+    @Test
+    public void testListDirtyEntitlementIdsOrdersByMostRecentCheckIn() {
+        Owner owner = this.createOwner();
+
+        Entitlement older = this.createDirtyEntitlement(owner, TestUtil.createDate(2020, 1, 1), true);
+        Entitlement never = this.createDirtyEntitlement(owner, null, true);
+        Entitlement recent = this.createDirtyEntitlement(owner, TestUtil.createDate(2023, 1, 1), true);
+        Entitlement clean = this.createDirtyEntitlement(owner, TestUtil.createDate(2023, 6, 1), false);
+
+        Set<String> created = Set.of(older.getId(), never.getId(), recent.getId(), clean.getId());
+        List<String> output = this.entitlementCurator.listDirtyEntitlementIds(100)
+            .stream()
+            .filter(created::contains)
+            .collect(Collectors.toList());
+
+        assertEquals(List.of(recent.getId(), older.getId(), never.getId()), output);
+    }
+
+    @Test
+    public void testListDirtyEntitlementIdsRespectsLimit() {
+        Owner owner = this.createOwner();
+
+        this.createDirtyEntitlement(owner, TestUtil.createDate(2020, 1, 1), true);
+        this.createDirtyEntitlement(owner, TestUtil.createDate(2021, 1, 1), true);
+
+        assertEquals(1, this.entitlementCurator.listDirtyEntitlementIds(1).size());
+        assertTrue(this.entitlementCurator.listDirtyEntitlementIds(0).isEmpty());
+    }
+
     protected List<Product> createProducts(Owner owner, int count, String prefix) {
         List<Product> products = new LinkedList<>();
 
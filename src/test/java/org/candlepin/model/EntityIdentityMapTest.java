@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.hibernate;
+
+package org.candlepin.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.candlepin.auth.Principal;
+import org.candlepin.auth.UserPrincipal;
+
+import org.junit.jupiter.api.Test;
+
+
+
+public class EntityIdentityMapTest {
+
+    private Principal buildPrincipal(String username) {
+        return new UserPrincipal(username, null, false);
+    }
+
+    @Test
+    public void testGetReturnsEntityRecordedUnderSamePrincipal() {
+        EntityIdentityMap map = new EntityIdentityMap();
+        Principal principal = this.buildPrincipal("user");
+        Consumer consumer = new Consumer().setUuid("uuid");
+
+        map.put(Consumer.class, "uuid", consumer, principal);
+
+        assertThat(map.get(Consumer.class, "uuid", principal)).isSameAs(consumer);
+    }
+
+    @Test
+    public void testGetSupportsNullPrincipal() {
+        EntityIdentityMap map = new EntityIdentityMap();
+        Consumer consumer = new Consumer().setUuid("uuid");
+
+        map.put(Consumer.class, "uuid", consumer, null);
+
+        assertThat(map.get(Consumer.class, "uuid", null)).isSameAs(consumer);
+        assertThat(map.get(Consumer.class, "uuid", this.buildPrincipal("user"))).isNull();
+    }
+
+    @Test
+    public void testGetIgnoresEntityRecordedUnderOtherPrincipal() {
+        EntityIdentityMap map = new EntityIdentityMap();
+        Consumer consumer = new Consumer().setUuid("uuid");
+
+        map.put(Consumer.class, "uuid", consumer, this.buildPrincipal("user"));
+
+        // Principals are compared by identity, not by name
+        assertThat(map.get(Consumer.class, "uuid", this.buildPrincipal("user"))).isNull();
+    }
+
+    @Test
+    public void testGetIgnoresEntityOfOtherType() {
+        EntityIdentityMap map = new EntityIdentityMap();
+        Principal principal = this.buildPrincipal("user");
+
+        map.put(Consumer.class, "key", new Consumer(), principal);
+
+        assertThat(map.get(Owner.class, "key", principal)).isNull();
+    }
+
+    @Test
+    public void testPutIgnoresNullEntities() {
+        EntityIdentityMap map = new EntityIdentityMap();
+        Principal principal = this.buildPrincipal("user");
+
+        map.put(Consumer.class, "uuid", null, principal);
+
+        assertThat(map.get(Consumer.class, "uuid", principal)).isNull();
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        EntityIdentityMap map = new EntityIdentityMap();
+        Principal principal = this.buildPrincipal("user");
+
+        map.put(Consumer.class, "uuid-1", new Consumer(), principal);
+        map.put(Consumer.class, "uuid-2", new Consumer(), principal);
+
+        map.remove(Consumer.class, "uuid-1");
+        assertThat(map.get(Consumer.class, "uuid-1", principal)).isNull();
+        assertThat(map.get(Consumer.class, "uuid-2", principal)).isNotNull();
+
+        map.clear();
+        assertThat(map.get(Consumer.class, "uuid-2", principal)).isNull();
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedEntries() {
+        EntityIdentityMap map = new EntityIdentityMap();
+        Principal principal = this.buildPrincipal("user");
+
+        for (int i = 0; i <= 1000; ++i) {
+            map.put(Consumer.class, "uuid-" + i, new Consumer(), principal);
+        }
+
+        assertThat(map.get(Consumer.class, "uuid-0", principal)).isNull();
+        assertThat(map.get(Consumer.class, "uuid-1", principal)).isNotNull();
+        assertThat(map.get(Consumer.class, "uuid-1000", principal)).isNotNull();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+
+
+public class KeysetResultIteratorTest {
+
+    private Session session;
+    private List<Integer> requestedKeys;
+
+    @BeforeEach
+    public void setup() {
+        this.session = mock(Session.class);
+        this.requestedKeys = new ArrayList<>();
+    }
+
+    private Function<Integer, List<Integer>> buildFetcher(int total, int chunkSize) {
+        return lastKey -> {
+            this.requestedKeys.add(lastKey);
+            int start = lastKey == null ? 0 : lastKey + 1;
+
+            return IntStream.range(start, Math.min(start + chunkSize, total))
+                .boxed()
+                .collect(Collectors.toList());
+        };
+    }
+
+    private List<Integer> drain(KeysetResultIterator<Integer, Integer> iterator) {
+        List<Integer> output = new ArrayList<>();
+        while (iterator.hasNext()) {
+            output.add(iterator.next());
+        }
+
+        return output;
+    }
+
+    @Test
+    public void testIteratesAllElementsAcrossChunks() {
+        KeysetResultIterator<Integer, Integer> iterator = new KeysetResultIterator<>(this.session,
+            this.buildFetcher(10, 3), Function.identity(), 3, false);
+
+        List<Integer> expected = IntStream.range(0, 10).boxed().collect(Collectors.toList());
+        assertEquals(expected, this.drain(iterator));
+
+        // The final chunk is short, so no trailing empty fetch should be issued
+        assertEquals(4, this.requestedKeys.size());
+        assertNull(this.requestedKeys.get(0));
+        assertEquals(Integer.valueOf(2), this.requestedKeys.get(1));
+        assertEquals(Integer.valueOf(8), this.requestedKeys.get(3));
+    }
+
+    @Test
+    public void testFullFinalChunkRequiresTrailingFetch() {
+        KeysetResultIterator<Integer, Integer> iterator = new KeysetResultIterator<>(this.session,
+            this.buildFetcher(6, 3), Function.identity(), 3, false);
+
+        assertEquals(6, this.drain(iterator).size());
+        assertEquals(3, this.requestedKeys.size());
+    }
+
+    @Test
+    public void testEmptyResults() {
+        KeysetResultIterator<Integer, Integer> iterator = new KeysetResultIterator<>(this.session,
+            this.buildFetcher(0, 3), Function.identity(), 3, false);
+
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void testEvictsEachChunk() {
+        KeysetResultIterator<Integer, Integer> iterator = new KeysetResultIterator<>(this.session,
+            this.buildFetcher(5, 2), Function.identity(), 2, true);
+
+        assertEquals(5, this.drain(iterator).size());
+        verify(this.session, times(5)).evict(any());
+    }
+
+    @Test
+    public void testEvictsAssociationsOfEachChunk() {
+        // Every element of a chunk shares the same association, plus a null association
+        KeysetResultIterator<Integer, Integer> iterator = new KeysetResultIterator<>(this.session,
+            this.buildFetcher(5, 2), Function.identity(), 2, true,
+            element -> Arrays.asList(("chunk-" + (element / 2)).intern(), null));
+
+        assertEquals(5, this.drain(iterator).size());
+
+        verify(this.session, times(5)).evict(any(Integer.class));
+        verify(this.session).evict("chunk-0");
+        verify(this.session).evict("chunk-1");
+        verify(this.session).evict("chunk-2");
+        verify(this.session, never()).evict(null);
+    }
+
+    @Test
+    public void testDoesNotEvictWhenDisabled() {
+        KeysetResultIterator<Integer, Integer> iterator = new KeysetResultIterator<>(this.session,
+            this.buildFetcher(5, 2), Function.identity(), 2, false);
+
+        assertEquals(5, this.drain(iterator).size());
+        verify(this.session, never()).evict(any());
+    }
+
+    @Test
+    public void testCloseStopsIteration() {
+        KeysetResultIterator<Integer, Integer> iterator = new KeysetResultIterator<>(this.session,
+            this.buildFetcher(10, 3), Function.identity(), 3, true);
+
+        assertTrue(iterator.hasNext());
+        iterator.next();
+        iterator.close();
+
+        assertFalse(iterator.hasNext());
+        verify(this.session, times(3)).evict(any());
+    }
+
+    @Test
+    public void testRemoveIsNotSupported() {
+        KeysetResultIterator<Integer, Integer> iterator = new KeysetResultIterator<>(this.session,
+            this.buildFetcher(10, 3), Function.identity(), 3, false);
+
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+    }
+
+    @Test
+    public void testRejectsInvalidChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> new KeysetResultIterator<>(this.session,
+            this.buildFetcher(10, 3), Function.identity(), 0, false));
+    }
+}
@@ -220,4 +220,23 @@ public class PoolCuratorFilterTest extends DatabaseTestFixture {
         searchTest("*c-l???l??n*", 1, searchPool.getId());
         searchTest("*Content Label One*", 0);
     }
+
+    @Test
+    public void availablePoolsMustMatchAllFilters() {
+        PoolQualifier qualifier = new PoolQualifier()
+            .addMatch("Server Bits")
+            .addMatch("C-Label One");
+        searchTest(qualifier, 1, searchPool.getId());
+
+        qualifier = new PoolQualifier()
+            .addMatch("Workstation Bits")
+            .addMatch("C-Label One");
+        searchTest(qualifier, 0);
+    }
+
+    @Test
+    public void availablePoolsMatchingSeveralProvidedProductsAreListedOnce() {
+        searchTest("*Bits", 2, searchPool.getId(), hidePool.getId());
+        searchTest("??????", 1, searchPool.getId());
+    }
 }
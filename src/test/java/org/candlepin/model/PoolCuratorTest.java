@@ -991,6 +991,31 @@ public class PoolCuratorTest extends DatabaseTestFixture {
         assertEquals(3, pools.size());
     }
 
+    @Test
+    public void testEntitlementsInPools() {
+        Pool pool1 = this.poolCurator.create(TestUtil.createPool(owner, product));
+        Pool pool2 = this.poolCurator.create(TestUtil.createPool(owner, product));
+        Pool pool3 = this.poolCurator.create(TestUtil.createPool(owner, product));
+
+        List<Entitlement> expected = new ArrayList<>();
+        for (Pool pool : List.of(pool1, pool1, pool2)) {
+            Entitlement entitlement = new Entitlement(pool, consumer, owner, 1);
+            entitlement.setId(Util.generateDbUUID());
+            expected.add(this.entitlementCurator.create(entitlement));
+        }
+
+        Entitlement other = new Entitlement(pool3, consumer, owner, 1);
+        other.setId(Util.generateDbUUID());
+        this.entitlementCurator.create(other);
+
+        List<Entitlement> output = this.poolCurator.entitlementsIn(List.of(pool1, pool2));
+        assertThat(output)
+            .containsExactlyInAnyOrderElementsOf(expected);
+
+        assertThat(this.poolCurator.entitlementsIn(List.of()))
+            .isEmpty();
+    }
+
     @Test
     public void retrieveFreeEntitlementsOfPools() {
         Pool pool1 = TestUtil.createPool(owner, product);
@@ -15,6 +15,7 @@
 package org.candlepin.paging;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -24,10 +25,40 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 
 
 public class ReflectionFieldComparatorFactoryTest {
 
+    /** Simple named type for testing comparisons against generated accessors */
+    public static class Item {
+        private final String name;
+        private final int rank;
+
+        public Item(String name, int rank) {
+            this.name = name;
+            this.rank = rank;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Integer getRank() {
+            return this.rank;
+        }
+    }
+
+    /** Type used only to observe the extractor cache, so other tests do not affect its contents */
+    public static class CachedItem {
+        public String getName() {
+            return "name";
+        }
+    }
+
     private <T> ReflectionFieldComparatorFactory<T> buildFactory(Class<T> type, String defaultFieldName) {
         return new ReflectionFieldComparatorFactory<>(type, defaultFieldName);
     }
@@ -237,4 +268,70 @@ public class ReflectionFieldComparatorFactoryTest {
         assertNull(factory.getDefaultComparator());
     }
 
+    @Test
+    public void testComparatorOrdersByField() {
+        Item item1 = new Item("c", 1);
+        Item item2 = new Item("a", 3);
+        Item item3 = new Item("b", 2);
+
+        ReflectionFieldComparatorFactory<Item> factory = this.buildFactory(Item.class);
+
+        List<Item> items = new ArrayList<>(List.of(item1, item2, item3));
+        items.sort(factory.getComparator("name"));
+        assertEquals(List.of(item2, item3, item1), items);
+
+        items.sort(factory.getComparator("rank"));
+        assertEquals(List.of(item1, item3, item2), items);
+    }
+
+    private Object buildAnonymousObject(String value) {
+        return new Object() {
+            public String getMyField() {
+                return value;
+            }
+        };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testComparatorOrdersByFieldOnAnonymousClass() {
+        Object obj1 = this.buildAnonymousObject("b");
+        Object obj2 = this.buildAnonymousObject("a");
+
+        ReflectionFieldComparatorFactory<Object> factory = new ReflectionFieldComparatorFactory<>(
+            (Class<Object>) obj1.getClass(), null);
+
+        List<Object> objects = new ArrayList<>(List.of(obj1, obj2));
+        objects.sort(factory.getComparator("myField"));
+        assertEquals(List.of(obj2, obj1), objects);
+    }
+
+    @Test
+    public void testComparatorsForSameFieldAreEquivalentAcrossFactories() {
+        Item item1 = new Item("a", 2);
+        Item item2 = new Item("b", 1);
+
+        Comparator<Item> comparator1 = this.buildFactory(Item.class).getComparator("rank");
+        Comparator<Item> comparator2 = this.buildFactory(Item.class, "rank").getDefaultComparator();
+
+        assertNotNull(comparator1);
+        assertNotNull(comparator2);
+        assertEquals(comparator1.compare(item1, item2), comparator2.compare(item1, item2));
+        assertEquals(1, Integer.signum(comparator1.compare(item1, item2)));
+    }
+
+    @Test
+    public void testUnmappedFieldNamesAreNotCached() {
+        ReflectionFieldComparatorFactory<CachedItem> factory = this.buildFactory(CachedItem.class);
+
+        for (int i = 0; i < 100; ++i) {
+            assertNull(factory.getComparator("unknownField" + i));
+        }
+
+        assertEquals(0, ReflectionFieldComparatorFactory.getCachedExtractorCount(CachedItem.class));
+
+        assertNotNull(factory.getComparator("name"));
+        assertNotNull(factory.getComparator("name"));
+        assertEquals(1, ReflectionFieldComparatorFactory.getCachedExtractorCount(CachedItem.class));
+    }
 }
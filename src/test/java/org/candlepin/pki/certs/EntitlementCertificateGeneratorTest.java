@@ -25,6 +25,8 @@ import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import org.candlepin.cache.ProductGraphCache;
+import org.candlepin.config.ConfigurationException;
 import org.candlepin.config.DevConfig;
 import org.candlepin.config.TestConfig;
 import org.candlepin.model.AbstractCertificate;
@@ -152,7 +154,7 @@ public class EntitlementCertificateGeneratorTest {
     private EntitlementCertificateGenerator generator;
 
     @BeforeEach
-    public void setUp() throws CertificateException, IOException {
+    public void setUp() throws CertificateException, IOException, ConfigurationException {
         this.owner = createOwner();
         when(this.ownerCurator.findOwnerById(owner.getOwnerId())).thenReturn(this.owner);
         BouncyCastleSecurityProvider securityProvider = new BouncyCastleSecurityProvider();
@@ -195,7 +197,8 @@ public class EntitlementCertificateGeneratorTest {
             keyPairGenerator,
             pemEncoder,
             signer,
-            () -> certificateBuilder
+            () -> certificateBuilder,
+            new ProductGraphCache(config)
         );
     }
 
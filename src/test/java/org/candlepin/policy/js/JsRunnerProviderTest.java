@@ -16,6 +16,7 @@ package org.candlepin.policy.js;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -33,6 +34,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class JsRunnerProviderTest {
@@ -100,4 +102,36 @@ public class JsRunnerProviderTest {
         verify(rulesCurator, times(3)).getUpdated();
     }
 
+    @Test
+    public void rulesDataIsSharedByRunnersUntilRecompile() {
+        when(cacheProvider.get()).thenReturn(new JsRunnerRequestCache());
+        AtomicInteger loads = new AtomicInteger();
+
+        Object first = provider.get().getRulesData("key", () -> loads.incrementAndGet());
+        Object second = provider.get().getRulesData("key", () -> loads.incrementAndGet());
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+
+        provider.compileRules(true);
+        provider.get().getRulesData("key", () -> loads.incrementAndGet());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void nullRulesDataIsNotRecomputed() {
+        when(cacheProvider.get()).thenReturn(new JsRunnerRequestCache());
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(provider.get().getRulesData("key", () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(provider.get().getRulesData("key", () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+
+        assertEquals(1, loads.get());
+    }
 }
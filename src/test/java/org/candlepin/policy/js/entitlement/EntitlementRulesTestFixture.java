@@ -107,20 +107,41 @@ public class EntitlementRulesTestFixture {
         this.config = TestConfig.defaults();
         this.config.setProperty(ConfigProperties.PRODUCT_CACHE_MAX, "100");
 
-        InputStream is = this.getClass().getResourceAsStream(
+        when(cacheProvider.get()).thenReturn(cache);
+
+        poolService = mock(PoolService.class);
+
+        translator = new StandardTranslator(consumerTypeCurator, environmentCurator, ownerCurator);
+        enforcer = this.buildEnforcer(this.buildJsRunner(readDefaultRules()));
+
+        owner = TestUtil.createOwner();
+
+        consumerType = this.mockConsumerType(new ConsumerType(ConsumerTypeEnum.SYSTEM));
+        consumer = new Consumer()
+            .setName("test consumer")
+            .setUsername("test user")
+            .setOwner(owner)
+            .setType(consumerType);
+    }
+
+    protected static String readDefaultRules() {
+        InputStream is = EntitlementRulesTestFixture.class.getResourceAsStream(
             RulesCurator.DEFAULT_RULES_FILE);
-        Rules rules = new Rules(Util.readFile(is));
+
+        return Util.readFile(is);
+    }
+
+    protected JsRunner buildJsRunner(String rulesSource) {
+        Rules rules = new Rules(rulesSource);
 
         when(rulesCurator.getRules()).thenReturn(rules);
         when(rulesCurator.getUpdated()).thenReturn(TestUtil.createDate(2010, 1, 1));
-        when(cacheProvider.get()).thenReturn(cache);
-
-        JsRunner jsRules = new JsRunnerProvider(rulesCurator, cacheProvider).get();
 
-        poolService = mock(PoolService.class);
+        return new JsRunnerProvider(rulesCurator, cacheProvider).get();
+    }
 
-        translator = new StandardTranslator(consumerTypeCurator, environmentCurator, ownerCurator);
-        enforcer = new EntitlementRules(
+    protected EntitlementRules buildEnforcer(JsRunner jsRules) {
+        return new EntitlementRules(
             new DateSourceImpl(),
             jsRules,
             I18nFactory.getI18n(getClass(), Locale.US, I18nFactory.FALLBACK),
@@ -130,15 +151,6 @@ public class EntitlementRulesTestFixture {
             ObjectMapperFactory.getRulesObjectMapper(),
             translator,
             poolService);
-
-        owner = TestUtil.createOwner();
-
-        consumerType = this.mockConsumerType(new ConsumerType(ConsumerTypeEnum.SYSTEM));
-        consumer = new Consumer()
-            .setName("test consumer")
-            .setUsername("test user")
-            .setOwner(owner)
-            .setType(consumerType);
     }
 
     protected ConsumerType mockConsumerType(ConsumerType ctype) {
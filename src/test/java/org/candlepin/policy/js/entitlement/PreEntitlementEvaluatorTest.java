@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.entitlement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCapability;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.model.Rules;
+import org.candlepin.model.RulesCurator;
+import org.candlepin.policy.ValidationError;
+import org.candlepin.policy.ValidationResult;
+import org.candlepin.policy.ValidationWarning;
+import org.candlepin.policy.js.entitlement.Enforcer.CallerType;
+import org.candlepin.policy.js.entitlement.EntitlementRules.Rule;
+import org.candlepin.test.TestUtil;
+import org.candlepin.util.Util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+
+
+
+public class PreEntitlementEvaluatorTest {
+
+    private static final List<Rule> RULES = List.of(
+        new Rule("architecture", 1, Set.of("arch")),
+        new Rule("sockets", 1, Set.of("sockets")),
+        new Rule("virt_only", 1, Set.of("virt_only")),
+        new Rule("instance_multiplier", 1, Set.of("instance_multiplier")));
+
+    private Owner owner;
+    private ConsumerType systemType;
+    private Consumer consumer;
+
+    @BeforeEach
+    public void setup() {
+        this.owner = TestUtil.createOwner();
+        this.systemType = new ConsumerType(ConsumerTypeEnum.SYSTEM);
+        this.consumer = TestUtil.createConsumer(this.systemType, this.owner);
+    }
+
+    private Pool createPool(Product product) {
+        Pool pool = TestUtil.createPool(this.owner, product);
+        pool.setId("pool-" + TestUtil.randomInt());
+
+        return pool;
+    }
+
+    private ValidationResult validate(Consumer consumer, ConsumerType type, CallerType caller, Pool pool,
+        Integer quantity) {
+
+        List<Rule> rules = PreEntitlementEvaluator.selectRules(pool, RULES);
+        return new PreEntitlementEvaluator(consumer, type, null, caller).validate(pool, quantity, rules);
+    }
+
+    private List<String> errorKeys(ValidationResult result) {
+        return result.getErrors().stream().map(ValidationError::getResourceKey).toList();
+    }
+
+    private List<String> warningKeys(ValidationResult result) {
+        return result.getWarnings().stream().map(ValidationWarning::getResourceKey).toList();
+    }
+
+    @Test
+    public void testSelectRulesInDefinitionOrder() {
+        Product product = TestUtil.createProduct()
+            .setAttribute(Product.Attributes.VIRT_ONLY, "true")
+            .setAttribute(Product.Attributes.ARCHITECTURE, "x86_64");
+
+        List<Rule> rules = PreEntitlementEvaluator.selectRules(this.createPool(product), RULES);
+
+        assertEquals(List.of(RULES.get(0), RULES.get(2)), rules);
+    }
+
+    @Test
+    public void testSelectRulesIgnoresUnsetAttributes() {
+        Product product = TestUtil.createProduct()
+            .setAttribute(Product.Attributes.SOCKETS, "0");
+
+        assertEquals(List.of(), PreEntitlementEvaluator.selectRules(this.createPool(product), RULES));
+    }
+
+    @Test
+    public void testSelectRulesRequiresNativeImplementation() {
+        List<Rule> rules = List.of(new Rule("custom", 1, Set.of("custom_attribute")));
+
+        Pool pool = this.createPool(TestUtil.createProduct());
+        assertEquals(List.of(), PreEntitlementEvaluator.selectRules(pool, rules));
+
+        pool.setAttribute("custom_attribute", "value");
+        assertNull(PreEntitlementEvaluator.selectRules(pool, rules));
+    }
+
+    @Test
+    public void testGlobalRuleRejectsMultipleEntitlementsWithoutMultiEntitlement() {
+        Pool pool = this.createPool(TestUtil.createProduct());
+
+        ValidationResult result = this.validate(this.consumer, this.systemType, CallerType.BIND, pool, 2);
+        assertEquals(List.of("rulefailed.pool.does.not.support.multi-entitlement"), this.errorKeys(result));
+
+        pool.getProduct().setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, "yes");
+        result = this.validate(this.consumer, this.systemType, CallerType.BIND, pool, 2);
+        assertTrue(result.isSuccessful());
+    }
+
+    @Test
+    public void testGlobalRuleRestrictsProductsWithoutConsumerTypeToSystems() {
+        ConsumerType personType = new ConsumerType(ConsumerTypeEnum.PERSON);
+        Pool pool = this.createPool(TestUtil.createProduct());
+
+        ValidationResult result = this.validate(this.consumer, personType, CallerType.BIND, pool, 1);
+        assertEquals(List.of("rulefailed.consumer.type.mismatch"), this.errorKeys(result));
+    }
+
+    @Test
+    public void testVirtOnlyFailsBindForPhysicalConsumers() {
+        Product product = TestUtil.createProduct()
+            .setAttribute(Product.Attributes.VIRT_ONLY, "true");
+        Pool pool = this.createPool(product);
+
+        ValidationResult result = this.validate(this.consumer, this.systemType, CallerType.BIND, pool, 1);
+        assertEquals(List.of("rulefailed.virt.only"), this.errorKeys(result));
+
+        result = this.validate(this.consumer, this.systemType, CallerType.LIST_POOLS, pool, 1);
+        assertTrue(result.isSuccessful());
+        assertEquals(List.of("rulewarning.virt.only"), this.warningKeys(result));
+
+        this.consumer.setFact(Consumer.Facts.VIRT_IS_GUEST, "True");
+        result = this.validate(this.consumer, this.systemType, CallerType.BIND, pool, 1);
+        assertTrue(result.isSuccessful());
+        assertFalse(result.hasWarnings());
+    }
+
+    @Test
+    public void testArchitectureMatchesX86Variants() {
+        Product product = TestUtil.createProduct()
+            .setAttribute(Product.Attributes.ARCHITECTURE, "x86,ppc64");
+        Pool pool = this.createPool(product);
+
+        this.consumer.setFact("uname.machine", "i686");
+        ValidationResult result = this.validate(this.consumer, this.systemType, CallerType.BIND, pool, 1);
+        assertFalse(result.hasWarnings());
+
+        this.consumer.setFact("uname.machine", "s390x");
+        result = this.validate(this.consumer, this.systemType, CallerType.BIND, pool, 1);
+        assertEquals(List.of("rulewarning.architecture.mismatch"), this.warningKeys(result));
+    }
+
+    @Test
+    public void testSocketsComparedAsLeadingIntegers() {
+        Product product = TestUtil.createProduct()
+            .setAttribute(Product.Attributes.SOCKETS, "2 sockets");
+        Pool pool = this.createPool(product);
+
+        this.consumer.setFact("cpu.cpu_socket(s)", "4");
+        ValidationResult result = this.validate(this.consumer, this.systemType, CallerType.BIND, pool, 1);
+        assertEquals(List.of("rulewarning.unsupported.number.of.sockets"), this.warningKeys(result));
+
+        product.setAttribute(Product.Attributes.STACKING_ID, "stack");
+        result = this.validate(this.consumer, this.systemType, CallerType.BIND, pool, 1);
+        assertFalse(result.hasWarnings());
+    }
+
+    @Test
+    public void testInstanceMultiplierRequiresDivisibleQuantityOnBind() {
+        Product product = TestUtil.createProduct()
+            .setAttribute(Product.Attributes.INSTANCE_MULTIPLIER, "2")
+            .setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, "yes");
+        Pool pool = this.createPool(product);
+
+        ValidationResult result = this.validate(this.consumer, this.systemType, CallerType.BIND, pool, 3);
+        assertEquals(List.of("rulefailed.quantity.mismatch"), this.errorKeys(result));
+
+        result = this.validate(this.consumer, this.systemType, CallerType.BIND, pool, 4);
+        assertTrue(result.isSuccessful());
+    }
+
+    @Test
+    public void testManifestConsumersRequireCapabilities() {
+        ConsumerType manifestType = new ConsumerType(ConsumerTypeEnum.CANDLEPIN);
+        Product product = TestUtil.createProduct()
+            .setAttribute(Product.Attributes.INSTANCE_MULTIPLIER, "2");
+        Pool pool = this.createPool(product);
+
+        ValidationResult result = this.validate(this.consumer, manifestType, CallerType.BIND, pool, 1);
+        assertEquals(List.of("rulefailed.instance.unsupported.by.consumer"), this.errorKeys(result));
+
+        this.consumer.setCapabilities(Set.of(new ConsumerCapability("instance_multiplier")));
+        result = this.validate(this.consumer, manifestType, CallerType.BIND, pool, 1);
+        assertTrue(result.isSuccessful());
+    }
+
+    @Test
+    public void testParseIntMatchesJavascript() {
+        assertEquals(4, PreEntitlementEvaluator.parseInt(" 4 sockets"));
+        assertEquals(-3, PreEntitlementEvaluator.parseInt("-3.7"));
+        assertEquals(16, PreEntitlementEvaluator.parseInt("0x10"));
+        assertTrue(Double.isNaN(PreEntitlementEvaluator.parseInt("sockets")));
+        assertTrue(Double.isNaN(PreEntitlementEvaluator.parseInt(null)));
+    }
+
+    @Test
+    public void testToNumberMatchesJavascript() {
+        assertEquals(2.5, PreEntitlementEvaluator.toNumber(" 2.5 "));
+        assertEquals(0, PreEntitlementEvaluator.toNumber(""));
+        assertEquals(0, PreEntitlementEvaluator.toNumber(null));
+        assertEquals(16, PreEntitlementEvaluator.toNumber("0x10"));
+        assertTrue(Double.isNaN(PreEntitlementEvaluator.toNumber("4 sockets")));
+        assertEquals(Double.POSITIVE_INFINITY, PreEntitlementEvaluator.toNumber("Infinity"));
+        assertEquals(Double.POSITIVE_INFINITY, PreEntitlementEvaluator.toNumber(" +Infinity "));
+        assertEquals(Double.NEGATIVE_INFINITY, PreEntitlementEvaluator.toNumber("-Infinity"));
+        assertTrue(Double.isNaN(PreEntitlementEvaluator.toNumber("infinity")));
+    }
+
+    @Test
+    public void testDefaultRulesAreTheMirroredVersion() {
+        // The native rules must be reviewed against the JS rules whenever the rules version changes
+        InputStream is = this.getClass().getResourceAsStream(RulesCurator.DEFAULT_RULES_FILE);
+        Rules rules = new Rules(Util.readFile(is));
+
+        assertTrue(PreEntitlementEvaluator.supportsRulesVersion(rules.getVersion()));
+    }
+}
@@ -886,4 +886,62 @@ public class PreEntitlementRulesTest extends EntitlementRulesTestFixture {
         assertTrue(filtered.contains(pool));
     }
 
+    /**
+     * Builds a copy of the default rules with the given version, in which the JS cores rule reports
+     * a different warning than the native one, so that the two can be told apart.
+     */
+    private String buildModifiedRules(String version) {
+        String rules = readDefaultRules()
+            .replace("rulewarning.unsupported.number.of.cores", "rulewarning.modified.number.of.cores");
+
+        return rules.replaceFirst("// Version: [0-9.]+", "// Version: " + version);
+    }
+
+    private ValidationResult validateInsufficientCores(Enforcer enforcer) {
+        Product product = TestUtil.createProduct(productId, "A product for testing");
+        product.setAttribute(Product.Attributes.CORES, "10");
+        Pool pool = createPool(owner, product);
+
+        consumer.setFacts(new HashMap<>());
+        consumer.setFact(Consumer.Facts.CPU_SOCKETS, "2");
+        consumer.setFact(Consumer.Facts.CPU_CORES_PER_SOCKET, "10");
+
+        return enforcer.preEntitlement(consumer, pool, 1);
+    }
+
+    @Test
+    public void testMirroredRulesVersionIsValidatedNatively() {
+        String rules = this.buildModifiedRules(PreEntitlementEvaluator.RULES_VERSION);
+        Enforcer enforcer = this.buildEnforcer(this.buildJsRunner(rules));
+
+        ValidationResult result = this.validateInsufficientCores(enforcer);
+
+        assertEquals("rulewarning.unsupported.number.of.cores",
+            result.getWarnings().get(0).getResourceKey());
+    }
+
+    @Test
+    public void testOtherRulesVersionsAreValidatedByJsRules() {
+        String rules = this.buildModifiedRules("5.46");
+        Enforcer enforcer = this.buildEnforcer(this.buildJsRunner(rules));
+
+        ValidationResult result = this.validateInsufficientCores(enforcer);
+
+        assertEquals("rulewarning.modified.number.of.cores",
+            result.getWarnings().get(0).getResourceKey());
+    }
+
+    @Test
+    public void testNativeRulesCanBeDisabled() {
+        this.config.setProperty(ConfigProperties.NATIVE_RULES_ENABLED, "false");
+
+        String rules = this.buildModifiedRules(PreEntitlementEvaluator.RULES_VERSION);
+        Enforcer enforcer = this.buildEnforcer(this.buildJsRunner(rules));
+
+        ValidationResult result = this.validateInsufficientCores(enforcer);
+
+        assertEquals("rulewarning.modified.number.of.cores",
+            result.getWarnings().get(0).getResourceKey());
+    }
+
 }
@@ -18,6 +18,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.StandardTranslator;
 import org.candlepin.dto.rules.v1.SuggestedQuantityDTO;
@@ -108,7 +111,7 @@ public class QuantityRulesTest {
 
         translator = new StandardTranslator(consumerTypeCurator, environmentCurator, ownerCuratorMock);
         quantityRules = new QuantityRules(provider.get(), ObjectMapperFactory.getRulesObjectMapper(),
-            translator);
+            translator, TestConfig.defaults());
 
         owner = TestUtil.createOwner();
         product = TestUtil.createProduct();
@@ -592,4 +595,136 @@ public class QuantityRulesTest {
         assertEquals(1L, suggested.getSuggested());
         assertEquals(1L, suggested.getIncrement());
     }
+
+    @Test
+    public void testInstanceBasedOnDistributorMultiPool() {
+        Consumer dist = TestUtil.createConsumer(owner);
+        dist.setFact(SOCKET_FACT, "4");
+        pool.getProduct().setAttribute(SOCKET_ATTRIBUTE, "2");
+        pool.getProduct().setAttribute(INSTANCE_ATTRIBUTE, "2");
+
+        ctype.setManifest(true);
+        when(consumerTypeCurator.getConsumerType(dist)).thenReturn(ctype);
+
+        Map<String, SuggestedQuantityDTO> results = quantityRules.getSuggestedQuantities(
+            List.of(pool), dist, new Date());
+
+        assertEquals(1L, results.get(pool.getId()).getSuggested());
+        assertEquals(1L, results.get(pool.getId()).getIncrement());
+    }
+
+    @Test
+    public void testMixedPoolsMultiPool() {
+        consumer.setFact(SOCKET_FACT, "4");
+        pool.getProduct().setAttribute(SOCKET_ATTRIBUTE, "2");
+
+        Product standardProduct = TestUtil.createProduct();
+        standardProduct.setAttribute(SOCKET_ATTRIBUTE, "2");
+        Pool standardPool = TestUtil.createPool(owner, standardProduct);
+        standardPool.setId("standardpoolid");
+
+        Product otherStackProduct = TestUtil.createProduct();
+        otherStackProduct.setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, "yes");
+        otherStackProduct.setAttribute(Product.Attributes.STACKING_ID, "2");
+        otherStackProduct.setAttribute(SOCKET_ATTRIBUTE, "1");
+        Pool otherStackPool = TestUtil.createPool(owner, otherStackProduct);
+        otherStackPool.setId("otherstackpoolid");
+
+        // An entitlement in the first stack should not affect the second
+        Entitlement e = createValidEntitlement(pool);
+        e.setQuantity(1);
+        consumer.addEntitlement(e);
+
+        Map<String, SuggestedQuantityDTO> results = quantityRules.getSuggestedQuantities(
+            List.of(pool, standardPool, otherStackPool), consumer, new Date());
+
+        assertEquals(3, results.size());
+        assertEquals(1L, results.get(pool.getId()).getSuggested());
+        assertEquals(1L, results.get(standardPool.getId()).getSuggested());
+        assertEquals(1L, results.get(standardPool.getId()).getIncrement());
+        assertEquals(4L, results.get(otherStackPool.getId()).getSuggested());
+    }
+
+    @Test
+    public void testStackingIdMatchingObjectPropertyMultiPool() {
+        consumer.setFact(SOCKET_FACT, "4");
+        pool.getProduct().setAttribute(SOCKET_ATTRIBUTE, "2");
+        pool.getProduct().setAttribute(Product.Attributes.STACKING_ID, "constructor");
+
+        Product otherStackProduct = TestUtil.createProduct();
+        otherStackProduct.setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, "yes");
+        otherStackProduct.setAttribute(Product.Attributes.STACKING_ID, "hasOwnProperty");
+        otherStackProduct.setAttribute(SOCKET_ATTRIBUTE, "1");
+        Pool otherStackPool = TestUtil.createPool(owner, otherStackProduct);
+        otherStackPool.setId("otherstackpoolid");
+
+        Entitlement e = createValidEntitlement(pool);
+        e.setQuantity(1);
+        consumer.addEntitlement(e);
+
+        Map<String, SuggestedQuantityDTO> results = quantityRules.getSuggestedQuantities(
+            List.of(pool, otherStackPool), consumer, new Date());
+
+        assertEquals(1L, results.get(pool.getId()).getSuggested());
+        assertEquals(4L, results.get(otherStackPool.getId()).getSuggested());
+    }
+
+    /**
+     * Builds quantity rules from a copy of the default rules with the given version, in which the
+     * JS rules suggest an increment of 5 for pools which are not multi-entitlement.
+     */
+    private QuantityRules buildModifiedQuantityRules(String version, DevConfig config) {
+        InputStream is = this.getClass().getResourceAsStream(RulesCurator.DEFAULT_RULES_FILE);
+        String source = Util.readFile(is)
+            .replace("suggested: 1,\n            increment: 1\n", "suggested: 1,\n            increment: 5\n")
+            .replaceFirst("// Version: [0-9.]+", "// Version: " + version);
+
+        when(rulesCuratorMock.getRules()).thenReturn(new Rules(source));
+        JsRunnerProvider modifiedProvider = new JsRunnerProvider(rulesCuratorMock, cacheProvider);
+
+        return new QuantityRules(modifiedProvider.get(), ObjectMapperFactory.getRulesObjectMapper(),
+            translator, config);
+    }
+
+    private SuggestedQuantityDTO suggestStandardPool(QuantityRules rules) {
+        Product standardProduct = TestUtil.createProduct();
+        Pool standardPool = TestUtil.createPool(owner, standardProduct);
+        standardPool.setId("standardpoolid");
+
+        return rules.getSuggestedQuantities(List.of(standardPool), consumer, new Date())
+            .get(standardPool.getId());
+    }
+
+    @Test
+    public void testMirroredRulesVersionResolvesStandardPoolsNatively() {
+        QuantityRules rules = this.buildModifiedQuantityRules(QuantityRules.RULES_VERSION,
+            TestConfig.defaults());
+
+        assertEquals(1L, this.suggestStandardPool(rules).getIncrement());
+    }
+
+    @Test
+    public void testOtherRulesVersionsResolveStandardPoolsWithJsRules() {
+        QuantityRules rules = this.buildModifiedQuantityRules("5.47", TestConfig.defaults());
+
+        assertEquals(5L, this.suggestStandardPool(rules).getIncrement());
+    }
+
+    @Test
+    public void testNativeRulesCanBeDisabled() {
+        DevConfig config = TestConfig.defaults();
+        config.setProperty(ConfigProperties.NATIVE_RULES_ENABLED, "false");
+
+        QuantityRules rules = this.buildModifiedQuantityRules(QuantityRules.RULES_VERSION, config);
+
+        assertEquals(5L, this.suggestStandardPool(rules).getIncrement());
+    }
+
+    @Test
+    public void testDefaultRulesAreTheMirroredVersion() {
+        // The suggested quantities resolved natively must be reviewed whenever the rules version changes
+        InputStream is = this.getClass().getResourceAsStream(RulesCurator.DEFAULT_RULES_FILE);
+
+        assertEquals(QuantityRules.RULES_VERSION, new Rules(Util.readFile(is)).getVersion());
+    }
 }
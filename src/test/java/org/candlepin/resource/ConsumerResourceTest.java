@@ -33,6 +33,7 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -50,7 +51,8 @@ import org.candlepin.auth.Principal;
 import org.candlepin.auth.SubResource;
 import org.candlepin.auth.TrustedUserPrincipal;
 import org.candlepin.auth.UserPrincipal;
-import org.candlepin.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
 import org.candlepin.config.TestConfig;
 import org.candlepin.controller.AutobindDisabledForOwnerException;
 import org.candlepin.controller.AutobindHypervisorDisabledException;
@@ -196,7 +198,7 @@ public class ConsumerResourceTest {
 
     private I18n i18n;
     private Provider<I18n> i18nProvider = () -> i18n;
-    private Configuration config;
+    private DevConfig config;
     private FactValidator factValidator;
 
     @Mock
@@ -1638,6 +1640,28 @@ public class ConsumerResourceTest {
             .searchConsumers("username", null, null, null, null, null, null, null, null, null, null, null));
     }
 
+    @Test
+    public void testSearchConsumersStreamsUnpagedResultsWhenEnabled() {
+        this.config.setProperty(ConfigProperties.CONSUMER_SEARCH_STREAMING, "true");
+        this.config.setProperty(ConfigProperties.CONSUMER_SEARCH_CHUNK_SIZE, "250");
+        ResteasyContext.pushContext(PageRequest.class, null);
+
+        List<Consumer> expected = Stream.generate(this::createConsumer)
+            .limit(5)
+            .collect(Collectors.toList());
+
+        doReturn(12000L).when(this.consumerCurator).getConsumerCount(any(ConsumerQueryArguments.class));
+        doReturn(expected.stream()).when(this.consumerCurator)
+            .streamConsumers(any(ConsumerQueryArguments.class), eq(250));
+
+        Stream<ConsumerDTOArrayElement> result = this.consumerResource
+            .searchConsumers("username", null, null, null, null, null, null, null, null, null, null, null);
+
+        assertNotNull(result);
+        assertEquals(expected.size(), result.count());
+        verify(this.consumerCurator, never()).findConsumers(any(ConsumerQueryArguments.class));
+    }
+
     @Test
     public void testFindConsumersByOwner() {
         Owner owner = this.createOwner("test_owner");
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+
+import org.candlepin.audit.EventSink;
+import org.candlepin.dto.api.server.v1.MetricDTO;
+import org.candlepin.dto.api.server.v1.QueueStatus;
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.model.AsyncJobStatusCurator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class MetricsResourceTest {
+
+    @Mock private AsyncJobStatusCurator jobCurator;
+    @Mock private EventSink eventSink;
+
+    private MetricRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        this.registry = new MetricRegistry();
+
+        doReturn(Map.of()).when(this.jobCurator).getJobCountsByKey(anyCollection());
+        doReturn(List.of()).when(this.eventSink).getQueueInfo();
+    }
+
+    private MetricsResource buildResource() {
+        return new MetricsResource(this.registry, this.jobCurator, this.eventSink);
+    }
+
+    private Map<String, MetricDTO> getMetrics() {
+        return this.buildResource().getMetrics().stream()
+            .collect(Collectors.toMap(MetricDTO::getName, Function.identity()));
+    }
+
+    @Test
+    public void testReportsRegistryMetrics() {
+        this.registry.counter("test.counter").increment(3);
+        this.registry.timer("test.timer").record(10, TimeUnit.MILLISECONDS);
+        this.registry.timer("test.timer").record(20, TimeUnit.MILLISECONDS);
+        this.registry.gauge("test.gauge", () -> 7);
+
+        Map<String, MetricDTO> metrics = this.getMetrics();
+        assertEquals(3, metrics.size());
+
+        MetricDTO counter = metrics.get("test.counter");
+        assertEquals("counter", counter.getType());
+        assertEquals(3L, counter.getCount());
+
+        MetricDTO timer = metrics.get("test.timer");
+        assertEquals("timer", timer.getType());
+        assertEquals(2L, timer.getCount());
+        assertEquals(30.0, timer.getTotalTime(), 0.001);
+        assertEquals(15.0, timer.getMeanTime(), 0.001);
+        assertEquals(20.0, timer.getMaxTime(), 0.001);
+
+        MetricDTO gauge = metrics.get("test.gauge");
+        assertEquals("gauge", gauge.getType());
+        assertEquals(7.0, gauge.getValue(), 0.001);
+        assertNull(gauge.getCount());
+    }
+
+    @Test
+    public void testReportsQueueDepths() {
+        doReturn(Map.of("TestJob", 4L)).when(this.jobCurator).getJobCountsByKey(anyCollection());
+        doReturn(List.of(new QueueStatus().queueName("event.TestListener").pendingMessageCount(9L)))
+            .when(this.eventSink).getQueueInfo();
+
+        Map<String, MetricDTO> metrics = this.getMetrics();
+
+        MetricDTO jobDepth = metrics.get("jobs.TestJob.queue_depth");
+        assertNotNull(jobDepth);
+        assertEquals(4.0, jobDepth.getValue(), 0.001);
+
+        MetricDTO messageDepth = metrics.get("messaging.event.TestListener.queue_depth");
+        assertNotNull(messageDepth);
+        assertEquals(9.0, messageDepth.getValue(), 0.001);
+    }
+
+    @Test
+    public void testQueueSamplingFailuresDoNotBreakMetrics() {
+        this.registry.counter("test.counter").increment();
+
+        doThrow(new RuntimeException("db down")).when(this.jobCurator).getJobCountsByKey(anyCollection());
+        doThrow(new RuntimeException("broker down")).when(this.eventSink).getQueueInfo();
+
+        Map<String, MetricDTO> metrics = this.getMetrics();
+
+        assertEquals(1, metrics.size());
+        assertNotNull(metrics.get("test.counter"));
+    }
+}
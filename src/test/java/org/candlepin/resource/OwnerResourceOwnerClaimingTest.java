@@ -26,6 +26,7 @@ import org.candlepin.async.JobManager;
 import org.candlepin.async.tasks.ConsumerMigrationJob;
 import org.candlepin.audit.EventFactory;
 import org.candlepin.audit.EventSink;
+import org.candlepin.cache.UserAuthCache;
 import org.candlepin.config.Configuration;
 import org.candlepin.config.TestConfig;
 import org.candlepin.controller.ContentAccessManager;
@@ -132,6 +133,8 @@ public class OwnerResourceOwnerClaimingTest {
     private ModelTranslator modelTranslator;
     @Mock
     private PagingUtilFactory pagingUtilFactory;
+    @Mock
+    private UserAuthCache userAuthCache;
 
     private Configuration config;
 
@@ -149,7 +152,7 @@ public class OwnerResourceOwnerClaimingTest {
             this.ueberCertificateGenerator, this.environmentCurator, this.calculatedAttributesUtil,
             this.contentOverrideValidator, this.serviceLevelValidator, this.ownerServiceAdapter, this.config,
             this.consumerTypeValidator, this.productCurator, this.modelTranslator, this.jobManager,
-            this.dtoValidator, this.principalProvider, this.pagingUtilFactory);
+            this.dtoValidator, this.principalProvider, this.pagingUtilFactory, this.userAuthCache);
     }
 
     @Test
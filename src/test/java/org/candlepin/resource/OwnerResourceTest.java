@@ -42,12 +42,15 @@ import org.candlepin.async.JobConfig;
 import org.candlepin.async.JobException;
 import org.candlepin.async.JobManager;
 import org.candlepin.async.tasks.ImportJob;
+import org.candlepin.audit.Event;
+import org.candlepin.audit.EventBuilder;
 import org.candlepin.audit.EventFactory;
 import org.candlepin.audit.EventSink;
 import org.candlepin.auth.Access;
 import org.candlepin.auth.ConsumerPrincipal;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.permissions.PermissionFactory.PermissionType;
+import org.candlepin.cache.UserAuthCache;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.ContentAccessManager;
 import org.candlepin.controller.ContentAccessMode;
@@ -190,6 +193,7 @@ public class OwnerResourceTest extends DatabaseTestFixture {
     private PrincipalProvider principalProvider;
     private UeberCertificateCurator mockUeberCertCurator;
     private UeberCertificateGenerator mockUeberCertificateGenerator;
+    private UserAuthCache mockUserAuthCache;
 
     private EventSink mockEventSink;
     private EventFactory mockEventFactory;
@@ -238,6 +242,7 @@ public class OwnerResourceTest extends DatabaseTestFixture {
         this.mockProductCurator = mock(ProductCurator.class);
         this.mockUeberCertCurator = mock(UeberCertificateCurator.class);
         this.mockUeberCertificateGenerator = mock(UeberCertificateGenerator.class);
+        this.mockUserAuthCache = mock(UserAuthCache.class);
 
         this.mockEventSink = mock(EventSink.class);
         this.mockEventFactory = mock(EventFactory.class);
@@ -264,7 +269,7 @@ public class OwnerResourceTest extends DatabaseTestFixture {
             this.mockUeberCertificateGenerator, this.mockEnvironmentCurator, this.calculatedAttributesUtil,
             this.contentOverrideValidator, this.serviceLevelValidator, this.ownerServiceAdapter, this.config,
             this.consumerTypeValidator, this.mockProductCurator, this.modelTranslator, this.mockJobManager,
-            this.dtoValidator, this.principalProvider, this.pagingUtilFactory);
+            this.dtoValidator, this.principalProvider, this.pagingUtilFactory, this.mockUserAuthCache);
     }
 
     private ProductDTO buildTestProductDTO() {
@@ -1446,6 +1451,62 @@ public class OwnerResourceTest extends DatabaseTestFixture {
             true, true));
     }
 
+    @Test
+    public void testDeleteOwnerClearsUserAuthCache() {
+        Owner owner = new Owner()
+            .setKey("testOwner")
+            .setDisplayName("testOwner");
+
+        when(this.mockOwnerCurator.getByKey(owner.getKey())).thenReturn(owner);
+
+        OwnerResource resource = this.buildOwnerResource();
+        resource.deleteOwner(owner.getKey(), true, false);
+
+        verify(this.ownerManager).cleanupAndDelete(owner, true);
+        verify(this.mockUserAuthCache).removeAllUsers();
+    }
+
+    @Test
+    public void testFailedDeleteOwnerDoesNotClearUserAuthCache() {
+        Owner owner = new Owner()
+            .setKey("testOwner")
+            .setDisplayName("testOwner");
+
+        when(this.mockOwnerCurator.getByKey(owner.getKey())).thenReturn(owner);
+        ConstraintViolationException ce = new ConstraintViolationException(null, null, null);
+        PersistenceException pe = new PersistenceException(ce);
+        Mockito.doThrow(pe).when(this.ownerManager).cleanupAndDelete(owner, true);
+
+        OwnerResource resource = this.buildOwnerResource();
+
+        assertThrows(ConflictException.class, () -> resource.deleteOwner(owner.getKey(), true, false));
+        verify(this.mockUserAuthCache, never()).removeAllUsers();
+    }
+
+    @Test
+    public void testUpdateOwnerClearsUserAuthCache() {
+        Owner owner = new Owner()
+            .setKey("testOwner")
+            .setDisplayName("testOwner");
+
+        when(this.mockOwnerCurator.getByKey(owner.getKey())).thenReturn(owner);
+        when(this.mockOwnerCurator.merge(owner)).thenReturn(owner);
+
+        EventBuilder eventBuilder = mock(EventBuilder.class);
+        when(eventBuilder.setEventData(any(Owner.class))).thenReturn(eventBuilder);
+        when(this.mockEventFactory.getEventBuilder(any(Event.Target.class), any(Event.Type.class)))
+            .thenReturn(eventBuilder);
+
+        OwnerDTO update = new OwnerDTO()
+            .displayName("updated name");
+
+        OwnerResource resource = this.buildOwnerResource();
+        resource.updateOwner(owner.getKey(), update);
+
+        assertEquals("updated name", owner.getDisplayName());
+        verify(this.mockUserAuthCache).removeAllUsers();
+    }
+
     @Test
     public void testActivationKeyNameUnique() {
         ActivationKeyDTO ak = mock(ActivationKeyDTO.class);
@@ -1696,7 +1757,7 @@ public class OwnerResourceTest extends DatabaseTestFixture {
             this.calculatedAttributesUtil, this.contentOverrideValidator, this.serviceLevelValidator,
             this.ownerServiceAdapter, this.config, this.consumerTypeValidator, this.mockProductCurator,
             this.modelTranslator, this.mockJobManager, this.dtoValidator, this.principalProvider,
-            this.pagingUtilFactory);
+            this.pagingUtilFactory, this.mockUserAuthCache);
 
         MultipartInput input = mock(MultipartInput.class);
         InputPart part = mock(InputPart.class);
@@ -2059,12 +2120,44 @@ public class OwnerResourceTest extends DatabaseTestFixture {
         ResteasyContext.pushContext(PageRequest.class, req);
 
         List<EntitlementDTO> result = this.ownerResource
-            .ownerEntitlements(owner.getKey(), null, null, null, null, null, null);
+            .ownerEntitlements(owner.getKey(), null, null, null, null, null, null)
+            .collect(Collectors.toList());
 
         assertEquals(1, result.size());
         assertEquals(e.getId(), result.get(0).getId());
     }
 
+    @Test
+    public void getAllEntitlementsForOwnerUnpagedStreamsEntitlements() {
+        ResteasyContext.clearContextData();
+        this.config.setProperty(ConfigProperties.OWNER_ENTITLEMENTS_CHUNK_SIZE, "2");
+
+        Owner owner = this.createOwner();
+        Owner otherOwner = this.createOwner();
+        Pool pool = this.createPool(owner, this.createProduct());
+        Pool otherPool = this.createPool(otherOwner, this.createProduct());
+
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 5; ++i) {
+            expected.add(this.createEntitlement(owner, this.createConsumer(owner), pool, null).getId());
+        }
+
+        this.createEntitlement(otherOwner, this.createConsumer(otherOwner), otherPool, null);
+
+        OwnerResource resource = this.buildOwnerResource();
+        List<String> result;
+        try (Stream<EntitlementDTO> stream = resource
+            .ownerEntitlements(owner.getKey(), null, null, null, null, null, null)) {
+
+            result = stream.map(EntitlementDTO::getId)
+                .collect(Collectors.toList());
+        }
+
+        assertEquals(5, result.size());
+        assertEquals(expected, new HashSet<>(result));
+        assertNull(ResteasyContext.getContextData(Page.class));
+    }
+
     @Test
     public void getEntitlementsForNonExistantOwner() {
         PageRequest req = new PageRequest();
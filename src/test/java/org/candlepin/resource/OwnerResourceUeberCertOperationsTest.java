@@ -26,6 +26,7 @@ import org.candlepin.audit.EventFactory;
 import org.candlepin.audit.EventSink;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.UserPrincipal;
+import org.candlepin.cache.UserAuthCache;
 import org.candlepin.controller.ContentAccessManager;
 import org.candlepin.controller.ManifestManager;
 import org.candlepin.controller.OwnerManager;
@@ -75,6 +76,7 @@ public class OwnerResourceUeberCertOperationsTest extends DatabaseTestFixture {
     private ConsumerTypeValidator consumerTypeValdator;
     private DTOValidator dtoValidator;
     private PagingUtilFactory pagingUtilFactory;
+    private UserAuthCache userAuthCache;
 
     private PrincipalProvider principalProvider;
     private JobManager jobManager;
@@ -103,6 +105,7 @@ public class OwnerResourceUeberCertOperationsTest extends DatabaseTestFixture {
         consumerTypeValdator = this.injector.getInstance(ConsumerTypeValidator.class);
         dtoValidator = this.injector.getInstance(DTOValidator.class);
         pagingUtilFactory = this.injector.getInstance(PagingUtilFactory.class);
+        userAuthCache = this.injector.getInstance(UserAuthCache.class);
 
         owner = ownerCurator.create(new Owner()
             .setKey(OWNER_NAME)
@@ -127,7 +130,7 @@ public class OwnerResourceUeberCertOperationsTest extends DatabaseTestFixture {
             ueberCertGenerator, environmentCurator, calculatedAttributesUtil, contentOverrideValidator,
             serviceLevelValidator, ownerService, config, consumerTypeValdator, productCurator,
             this.modelTranslator, this.jobManager, dtoValidator, this.principalProvider,
-            this.pagingUtilFactory);
+            this.pagingUtilFactory, this.userAuthCache);
     }
 
     @Test
@@ -28,6 +28,7 @@ import org.candlepin.async.JobConfig;
 import org.candlepin.async.JobConfigValidationException;
 import org.candlepin.async.JobException;
 import org.candlepin.async.JobManager;
+import org.candlepin.async.tasks.RefreshPoolsBatchJob;
 import org.candlepin.async.tasks.RefreshPoolsJob;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.dto.api.server.v1.AsyncJobStatusDTO;
@@ -204,6 +205,24 @@ public class ProductResourceTest extends DatabaseTestFixture {
         this.verifyRefreshPoolsJobsWereQueued(jobs);
     }
 
+    @Test
+    public void testRefreshPoolsByProductQueuesBatchJobWhenEnabled() throws JobException {
+        this.config.setProperty(ConfigProperties.STANDALONE, "false");
+        this.config.setProperty(ConfigProperties.REFRESH_POOLS_BATCH_ENABLED, "true");
+
+        JobManager mockJobManager = this.mockJobManager();
+        ProductResource resource = this.buildResource(mockJobManager);
+
+        this.setupDBForOwnerProdTests();
+
+        List<AsyncJobStatusDTO> jobs = resource.refreshPoolsForProducts(List.of("p1", "p2"), false)
+            .toList();
+
+        assertNotNull(jobs);
+        assertEquals(1, jobs.size());
+        assertEquals(RefreshPoolsBatchJob.JOB_NAME, jobs.get(0).getName());
+    }
+
     @Test
     public void testRefreshPoolsByProductWithoutLazyOffload() throws JobException {
         this.config.setProperty(ConfigProperties.STANDALONE, "false");
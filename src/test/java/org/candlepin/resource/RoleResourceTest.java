@@ -18,6 +18,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
+import org.candlepin.cache.UserAuthCache;
 import org.candlepin.exceptions.NotFoundException;
 import org.candlepin.resource.validation.DTOValidator;
 import org.candlepin.service.UserServiceAdapter;
@@ -48,7 +49,8 @@ public class RoleResourceTest extends DatabaseTestFixture {
 
         this.dtoValidator = new DTOValidator(this.i18n);
         this.roleResource = new RoleResource(this.mockUserServiceAdapter, this.ownerCurator,
-            this.permissionBlueprintCurator, this.i18n, this.modelTranslator, this.dtoValidator);
+            this.permissionBlueprintCurator, this.i18n, this.modelTranslator, this.dtoValidator,
+            new UserAuthCache(this.config));
     }
 
     @Test
@@ -28,6 +28,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import org.candlepin.cache.UserAuthCache;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.StandardTranslator;
 import org.candlepin.dto.api.server.v1.OwnerDTO;
@@ -68,6 +69,7 @@ public class UserResourceTest {
     private OwnerCurator mockOwnerCurator;
     private UserServiceAdapter mockUserServiceAdapter;
     private I18n mockI18n;
+    private UserAuthCache mockUserAuthCache;
     private UserResource userResource;
 
     @BeforeEach
@@ -79,11 +81,12 @@ public class UserResourceTest {
         this.mockUserServiceAdapter = mock(UserServiceAdapter.class);
         this.mockOwnerCurator = mock(OwnerCurator.class);
         this.mockI18n = mock(I18n.class);
+        this.mockUserAuthCache = mock(UserAuthCache.class);
         this.modelTranslator = new StandardTranslator(mockConsumerTypeCurator, mockEnvironmentCurator,
             mockOwnerCurator);
 
         this.userResource = new UserResource(this.mockUserServiceAdapter, this.mockI18n,
-            this.mockOwnerCurator, this.modelTranslator);
+            this.mockOwnerCurator, this.modelTranslator, this.mockUserAuthCache);
     }
 
     @Test
@@ -211,6 +214,7 @@ public class UserResourceTest {
         this.userResource.deleteUser(user.getUsername());
 
         verify(this.mockUserServiceAdapter, times(1)).deleteUser(user.getUsername());
+        verify(this.mockUserAuthCache, times(1)).removeUser(user.getUsername());
     }
 
     @Test
@@ -237,6 +241,7 @@ public class UserResourceTest {
         UserDTO result = this.userResource.updateUser("test-user", update);
 
         assertNotNull(result);
+        verify(this.mockUserAuthCache, times(1)).removeUser(user.getUsername());
     }
 
     @Test
@@ -269,7 +274,7 @@ public class UserResourceTest {
     public void testFetchByUsernameUserServiceException() {
         UserServiceAdapter adapter = mock(UserServiceAdapter.class);
         UserResource resource = new UserResource(adapter, this.mockI18n, this.mockOwnerCurator,
-            this.modelTranslator);
+            this.modelTranslator, this.mockUserAuthCache);
         doThrow(new UserInvalidException("test_user")).when(adapter).findByLogin("test_user");
         assertThrows(UserInvalidException.class, () -> resource.getUserInfo("test_user"));
     }
@@ -278,7 +283,7 @@ public class UserResourceTest {
     public void testCreateUserServiceException() {
         UserServiceAdapter adapter = mock(UserServiceAdapter.class);
         UserResource resource = new UserResource(adapter, this.mockI18n, this.mockOwnerCurator,
-            this.modelTranslator);
+            this.modelTranslator, this.mockUserAuthCache);
         doThrow(new UserDisabledException("test_user")).when(adapter).findByLogin("test_user");
         assertThrows(UserDisabledException.class, () -> resource.getUserInfo("test_user"));
     }
@@ -287,7 +292,7 @@ public class UserResourceTest {
     public void testListUserOwnersUserServiceException() {
         UserServiceAdapter adapter = mock(UserServiceAdapter.class);
         UserResource resource = new UserResource(adapter, this.mockI18n, this.mockOwnerCurator,
-            this.modelTranslator);
+            this.modelTranslator, this.mockUserAuthCache);
         doThrow(new UserInvalidException("test_user")).when(adapter).getAccessibleOwners("test_user");
         assertThrows(CandlepinException.class, () -> resource.getUserInfo("test_user"));
     }
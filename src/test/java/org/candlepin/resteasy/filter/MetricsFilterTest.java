@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resteasy.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.candlepin.metrics.MetricRegistry;
+import org.candlepin.metrics.Timer;
+
+import org.jboss.resteasy.core.ResteasyContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+
+
+
+public class MetricsFilterTest {
+
+    private MetricRegistry registry;
+    private MetricsFilter filter;
+    private ResourceInfo resourceInfo;
+    private ContainerRequestContext requestContext;
+    private ContainerResponseContext responseContext;
+
+    /**
+     * Stand-in resource used to provide a resource method for the filter to name its timers after
+     */
+    public static class FakeResource {
+        public String fakeMethod() {
+            return "fake";
+        }
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        this.registry = new MetricRegistry();
+        this.filter = new MetricsFilter(this.registry);
+
+        this.resourceInfo = mock(ResourceInfo.class);
+        doReturn(FakeResource.class).when(this.resourceInfo).getResourceClass();
+        doReturn(FakeResource.class.getMethod("fakeMethod")).when(this.resourceInfo).getResourceMethod();
+
+        Map<String, Object> properties = new HashMap<>();
+        this.requestContext = mock(ContainerRequestContext.class);
+        doAnswer(iom -> properties.put(iom.getArgument(0), iom.getArgument(1)))
+            .when(this.requestContext).setProperty(anyString(), any());
+        doAnswer(iom -> properties.get(iom.getArgument(0)))
+            .when(this.requestContext).getProperty(anyString());
+
+        this.responseContext = mock(ContainerResponseContext.class);
+
+        ResteasyContext.pushContext(ResourceInfo.class, this.resourceInfo);
+    }
+
+    @AfterEach
+    public void teardown() {
+        ResteasyContext.clearContextData();
+    }
+
+    @Test
+    public void testRecordsLatencyPerResourceMethod() {
+        this.filter.filter(this.requestContext);
+        this.filter.filter(this.requestContext, this.responseContext);
+        this.filter.filter(this.requestContext);
+        this.filter.filter(this.requestContext, this.responseContext);
+
+        Map<String, Timer> timers = this.registry.getTimers();
+        assertEquals(1, timers.size());
+
+        Timer timer = timers.get("http.FakeResource.fakeMethod");
+        assertEquals(2, timer.getCount());
+    }
+
+    @Test
+    public void testSkipsRequestsWithoutStartTime() {
+        this.filter.filter(this.requestContext, this.responseContext);
+
+        assertTrue(this.registry.getTimers().isEmpty());
+    }
+
+    @Test
+    public void testSkipsRequestsWithoutResourceMethod() {
+        doReturn(null).when(this.resourceInfo).getResourceMethod();
+
+        this.filter.filter(this.requestContext);
+        this.filter.filter(this.requestContext, this.responseContext);
+
+        assertTrue(this.registry.getTimers().isEmpty());
+    }
+
+    @Test
+    public void testTimerNameWithoutResourceInfo() {
+        assertNull(this.filter.getTimerName(null));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2009 - 2023 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resteasy.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.config.DevConfig;
+import org.candlepin.config.TestConfig;
+import org.candlepin.exceptions.ExceptionMessage;
+import org.candlepin.hibernate.QueryCounter;
+import org.candlepin.hibernate.QueryCountingStatementInspector;
+import org.candlepin.metrics.MetricRegistry;
+
+import org.jboss.resteasy.core.ResteasyContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+
+
+public class QueryCountFilterTest {
+
+    private DevConfig config;
+    private MetricRegistry registry;
+    private ContainerRequestContext requestContext;
+    private ContainerResponseContext responseContext;
+    private MultivaluedMap<String, Object> headers;
+
+    /**
+     * Stand-in resource used to provide a resource method for the filter to name its counters after
+     */
+    public static class FakeResource {
+        public String fakeMethod() {
+            return "fake";
+        }
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        this.config = TestConfig.defaults();
+        this.config.setProperty(ConfigProperties.DB_QUERY_COUNT_ENABLED, "true");
+
+        this.registry = new MetricRegistry();
+
+        ResourceInfo resourceInfo = mock(ResourceInfo.class);
+        doReturn(FakeResource.class).when(resourceInfo).getResourceClass();
+        doReturn(FakeResource.class.getMethod("fakeMethod")).when(resourceInfo).getResourceMethod();
+        ResteasyContext.pushContext(ResourceInfo.class, resourceInfo);
+
+        this.requestContext = mock(ContainerRequestContext.class);
+
+        this.headers = new MultivaluedHashMap<>();
+        this.responseContext = mock(ContainerResponseContext.class);
+        doReturn(this.headers).when(this.responseContext).getHeaders();
+    }
+
+    @AfterEach
+    public void teardown() {
+        ResteasyContext.clearContextData();
+        QueryCounter.stop();
+    }
+
+    private QueryCountFilter buildFilter() {
+        return new QueryCountFilter(this.config, this.registry);
+    }
+
+    @Test
+    public void testReportsCountsInHeadersAndCounters() {
+        QueryCountFilter filter = this.buildFilter();
+
+        filter.filter(this.requestContext);
+        assertTrue(QueryCounter.isCounting());
+
+        filter.filter(this.requestContext, this.responseContext);
+        assertFalse(QueryCounter.isCounting());
+
+        assertEquals(0L, this.headers.getFirst(QueryCountFilter.STATEMENT_COUNT_HEADER));
+        assertEquals(0L, this.headers.getFirst(QueryCountFilter.ENTITY_LOAD_COUNT_HEADER));
+        assertEquals(0L, this.headers.getFirst(QueryCountFilter.COLLECTION_LOAD_COUNT_HEADER));
+
+        assertTrue(this.registry.getCounters().containsKey("db.statements.FakeResource.fakeMethod"));
+        assertTrue(this.registry.getCounters().containsKey("db.entity_loads.FakeResource.fakeMethod"));
+        assertTrue(this.registry.getCounters().containsKey("db.collection_loads.FakeResource.fakeMethod"));
+    }
+
+    @Test
+    public void testDoesNothingWhenDisabled() {
+        this.config.setProperty(ConfigProperties.DB_QUERY_COUNT_ENABLED, "false");
+        QueryCountFilter filter = this.buildFilter();
+
+        filter.filter(this.requestContext);
+        assertFalse(QueryCounter.isCounting());
+
+        filter.filter(this.requestContext, this.responseContext);
+        assertTrue(this.headers.isEmpty());
+        assertTrue(this.registry.getCounters().isEmpty());
+    }
+
+    @Test
+    public void testFailsRequestsExceedingFailThreshold() {
+        this.config.setProperty(ConfigProperties.DB_QUERY_COUNT_FAIL_THRESHOLD, "1");
+        QueryCountFilter filter = this.buildFilter();
+
+        filter.filter(this.requestContext);
+
+        // Simulate statements executed by the resource
+        QueryCountingStatementInspector inspector = new QueryCountingStatementInspector();
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+
+        filter.filter(this.requestContext, this.responseContext);
+
+        assertEquals(2L, this.headers.getFirst(QueryCountFilter.STATEMENT_COUNT_HEADER));
+        verify(this.responseContext).setStatus(500);
+        verify(this.responseContext).setEntity(any(ExceptionMessage.class), any(),
+            any(MediaType.class));
+    }
+
+    @Test
+    public void testDoesNotFailRequestsWithinFailThreshold() {
+        this.config.setProperty(ConfigProperties.DB_QUERY_COUNT_FAIL_THRESHOLD, "2");
+        QueryCountFilter filter = this.buildFilter();
+
+        filter.filter(this.requestContext);
+        new QueryCountingStatementInspector().inspect("select 1");
+        filter.filter(this.requestContext, this.responseContext);
+
+        verify(this.responseContext, never()).setStatus(anyInt());
+    }
+}
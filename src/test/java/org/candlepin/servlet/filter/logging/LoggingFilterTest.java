@@ -15,8 +15,12 @@
 package org.candlepin.servlet.filter.logging;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -40,11 +44,14 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
 import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
 import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -127,6 +134,26 @@ public class LoggingFilterTest {
         verify(mockapp, atLeastOnce()).doAppend(message.capture());
     }
 
+    @Test
+    public void testReleasesCaptureBufferWhenChainFails() throws Exception {
+        when(response.getOutputStream()).thenReturn(mock(ServletOutputStream.class));
+
+        AtomicReference<TeeHttpServletResponse> wrapped = new AtomicReference<>();
+        doAnswer(iom -> {
+            TeeHttpServletResponse resp = iom.getArgument(1);
+            resp.getOutputStream().write("partial body".getBytes());
+            assertEquals("partial body".length(), resp.getOutputBuffer().length);
+
+            wrapped.set(resp);
+            throw new ServletException("kaboom");
+        }).when(chain).doFilter(any(), any());
+
+        assertThrows(ServletException.class, () -> filter.doFilter(request, response, chain));
+
+        assertNotNull(wrapped.get());
+        assertEquals(0, wrapped.get().getOutputBuffer().length);
+    }
+
     @Test
     public void testDoFilter() throws Exception {
         filterlogger.setLevel(Level.DEBUG);
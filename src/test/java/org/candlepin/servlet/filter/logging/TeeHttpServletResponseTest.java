@@ -15,6 +15,9 @@
 package org.candlepin.servlet.filter.logging;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.util.Util;
@@ -27,8 +30,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.WriteListener;
@@ -92,4 +97,50 @@ public class TeeHttpServletResponseTest {
             }
         }
     }
+
+    @Test
+    public void getBodyIsBoundedByCaptureBuffer() throws IOException {
+        when(resp.getContentType()).thenReturn(MediaType.TEXT_PLAIN);
+
+        byte[] body = new byte[CaptureBufferPool.BUFFER_SIZE + 10];
+        Arrays.fill(body, (byte) 'a');
+
+        TeeHttpServletResponse tee = new TeeHttpServletResponse(resp);
+        tee.getOutputStream().write(body);
+
+        assertEquals(CaptureBufferPool.BUFFER_SIZE, tee.getOutputBuffer().length);
+        assertTrue(tee.getBody().endsWith("... [10 more bytes]"));
+    }
+
+    @Test
+    public void bodyIsNotCapturedWhenDisabled() throws IOException {
+        TeeHttpServletResponse tee = new TeeHttpServletResponse(resp, () -> false);
+        tee.getOutputStream().write("this is my body".getBytes());
+
+        assertEquals(0, tee.getOutputBuffer().length);
+        verify(resp, times(1)).getOutputStream();
+    }
+
+    @Test
+    public void captureDecisionIsMadeOnFirstWrite() throws IOException {
+        when(resp.getContentType()).thenReturn(MediaType.TEXT_PLAIN);
+        AtomicBoolean enabled = new AtomicBoolean(false);
+
+        TeeHttpServletResponse tee = new TeeHttpServletResponse(resp, enabled::get);
+        ServletOutputStream stream = tee.getOutputStream();
+
+        enabled.set(true);
+        stream.write("this is my body".getBytes());
+
+        assertEquals("this is my body", tee.getBody());
+    }
+
+    @Test
+    public void finishReleasesCaptureBuffer() throws IOException {
+        TeeHttpServletResponse tee = new TeeHttpServletResponse(resp);
+        tee.getOutputStream().write("this is my body".getBytes());
+        tee.finish();
+
+        assertEquals(0, tee.getOutputBuffer().length);
+    }
 }